@@ -0,0 +1,141 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+import com.qualcomm.robotcore.util.RobotLog;
+import java.util.ArrayList;
+import java.util.List;
+import org.firstinspires.ftc.teamcode.core.Feedforward;
+
+/**
+ * The battery voltage, sampled on a background thread and filtered.
+ *
+ * <p>Motor power is a fraction of the battery voltage, so anything tuned at one voltage (the shooter's
+ * PIDF, the drive feedforward) gets weaker as the battery sags during a match. The hubs' voltage sensors
+ * are read every {@link #SAMPLE_PERIOD_MS} (the lowest hub counts, it is the one closest to browning out)
+ * and low-pass filtered over {@link #FILTER_TIME}, so the momentary dips when the shooter spins up don't
+ * make the compensation jump. Like {@link Imu}, the loop only ever reads a volatile field.</p>
+ */
+public class BatteryMonitor {
+  /** How often the sampler reads the voltage, in milliseconds */
+  public static final long SAMPLE_PERIOD_MS = 50;
+  /** Time constant of the low-pass filter, in seconds */
+  public static final double FILTER_TIME = 0.5;
+  /** Consecutive failed reads after which the sampler gives up (the OpMode has most likely stopped) */
+  private static final int MAX_ERRORS = 20;
+
+  /** The sampler that is currently running, so one left over from a previous OpMode can be stopped */
+  private static BatteryMonitor active;
+
+  private final List<VoltageSensor> sensors = new ArrayList<>();
+  private volatile double voltage;
+  private volatile double minimum;
+  private Thread sampler;
+
+  /**
+   * Takes a first reading (so {@link #getVoltage()} is valid right away), call it during INIT.
+   * @param hardwareMap the OpMode's hardware map, every voltage sensor in it is used
+   */
+  public BatteryMonitor(HardwareMap hardwareMap) {
+    for (VoltageSensor sensor : hardwareMap.voltageSensor) {
+      sensors.add(sensor);
+    }
+    double first = read();
+    voltage = first > 0 ? first : Feedforward.NOMINAL_VOLTAGE;
+    minimum = voltage;
+  }
+
+  /**
+   * Starts the sampler thread, stopping any sampler still running from a previous OpMode.
+   */
+  public void start() {
+    synchronized (BatteryMonitor.class) {
+      if (active != null && active != this) {
+        active.stop();
+      }
+      active = this;
+    }
+    synchronized (this) {
+      if (sampler != null) {
+        return;
+      }
+      sampler = new Thread(this::sample, "Battery sampler");
+      sampler.setDaemon(true);
+      sampler.start();
+    }
+  }
+
+  /**
+   * Stops the sampler thread. The last voltage stays available.
+   */
+  public synchronized void stop() {
+    if (sampler != null) {
+      sampler.interrupt();
+      sampler = null;
+    }
+  }
+
+  private void sample() {
+    int errors = 0;
+    double alpha = SAMPLE_PERIOD_MS / 1000.0 / (FILTER_TIME + SAMPLE_PERIOD_MS / 1000.0);
+    while (!Thread.currentThread().isInterrupted()) {
+      long start = System.nanoTime();
+      try {
+        double sample = read();
+        if (sample > 0) {
+          double filtered = voltage + (sample - voltage) * alpha;
+          voltage = filtered;
+          minimum = Math.min(minimum, filtered);
+        }
+        errors = 0;
+      } catch (RuntimeException e) {
+        if (++errors >= MAX_ERRORS) {
+          RobotLog.ee("BatteryMonitor", e, "Voltage reads keep failing, stopping the sampler");
+          return;
+        }
+      }
+      long sleep = SAMPLE_PERIOD_MS - (System.nanoTime() - start) / 1_000_000;
+      if (sleep > 0) {
+        try {
+          Thread.sleep(sleep);
+        } catch (InterruptedException e) {
+          return;
+        }
+      }
+    }
+  }
+
+  /** The lowest voltage of the hubs, 0 if none reported one */
+  private double read() {
+    double lowest = Double.POSITIVE_INFINITY;
+    for (VoltageSensor sensor : sensors) {
+      double sample = sensor.getVoltage();
+      if (sample > 0) {
+        lowest = Math.min(lowest, sample);
+      }
+    }
+    return lowest == Double.POSITIVE_INFINITY ? 0 : lowest;
+  }
+
+  /**
+   * @return the filtered battery voltage ({@link Feedforward#NOMINAL_VOLTAGE} if no hub reported one)
+   */
+  public double getVoltage() {
+    return voltage;
+  }
+
+  /**
+   * @return the lowest filtered voltage since the monitor was created
+   */
+  public double getMinimum() {
+    return minimum;
+  }
+
+  /**
+   * @return a telemetry line with the voltage, its lowest point and how much power is scaled up for it
+   */
+  public String summary() {
+    return String.format("Battery %.2f V (min %.2f) | compensation x%.3f", voltage, minimum,
+        Feedforward.voltageScale(voltage));
+  }
+}
@@ -5,11 +5,18 @@ import com.qualcomm.robotcore.hardware.HardwareMap;
 import java.util.concurrent.CompletableFuture;
 import org.firstinspires.ftc.robotcore.external.Telemetry;
 import org.firstinspires.ftc.robotcore.external.hardware.camera.WebcamName;
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.Position;
+import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+import org.firstinspires.ftc.teamcode.core.GoalGeometry;
 import org.firstinspires.ftc.vision.VisionPortal;
 import org.firstinspires.ftc.vision.VisionPortal.CameraState;
 import org.firstinspires.ftc.vision.apriltag.AprilTagDetection;
+import org.firstinspires.ftc.vision.apriltag.AprilTagLibrary;
 import org.firstinspires.ftc.vision.apriltag.AprilTagProcessor;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.Map;
@@ -23,8 +30,19 @@ import java.util.HashMap;
  * Remove or comment out the @Disabled line to add this OpMode to the Driver Station OpMode list.
  */
 public class Camera {
-
-  public static final String OBELISK_STORAGE_KEY = "Obelisk Pattern";
+  /**
+   * Where the camera is on the robot, so the tags' robotPose is the robot's field pose (see
+   * ConceptAprilTagLocalization): inches right, forward and up from the center of the robot at field
+   * height, and yaw, pitch and roll in degrees, pitch -90 being level. Measure these on the robot.
+   */
+  public static final Position CAMERA_POSITION = new Position(DistanceUnit.INCH, 0, 0, 0, 0);
+  public static final YawPitchRollAngles CAMERA_ORIENTATION =
+      new YawPitchRollAngles(AngleUnit.DEGREES, 0, -90, 0, 0);
+  // Lens intrinsics at 640x480, in pixels: focal lengths fx, fy; principal point cx, cy
+  public static final double FX = 541.591;
+  public static final double FY = 541.591;
+  public static final double CX = 328.0;
+  public static final double CY = 235.051;
 
   /*
    * Variables used for switching cameras.
@@ -38,6 +56,14 @@ public class Camera {
    * The variable to store our instance of the AprilTag processor.
    */
   private AprilTagProcessor aprilTag;
+  /**
+   * Finds tags without solving their poses, for aiming (see {@link #setAimMode}). It has no tag library,
+   * so it doesn't know any tag's size and skips the pose solve.
+   */
+  private AprilTagProcessor aimTag;
+  private boolean aimMode = false;
+  /** When aim mode was last switched, a processor's detections from frames before that are out of date */
+  private long aimModeChangedAt = 0;
 
   /**
    * The variable to store our instance of the vision portal.
@@ -54,20 +80,27 @@ public class Camera {
 
     // Create the AprilTag processor by using a builder.
     aprilTag = new AprilTagProcessor.Builder()
-        .setLensIntrinsics(541.591, 541.591, 328.0, 235.051) // Focal lengths fx, fy; Principal point cx, cy
+        .setLensIntrinsics(FX, FY, CX, CY)
+        .setCameraPose(CAMERA_POSITION, CAMERA_ORIENTATION)
+        .build();
+    aimTag = new AprilTagProcessor.Builder()
+        .setTagLibrary(new AprilTagLibrary.Builder().build())
         .build();
     // Create the vision portal by using a builder.
     visionPortal = new VisionPortal.Builder()
         .setCamera(this.webcam)
-        .addProcessor(aprilTag)
+        .addProcessors(aprilTag, aimTag)
         .setCameraResolution(new Size(640, 480)) // Refine further, lower is better
         .setStreamFormat(VisionPortal.StreamFormat.MJPEG)
         .build();
+    visionPortal.setProcessorEnabled(aimTag, aimMode);
+    visionPortal.setProcessorEnabled(aprilTag, !aimMode);
 
   } // end method initAprilTag()
 
   /**
-   * Retrieves the list of AprilTags detected by the camera.
+   * Retrieves the list of AprilTags detected by the camera. In aim mode nothing has a pose, so the list
+   * is empty (see {@link #setAimMode}).
    *
    * @return         	A list of AprilTag objects representing the detected tags.
    * @throws CameraNotStreamingException  If the camera is not currently streaming.
@@ -83,7 +116,10 @@ public class Camera {
     if (visionPortal.getCameraState() != CameraState.STREAMING) {
       throw new CameraNotStreamingException();
     }
-    List<AprilTagDetection> currentDetections = aprilTag.getDetections();
+    if (aimMode) {
+      return Collections.emptyList();
+    }
+    List<AprilTagDetection> currentDetections = current(aprilTag.getDetections());
     return currentDetections.stream().filter(aprilTag -> aprilTag.metadata != null)
         .map(aprilTag -> new AprilTag(aprilTag)).collect(Collectors.toList());
   }
@@ -135,6 +171,108 @@ public class Camera {
     visionPortal.resumeStreaming();
   }
 
+  /**
+   * Enables or disables AprilTag detection while leaving the stream running.
+   * Disabling detection is a low-cost mode: no CPU is spent decoding frames, but the stream
+   * does not need to be restarted (which is slow) to begin detecting again.
+   * @param enabled whether the AprilTag processor should run
+   */
+  public void setDetectionEnabled(boolean enabled) throws CameraNotAttachedException {
+    if (!webcam.isAttached()) {
+      throw new CameraNotAttachedException();
+    } else if (visionPortal == null) {
+      initAprilTag();
+    }
+    visionPortal.setProcessorEnabled(aimMode ? aimTag : aprilTag, enabled);
+  }
+
+  /**
+   * Switches between finding tags with their poses and finding them only, for aiming. In aim mode the
+   * pose solve is skipped, so {@link #getAprilTags()} returns an empty list (the tags have no pose) and
+   * only {@link #getGoalBearing()} and {@link #getFreshDetections()} find tags. Either way, detections
+   * from frames taken before the switch are dropped rather than returned out of date.
+   * @param enabled whether to skip the pose solve
+   */
+  public void setAimMode(boolean enabled) throws CameraNotAttachedException {
+    if (!webcam.isAttached()) {
+      throw new CameraNotAttachedException();
+    } else if (visionPortal == null) {
+      initAprilTag();
+    }
+    if (enabled == aimMode) {
+      return;
+    }
+    aimMode = enabled;
+    aimModeChangedAt = System.nanoTime();
+    visionPortal.setProcessorEnabled(aimTag, enabled);
+    visionPortal.setProcessorEnabled(aprilTag, !enabled);
+  }
+
+  public boolean isAimMode() {
+    return aimMode;
+  }
+
+  /**
+   * The bearing to the GOAL tag's center worked out from where it is in the image, which works in aim
+   * mode as well (see {@link GoalGeometry#bearingFromPixel}).
+   * @return the bearing in degrees, positive to the left
+   * @throws CameraNotStreamingException If the camera is not currently streaming.
+   * @throws CameraNotAttachedException If the camera is not attached.
+   * @throws TagNotFoundException If neither GOAL tag is in view.
+   */
+  public double getGoalBearing() throws CameraNotStreamingException, CameraNotAttachedException,
+      TagNotFoundException {
+    for (AprilTagDetection detection : getDetections(false)) {
+      if (detection.id == GOAL_COLOR.BLUE.id || detection.id == GOAL_COLOR.RED.id) {
+        return GoalGeometry.bearingFromPixel(detection.center.x, FX, CX);
+      }
+    }
+    throw new TagNotFoundException();
+  }
+
+  /**
+   * @return the detections from a frame that hasn't been returned yet, null if there is none
+   * @throws CameraNotStreamingException If the camera is not currently streaming.
+   * @throws CameraNotAttachedException If the camera is not attached.
+   */
+  public List<AprilTagDetection> getFreshDetections()
+      throws CameraNotStreamingException, CameraNotAttachedException {
+    return getDetections(true);
+  }
+
+  private List<AprilTagDetection> getDetections(boolean fresh)
+      throws CameraNotStreamingException, CameraNotAttachedException {
+    if (!webcam.isAttached()) {
+      throw new CameraNotAttachedException();
+    } else if (visionPortal == null) {
+      initAprilTag();
+    }
+    if (visionPortal.getCameraState() != CameraState.STREAMING) {
+      throw new CameraNotStreamingException();
+    }
+    AprilTagProcessor processor = aimMode ? aimTag : aprilTag;
+    return current(fresh ? processor.getFreshDetections() : processor.getDetections());
+  }
+
+  /**
+   * @param detections a processor's detections, all from one frame (null for none)
+   * @return the detections, or an empty list if the frame was taken before aim mode last switched
+   */
+  private List<AprilTagDetection> current(List<AprilTagDetection> detections) {
+    if (detections != null && !detections.isEmpty()
+        && detections.get(0).frameAcquisitionNanoTime < aimModeChangedAt) {
+      return Collections.emptyList();
+    }
+    return detections;
+  }
+
+  /**
+   * @return the average time the pose solve takes per tag, in milliseconds (as it was last, in aim mode)
+   */
+  public int getPoseSolveTime() {
+    return aprilTag == null ? 0 : aprilTag.getPerTagAvgPoseSolveTime();
+  }
+
   /**
    * Add telemetry about AprilTag detections.
    */
@@ -223,17 +361,12 @@ public class Camera {
         position = AprilTagPosition.GOAL;
         goalColor = detection.id == 20 ? GOAL_COLOR.BLUE : GOAL_COLOR.RED;
         if (detection.ftcPose != null) {
-          double A = 180 - detection.ftcPose.yaw - 90;
-          double B = 180 - A - detection.ftcPose.bearing;
-          double C = 90 + B;
-          double L = Math.sqrt(Math.pow(detection.ftcPose.range, 2) + Math.pow(18, 2)
-              - 2 * detection.ftcPose.range * 18 * Math.cos(Math.toRadians(C)));
-          double D = detection.ftcPose.bearing
-              - Math.toDegrees(Math.acos((Math.pow(L, 2) + Math.pow(detection.ftcPose.range, 2) - Math.pow(18, 2))
-                  / (2 * L * detection.ftcPose.range)));
-          double g = detection.ftcPose.bearing - D;
-          backboardPose = new TargetPose(L, g);
-          targetPose = new TargetPose((L + detection.ftcPose.range) / 2, (g + detection.ftcPose.bearing) / 2);
+          GoalGeometry.Pose backboard = GoalGeometry.backboard(detection.ftcPose.range, detection.ftcPose.bearing,
+              detection.ftcPose.yaw);
+          GoalGeometry.Pose target = GoalGeometry.target(detection.ftcPose.range, detection.ftcPose.bearing,
+              backboard);
+          backboardPose = new TargetPose(backboard.range, backboard.bearing);
+          targetPose = new TargetPose(target.range, target.bearing);
         }
       }
       if (detection.id == 21 || detection.id == 22 || detection.id == 23) {
@@ -0,0 +1,91 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.hardware.rev.RevColorSensorV3;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+
+/**
+ * Wrapper around a REV Color Sensor V3. Every reading is its own I2C transaction, which is counted in
+ * {@link HubStats}. Once a {@link ReadScheduler} refreshes the sensor, the readings come from that refresh.
+ */
+public class ColorDistanceSensor implements ReadScheduler.Refreshable {
+  private final RevColorSensorV3 sensor;
+  private boolean scheduled = false;
+  private int red;
+  private int green;
+  private int blue;
+  private double distanceMm;
+
+  public ColorDistanceSensor(RevColorSensorV3 sensor) {
+    this.sensor = sensor;
+  }
+
+  // Expose the underlying sensor when direct access is needed
+  public RevColorSensorV3 asRevColorSensorV3() {
+    return sensor;
+  }
+
+  public int red() {
+    if (scheduled) {
+      return red;
+    }
+    return readRed();
+  }
+
+  private int readRed() {
+    long start = HubStats.start();
+    int red = sensor.red();
+    HubStats.i2c(start);
+    return red;
+  }
+
+  public int green() {
+    if (scheduled) {
+      return green;
+    }
+    return readGreen();
+  }
+
+  private int readGreen() {
+    long start = HubStats.start();
+    int green = sensor.green();
+    HubStats.i2c(start);
+    return green;
+  }
+
+  public int blue() {
+    if (scheduled) {
+      return blue;
+    }
+    return readBlue();
+  }
+
+  private int readBlue() {
+    long start = HubStats.start();
+    int blue = sensor.blue();
+    HubStats.i2c(start);
+    return blue;
+  }
+
+  public double getDistance(DistanceUnit unit) {
+    if (scheduled) {
+      return unit.fromMm(distanceMm);
+    }
+    return readDistance(unit);
+  }
+
+  @Override
+  public void refresh() {
+    red = readRed();
+    green = readGreen();
+    blue = readBlue();
+    distanceMm = readDistance(DistanceUnit.MM);
+    scheduled = true;
+  }
+
+  private double readDistance(DistanceUnit unit) {
+    long start = HubStats.start();
+    double distance = sensor.getDistance(unit);
+    HubStats.i2c(start);
+    return distance;
+  }
+}
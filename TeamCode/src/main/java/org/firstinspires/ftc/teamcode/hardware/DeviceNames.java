@@ -64,6 +64,9 @@ public enum DeviceNames {
   EH_DIGITAL_6("EH_DIGITAL_6"),
   EH_DIGITAL_7("EH_DIGITAL_7"),
 
+  // === IMU (built into the Control Hub, on I2C bus 0) ===
+  CH_IMU("imu"),
+
   // === CAMERAS ===
   WEBCAM_1("Webcam 1");
 
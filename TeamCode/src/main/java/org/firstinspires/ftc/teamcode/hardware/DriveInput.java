@@ -0,0 +1,120 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+/**
+ * The driver's drive command, shaped the same way in every TeleOp.
+ *
+ * <p>Each stick axis goes through deadband, expo, the trigger speed mode and (for translation) a slew
+ * rate limit, see {@link InputShaper}. The speed mode is the one drivers are used to: 2/3 speed normally,
+ * the right trigger speeds up to full speed and the left trigger slows down to 1/3. All parameters are
+ * in {@link Tuning} ({@code input.*}) and are picked up every loop.</p>
+ *
+ * <pre>
+ * driveInput.update(gamepad1, true);
+ * robot.drive(driveInput.getX(), driveInput.getY(), driveInput.getRotate());
+ * driveInput.latency.commanded();
+ * </pre>
+ */
+public class DriveInput {
+  /** Gamepad event to motor command latency, call {@code latency.commanded()} after driving */
+  public final InputLatency latency = new InputLatency();
+
+  private final InputShaper.Deadband[] deadbands = new InputShaper.Deadband[3];
+  private final InputShaper.Expo[] expos = new InputShaper.Expo[3];
+  private final InputShaper.Scale[] speeds = new InputShaper.Scale[3];
+  private final InputShaper.SlewRateLimiter[] slewRates = new InputShaper.SlewRateLimiter[2];
+  private final InputShaper strafe;
+  private final InputShaper forward;
+  private final InputShaper turn;
+
+  private long lastTime = 0;
+  private double speed = 0;
+  private double x = 0;
+  private double y = 0;
+  private double rotate = 0;
+
+  public DriveInput() {
+    for (int axis = 0; axis < 3; axis++) {
+      deadbands[axis] = new InputShaper.Deadband(0);
+      expos[axis] = new InputShaper.Expo(0);
+      speeds[axis] = new InputShaper.Scale(1);
+    }
+    for (int axis = 0; axis < 2; axis++) {
+      slewRates[axis] = new InputShaper.SlewRateLimiter(0);
+    }
+    strafe = new InputShaper(deadbands[0], expos[0], speeds[0], slewRates[0]);
+    forward = new InputShaper(deadbands[1], expos[1], speeds[1], slewRates[1]);
+    turn = new InputShaper(deadbands[2], expos[2], speeds[2]);
+  }
+
+  /**
+   * Reads and shapes the sticks.
+   * @param gamepad the driver's gamepad
+   * @param speedModes true if the triggers change the speed, false if they are used for something else
+   */
+  public void update(Gamepad gamepad, boolean speedModes) {
+    long now = System.nanoTime();
+    double dt = lastTime == 0 ? 0 : (now - lastTime) / 1e9;
+    lastTime = now;
+
+    double normal = Tuning.INPUT_NORMAL_SPEED.get();
+    speed = normal;
+    if (speedModes) {
+      speed += (1 - normal) * gamepad.right_trigger - (normal - Tuning.INPUT_SLOW_SPEED.get()) * gamepad.left_trigger;
+    }
+    for (int axis = 0; axis < 3; axis++) {
+      deadbands[axis].setWidth(Tuning.INPUT_DEADBAND.get());
+      expos[axis].setAmount(axis == 2 ? Tuning.INPUT_TURN_EXPO.get() : Tuning.INPUT_EXPO.get());
+      speeds[axis].setFactor(speed);
+    }
+    for (InputShaper.SlewRateLimiter slewRate : slewRates) {
+      slewRate.setRate(Tuning.INPUT_SLEW_RATE.get());
+    }
+
+    x = strafe.shape(gamepad.left_stick_x, dt);
+    y = forward.shape(-gamepad.left_stick_y, dt);
+    rotate = turn.shape(gamepad.right_stick_x, dt);
+    latency.received(gamepad.timestamp);
+  }
+
+  /**
+   * Forgets the slew rate state, call it while the sticks are being ignored so driving starts from rest.
+   */
+  public void reset() {
+    strafe.reset();
+    forward.reset();
+    turn.reset();
+    x = 0;
+    y = 0;
+    rotate = 0;
+  }
+
+  /**
+   * @return strafe, positive is right
+   */
+  public double getX() {
+    return x;
+  }
+
+  /**
+   * @return forward, positive is forward
+   */
+  public double getY() {
+    return y;
+  }
+
+  /**
+   * @return rotate, positive is clockwise
+   */
+  public double getRotate() {
+    return rotate;
+  }
+
+  /**
+   * @return the speed mode factor of the last update (1/3 to 1 with the default tuning)
+   */
+  public double getSpeed() {
+    return speed;
+  }
+}
@@ -0,0 +1,68 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+import org.firstinspires.ftc.teamcode.core.ButtonEvents;
+
+/**
+ * Button presses, releases, long presses and chords for one gamepad (see {@link ButtonEvents}), so
+ * OpModes don't each keep their own {@code aPressed} booleans.
+ *
+ * <p>Once per loop {@link #update(double)} packs every button into one int ({@link #A}, {@link #B}...,
+ * the triggers count as buttons past {@link #TRIGGER_THRESHOLD}) and dispatches the events.</p>
+ *
+ * <pre>
+ * operator.onPress(GamepadEvents.A, () -> count++);
+ * operator.onLongPress(GamepadEvents.Y, () -> count = 0);
+ * operator.onPress(GamepadEvents.BACK | GamepadEvents.START, this::resetHeading);
+ * // in loop()
+ * operator.update(getRuntime());
+ * </pre>
+ */
+public class GamepadEvents extends ButtonEvents {
+  /** How far a trigger has to be pressed to count as down */
+  public static final double TRIGGER_THRESHOLD = 0.5;
+
+  private final Gamepad gamepad;
+
+  /**
+   * @param gamepad the gamepad to read
+   */
+  public GamepadEvents(Gamepad gamepad) {
+    this.gamepad = gamepad;
+  }
+
+  /**
+   * Packs a gamepad's buttons into a bitmask.
+   * @param gamepad the gamepad
+   * @return the buttons that are down, see {@link #A} etc.
+   */
+  public static int snapshot(Gamepad gamepad) {
+    int buttons = 0;
+    buttons |= gamepad.a ? A : 0;
+    buttons |= gamepad.b ? B : 0;
+    buttons |= gamepad.x ? X : 0;
+    buttons |= gamepad.y ? Y : 0;
+    buttons |= gamepad.dpad_up ? DPAD_UP : 0;
+    buttons |= gamepad.dpad_down ? DPAD_DOWN : 0;
+    buttons |= gamepad.dpad_left ? DPAD_LEFT : 0;
+    buttons |= gamepad.dpad_right ? DPAD_RIGHT : 0;
+    buttons |= gamepad.left_bumper ? LEFT_BUMPER : 0;
+    buttons |= gamepad.right_bumper ? RIGHT_BUMPER : 0;
+    buttons |= gamepad.left_trigger > TRIGGER_THRESHOLD ? LEFT_TRIGGER : 0;
+    buttons |= gamepad.right_trigger > TRIGGER_THRESHOLD ? RIGHT_TRIGGER : 0;
+    buttons |= gamepad.back ? BACK : 0;
+    buttons |= gamepad.start ? START : 0;
+    buttons |= gamepad.guide ? GUIDE : 0;
+    buttons |= gamepad.left_stick_button ? LEFT_STICK_BUTTON : 0;
+    buttons |= gamepad.right_stick_button ? RIGHT_STICK_BUTTON : 0;
+    return buttons;
+  }
+
+  /**
+   * Reads the gamepad and dispatches this loop's events. Call it once at the start of every loop.
+   * @param time the current time in seconds, e.g. {@code getRuntime()}
+   */
+  public void update(double time) {
+    update(snapshot(gamepad), time);
+  }
+}
@@ -0,0 +1,166 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.hardware.rev.RevHubOrientationOnRobot;
+import com.qualcomm.robotcore.hardware.IMU;
+import com.qualcomm.robotcore.util.RobotLog;
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.AngularVelocity;
+import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+
+/**
+ * The Control Hub's built-in IMU, sampled on a background thread.
+ *
+ * <p>Every IMU read is an I2C transaction that takes a few milliseconds, so the loop never reads it
+ * directly. A sampler thread reads yaw and yaw rate every {@link #SAMPLE_PERIOD_MS} and publishes
+ * them as an immutable {@link Reading} through a volatile field, so the loop only ever does a field
+ * read and never waits on a lock or the bus.</p>
+ *
+ * <p>Headings are in radians, counter-clockwise positive, with 0 wherever {@link #setHeading(double)}
+ * last put it. Autonomous sets 0 at the start and saves the heading at the end
+ * ({@link PersistentState#setImuHeading(double)}), and teleop restores it so field-centric driving
+ * keeps the same "forward" as autonomous.</p>
+ */
+public class Imu {
+  /** How often the sampler reads the IMU, in milliseconds */
+  public static final long SAMPLE_PERIOD_MS = 10;
+  /** Consecutive failed reads after which the sampler gives up (the OpMode has most likely stopped) */
+  private static final int MAX_ERRORS = 20;
+
+  // How the Control Hub is mounted on the robot
+  public static final RevHubOrientationOnRobot.LogoFacingDirection LOGO_DIRECTION =
+      RevHubOrientationOnRobot.LogoFacingDirection.UP;
+  public static final RevHubOrientationOnRobot.UsbFacingDirection USB_DIRECTION =
+      RevHubOrientationOnRobot.UsbFacingDirection.FORWARD;
+
+  /** One IMU sample, never changed once published */
+  public static final class Reading {
+    /** Raw yaw in radians, before the heading offset */
+    public final double yaw;
+    /** Yaw rate in radians per second, counter-clockwise positive */
+    public final double angularVelocity;
+    /** When the sample was taken, {@link System#nanoTime()} based */
+    public final long timestamp;
+
+    private Reading(double yaw, double angularVelocity, long timestamp) {
+      this.yaw = yaw;
+      this.angularVelocity = angularVelocity;
+      this.timestamp = timestamp;
+    }
+  }
+
+  /** The sampler that is currently running, so one left over from a previous OpMode can be stopped */
+  private static Imu active;
+
+  private final IMU imu;
+  private volatile Reading latest;
+  private volatile double headingOffset = 0;
+  private Thread sampler;
+
+  /**
+   * Initializes the IMU and takes a first reading (this blocks, call it during INIT).
+   * @param imu the SDK IMU
+   */
+  public Imu(IMU imu) {
+    this.imu = imu;
+    imu.initialize(new IMU.Parameters(new RevHubOrientationOnRobot(LOGO_DIRECTION, USB_DIRECTION)));
+    latest = read();
+  }
+
+  /**
+   * Starts the sampler thread, stopping any sampler still running from a previous OpMode.
+   */
+  public void start() {
+    synchronized (Imu.class) {
+      if (active != null && active != this) {
+        active.stop();
+      }
+      active = this;
+    }
+    synchronized (this) {
+      if (sampler != null) {
+        return;
+      }
+      sampler = new Thread(this::sample, "IMU sampler");
+      sampler.setDaemon(true);
+      sampler.start();
+    }
+  }
+
+  /**
+   * Stops the sampler thread. The last reading stays available.
+   */
+  public synchronized void stop() {
+    if (sampler != null) {
+      sampler.interrupt();
+      sampler = null;
+    }
+  }
+
+  private void sample() {
+    int errors = 0;
+    while (!Thread.currentThread().isInterrupted()) {
+      long start = System.nanoTime();
+      try {
+        latest = read();
+        errors = 0;
+      } catch (RuntimeException e) {
+        if (++errors >= MAX_ERRORS) {
+          RobotLog.ee("Imu", e, "IMU reads keep failing, stopping the sampler");
+          return;
+        }
+      }
+      long sleep = SAMPLE_PERIOD_MS - (System.nanoTime() - start) / 1_000_000;
+      if (sleep > 0) {
+        try {
+          Thread.sleep(sleep);
+        } catch (InterruptedException e) {
+          return;
+        }
+      }
+    }
+  }
+
+  private Reading read() {
+    YawPitchRollAngles angles = imu.getRobotYawPitchRollAngles();
+    AngularVelocity velocity = imu.getRobotAngularVelocity(AngleUnit.RADIANS);
+    long timestamp = angles.getAcquisitionTime() != 0 ? angles.getAcquisitionTime() : System.nanoTime();
+    return new Reading(angles.getYaw(AngleUnit.RADIANS), velocity.zRotationRate, timestamp);
+  }
+
+  /**
+   * @return the latest sample, safe to keep and read fields from without it changing
+   */
+  public Reading getReading() {
+    return latest;
+  }
+
+  /**
+   * @return the heading in radians (-pi to pi), counter-clockwise positive
+   */
+  public double getHeading() {
+    return AngleUnit.normalizeRadians(latest.yaw + headingOffset);
+  }
+
+  /**
+   * @return the yaw rate in radians per second, counter-clockwise positive
+   */
+  public double getAngularVelocity() {
+    return latest.angularVelocity;
+  }
+
+  /**
+   * @return how old the latest sample is, in milliseconds
+   */
+  public double getAgeMillis() {
+    return (System.nanoTime() - latest.timestamp) / 1e6;
+  }
+
+  /**
+   * Declares the robot's current heading, e.g. 0 at the start of autonomous or the heading autonomous
+   * saved when teleop starts.
+   * @param heading the current heading in radians
+   */
+  public void setHeading(double heading) {
+    headingOffset = heading - latest.yaw;
+  }
+}
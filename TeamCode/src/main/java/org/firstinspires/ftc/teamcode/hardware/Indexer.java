@@ -1,13 +1,13 @@
 package org.firstinspires.ftc.teamcode.hardware;
 
-import com.qualcomm.hardware.rev.RevColorSensorV3;
 import com.qualcomm.robotcore.util.ElapsedTime;
 import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.teamcode.core.IndexerSequencer;
 
 public class Indexer {
   private final PositionServo indexerServo;
-  private final RevColorSensorV3 leftColorSensor;
-  private final RevColorSensorV3 rightColorSensor;
+  private final ColorDistanceSensor leftColorSensor;
+  private final ColorDistanceSensor rightColorSensor;
 
   /**
    * Creates a new Indexer.
@@ -16,7 +16,8 @@ public class Indexer {
    * @param rightColorSensor the color sensor on the right side
    */
 
-  public Indexer(PositionServo indexerServo, RevColorSensorV3 leftColorSensor, RevColorSensorV3 rightColorSensor) {
+  public Indexer(PositionServo indexerServo, ColorDistanceSensor leftColorSensor,
+      ColorDistanceSensor rightColorSensor) {
     this.indexerServo = indexerServo;
     this.leftColorSensor = leftColorSensor;
     this.rightColorSensor = rightColorSensor;
@@ -38,12 +39,21 @@ public class Indexer {
     UNKNOWN
   }
 
+  /** The indexer's timings from the tuning file, for an {@link IndexerSequencer} */
+  public static final IndexerSequencer.Timing TIMING = new IndexerSequencer.Timing() {
+    @Override
+    public double getMoveDropTime() {
+      return (Tuning.INDEXER_MOVE_TIME.get() + Tuning.INDEXER_DROP_TIME.get()) / 1000;
+    }
+
+    @Override
+    public double getShootTime() {
+      return Tuning.INDEXER_SHOOT_TIME.get() / 1000;
+    }
+  };
+
   private Position currentPosition = Position.RESET;
-  /** How long it takes to move between positions in milliseconds */
-  private final int MOVE_TIME = 1000;
-  /** How long it takes to move between positions and get the ball into the intake in milliseconds */
-  private final int MOVE_DROP_TIME = MOVE_TIME + 1500;
-  private final int MOVE_DROP_SHOOT_TIME = MOVE_DROP_TIME + 2500;
+  // Timings come from the tuning file: Tuning.INDEXER_MOVE_TIME, INDEXER_DROP_TIME and INDEXER_SHOOT_TIME
   ElapsedTime positionTimer = new ElapsedTime();
 
   /**
@@ -209,7 +219,7 @@ public class Indexer {
    * @return detected ball color
    */
   public BallColor detectColor(Position position) {
-    RevColorSensorV3 sensor;
+    ColorDistanceSensor sensor;
     switch (position) {
       case LEFT:
         sensor = leftColorSensor;
@@ -325,7 +335,7 @@ public class Indexer {
    * @return true if the indexer is moving, false otherwise
    */
   public boolean isBusy() {
-    return positionTimer.milliseconds() < MOVE_TIME;
+    return positionTimer.milliseconds() < Tuning.INDEXER_MOVE_TIME.get();
   }
 
   /**
@@ -333,7 +343,7 @@ public class Indexer {
    * @return true if the indexer is currently blocked (still moving/dropping), false otherwise
    */
   public boolean isBlocked() {
-    return positionTimer.milliseconds() < MOVE_DROP_TIME;
+    return positionTimer.milliseconds() < Tuning.INDEXER_MOVE_TIME.get() + Tuning.INDEXER_DROP_TIME.get();
   }
 
   /**
@@ -341,7 +351,8 @@ public class Indexer {
    * @return true if the indexer is currently shooting, false otherwise
    */
   public boolean isShooting() {
-    return positionTimer.milliseconds() < MOVE_DROP_SHOOT_TIME;
+    return positionTimer.milliseconds() < Tuning.INDEXER_MOVE_TIME.get() + Tuning.INDEXER_DROP_TIME.get()
+        + Tuning.INDEXER_SHOOT_TIME.get();
   }
 
   /**
@@ -356,6 +367,18 @@ public class Indexer {
     topBallColor = BallColor.PURPLE;
   }
 
+  /**
+   * Overrides which balls the indexer believes it is holding, e.g. when carrying them over from autonomous.
+   * @param left color of the ball on the left
+   * @param top color of the ball on the top
+   * @param right color of the ball on the right
+   */
+  public void setBallColors(BallColor left, BallColor top, BallColor right) {
+    leftBallColor = left;
+    topBallColor = top;
+    rightBallColor = right;
+  }
+
   public BallColor getBallColor(Position position) {
     switch (position) {
       case LEFT:
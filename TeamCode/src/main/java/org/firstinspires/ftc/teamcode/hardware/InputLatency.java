@@ -0,0 +1,78 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import android.os.SystemClock;
+
+/**
+ * Measures how long it takes from a gamepad change to the motor command it causes.
+ *
+ * <p>The SDK stamps each gamepad update with the time the Driver Station event arrived
+ * ({@code Gamepad.timestamp}, {@link SystemClock#uptimeMillis()} based). Call
+ * {@link #received(long)} with it when reading the gamepad and {@link #commanded()} right after the
+ * motors were set. Only new gamepad events are measured, so a stick held still doesn't count the same
+ * event every loop.</p>
+ */
+public class InputLatency {
+  private long lastEventTime = 0;
+  private long pendingEventTime = 0;
+
+  private long last = 0;
+  private long max = 0;
+  private long sum = 0;
+  private long count = 0;
+
+  /**
+   * @param eventTime the gamepad's timestamp, in milliseconds
+   */
+  public void received(long eventTime) {
+    if (eventTime != lastEventTime) {
+      lastEventTime = eventTime;
+      pendingEventTime = eventTime;
+    }
+  }
+
+  /**
+   * Records the latency of the last new gamepad event, if there is one that wasn't recorded yet.
+   */
+  public void commanded() {
+    if (pendingEventTime == 0) {
+      return;
+    }
+    last = SystemClock.uptimeMillis() - pendingEventTime;
+    pendingEventTime = 0;
+    max = Math.max(max, last);
+    sum += last;
+    count++;
+  }
+
+  /**
+   * @return the latency of the most recent event, in milliseconds
+   */
+  public long getLast() {
+    return last;
+  }
+
+  /**
+   * @return the highest latency since the last {@link #reset()}, in milliseconds
+   */
+  public long getMax() {
+    return max;
+  }
+
+  /**
+   * @return the average latency since the last {@link #reset()}, in milliseconds
+   */
+  public double getMean() {
+    return count == 0 ? 0 : (double) sum / count;
+  }
+
+  public void reset() {
+    max = 0;
+    sum = 0;
+    count = 0;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d ms (mean %.1f, max %d)", last, getMean(), max);
+  }
+}
@@ -0,0 +1,167 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+/**
+ * Shapes one gamepad axis by passing it through a fixed chain of stages (deadband, expo, scale, slew
+ * rate limit...).
+ *
+ * <p>The stages are created once with the shaper and work on plain doubles, so shaping an axis every
+ * loop allocates nothing. Stage parameters can be changed between loops (e.g. from {@link Tuning}).</p>
+ *
+ * <pre>
+ * InputShaper strafe = new InputShaper(new InputShaper.Deadband(0.05), new InputShaper.Expo(0.3));
+ * double x = strafe.shape(gamepad1.left_stick_x, dt);
+ * </pre>
+ */
+public class InputShaper {
+  /** One step of the chain */
+  public interface Stage {
+    /**
+     * @param value the output of the previous stage
+     * @param dt seconds since the last loop (0 if unknown)
+     * @return the shaped value
+     */
+    double apply(double value, double dt);
+
+    /** Forgets any state, e.g. when the OpMode (re)starts */
+    void reset();
+  }
+
+  private final Stage[] stages;
+
+  public InputShaper(Stage... stages) {
+    this.stages = stages;
+  }
+
+  /**
+   * Runs the value through every stage in order.
+   * @param value the raw axis value
+   * @param dt seconds since the last loop (0 if unknown)
+   * @return the shaped value
+   */
+  public double shape(double value, double dt) {
+    for (Stage stage : stages) {
+      value = stage.apply(value, dt);
+    }
+    return value;
+  }
+
+  public void reset() {
+    for (Stage stage : stages) {
+      stage.reset();
+    }
+  }
+
+  /**
+   * Ignores small inputs (stick drift) and rescales the rest, so the output still starts at 0 and
+   * reaches 1 at full stick without a jump at the edge of the deadband.
+   */
+  public static class Deadband implements Stage {
+    private double width;
+
+    public Deadband(double width) {
+      this.width = width;
+    }
+
+    public void setWidth(double width) {
+      this.width = width;
+    }
+
+    @Override
+    public double apply(double value, double dt) {
+      double magnitude = Math.abs(value);
+      if (magnitude <= width) {
+        return 0;
+      }
+      return Math.signum(value) * (magnitude - width) / (1 - width);
+    }
+
+    @Override
+    public void reset() {
+    }
+  }
+
+  /**
+   * Blends a linear and a cubic response: {@code (1 - amount) * x + amount * x^3}. 0 is linear, 1 is
+   * fully cubic, which gives finer control near the center and still reaches 1 at full stick.
+   */
+  public static class Expo implements Stage {
+    private double amount;
+
+    public Expo(double amount) {
+      this.amount = amount;
+    }
+
+    public void setAmount(double amount) {
+      this.amount = amount;
+    }
+
+    @Override
+    public double apply(double value, double dt) {
+      return (1 - amount) * value + amount * value * value * value;
+    }
+
+    @Override
+    public void reset() {
+    }
+  }
+
+  /**
+   * Multiplies by a factor set each loop, e.g. a speed mode.
+   */
+  public static class Scale implements Stage {
+    private double factor;
+
+    public Scale(double factor) {
+      this.factor = factor;
+    }
+
+    public void setFactor(double factor) {
+      this.factor = factor;
+    }
+
+    @Override
+    public double apply(double value, double dt) {
+      return value * factor;
+    }
+
+    @Override
+    public void reset() {
+    }
+  }
+
+  /**
+   * Limits how fast the command grows away from 0, so snapping a stick doesn't spin the wheels.
+   * Moving back towards 0 is never limited, the robot always stops as fast as the driver asks.
+   */
+  public static class SlewRateLimiter implements Stage {
+    /** Units per second, 0 or less disables the limit */
+    private double rate;
+    private double last = 0;
+
+    public SlewRateLimiter(double rate) {
+      this.rate = rate;
+    }
+
+    public void setRate(double rate) {
+      this.rate = rate;
+    }
+
+    @Override
+    public double apply(double value, double dt) {
+      if (rate > 0 && dt > 0) {
+        // Reversing drops to 0 at once and then grows again from there
+        double from = Math.signum(value) == Math.signum(last) ? last : 0;
+        if (Math.abs(value) > Math.abs(from)) {
+          value = from + Math.signum(value) * Math.min(Math.abs(value - from), rate * dt);
+        }
+      }
+      last = value;
+      return value;
+    }
+
+    @Override
+    public void reset() {
+      last = 0;
+    }
+  }
+}
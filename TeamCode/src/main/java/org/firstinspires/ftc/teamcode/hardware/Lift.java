@@ -2,13 +2,43 @@ package org.firstinspires.ftc.teamcode.hardware;
 
 import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.DcMotorSimple;
+import org.firstinspires.ftc.teamcode.core.LiftController;
 
 /**
  * Dual-motor Lift abstraction mirroring Shooter implementation.
+ * Driven by hand with {@link #setPower(double)}, or to a height with {@link #moveTo(Preset)} and
+ * {@link #update()} every loop, which keeps both sides level (see {@link LiftController}).
  */
 public class Lift {
+	/** Named heights, set in the tuning file */
+	public enum Preset {
+		DOWN(Tuning.LIFT_DOWN),
+		PARTIAL(Tuning.LIFT_PARTIAL),
+		FULL(Tuning.LIFT_FULL);
+
+		private final Tuning.Value height;
+
+		Preset(Tuning.Value height) {
+			this.height = height;
+		}
+
+		/**
+		 * @return the height in ticks from the bottom
+		 */
+		public double getHeight() {
+			return height.get();
+		}
+	}
+
 	private final Motor left;
 	private final Motor right;
+	/** Follows the height set with {@link #moveTo(double)}, Robot applies its tuning */
+	public final LiftController controller = new LiftController();
+	private long lastUpdate = 0;
+	private double leftPosition = 0;
+	private double rightPosition = 0;
+	/** What {@link #setPower(double)} is scaled by, see {@link PowerManager} */
+	private double powerScale = 1;
 
 	public Lift(Motor leftLift, Motor rightLift) {
 		this.left = leftLift;
@@ -17,9 +47,72 @@ public class Lift {
 
 	// Motor-like helpers (delegate to both motors)
 
+	/**
+	 * Drives both sides with one power, stopping any move to a height.
+	 * @param power the power (-1 to 1)
+	 */
 	public void setPower(double power) {
-		left.setPower(power);
-		right.setPower(power);
+		controller.stop();
+		left.setPower(power * powerScale);
+		right.setPower(power * powerScale);
+	}
+
+	/**
+	 * Starts moving to a preset height, see {@link #moveTo(double)}.
+	 * @param preset the height
+	 */
+	public void moveTo(Preset preset) {
+		moveTo(preset.getHeight());
+	}
+
+	/**
+	 * Starts moving to a height. Nothing moves until {@link #update()}, call it every loop until
+	 * {@link #setPower(double)} takes over again.
+	 * @param height the height in ticks from the bottom
+	 */
+	public void moveTo(double height) {
+		if (!controller.isActive()) {
+			lastUpdate = 0;
+		}
+		controller.moveTo(height, left.getCurrentPosition(), right.getCurrentPosition());
+	}
+
+	/**
+	 * Moves both sides along the profile to the height set with {@link #moveTo(double)}, reading both
+	 * encoders. Does nothing while driven by hand.
+	 */
+	public void update() {
+		if (!controller.isActive()) {
+			return;
+		}
+		long now = System.nanoTime();
+		double dt = lastUpdate != 0 ? (now - lastUpdate) / 1e9 : 0;
+		lastUpdate = now;
+		leftPosition = left.getCurrentPosition();
+		rightPosition = right.getCurrentPosition();
+		controller.update(leftPosition, rightPosition, dt);
+		left.setPower(controller.getLeftPower() * powerScale);
+		right.setPower(controller.getRightPower() * powerScale);
+	}
+
+	/**
+	 * @return true once both sides are at the height set with {@link #moveTo(double)}, as of the last
+	 * {@link #update()}
+	 */
+	public boolean isAtHeight() {
+		return controller.isAtGoal(leftPosition, rightPosition);
+	}
+
+	/**
+	 * Limits the lift power to save current for the shooter, used from the next {@link #setPower(double)}.
+	 * @param powerScale what the power is scaled by (0 to 1)
+	 */
+	public void setPowerScale(double powerScale) {
+		this.powerScale = powerScale;
+	}
+
+	public double getPowerScale() {
+		return powerScale;
 	}
 
 	public double getPower() {
@@ -2,9 +2,16 @@ package org.firstinspires.ftc.teamcode.hardware;
 
 import com.qualcomm.robotcore.hardware.LED;
 
-public class Light {
+/**
+ * The red/green status LED. Once a {@link ReadScheduler} refreshes it, {@link #getGreen()} and
+ * {@link #getRed()} answer from that refresh and the last state set.
+ */
+public class Light implements ReadScheduler.Refreshable {
   private final LED ledGreen;
   private final LED ledRed;
+  private boolean scheduled = false;
+  private boolean green;
+  private boolean red;
 
   public Light(LED ledRed, LED ledGreen) {
     this.ledGreen = ledGreen;
@@ -12,28 +19,51 @@ public class Light {
   }
 
   public void setGreen(boolean state) {
-    ledGreen.enable(state);
+    enable(ledGreen, state);
+    green = state;
   }
 
   public void setRed(boolean state) {
-    ledRed.enable(state);
+    enable(ledRed, state);
+    red = state;
   }
 
   public void on() {
-    ledGreen.enable(true);
-    ledRed.enable(true);
+    setGreen(true);
+    setRed(true);
   }
 
   public void off() {
-    ledGreen.enable(false);
-    ledRed.enable(false);
+    setGreen(false);
+    setRed(false);
   }
 
   public boolean getGreen() {
-    return ledGreen.isLightOn();
+    return scheduled ? green : isLightOn(ledGreen);
   }
 
   public boolean getRed() {
-    return ledRed.isLightOn();
+    return scheduled ? red : isLightOn(ledRed);
+  }
+
+  @Override
+  public void refresh() {
+    green = isLightOn(ledGreen);
+    red = isLightOn(ledRed);
+    scheduled = true;
+  }
+
+  // Each LED is a digital channel on the hub, counted in HubStats
+  private static void enable(LED led, boolean state) {
+    long start = HubStats.start();
+    led.enable(state);
+    HubStats.write(start);
+  }
+
+  private static boolean isLightOn(LED led) {
+    long start = HubStats.start();
+    boolean on = led.isLightOn();
+    HubStats.read(start);
+    return on;
   }
 }
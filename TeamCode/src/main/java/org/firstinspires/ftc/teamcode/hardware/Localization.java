@@ -0,0 +1,189 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.robotcore.util.RobotLog;
+import java.util.concurrent.atomic.AtomicReference;
+import org.firstinspires.ftc.teamcode.core.Localizer;
+import org.firstinspires.ftc.teamcode.core.RobotPose;
+
+/**
+ * The robot's field pose from a {@link Localizer}, sampled on a background thread.
+ *
+ * <p>Like {@link Imu}, the device is never read on the loop thread: a sampler thread calls
+ * {@link Localizer#update()} (one bulk I2C transaction) every {@link #SAMPLE_PERIOD_MS} and publishes the
+ * {@link RobotPose} through a volatile field, so the loop only ever does a field read. Only the sampler
+ * talks to the device, so {@link #setPose} hands the new pose over to it, it is applied before the next
+ * read.</p>
+ *
+ * <p>Which backend is used comes from the robot configuration, see {@link Robot#localization}. In a
+ * simulation, give it a {@code SimulatedLocalizer}.</p>
+ */
+public class Localization {
+  /** How often the sampler reads the device, in milliseconds */
+  public static final long SAMPLE_PERIOD_MS = 10;
+  /** Consecutive failed reads after which the sampler gives up (the OpMode has most likely stopped) */
+  private static final int MAX_ERRORS = 20;
+
+  /** The sampler that is currently running, so one left over from a previous OpMode can be stopped */
+  private static Localization active;
+
+  private final Localizer localizer;
+  private volatile RobotPose latest;
+  /** A pose waiting for the sampler to give it to the device, x, y and heading */
+  private final AtomicReference<double[]> pendingPose = new AtomicReference<>();
+  private volatile double sampleRate = 0;
+  /** The time stamp of the first pose read after the last {@link #setPose} */
+  private volatile long resetTimestamp = 0;
+  private Thread sampler;
+
+  /**
+   * Takes a first reading (so {@link #getPose()} is valid right away), call it during INIT.
+   * @param localizer the device
+   */
+  public Localization(Localizer localizer) {
+    this.localizer = localizer;
+    latest = localizer.update();
+  }
+
+  /**
+   * Starts the sampler thread, stopping any sampler still running from a previous OpMode.
+   */
+  public void start() {
+    synchronized (Localization.class) {
+      if (active != null && active != this) {
+        active.stop();
+      }
+      active = this;
+    }
+    synchronized (this) {
+      if (sampler != null) {
+        return;
+      }
+      sampler = new Thread(this::sample, "Localizer sampler");
+      sampler.setDaemon(true);
+      sampler.start();
+    }
+  }
+
+  /**
+   * Stops the sampler thread. The last pose stays available.
+   */
+  public synchronized void stop() {
+    if (sampler != null) {
+      sampler.interrupt();
+      sampler = null;
+    }
+  }
+
+  private void sample() {
+    int errors = 0;
+    int samples = 0;
+    boolean moved = false;
+    long rateStart = System.nanoTime();
+    while (!Thread.currentThread().isInterrupted()) {
+      long start = System.nanoTime();
+      try {
+        double[] pose = pendingPose.getAndSet(null);
+        if (pose != null) {
+          localizer.setPose(pose[0], pose[1], pose[2]);
+          moved = true;
+        }
+        RobotPose read = localizer.update();
+        if (moved) {
+          // Before publishing the pose, so whoever sees the pose sees this too
+          resetTimestamp = read.timestamp;
+          moved = false;
+        }
+        latest = read;
+        errors = 0;
+        samples++;
+      } catch (RuntimeException e) {
+        if (++errors >= MAX_ERRORS) {
+          RobotLog.ee("Localization", e, "%s reads keep failing, stopping the sampler", localizer.getName());
+          return;
+        }
+      }
+      if (start - rateStart >= 1_000_000_000L) {
+        sampleRate = samples / ((start - rateStart) / 1e9);
+        samples = 0;
+        rateStart = start;
+      }
+      long sleep = SAMPLE_PERIOD_MS - (System.nanoTime() - start) / 1_000_000;
+      if (sleep > 0) {
+        try {
+          Thread.sleep(sleep);
+        } catch (InterruptedException e) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the latest pose, as it was when read
+   */
+  public RobotPose getPose() {
+    return latest;
+  }
+
+  /**
+   * @return the latest pose moved on to now with its velocity, see {@link RobotPose#predict(long)}
+   */
+  public RobotPose getPredictedPose() {
+    return latest.predict(System.nanoTime());
+  }
+
+  /**
+   * @return how old the latest pose is, in milliseconds
+   */
+  public double getAgeMillis() {
+    return (System.nanoTime() - latest.timestamp) / 1e6;
+  }
+
+  /**
+   * @return successful reads per second over the last second
+   */
+  public double getSampleRate() {
+    return sampleRate;
+  }
+
+  /**
+   * Declares where the robot is, e.g. the start position in autonomous. The sampler applies it before its
+   * next read, so {@link #getPose()} has it within a sample period.
+   * @param x field x in inches
+   * @param y field y in inches
+   * @param heading heading in radians, counter-clockwise positive
+   */
+  public void setPose(double x, double y, double heading) {
+    synchronized (this) {
+      if (sampler == null) {
+        // Nothing is sampling, so this thread is the only one talking to the device
+        localizer.setPose(x, y, heading);
+        RobotPose read = localizer.update();
+        resetTimestamp = read.timestamp;
+        latest = read;
+        return;
+      }
+    }
+    pendingPose.set(new double[] { x, y, heading });
+  }
+
+  /**
+   * Lets a user of the poses tell a {@link #setPose} from the robot moving: a pose stamped at or after
+   * this, and after the pose before it, comes after a jump.
+   * @return the time stamp of the first pose read after the last {@link #setPose}, 0 if there was none
+   */
+  public long getResetTimestamp() {
+    return resetTimestamp;
+  }
+
+  public String getName() {
+    return localizer.getName();
+  }
+
+  /**
+   * @return one line for telemetry: the backend, pose, age and sample rate
+   */
+  public String summary() {
+    return String.format("%s %s, %.0f ms old, %.0f Hz", localizer.getName(), latest, getAgeMillis(), sampleRate);
+  }
+}
@@ -0,0 +1,146 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import java.util.List;
+
+/**
+ * Accumulates OBELISK AprilTag sightings across camera frames and decides which motif is being shown.
+ *
+ * <p>Each sighting casts a vote for its motif, weighted by the detection's {@code decisionMargin}
+ * (how cleanly the tag decoded) and scaled down with range (far tags are noisier). Once enough
+ * frames have been seen and the leading motif holds at least {@link #LOCK_CONFIDENCE} of the total
+ * weight, the estimate locks and further frames are ignored. Callers can then drop the camera into
+ * a low-cost mode via {@link Camera#setDetectionEnabled(boolean)} for the rest of INIT.</p>
+ */
+public class MotifEstimator {
+  /** Fraction of the total vote weight the leading motif needs before the estimate locks */
+  public static final double LOCK_CONFIDENCE = 0.85;
+  /** Minimum number of frames with an OBELISK sighting before the estimate may lock */
+  public static final int LOCK_MIN_FRAMES = 5;
+  /** Minimum accumulated weight for the leading motif before the estimate may lock */
+  public static final double LOCK_MIN_WEIGHT = 100;
+  /** Range (in inches) up to which a sighting gets its full weight; further sightings are scaled down */
+  public static final double FULL_WEIGHT_RANGE = 60;
+
+  private final Camera.OBELISK_MOTIF[] motifs = Camera.OBELISK_MOTIF.values();
+  private final double[] votes = new double[motifs.length];
+  private double totalVotes = 0;
+  private int framesObserved = 0;
+  private long lastFrameTime = 0;
+  private int framesToLock = -1;
+  private boolean locked = false;
+  private Camera.OBELISK_MOTIF lockedMotif = null;
+
+  /**
+   * Adds the OBELISK detections from one camera frame.
+   * @param detections every tag detected in the frame (non-OBELISK tags are ignored)
+   * @return true if the estimate is locked after this frame
+   */
+  public boolean update(List<Camera.AprilTag> detections) {
+    if (locked) {
+      return true;
+    }
+    boolean sawObelisk = false;
+    double frameWeight = 0;
+    for (int i = 0; i < detections.size(); i++) {
+      Camera.AprilTag tag = detections.get(i);
+      if (tag.position != Camera.AprilTagPosition.OBELISK || tag.obeliskMotif == null) {
+        continue;
+      }
+      if (tag.frameAcquisitionNanoTime == lastFrameTime) {
+        // The loop runs faster than the camera, don't count the same frame twice
+        return false;
+      }
+      double weight = weigh(tag.decisionMargin, tag.ftcPose != null ? tag.ftcPose.range : FULL_WEIGHT_RANGE);
+      votes[tag.obeliskMotif.ordinal()] += weight;
+      totalVotes += weight;
+      frameWeight += weight;
+      sawObelisk = true;
+    }
+    if (sawObelisk) {
+      lastFrameTime = detections.get(0).frameAcquisitionNanoTime;
+    }
+    if (frameWeight > 0) {
+      // Only frames that voted count, tags with no decision margin leave nothing to lead with
+      framesObserved++;
+      Camera.OBELISK_MOTIF leader = getMotif();
+      if (framesObserved >= LOCK_MIN_FRAMES && votes[leader.ordinal()] >= LOCK_MIN_WEIGHT
+          && getConfidence() >= LOCK_CONFIDENCE) {
+        locked = true;
+        lockedMotif = leader;
+        framesToLock = framesObserved;
+      }
+    }
+    return locked;
+  }
+
+  /**
+   * Calculates how much a single sighting counts towards its motif.
+   * @param decisionMargin the detection's decision margin (higher is a cleaner decode)
+   * @param range the distance to the tag in inches
+   * @return the vote weight
+   */
+  private double weigh(double decisionMargin, double range) {
+    double rangeScale = range <= FULL_WEIGHT_RANGE ? 1 : FULL_WEIGHT_RANGE / range;
+    return Math.max(0, decisionMargin) * rangeScale;
+  }
+
+  /**
+   * @return the locked motif, or the current leader if not yet locked (null if nothing has been seen)
+   */
+  public Camera.OBELISK_MOTIF getMotif() {
+    if (locked) {
+      return lockedMotif;
+    }
+    if (totalVotes <= 0) {
+      return null;
+    }
+    int best = 0;
+    for (int i = 1; i < votes.length; i++) {
+      if (votes[i] > votes[best]) {
+        best = i;
+      }
+    }
+    return motifs[best];
+  }
+
+  /**
+   * @return the leading motif's share of the total vote weight (0 to 1)
+   */
+  public double getConfidence() {
+    Camera.OBELISK_MOTIF leader = getMotif();
+    return leader == null ? 0 : votes[leader.ordinal()] / totalVotes;
+  }
+
+  public boolean isLocked() {
+    return locked;
+  }
+
+  /**
+   * @return the number of frames whose OBELISK sightings cast a vote so far
+   */
+  public int getFramesObserved() {
+    return framesObserved;
+  }
+
+  /**
+   * @return the number of frames it took to lock, or -1 if not yet locked
+   */
+  public int getFramesToLock() {
+    return framesToLock;
+  }
+
+  /**
+   * Clears all votes and unlocks the estimate.
+   */
+  public void reset() {
+    for (int i = 0; i < votes.length; i++) {
+      votes[i] = 0;
+    }
+    totalVotes = 0;
+    framesObserved = 0;
+    lastFrameTime = 0;
+    framesToLock = -1;
+    locked = false;
+    lockedMotif = null;
+  }
+}
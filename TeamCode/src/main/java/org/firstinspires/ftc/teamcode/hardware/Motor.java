@@ -4,15 +4,20 @@ import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.DcMotorSimple;
 import com.qualcomm.robotcore.hardware.PIDFCoefficients;
+import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
 
 /**
  * Lightweight wrapper around a DcMotorEx that lets you add your own helpers/logic
  * without trying to extend an interface. Use composition and delegate as needed.
+ * Calls that go to the hub are counted in {@link HubStats}. Once a {@link ReadScheduler} refreshes the
+ * motor, {@link #getVelocity()} answers with that reading.
  */
-public class Motor {
+public class Motor implements ReadScheduler.Refreshable {
   private final DcMotorEx motor;
   private final Light lights;
   private double ticksPerRotation;
+  private boolean scheduled = false;
+  private double velocity;
 
   public Motor(DcMotorEx motor) {
     this.motor = motor;
@@ -45,15 +50,32 @@ public class Motor {
 
   // Common delegated operations — add more as you need
   public void setPower(double power) {
+    long start = HubStats.start();
     motor.setPower(power);
+    HubStats.write(start);
   }
 
   public double getPower() {
-    return motor.getPower();
+    long start = HubStats.start();
+    double power = motor.getPower();
+    HubStats.read(start);
+    return power;
+  }
+
+  /**
+   * @return the current the motor draws, in amps
+   */
+  public double getCurrent() {
+    long start = HubStats.start();
+    double current = motor.getCurrent(CurrentUnit.AMPS);
+    HubStats.read(start);
+    return current;
   }
 
   public void setMode(DcMotor.RunMode mode) {
+    long start = HubStats.start();
     motor.setMode(mode);
+    HubStats.write(start);
   }
 
   public DcMotor.RunMode getMode() {
@@ -61,7 +83,9 @@ public class Motor {
   }
 
   public void setZeroPowerBehavior(DcMotor.ZeroPowerBehavior behavior) {
+    long start = HubStats.start();
     motor.setZeroPowerBehavior(behavior);
+    HubStats.write(start);
   }
 
   public DcMotor.ZeroPowerBehavior getZeroPowerBehavior() {
@@ -91,7 +115,7 @@ public class Motor {
   }
 
   public void setVelocity(double angularRate) {
-    motor.setVelocity(angularRate);
+    writeVelocity(angularRate);
     if (lights != null) {
       if (angularRate != 0) {
         if (atSpeed(angularRate)) {
@@ -109,26 +133,53 @@ public class Motor {
   }
 
   public double getVelocity() {
-    return motor.getVelocity();
+    if (scheduled) {
+      return velocity;
+    }
+    return readVelocity();
+  }
+
+  @Override
+  public void refresh() {
+    velocity = readVelocity();
+    scheduled = true;
+  }
+
+  private double readVelocity() {
+    long start = HubStats.start();
+    double velocity = motor.getVelocity();
+    HubStats.read(start);
+    return velocity;
+  }
+
+  private void writeVelocity(double angularRate) {
+    long start = HubStats.start();
+    motor.setVelocity(angularRate);
+    HubStats.write(start);
   }
 
   public void setTargetPosition(int position) {
+    long start = HubStats.start();
     motor.setTargetPosition(position);
+    HubStats.write(start);
   }
 
   public int getCurrentPosition() {
-    return motor.getCurrentPosition();
+    long start = HubStats.start();
+    int position = motor.getCurrentPosition();
+    HubStats.read(start);
+    return position;
   }
 
   public double setRPM(double rpm) {
     double ticksPerMinute = rpm * ticksPerRotation;
     double ticksPerSecond = ticksPerMinute / 60.0;
-    motor.setVelocity(ticksPerSecond);
+    writeVelocity(ticksPerSecond);
     return ticksPerSecond;
   }
 
   public double getRPM() {
-    double ticksPerSecond = motor.getVelocity();
+    double ticksPerSecond = getVelocity();
     double ticksPerMinute = ticksPerSecond * 60.0;
     return ticksPerMinute / ticksPerRotation;
   }
@@ -142,18 +193,43 @@ public class Motor {
   }
 
   public void setPIDFCoefficients(DcMotor.RunMode runMode, PIDFCoefficients coefficients) {
+    long start = HubStats.start();
     motor.setPIDFCoefficients(runMode, coefficients);
+    HubStats.write(start);
   }
 
   public void setPIDFCoefficients(PIDFCoefficients coefficients) {
-    motor.setPIDFCoefficients(DcMotor.RunMode.RUN_USING_ENCODER, coefficients);
+    setPIDFCoefficients(DcMotor.RunMode.RUN_USING_ENCODER, coefficients);
+  }
+
+  private final PIDFCoefficients appliedVelocityPIDF = new PIDFCoefficients(Double.NaN, Double.NaN, Double.NaN,
+      Double.NaN);
+
+  /**
+   * Sets the velocity PIDF, but only talks to the hub if the coefficients actually changed.
+   * @return true if the coefficients were sent to the motor
+   */
+  public boolean setVelocityPIDF(double p, double i, double d, double f) {
+    if (p == appliedVelocityPIDF.p && i == appliedVelocityPIDF.i && d == appliedVelocityPIDF.d
+        && f == appliedVelocityPIDF.f) {
+      return false;
+    }
+    appliedVelocityPIDF.p = p;
+    appliedVelocityPIDF.i = i;
+    appliedVelocityPIDF.d = d;
+    appliedVelocityPIDF.f = f;
+    setPIDFCoefficients(new PIDFCoefficients(p, i, d, f));
+    return true;
   }
 
   public PIDFCoefficients getPIDFCoefficients(DcMotor.RunMode runMode) {
-    return motor.getPIDFCoefficients(runMode);
+    long start = HubStats.start();
+    PIDFCoefficients coefficients = motor.getPIDFCoefficients(runMode);
+    HubStats.read(start);
+    return coefficients;
   }
 
   public PIDFCoefficients getPIDFCoefficients() {
-    return motor.getPIDFCoefficients(DcMotor.RunMode.RUN_USING_ENCODER);
+    return getPIDFCoefficients(DcMotor.RunMode.RUN_USING_ENCODER);
   }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.hardware.digitalchickenlabs.OctoQuad;
+import org.firstinspires.ftc.teamcode.core.EncoderBank;
+import org.firstinspires.ftc.teamcode.core.EncoderVelocity;
+
+/**
+ * The OctoQuad as an {@link EncoderBank}, so {@link EncoderVelocity} can read wheels plugged into it.
+ * {@link #readAll(int[], int[])} is one bulk read of every channel (see {@code SensorOctoQuadAdv}), each
+ * transaction is counted in {@link HubStats} as I2C.
+ */
+public class OctoQuadBank implements EncoderBank {
+  private final OctoQuad octoQuad;
+  private final OctoQuad.EncoderDataBlock data = new OctoQuad.EncoderDataBlock();
+
+  public OctoQuadBank(OctoQuad octoQuad) {
+    this.octoQuad = octoQuad;
+  }
+
+  @Override
+  public int getChannelCount() {
+    return OctoQuad.NUM_ENCODERS;
+  }
+
+  /**
+   * @param channel the channel
+   * @param reversed true if the encoder counts down when the wheel turns forward
+   */
+  public void setReversed(int channel, boolean reversed) {
+    long start = HubStats.start();
+    octoQuad.setSingleEncoderDirection(channel,
+        reversed ? OctoQuad.EncoderDirection.REVERSE : OctoQuad.EncoderDirection.FORWARD);
+    HubStats.i2c(start);
+  }
+
+  @Override
+  public void setVelocitySampleInterval(int channel, int milliseconds) {
+    long start = HubStats.start();
+    octoQuad.setSingleVelocitySampleInterval(channel, Math.max(OctoQuad.MIN_VELOCITY_MEASUREMENT_INTERVAL_MS,
+        Math.min(OctoQuad.MAX_VELOCITY_MEASUREMENT_INTERVAL_MS, milliseconds)));
+    HubStats.i2c(start);
+  }
+
+  @Override
+  public void readAll(int[] positions, int[] velocities) {
+    long start = HubStats.start();
+    octoQuad.readAllEncoderData(data);
+    HubStats.i2c(start);
+    for (int channel = 0; channel < OctoQuad.NUM_ENCODERS; channel++) {
+      positions[channel] = data.positions[channel];
+      velocities[channel] = data.velocities[channel];
+    }
+  }
+}
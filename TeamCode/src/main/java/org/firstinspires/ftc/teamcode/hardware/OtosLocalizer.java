@@ -0,0 +1,60 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.hardware.sparkfun.SparkFunOTOS;
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.teamcode.core.Localizer;
+import org.firstinspires.ftc.teamcode.core.RobotPose;
+
+/**
+ * The SparkFun OTOS optical tracking sensor as a {@link Localizer}, set up like {@code SensorSparkFunOTOS}.
+ * {@link #update()} reads position, velocity and acceleration in one burst.
+ */
+public class OtosLocalizer implements Localizer {
+  /**
+   * Where the sensor is from the center of the robot, in inches and radians: x to the right, y forwards,
+   * and how far it is turned counter-clockwise. Measure these on the robot.
+   */
+  public static final SparkFunOTOS.Pose2D OFFSET = new SparkFunOTOS.Pose2D(0, 0, 0);
+  // Corrections for distance and angle, 0.872 to 1.127, see the sample for how to measure them
+  public static final double LINEAR_SCALAR = 1.0;
+  public static final double ANGULAR_SCALAR = 1.0;
+
+  private final SparkFunOTOS otos;
+  private final SparkFunOTOS.Pose2D position = new SparkFunOTOS.Pose2D();
+  private final SparkFunOTOS.Pose2D velocity = new SparkFunOTOS.Pose2D();
+  private final SparkFunOTOS.Pose2D acceleration = new SparkFunOTOS.Pose2D();
+
+  /**
+   * Configures the OTOS and calibrates its IMU, the robot must be still and flat (call it during INIT,
+   * it takes about 0.6 seconds).
+   * @param otos the SDK driver
+   */
+  public OtosLocalizer(SparkFunOTOS otos) {
+    this.otos = otos;
+    // The units aren't kept by the sensor, they have to be set every time
+    otos.setLinearUnit(DistanceUnit.INCH);
+    otos.setAngularUnit(AngleUnit.RADIANS);
+    otos.setOffset(OFFSET);
+    otos.setLinearScalar(LINEAR_SCALAR);
+    otos.setAngularScalar(ANGULAR_SCALAR);
+    otos.calibrateImu();
+    otos.resetTracking();
+  }
+
+  @Override
+  public RobotPose update() {
+    otos.getPosVelAcc(position, velocity, acceleration);
+    return new RobotPose(position.x, position.y, position.h, velocity.x, velocity.y, velocity.h, System.nanoTime());
+  }
+
+  @Override
+  public void setPose(double x, double y, double heading) {
+    otos.setPosition(new SparkFunOTOS.Pose2D(x, y, heading));
+  }
+
+  @Override
+  public String getName() {
+    return "OTOS";
+  }
+}
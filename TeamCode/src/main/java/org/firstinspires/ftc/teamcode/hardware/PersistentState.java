@@ -0,0 +1,317 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.robotcore.util.RobotLog;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+
+/**
+ * Robot state that has to survive from autonomous into teleop, even if the Robot Controller
+ * restarts in between (which wipes the SDK {@code blackboard}).
+ *
+ * <p>The state lives in a small memory-mapped file with a fixed, versioned layout:</p>
+ * <pre>
+ *   header:  [magic int][version int]
+ *   slot 0:  [sequence long][payload][crc32 int]
+ *   slot 1:  [sequence long][payload][crc32 int]
+ * </pre>
+ * <p>Writes alternate between the two slots, so if the robot loses power halfway through a write
+ * the other slot still holds the previous complete record. On load, the slot with the highest
+ * sequence number whose checksum matches wins. Writes happen on a background thread, so
+ * {@link #save()} never blocks the loop; reads only touch the already-mapped memory.</p>
+ */
+public class PersistentState {
+  private static final int MAGIC = 0x4442_5354; // "DBST"
+  /** Bump this whenever the payload layout changes, older files are then ignored */
+  private static final int VERSION = 2;
+
+  private static final int HEADER_SIZE = 8;
+  // Payload offsets, relative to the start of the payload
+  private static final int MOTIF_ID = 0; // int
+  private static final int POSE_X = 4; // double
+  private static final int POSE_Y = 12; // double
+  private static final int POSE_HEADING = 20; // double
+  private static final int BALL_LEFT = 28; // byte
+  private static final int BALL_TOP = 29; // byte
+  private static final int BALL_RIGHT = 30; // byte
+  private static final int POSE_KNOWN = 31; // byte
+  private static final int SHOOTER_RPM_OFFSET = 32; // double
+  private static final int SAVED_AT = 40; // long
+  private static final int IMU_HEADING = 48; // double
+  private static final int PAYLOAD_SIZE = 56;
+  /** sequence + payload + crc */
+  private static final int SLOT_SIZE = 8 + PAYLOAD_SIZE + 4;
+  private static final int FILE_SIZE = HEADER_SIZE + 2 * SLOT_SIZE;
+
+  public static final File DEFAULT_FILE = new File(AppUtil.FIRST_FOLDER, "robot_state.dat");
+
+  private static PersistentState instance;
+
+  /**
+   * @return the shared state store, opened from {@link #DEFAULT_FILE} on first use
+   */
+  public static synchronized PersistentState getInstance() {
+    if (instance == null) {
+      instance = new PersistentState(DEFAULT_FILE);
+    }
+    return instance;
+  }
+
+  private final MappedByteBuffer buffer;
+  private final ExecutorService writer;
+  private final CRC32 crc = new CRC32();
+  private final byte[] scratch = new byte[8 + PAYLOAD_SIZE];
+
+  private long sequence = 0;
+  private boolean loaded = false;
+
+  private int motifId = 0;
+  private double poseX = 0;
+  private double poseY = 0;
+  private double poseHeading = 0;
+  private boolean poseKnown = false;
+  private double imuHeading = 0;
+  private final Indexer.BallColor[] balls = { Indexer.BallColor.NONE, Indexer.BallColor.NONE,
+      Indexer.BallColor.NONE };
+  private double shooterRPMOffset = 0;
+  private long savedAt = 0;
+
+  /**
+   * Opens (or creates) the state file and loads the newest valid record.
+   * If the file can't be mapped, the store still works but only in memory.
+   * @param file the file to map
+   */
+  public PersistentState(File file) {
+    MappedByteBuffer mapped = null;
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.setLength(FILE_SIZE);
+      mapped = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+    } catch (IOException e) {
+      RobotLog.ee("PersistentState", e, "Unable to map %s, state will not survive a restart", file);
+    }
+    this.buffer = mapped;
+    this.writer = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "PersistentState writer");
+      thread.setDaemon(true);
+      return thread;
+    });
+    if (buffer != null) {
+      load();
+    }
+  }
+
+  /**
+   * Reads the newest record whose checksum is valid.
+   */
+  private synchronized void load() {
+    if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+      return; // New file or old layout, start fresh
+    }
+    int bestSlot = -1;
+    long bestSequence = -1;
+    for (int slot = 0; slot < 2; slot++) {
+      int offset = slotOffset(slot);
+      long slotSequence = buffer.getLong(offset);
+      if (slotSequence > bestSequence && checksum(offset) == buffer.getInt(offset + 8 + PAYLOAD_SIZE)) {
+        bestSlot = slot;
+        bestSequence = slotSequence;
+      }
+    }
+    if (bestSlot < 0) {
+      return;
+    }
+    int payload = slotOffset(bestSlot) + 8;
+    sequence = bestSequence;
+    motifId = buffer.getInt(payload + MOTIF_ID);
+    poseX = buffer.getDouble(payload + POSE_X);
+    poseY = buffer.getDouble(payload + POSE_Y);
+    poseHeading = buffer.getDouble(payload + POSE_HEADING);
+    poseKnown = buffer.get(payload + POSE_KNOWN) != 0;
+    imuHeading = buffer.getDouble(payload + IMU_HEADING);
+    balls[0] = ballFromByte(buffer.get(payload + BALL_LEFT));
+    balls[1] = ballFromByte(buffer.get(payload + BALL_TOP));
+    balls[2] = ballFromByte(buffer.get(payload + BALL_RIGHT));
+    shooterRPMOffset = buffer.getDouble(payload + SHOOTER_RPM_OFFSET);
+    savedAt = buffer.getLong(payload + SAVED_AT);
+    loaded = true;
+  }
+
+  /**
+   * Writes the current values to the file on the background thread.
+   * Safe to call from the loop, it returns immediately.
+   */
+  public void save() {
+    if (buffer == null) {
+      return;
+    }
+    writer.execute(this::write);
+  }
+
+  private void write() {
+    synchronized (this) {
+      sequence++;
+      int offset = slotOffset((int) (sequence % 2));
+      int payload = offset + 8;
+      savedAt = System.currentTimeMillis();
+      buffer.putInt(0, MAGIC);
+      buffer.putInt(4, VERSION);
+      buffer.putLong(offset, sequence);
+      buffer.putInt(payload + MOTIF_ID, motifId);
+      buffer.putDouble(payload + POSE_X, poseX);
+      buffer.putDouble(payload + POSE_Y, poseY);
+      buffer.putDouble(payload + POSE_HEADING, poseHeading);
+      buffer.put(payload + POSE_KNOWN, (byte) (poseKnown ? 1 : 0));
+      buffer.putDouble(payload + IMU_HEADING, imuHeading);
+      buffer.put(payload + BALL_LEFT, (byte) balls[0].ordinal());
+      buffer.put(payload + BALL_TOP, (byte) balls[1].ordinal());
+      buffer.put(payload + BALL_RIGHT, (byte) balls[2].ordinal());
+      buffer.putDouble(payload + SHOOTER_RPM_OFFSET, shooterRPMOffset);
+      buffer.putLong(payload + SAVED_AT, savedAt);
+      buffer.putInt(payload + PAYLOAD_SIZE, checksum(offset));
+    }
+    // Flushing can take a few milliseconds, don't hold the lock the loop needs while it happens
+    buffer.force();
+  }
+
+  private static int slotOffset(int slot) {
+    return HEADER_SIZE + slot * SLOT_SIZE;
+  }
+
+  /**
+   * Calculates the CRC32 of a slot's sequence number and payload.
+   * @param offset the start of the slot
+   * @return the checksum
+   */
+  private int checksum(int offset) {
+    for (int i = 0; i < scratch.length; i++) {
+      scratch[i] = buffer.get(offset + i);
+    }
+    crc.reset();
+    crc.update(scratch, 0, scratch.length);
+    return (int) crc.getValue();
+  }
+
+  private static Indexer.BallColor ballFromByte(byte value) {
+    Indexer.BallColor[] colors = Indexer.BallColor.values();
+    return value >= 0 && value < colors.length ? colors[value] : Indexer.BallColor.UNKNOWN;
+  }
+
+  /**
+   * @return true if a valid record was found in the file when it was opened
+   */
+  public boolean isLoaded() {
+    return loaded;
+  }
+
+  /**
+   * @return how long ago (in milliseconds) the state was last saved, or Long.MAX_VALUE if never
+   */
+  public synchronized long getAgeMillis() {
+    return savedAt == 0 ? Long.MAX_VALUE : System.currentTimeMillis() - savedAt;
+  }
+
+  /**
+   * @return the stored obelisk motif, or null if none has been stored
+   */
+  public synchronized Camera.OBELISK_MOTIF getMotif() {
+    return Camera.OBELISK_MOTIF.fromId(motifId);
+  }
+
+  public synchronized void setMotif(Camera.OBELISK_MOTIF motif) {
+    this.motifId = motif == null ? 0 : motif.id;
+  }
+
+  /**
+   * Forgets what the last match stored (motif, pose, heading and indexer contents), call it when autonomous
+   * starts. Otherwise an autonomous that never sees the OBELISK saves the previous match's motif again
+   * and teleop takes it as current. The shooter RPM offset is kept, it isn't per match.
+   */
+  public synchronized void clearMatch() {
+    motifId = 0;
+    poseX = 0;
+    poseY = 0;
+    poseHeading = 0;
+    poseKnown = false;
+    imuHeading = 0;
+    for (int i = 0; i < balls.length; i++) {
+      balls[i] = Indexer.BallColor.NONE;
+    }
+  }
+
+  /**
+   * Stores the field pose at the end of autonomous (see {@code PoseFusion}), only when it is known.
+   * @param x field X in inches
+   * @param y field Y in inches
+   * @param heading field heading in radians
+   */
+  public synchronized void setPose(double x, double y, double heading) {
+    this.poseX = x;
+    this.poseY = y;
+    this.poseHeading = heading;
+    this.poseKnown = true;
+  }
+
+  /**
+   * @return true if autonomous stored a field pose since the last {@link #clearMatch()}
+   */
+  public synchronized boolean isPoseKnown() {
+    return poseKnown;
+  }
+
+  public synchronized double getPoseX() {
+    return poseX;
+  }
+
+  public synchronized double getPoseY() {
+    return poseY;
+  }
+
+  public synchronized double getPoseHeading() {
+    return poseHeading;
+  }
+
+  /**
+   * Stores the IMU heading at the end of autonomous, so teleop keeps the same "forward" (see {@link Imu}).
+   * It is kept apart from the field pose: that one's heading is the field's, not the driver's.
+   * @param heading heading in radians
+   */
+  public synchronized void setImuHeading(double heading) {
+    this.imuHeading = heading;
+  }
+
+  public synchronized double getImuHeading() {
+    return imuHeading;
+  }
+
+  /**
+   * Stores what is currently in the indexer.
+   * @param indexer the indexer to copy ball colors from
+   */
+  public synchronized void setIndexerContents(Indexer indexer) {
+    balls[0] = indexer.getBallColor(Indexer.Position.LEFT);
+    balls[1] = indexer.getBallColor(Indexer.Position.TOP);
+    balls[2] = indexer.getBallColor(Indexer.Position.RIGHT);
+  }
+
+  /**
+   * Restores the stored ball colors into the indexer.
+   * @param indexer the indexer to restore
+   */
+  public synchronized void restoreIndexerContents(Indexer indexer) {
+    indexer.setBallColors(balls[0], balls[1], balls[2]);
+  }
+
+  public synchronized double getShooterRPMOffset() {
+    return shooterRPMOffset;
+  }
+
+  public synchronized void setShooterRPMOffset(double offset) {
+    this.shooterRPMOffset = offset;
+  }
+}
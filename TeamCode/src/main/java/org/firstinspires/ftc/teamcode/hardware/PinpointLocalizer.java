@@ -0,0 +1,62 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.hardware.gobilda.GoBildaPinpointDriver;
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.Pose2D;
+import org.firstinspires.ftc.robotcore.external.navigation.UnnormalizedAngleUnit;
+import org.firstinspires.ftc.teamcode.core.Localizer;
+import org.firstinspires.ftc.teamcode.core.RobotPose;
+
+/**
+ * The goBILDA Pinpoint odometry computer as a {@link Localizer}, set up like {@code SensorGoBildaPinpoint}.
+ * {@link #update()} is the Pinpoint's bulk read of every register, the getters after it answer from that.
+ * The Pinpoint's X is forward and its Y to the left, they are turned into {@link RobotPose}'s axes.
+ */
+public class PinpointLocalizer implements Localizer {
+  // Where the pods are from the center of the robot, in millimeters: the X (forward) pod's offset to
+  // the left, the Y (strafe) pod's offset forwards. Measure these on the robot.
+  public static final double X_POD_OFFSET = 0;
+  public static final double Y_POD_OFFSET = 0;
+  public static final GoBildaPinpointDriver.GoBildaOdometryPods PODS =
+      GoBildaPinpointDriver.GoBildaOdometryPods.goBILDA_4_BAR_POD;
+  /** The X pod must count up driving forward and the Y pod driving left */
+  public static final GoBildaPinpointDriver.EncoderDirection X_DIRECTION =
+      GoBildaPinpointDriver.EncoderDirection.FORWARD;
+  public static final GoBildaPinpointDriver.EncoderDirection Y_DIRECTION =
+      GoBildaPinpointDriver.EncoderDirection.FORWARD;
+
+  private final GoBildaPinpointDriver pinpoint;
+
+  /**
+   * Configures the Pinpoint and recalibrates its IMU, the robot must be still (call it during INIT).
+   * @param pinpoint the SDK driver
+   */
+  public PinpointLocalizer(GoBildaPinpointDriver pinpoint) {
+    this.pinpoint = pinpoint;
+    pinpoint.setOffsets(X_POD_OFFSET, Y_POD_OFFSET, DistanceUnit.MM);
+    pinpoint.setEncoderResolution(PODS);
+    pinpoint.setEncoderDirections(X_DIRECTION, Y_DIRECTION);
+    pinpoint.resetPosAndIMU();
+  }
+
+  @Override
+  public RobotPose update() {
+    pinpoint.update();
+    long timestamp = System.nanoTime();
+    Pose2D pose = pinpoint.getPosition();
+    return new RobotPose(-pose.getY(DistanceUnit.INCH), pose.getX(DistanceUnit.INCH),
+        pose.getHeading(AngleUnit.RADIANS), -pinpoint.getVelY(DistanceUnit.INCH), pinpoint.getVelX(DistanceUnit.INCH),
+        pinpoint.getHeadingVelocity(UnnormalizedAngleUnit.RADIANS), timestamp);
+  }
+
+  @Override
+  public void setPose(double x, double y, double heading) {
+    pinpoint.setPosition(new Pose2D(DistanceUnit.INCH, y, -x, AngleUnit.RADIANS, heading));
+  }
+
+  @Override
+  public String getName() {
+    return "Pinpoint";
+  }
+}
@@ -0,0 +1,101 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import java.util.List;
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.Position;
+import org.firstinspires.ftc.teamcode.core.PoseFilter;
+import org.firstinspires.ftc.teamcode.core.RobotPose;
+
+/**
+ * The field pose from the odometry, corrected with the GOAL tags the camera sees (see {@link PoseFilter}).
+ *
+ * <p>Call {@link #update} once a loop on the loop thread, with the camera's tags when there are any. Only
+ * GOAL tags are used: the OBELISK is turned to show the motif, so its tags aren't anywhere fixed. Each
+ * detection is applied as of {@code frameAcquisitionNanoTime}, and the same detection coming back from
+ * the camera again is skipped.</p>
+ *
+ * <p>The odometry's own frame doesn't matter, only how it moves, so the start pose is set here. When the
+ * odometry is moved with {@link Localization#setPose} the estimate carries on from where it was rather
+ * than jumping with it.</p>
+ */
+public class PoseFusion {
+  /** Loops of history a detection can be late by, a second's worth at 20 ms loops */
+  public static final int HISTORY = 50;
+  /** How sure a declared start pose is */
+  public static final double START_POSITION_STD_DEV = 1;
+  public static final double START_HEADING_STD_DEV = Math.toRadians(2);
+
+  public final PoseFilter filter = new PoseFilter(HISTORY);
+  private final Localization localization;
+  private long lastFrameTime = 0;
+  private long lastOdometryTime = 0;
+
+  /**
+   * Starts with the pose unknown, the first GOAL tag places it.
+   * @param localization the odometry
+   */
+  public PoseFusion(Localization localization) {
+    this.localization = localization;
+  }
+
+  /**
+   * Declares where the robot is, e.g. the autonomous start position.
+   * @param x field x in inches
+   * @param y field y in inches
+   * @param heading heading in radians, counter-clockwise positive
+   */
+  public void setPose(double x, double y, double heading) {
+    filter.reset(x, y, heading, START_POSITION_STD_DEV, START_HEADING_STD_DEV);
+  }
+
+  /**
+   * Adds the latest odometry and any new GOAL tags.
+   * @param tags the camera's tags, null when there's no camera
+   * @return the corrected pose
+   */
+  public RobotPose update(List<Camera.AprilTag> tags) {
+    RobotPose odometry = localization.getPose();
+    long reset = localization.getResetTimestamp();
+    if (reset > lastOdometryTime && reset <= odometry.timestamp) {
+      // The odometry was moved since the last loop, start following it again from the estimate
+      RobotPose pose = filter.getPose();
+      filter.reset(pose.x, pose.y, pose.heading, filter.getPositionStdDev(), filter.getHeadingStdDev());
+    }
+    filter.addOdometry(odometry);
+    lastOdometryTime = odometry.timestamp;
+    if (tags != null) {
+      long frameTime = lastFrameTime;
+      for (Camera.AprilTag tag : tags) {
+        if (tag.position != Camera.AprilTagPosition.GOAL || tag.robotPose == null || tag.ftcPose == null
+            || tag.frameAcquisitionNanoTime <= lastFrameTime) {
+          continue;
+        }
+        Position position = tag.robotPose.getPosition().toUnit(DistanceUnit.INCH);
+        filter.addVision(position.x, position.y, tag.robotPose.getOrientation().getYaw(AngleUnit.RADIANS),
+            tag.ftcPose.range, tag.decisionMargin, tag.frameAcquisitionNanoTime);
+        frameTime = Math.max(frameTime, tag.frameAcquisitionNanoTime);
+      }
+      lastFrameTime = frameTime;
+    }
+    return filter.getPose();
+  }
+
+  /**
+   * @return the corrected pose as of the latest {@link #update}
+   */
+  public RobotPose getPose() {
+    return filter.getPose();
+  }
+
+  /**
+   * @return one line for telemetry: the pose, how sure it is and what happened to the tags
+   */
+  public String summary() {
+    int rejected = filter.getCount(PoseFilter.Result.LOW_MARGIN) + filter.getCount(PoseFilter.Result.OUTLIER)
+        + filter.getCount(PoseFilter.Result.TOO_OLD);
+    return String.format("%s, +/-%.1f in, +/-%.0f deg, %d tags used, %d rejected", filter.getPose(),
+        filter.getPositionStdDev(), Math.toDegrees(filter.getHeadingStdDev()),
+        filter.getCount(PoseFilter.Result.ACCEPTED), rejected);
+  }
+}
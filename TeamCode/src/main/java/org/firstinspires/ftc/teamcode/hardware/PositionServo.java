@@ -25,11 +25,14 @@ public class PositionServo {
    * @param position the position to set (in degrees)
    */
   public void setPosition(double position) {
+    long start = HubStats.start();
     servo.setPosition(scaleAngleToServoPosition(position));
+    HubStats.write(start);
   }
 
   /**
-   * @return the current position of the servo (in degrees)
+   * @return the current position of the servo (in degrees), this is the last commanded position which
+   * the SDK answers without asking the hub
    */
   public double getPosition() {
     return scaleServoPositionToAngle(servo.getPosition());
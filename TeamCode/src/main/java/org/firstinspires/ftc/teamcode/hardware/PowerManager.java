@@ -0,0 +1,67 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.robotcore.util.RobotLog;
+import org.firstinspires.ftc.teamcode.core.CurrentBudget;
+
+/**
+ * Keeps the total motor current within {@link Tuning#POWER_MAX_AMPS} so the shooter keeps its voltage,
+ * by throttling the lift and then the drive's acceleration (see {@link CurrentBudget}).
+ *
+ * <p>Currents are read a few times a second rather than every loop: each consumer's motors are a
+ * {@link ReadScheduler} source (see {@link #add(CurrentBudget.Consumer, Motor...)}), so the reads fit in
+ * the loop's I/O budget instead of competing with the loop from another thread. {@link Robot#managePower()}
+ * applies the result once per loop. Each time throttling starts it is written to the robot log with the
+ * currents.</p>
+ *
+ * <p>The budget only holds in OpModes that call {@link ReadScheduler#update()} and
+ * {@link Robot#managePower()} every loop. Every OpMode that spins the shooter alongside the drive or lift
+ * does, and so does JustDrive. ShooterTeleop and ShooterAutoTuner build a shooter-only robot, so there is
+ * nothing to throttle. The other diagnostics (lift, drive characterization and the like) run without a
+ * budget, since the shooter is off there. The shooter itself is never throttled, only the lift and the
+ * drive.</p>
+ */
+public class PowerManager {
+  /** The budget and the latest currents */
+  public final CurrentBudget budget = new CurrentBudget();
+  private long lastUpdate = 0;
+
+  /**
+   * @param consumer what the motors are
+   * @param motors the motors, their currents are added up
+   * @return reads the motors' current into {@link #budget}, add it to a {@link ReadScheduler}
+   */
+  public ReadScheduler.Refreshable add(final CurrentBudget.Consumer consumer, final Motor... motors) {
+    return new ReadScheduler.Refreshable() {
+      @Override
+      public void refresh() {
+        double amps = 0;
+        for (Motor motor : motors) {
+          amps += motor.getCurrent();
+        }
+        budget.setCurrent(consumer, amps);
+      }
+    };
+  }
+
+  /**
+   * Recomputes how much the lift and drive are throttled. Call it once per loop.
+   * @param voltage the battery voltage
+   */
+  public void update(double voltage) {
+    long now = System.nanoTime();
+    double dt = lastUpdate != 0 ? (now - lastUpdate) / 1e9 : 0;
+    lastUpdate = now;
+    boolean wasThrottling = budget.isThrottling();
+    if (budget.update(Tuning.POWER_MAX_AMPS.get(), voltage, Tuning.POWER_MIN_VOLTAGE.get(), dt)
+        && !wasThrottling) {
+      RobotLog.ii("PowerManager", "Throttling at %.2f V: %s", voltage, budget);
+    }
+  }
+
+  /**
+   * @return a telemetry line with the current of each consumer, the scales and the throttling events
+   */
+  public String summary() {
+    return budget.toString();
+  }
+}
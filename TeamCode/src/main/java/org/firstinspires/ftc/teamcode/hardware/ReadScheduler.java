@@ -0,0 +1,237 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+/**
+ * Decides which sensors are read each loop, instead of reading every device whenever some code asks.
+ *
+ * <p>Each source (the shooter encoders, the drive encoders, a color sensor...) declares how old its
+ * reading may get. Once {@link #update()} has refreshed a device, the wrapper ({@link Motor},
+ * {@link ColorDistanceSensor}, {@link Light}) answers from that reading instead of going to the hub,
+ * so the shooter's at-speed check and a telemetry line showing the drive RPM cost the same: nothing.
+ * Devices that aren't scheduled, or in an OpMode that never calls {@link #update()}, are read directly
+ * like before.</p>
+ *
+ * <p>Every loop the sources that would be too old by the next loop are read, most overdue first, until
+ * {@link Tuning#IO_BUDGET} is used up. A source that needs every loop (max age 0) is always read. How
+ * long each source takes is measured, so a slow read that doesn't fit the rest of the budget is left
+ * for the next loop rather than blowing it. With budget left over, Control Hub sources that are past
+ * half their max age are read early: Control Hub reads are fast, and reading them early spreads them
+ * over the loops. Expansion Hub reads go over RS-485 and take longer, they are only read when due.</p>
+ *
+ * <pre>
+ * // in loop()
+ * HubStats.nextLoop();
+ * robot.reads.update();
+ * ...
+ * telemetry.addLine(robot.reads.summary());
+ * </pre>
+ */
+public class ReadScheduler {
+  /** Which hub a source is on */
+  public enum Hub {
+    CONTROL, EXPANSION
+  }
+
+  /** A device the scheduler refreshes, the wrapper keeps the reading */
+  public interface Refreshable {
+    /** Reads the device and keeps the result until the next refresh */
+    void refresh();
+  }
+
+  /** How much of a new read time goes into a source's cost estimate */
+  private static final double COST_SMOOTHING = 0.2;
+  /** How much of a new loop time goes into the loop time estimate */
+  private static final double LOOP_SMOOTHING = 0.1;
+
+  /** One or more devices that are read together, with how fresh their reading has been */
+  public static class Source {
+    public final String name;
+    /** How old the reading may get, in seconds */
+    public final double maxAge;
+    public final Hub hub;
+    private final Refreshable[] devices;
+
+    private long readAt = 0;
+    private boolean read = false;
+    /** Estimated time a read takes, in seconds */
+    private double cost = 0;
+    private int reads = 0;
+    private int lateReads = 0;
+    private double ageSum = 0;
+    private double worstAge = 0;
+    /** Set during {@link #update()} for ordering */
+    private double urgency = 0;
+
+    private Source(String name, double maxAge, Hub hub, Refreshable[] devices) {
+      this.name = name;
+      this.maxAge = maxAge;
+      this.hub = hub;
+      this.devices = devices;
+    }
+
+    private void refresh(long now, double loopTime) {
+      double age = read ? (now - readAt) / 1e9 : 0;
+      for (Refreshable device : devices) {
+        device.refresh();
+      }
+      long end = System.nanoTime();
+      double time = (end - now) / 1e9;
+      cost = reads == 0 ? time : cost + (time - cost) * COST_SMOOTHING;
+      if (read) {
+        ageSum += age;
+        worstAge = Math.max(worstAge, age);
+        // Reads only happen once a loop, so only count it late if a loop where it was due was missed
+        if (age > Math.max(maxAge, 1.5 * loopTime)) {
+          lateReads++;
+        }
+        reads++;
+      }
+      read = true;
+      readAt = end;
+    }
+
+    /**
+     * @return the mean age of the reading when it was refreshed, in seconds (NaN before the second read)
+     */
+    public double getMeanAge() {
+      return reads > 0 ? ageSum / reads : Double.NaN;
+    }
+
+    /**
+     * @return the oldest the reading got before it was refreshed, in seconds
+     */
+    public double getWorstAge() {
+      return worstAge;
+    }
+
+    /**
+     * @return the fraction of refreshes that came later than {@link #maxAge} and a loop where it was due
+     * was skipped (0 to 1)
+     */
+    public double getLateFraction() {
+      return reads > 0 ? (double) lateReads / reads : 0;
+    }
+
+    /**
+     * @return the estimated time a read takes, in seconds
+     */
+    public double getCost() {
+      return cost;
+    }
+
+    private void clearStats() {
+      reads = 0;
+      lateReads = 0;
+      ageSum = 0;
+      worstAge = 0;
+    }
+  }
+
+  private Source[] sources = new Source[0];
+  /** The order the sources are considered in this loop, reused */
+  private Source[] order = new Source[0];
+  private long lastUpdate = 0;
+  private double loopTime = 0;
+  private double spent = 0;
+
+  /**
+   * Adds a source. Its devices are read from the hub directly until the first {@link #update()}.
+   * @param name shown in the {@link #summary()}
+   * @param maxAgeMs how old the reading may get in milliseconds, 0 to read it every loop
+   * @param hub the hub the devices are on
+   * @param devices the devices that are read together
+   * @return the source, for its freshness
+   */
+  public Source add(String name, double maxAgeMs, Hub hub, Refreshable... devices) {
+    Source source = new Source(name, maxAgeMs / 1000, hub, devices);
+    Source[] grown = new Source[sources.length + 1];
+    System.arraycopy(sources, 0, grown, 0, sources.length);
+    grown[sources.length] = source;
+    sources = grown;
+    order = new Source[sources.length];
+    return source;
+  }
+
+  /**
+   * Reads the sources that are due, within {@link Tuning#IO_BUDGET}. Call it once at the start of every
+   * loop, after {@link HubStats#nextLoop()}.
+   */
+  public void update() {
+    long now = System.nanoTime();
+    if (lastUpdate != 0) {
+      double dt = (now - lastUpdate) / 1e9;
+      loopTime = loopTime == 0 ? dt : loopTime + (dt - loopTime) * LOOP_SMOOTHING;
+    }
+    lastUpdate = now;
+
+    // Urgency: how far past its max age the reading will be by the next loop, relative to the max age
+    int count = 0;
+    for (Source source : sources) {
+      double ageNextLoop = source.read ? (now - source.readAt) / 1e9 + loopTime : Double.POSITIVE_INFINITY;
+      source.urgency = source.maxAge > 0 ? ageNextLoop / source.maxAge : Double.POSITIVE_INFINITY;
+      // Insertion sort, most urgent first, the Control Hub first when equally urgent
+      int i = count++;
+      while (i > 0 && before(source, order[i - 1])) {
+        order[i] = order[i - 1];
+        i--;
+      }
+      order[i] = source;
+    }
+
+    // Sources needed every loop are always read and don't count against the budget
+    double budget = Tuning.IO_BUDGET.get() / 1000;
+    double used = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < count; i++) {
+      Source source = order[i];
+      if (source.maxAge == 0) {
+        source.refresh(System.nanoTime(), loopTime);
+        continue;
+      }
+      boolean due = source.urgency > 1;
+      boolean early = source.hub == Hub.CONTROL && source.urgency > 0.5;
+      if ((due || early) && used + source.cost <= budget) {
+        long readStart = System.nanoTime();
+        source.refresh(readStart, loopTime);
+        used += (System.nanoTime() - readStart) / 1e9;
+      }
+    }
+    spent = (System.nanoTime() - start) / 1e9;
+  }
+
+  private static boolean before(Source a, Source b) {
+    if (a.urgency != b.urgency) {
+      return a.urgency > b.urgency;
+    }
+    return a.hub == Hub.CONTROL && b.hub != Hub.CONTROL;
+  }
+
+  /**
+   * @return the time the last {@link #update()} spent reading, in seconds
+   */
+  public double getSpent() {
+    return spent;
+  }
+
+  /**
+   * Forgets the freshness statistics, e.g. at the start of the match.
+   */
+  public void clearStats() {
+    for (Source source : sources) {
+      source.clearStats();
+    }
+  }
+
+  /**
+   * @return a telemetry line with the mean and worst age of every source against its max age, in
+   * milliseconds, and the share of late reads
+   */
+  public String summary() {
+    StringBuilder line = new StringBuilder(String.format("Reads %.1f ms (budget %.0f) |", spent * 1000,
+        Tuning.IO_BUDGET.get()));
+    for (Source source : sources) {
+      line.append(String.format(" %s %.0f/%.0f (%.0f) %.0f%% late", source.name, source.getMeanAge() * 1000,
+          source.worstAge * 1000, source.maxAge * 1000, source.getLateFraction() * 100));
+    }
+    return line.toString();
+  }
+}
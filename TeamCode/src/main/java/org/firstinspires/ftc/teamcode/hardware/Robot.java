@@ -1,21 +1,42 @@
 package org.firstinspires.ftc.teamcode.hardware;
 
+import com.qualcomm.hardware.digitalchickenlabs.OctoQuad;
+import com.qualcomm.hardware.gobilda.GoBildaPinpointDriver;
 import com.qualcomm.hardware.rev.RevColorSensorV3;
-import com.qualcomm.robotcore.hardware.ColorSensor;
+import com.qualcomm.hardware.sparkfun.SparkFunOTOS;
 import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.DcMotorSimple;
 import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.hardware.IMU;
 import com.qualcomm.robotcore.hardware.LED;
-import com.qualcomm.robotcore.hardware.PIDFCoefficients;
 import com.qualcomm.robotcore.hardware.Servo;
-import com.qualcomm.robotcore.util.Range;
 import com.qualcomm.robotcore.hardware.CRServo;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.core.CurrentBudget;
+import org.firstinspires.ftc.teamcode.core.EncoderVelocity;
+import org.firstinspires.ftc.teamcode.core.Feedforward;
+import org.firstinspires.ftc.teamcode.core.HeadingController;
+import org.firstinspires.ftc.teamcode.core.Localizer;
+import org.firstinspires.ftc.teamcode.core.MecanumKinematics;
 
 public class Robot {
   public final Motor leftShooter;
   public final Motor rightShooter;
   public final Shooter shooter;
+  /**
+   * The shooter speeds from an OctoQuad on {@link #OCTOQUAD} (shooter encoders split to channels
+   * {@link #LEFT_SHOOTER_CHANNEL} and {@link #RIGHT_SHOOTER_CHANNEL}), null when there isn't one and the
+   * hub's speeds are used
+   */
+  public final EncoderVelocity shooterEncoders;
+  public static final DeviceNames OCTOQUAD = DeviceNames.CH_I2C_1;
+  public static final int LEFT_SHOOTER_CHANNEL = 0;
+  public static final int RIGHT_SHOOTER_CHANNEL = 1;
 
   public final Motor frontLeft;
   public final Motor frontRight;
@@ -31,193 +52,543 @@ public class Robot {
   public final Intake intake;
 
   public final PositionServo indexerServo;
-  public final RevColorSensorV3 leftColorSensor;
-  public final RevColorSensorV3 rightColorSensor;
+  public final ColorDistanceSensor leftColorSensor;
+  public final ColorDistanceSensor rightColorSensor;
   public final Indexer indexer;
 
   public final Light statusLed;
 
+  public final Imu imu;
+
+  /**
+   * The field pose, from whichever odometry device the robot configuration has on {@link #LOCALIZER}: a
+   * goBILDA Pinpoint or a SparkFun OTOS. Null without the LOCALIZER subsystem or either device.
+   */
+  public final Localization localization;
+  public static final DeviceNames LOCALIZER = DeviceNames.CH_I2C_2;
+  /** The field pose corrected with the GOAL tags, null when {@link #localization} is */
+  public final PoseFusion poseFusion;
+
+  /** The battery voltage the shooter and drive compensate for, null without either of them */
+  public final BatteryMonitor battery;
+
+  /** Throttles the lift and drive to keep the total current within budget, see {@link #managePower()} */
+  public final PowerManager power = new PowerManager();
+
+  /** Refreshes the sensors each loop by how fresh they need to be, see {@link ReadScheduler} */
+  public final ReadScheduler reads = new ReadScheduler();
+
+  /** The subsystems a Robot can be built with, see {@link Builder} */
+  public enum Subsystem {
+    DRIVE,
+    SHOOTER,
+    INTAKE,
+    INDEXER,
+    LIFT,
+    LIGHT,
+    IMU,
+    LOCALIZER
+  }
+
+  // Calculate drive motor PPR (Pulses Per Rotation) based on gear ratio
+  // Formula: ((1 + (stage1_ratio)) * (1 + (stage2_ratio))) * base_motor_PPR
+  // Gear ratios: 46:17 (stage 1) and 46:11 (stage 2)
+  // Base motor: 28 PPR (likely a bare motor encoder count)
+  // Result: ~383.748 ticks per wheel revolution
+  public static final double DRIVE_PPR = ((((1 + (46.0 / 17.0))) * (1 + (46.0 / 11.0))) * 28.0);
+
+  /** How long each selected subsystem took to look up and configure, in milliseconds */
+  private final EnumMap<Subsystem, Double> initTimes = new EnumMap<>(Subsystem.class);
+
+  /**
+   * Creates a robot with every subsystem.
+   * OpModes that only use part of the robot should use {@link Builder} instead, since every device that gets
+   * configured here costs INIT time and hub writes.
+   * @param hardwareMap the OpMode's hardware map
+   */
   public Robot(HardwareMap hardwareMap) {
+    this(hardwareMap, EnumSet.allOf(Subsystem.class));
+  }
+
+  /**
+   * Creates a robot with only the given subsystems. Fields belonging to subsystems that were not selected are null.
+   * @param hardwareMap the OpMode's hardware map
+   * @param subsystems the subsystems to look up and configure
+   */
+  public Robot(HardwareMap hardwareMap, Set<Subsystem> subsystems) {
     // Initialize hardware here
+    Tuning.start();
+    HubStats.reset();
+    long start;
+
+    if (subsystems.contains(Subsystem.SHOOTER) || subsystems.contains(Subsystem.DRIVE)) {
+      this.battery = new BatteryMonitor(hardwareMap);
+      this.battery.start();
+      shooterVoltage = battery.getVoltage();
+    } else {
+      this.battery = null;
+    }
+
+    if (subsystems.contains(Subsystem.SHOOTER)) {
+      start = System.nanoTime();
+      // Shooter motors: Direct drive (no gearbox), 28 PPR encoders
+      // Operating at ~3000 RPM constant speed for ball launching
+      this.leftShooter = new Motor(hardwareMap.get(DcMotorEx.class, DeviceNames.EH_MOTOR_0.getDeviceName()), 28);
+      this.rightShooter = new Motor(hardwareMap.get(DcMotorEx.class, DeviceNames.EH_MOTOR_1.getDeviceName()), 28);
+      this.rightShooter.setDirection(DcMotorSimple.Direction.REVERSE);
+      this.shooter = new Shooter(this.leftShooter, this.rightShooter, this.battery);
+      // Optional: the shooter encoders also wired to an OctoQuad, both read in one transaction
+      OctoQuad octoQuad = hardwareMap.tryGet(OctoQuad.class, OCTOQUAD.getDeviceName());
+      if (octoQuad != null) {
+        OctoQuadBank bank = new OctoQuadBank(octoQuad);
+        bank.setReversed(RIGHT_SHOOTER_CHANNEL, true);
+        this.shooterEncoders = new EncoderVelocity(bank, 28, (int) Tuning.SHOOTER_SAMPLE_INTERVAL.get(),
+            LEFT_SHOOTER_CHANNEL, RIGHT_SHOOTER_CHANNEL);
+        shooter.setVelocitySource(shooterEncoders);
+      } else {
+        this.shooterEncoders = null;
+      }
+
+      // Apply PIDF to each shooter motor, the values live in the tuning file (see Tuning.SHOOTER_LEFT_P etc.)
+      // For detailed shooter tuning instructions, see: TeamDocs/PIDF_Shooter_Tuning_Guide.md
+      // For quick reference, see: TeamDocs/PIDF_Shooter_Quick_Reference.md
+      applyShooterTuning();
+      initTimes.put(Subsystem.SHOOTER, (System.nanoTime() - start) / 1e6);
+    } else {
+      this.leftShooter = null;
+      this.rightShooter = null;
+      this.shooter = null;
+      this.shooterEncoders = null;
+    }
+
+    if (subsystems.contains(Subsystem.INTAKE)) {
+      start = System.nanoTime();
+      this.intakeServoLeft = hardwareMap.get(CRServo.class, DeviceNames.CH_SERVO_0.getDeviceName());
+      this.intakeServoRight = hardwareMap.get(CRServo.class, DeviceNames.EH_SERVO_0.getDeviceName());
+      this.intakeServoRight.setDirection(CRServo.Direction.REVERSE);
+      this.intake = new Intake(this.intakeServoLeft, this.intakeServoRight);
+      initTimes.put(Subsystem.INTAKE, (System.nanoTime() - start) / 1e6);
+    } else {
+      this.intakeServoLeft = null;
+      this.intakeServoRight = null;
+      this.intake = null;
+    }
+
+    if (subsystems.contains(Subsystem.DRIVE)) {
+      start = System.nanoTime();
+      this.frontLeft = new Motor(hardwareMap.get(DcMotorEx.class, DeviceNames.CH_MOTOR_2.getDeviceName()),
+          DRIVE_PPR);
+      this.frontLeft.setDirection(DcMotorSimple.Direction.REVERSE);
+      this.frontRight = new Motor(hardwareMap.get(DcMotorEx.class, DeviceNames.CH_MOTOR_3.getDeviceName()),
+          DRIVE_PPR);
+      this.rearLeft = new Motor(hardwareMap.get(DcMotorEx.class, DeviceNames.CH_MOTOR_0.getDeviceName()),
+          DRIVE_PPR);
+      this.rearLeft.setDirection(DcMotorSimple.Direction.REVERSE);
+      this.rearRight = new Motor(hardwareMap.get(DcMotorEx.class, DeviceNames.CH_MOTOR_1.getDeviceName()),
+          DRIVE_PPR);
+      // The wheels are driven by feedforward (see drive()), measured with the Drive Characterization OpMode,
+      // instead of the hub's velocity PIDF with a theoretical F. See TeamDocs/Drive_Characterization.md
+      this.frontLeft.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+      this.frontRight.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+      this.rearLeft.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+      this.rearRight.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+      applyDriveTuning();
+      initTimes.put(Subsystem.DRIVE, (System.nanoTime() - start) / 1e6);
+    } else {
+      this.frontLeft = null;
+      this.frontRight = null;
+      this.rearLeft = null;
+      this.rearRight = null;
+    }
+
+    if (subsystems.contains(Subsystem.INDEXER)) {
+      start = System.nanoTime();
+      this.indexerServo = new PositionServo(hardwareMap.get(Servo.class, DeviceNames.CH_SERVO_1.getDeviceName()),
+          1800, PositionServo.ServoMode.CENTERED);
+      this.leftColorSensor = new ColorDistanceSensor(
+          hardwareMap.get(RevColorSensorV3.class, DeviceNames.EH_I2C_0.getDeviceName()));
+      this.rightColorSensor = new ColorDistanceSensor(
+          hardwareMap.get(RevColorSensorV3.class, DeviceNames.CH_I2C_0.getDeviceName()));
+      this.indexer = new Indexer(this.indexerServo, this.leftColorSensor, this.rightColorSensor);
+      initTimes.put(Subsystem.INDEXER, (System.nanoTime() - start) / 1e6);
+    } else {
+      this.indexerServo = null;
+      this.leftColorSensor = null;
+      this.rightColorSensor = null;
+      this.indexer = null;
+    }
+
+    if (subsystems.contains(Subsystem.LIFT)) {
+      start = System.nanoTime();
+      this.leftLift = new Motor(hardwareMap.get(DcMotorEx.class, DeviceNames.EH_MOTOR_2.getDeviceName()), 28);
+      this.rightLift = new Motor(hardwareMap.get(DcMotorEx.class, DeviceNames.EH_MOTOR_3.getDeviceName()), 28);
+      this.lift = new Lift(this.leftLift, this.rightLift);
+      lift.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+      applyLiftTuning();
+      initTimes.put(Subsystem.LIFT, (System.nanoTime() - start) / 1e6);
+    } else {
+      this.leftLift = null;
+      this.rightLift = null;
+      this.lift = null;
+    }
 
-    // Shooter motors: Direct drive (no gearbox), 28 PPR encoders
-    // Operating at ~3000 RPM constant speed for ball launching
-    this.leftShooter = new Motor(hardwareMap.get(DcMotorEx.class, DeviceNames.EH_MOTOR_0.getDeviceName()), 28);
-    this.rightShooter = new Motor(hardwareMap.get(DcMotorEx.class, DeviceNames.EH_MOTOR_1.getDeviceName()), 28);
-    this.rightShooter.setDirection(DcMotorSimple.Direction.REVERSE);
-
-    PIDFCoefficients shooterPIDF = new PIDFCoefficients(
-        45.0, // P - High for quick load response (corrected scale)
-        8.0, // I - Strong for consistent performance (corrected scale)
-        3.0, // D - Moderate to prevent overshoot (corrected scale)
-        23.0 // F - Feedforward for 3000 RPM baseline (32767/1400, corrected scale)
-    );
-    // Apply PIDF to both shooter motors
-    this.leftShooter.setPIDFCoefficients(shooterPIDF); // For detailed shooter tuning instructions, see: TeamDocs/PIDF_Shooter_Tuning_Guide.md
-    this.rightShooter.setPIDFCoefficients(shooterPIDF); // For quick reference, see: TeamDocs/PIDF_Shooter_Quick_Reference.md
-
-    this.intakeServoLeft = hardwareMap.get(CRServo.class, DeviceNames.CH_SERVO_0.getDeviceName());
-    this.intakeServoRight = hardwareMap.get(CRServo.class, DeviceNames.EH_SERVO_0.getDeviceName());
-    this.intakeServoRight.setDirection(CRServo.Direction.REVERSE);
-    this.intake = new Intake(this.intakeServoLeft, this.intakeServoRight);
-
-    this.shooter = new Shooter(this.leftShooter, this.rightShooter);
-
-    // Calculate drive motor PPR (Pulses Per Rotation) based on gear ratio
-    // Formula: ((1 + (stage1_ratio)) * (1 + (stage2_ratio))) * base_motor_PPR
-    // Gear ratios: 46:17 (stage 1) and 46:11 (stage 2)
-    // Base motor: 28 PPR (likely a bare motor encoder count)
-    // Result: ~383.748 ticks per wheel revolution
-    double drivePPR = ((((1 + (46.0 / 17.0))) * (1 + (46.0 / 11.0))) * 28.0);
-
-    this.frontLeft = new Motor(hardwareMap.get(DcMotorEx.class, DeviceNames.CH_MOTOR_2.getDeviceName()),
-        drivePPR);
-    this.frontLeft.setDirection(DcMotorSimple.Direction.REVERSE);
-    this.frontRight = new Motor(hardwareMap.get(DcMotorEx.class, DeviceNames.CH_MOTOR_3.getDeviceName()),
-        drivePPR);
-    this.rearLeft = new Motor(hardwareMap.get(DcMotorEx.class, DeviceNames.CH_MOTOR_0.getDeviceName()),
-        drivePPR);
-    this.rearLeft.setDirection(DcMotorSimple.Direction.REVERSE);
-    this.rearRight = new Motor(hardwareMap.get(DcMotorEx.class, DeviceNames.CH_MOTOR_1.getDeviceName()),
-        drivePPR);
-
-    // ==================================================================================
-    // PIDF TUNING SECTION FOR DRIVE MOTORS
-    // ==================================================================================
-    // The drive motors peak at 300 RPM but typically operate around 200 RPM.
-    // When using velocity control (setRPM/setVelocity), PIDF coefficients help the
-    // motors accurately maintain target speeds.
-    //
-    // PIDF COMPONENTS EXPLAINED:
-    // - P (Proportional): Responds to current error (target - actual speed)
-    //   * Higher P = faster response but may cause oscillation
-    //   * Formula contribution: Kp × error
-    //
-    // - I (Integral): Eliminates steady-state error by accumulating past errors
-    //   * Higher I = reaches exact target but may cause overshoot
-    //   * Formula contribution: Ki × Σ(error)
-    //
-    // - D (Derivative): Dampens oscillation by responding to error rate of change
-    //   * Higher D = less overshoot but may slow response
-    //   * Formula contribution: Kd × Δ(error)
-    //
-    // - F (Feedforward): Anticipates needed power based on target velocity
-    //   * This is the MOST IMPORTANT coefficient for velocity control
-    //   * Formula contribution: Kf × target_velocity
-    //
-    // CALCULATING PIDF VALUES FOR YOUR MOTORS:
-    //
-    // IMPORTANT: FTC velocity PIDF uses a different scale than normalized (0-1) control!
-    // Default REV motor PIDF values are typically P=10, I=3, D=0, F=0 (not 0.01, 0.003, etc.)
-    //
-    // Step 1: Calculate maximum velocity in ticks/second
-    //   Max velocity = (300 RPM × 383.748 PPR) / 60 seconds = 1918.74 ticks/sec
-    //   Typical velocity = (200 RPM × 383.748 PPR) / 60 seconds = 1279.16 ticks/sec
-    //
-    // Step 2: Calculate F (Feedforward) - Start here!
-    //   For FTC velocity control: F = 32767 / max_velocity_ticks_per_sec
-    //   F = 32767 / 1918.74 ≈ 17.07
-    //   Recommended starting value: Kf = 17.0
-    //   (This provides baseline power proportional to target velocity)
-    //
-    // Step 3: Calculate P (Proportional)
-    //   Start with default working value: Kp = 10.0
-    //   Increase if response is too slow (try 12-15)
-    //   Decrease if motor oscillates (try 7-9)
-    //
-    // Step 4: Calculate I (Integral)
-    //   Start with default working value: Ki = 3.0
-    //   Increase to 4-5 if motor doesn't reach target speed
-    //   Decrease to 1-2 if motor overshoots or oscillates
-    //
-    // Step 5: Calculate D (Derivative)
-    //   Start with: Kd = 0.0 (usually not needed for velocity control)
-    //   Add small value (0.5-2.0) only if oscillation occurs
-    //
-    // RECOMMENDED STARTING VALUES (for 200-300 RPM operation):
-    //   Kp = 12.0    // Proportional gain (improved from default 10)
-    //   Ki = 3.0     // Integral gain (keep default, works well)
-    //   Kd = 0.0     // Derivative gain (not needed)
-    //   Kf = 17.0    // Feedforward gain (CRITICAL - was missing!)
-    //
-    // TO APPLY THESE VALUES, uncomment and customize the code below:
-    /*
-    // Set motors to use velocity control with encoders
-    frontLeft.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-    frontRight.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-    rearLeft.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-    rearRight.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-    
-    // Define PIDF coefficients
-    // These values are tuned for ~200-300 RPM operation
-    // Note: FTC velocity PIDF uses larger scale than normalized control
-    // Default REV values are P=10, I=3, D=0, F=0
-    // We add F=17 for feedforward and increase P slightly for better response
-    PIDFCoefficients drivePIDF = new PIDFCoefficients(
-    12.0,  // P - Proportional gain (increased from default 10 for better response)
-    3.0,   // I - Integral gain (default, works well)
-    0.0,   // D - Derivative gain (not needed for velocity control)
-    17.0   // F - Feedforward gain (CRITICAL for velocity control: 32767/1918.74)
-    );
-    
-    // Apply PIDF to each drive motor
-    // Note: Requires REV Expansion Hub/Control Hub with firmware 1.8.2 or higher
-    frontLeft.asDcMotorEx().setVelocityPIDFCoefficients(
-    drivePIDF.p, drivePIDF.i, drivePIDF.d, drivePIDF.f);
-    frontRight.asDcMotorEx().setVelocityPIDFCoefficients(
-    drivePIDF.p, drivePIDF.i, drivePIDF.d, drivePIDF.f);
-    rearLeft.asDcMotorEx().setVelocityPIDFCoefficients(
-    drivePIDF.p, drivePIDF.i, drivePIDF.d, drivePIDF.f);
-    rearRight.asDcMotorEx().setVelocityPIDFCoefficients(
-    drivePIDF.p, drivePIDF.i, drivePIDF.d, drivePIDF.f);
-    */
-
-    // TUNING TIPS:
-    // 1. Start with F only (set P=I=D=0), tune until motor approximately reaches target
-    //    - For FTC velocity control, F should be around 32767 / max_ticks_per_sec
-    //    - This gives F ≈ 17 for your motors (was 0 in defaults, causing poor tracking!)
-    // 2. Add P to improve response time and accuracy (start with P=10, adjust 7-15 range)
-    // 3. Add I only if motor doesn't quite reach target speed (default I=3 works well)
-    // 4. Add D only if motor oscillates or overshoots (usually D=0 for velocity control)
-    // 5. Test under actual robot load conditions!
-    //
-    // WHY PREVIOUS VALUES WERE TOO LOW:
-    // The previous PIDF values (P=0.015, I=0.0003, D=0.0002, F=0.0008) were calculated
-    // using formulas for normalized (0-1) control systems. FTC's velocity PIDF uses
-    // a different internal scale where typical values are P=10, I=3, F=17, not 0.01!
-    // This is roughly 1000x larger scale than assumed. The correct F formula is:
-    //   F = 32767 / max_velocity_ticks_per_sec  (NOT 1.0 / max_velocity)
-    //
-    // For detailed tuning instructions, see: TeamDocs/PIDF_Tuning_Guide.md
-    // ==================================================================================
-
-    this.indexerServo = new PositionServo(hardwareMap.get(Servo.class, DeviceNames.CH_SERVO_1.getDeviceName()), 1800,
-        PositionServo.ServoMode.CENTERED);
-    this.leftColorSensor = hardwareMap.get(RevColorSensorV3.class, DeviceNames.EH_I2C_0.getDeviceName());
-    this.rightColorSensor = hardwareMap.get(RevColorSensorV3.class, DeviceNames.CH_I2C_0.getDeviceName());
-    this.indexer = new Indexer(this.indexerServo, this.leftColorSensor, this.rightColorSensor);
-
-    this.leftLift = new Motor(hardwareMap.get(DcMotorEx.class, DeviceNames.EH_MOTOR_2.getDeviceName()), 28);
-    this.rightLift = new Motor(hardwareMap.get(DcMotorEx.class, DeviceNames.EH_MOTOR_3.getDeviceName()), 28);
-    this.lift = new Lift(this.leftLift, this.rightLift);
-    lift.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
-
-    this.statusLed = new Light(hardwareMap.get(LED.class, DeviceNames.CH_DIGITAL_0.getDeviceName()),
-        hardwareMap.get(LED.class, DeviceNames.CH_DIGITAL_1.getDeviceName()));
+    if (subsystems.contains(Subsystem.LIGHT)) {
+      start = System.nanoTime();
+      this.statusLed = new Light(hardwareMap.get(LED.class, DeviceNames.CH_DIGITAL_0.getDeviceName()),
+          hardwareMap.get(LED.class, DeviceNames.CH_DIGITAL_1.getDeviceName()));
+      initTimes.put(Subsystem.LIGHT, (System.nanoTime() - start) / 1e6);
+    } else {
+      this.statusLed = null;
+    }
+
+    if (subsystems.contains(Subsystem.IMU)) {
+      start = System.nanoTime();
+      this.imu = new Imu(hardwareMap.get(IMU.class, DeviceNames.CH_IMU.getDeviceName()));
+      this.imu.start();
+      applyHeadingTuning();
+      initTimes.put(Subsystem.IMU, (System.nanoTime() - start) / 1e6);
+    } else {
+      this.imu = null;
+    }
+
+    if (subsystems.contains(Subsystem.LOCALIZER)) {
+      start = System.nanoTime();
+      Localizer localizer = findLocalizer(hardwareMap);
+      if (localizer != null) {
+        this.localization = new Localization(localizer);
+        this.localization.start();
+        this.poseFusion = new PoseFusion(localization);
+        applyPoseTuning();
+      } else {
+        this.localization = null;
+        this.poseFusion = null;
+      }
+      initTimes.put(Subsystem.LOCALIZER, (System.nanoTime() - start) / 1e6);
+    } else {
+      this.localization = null;
+      this.poseFusion = null;
+    }
+
+    // The shooter's at-speed check and shot detection need its speed every loop. The drive speed is only
+    // shown and the indexer looks for a ball while it is stopped, so they can be a few loops old.
+    // The IMU and the localizer are read on their own threads and the lift doesn't read anything.
+    // With an OctoQuad both shooter speeds are one read every loop, the hub's are then only shown.
+    if (shooterEncoders != null) {
+      reads.add("Shooter", 0, ReadScheduler.Hub.CONTROL, shooterEncoders::read);
+      reads.add("Shooter Hub", 100, ReadScheduler.Hub.EXPANSION, leftShooter, rightShooter);
+    } else if (shooter != null) {
+      reads.add("Shooter", 0, ReadScheduler.Hub.EXPANSION, leftShooter, rightShooter);
+    }
+    if (frontLeft != null) {
+      reads.add("Drive", 50, ReadScheduler.Hub.CONTROL, frontLeft, frontRight, rearLeft, rearRight);
+    }
+    if (indexer != null) {
+      reads.add("Color L", 100, ReadScheduler.Hub.EXPANSION, leftColorSensor);
+      reads.add("Color R", 100, ReadScheduler.Hub.CONTROL, rightColorSensor);
+    }
+    if (statusLed != null) {
+      reads.add("Light", 500, ReadScheduler.Hub.CONTROL, statusLed);
+    }
+    // Currents only need to catch a sustained overload, not every spike
+    if (shooter != null) {
+      reads.add("Amps S", 200, ReadScheduler.Hub.EXPANSION,
+          power.add(CurrentBudget.Consumer.SHOOTER, leftShooter, rightShooter));
+    }
+    if (frontLeft != null) {
+      reads.add("Amps D", 200, ReadScheduler.Hub.CONTROL,
+          power.add(CurrentBudget.Consumer.DRIVE, frontLeft, frontRight, rearLeft, rearRight));
+    }
+    if (lift != null) {
+      reads.add("Amps L", 200, ReadScheduler.Hub.EXPANSION,
+          power.add(CurrentBudget.Consumer.LIFT, leftLift, rightLift));
+    }
+  }
+
+  /**
+   * Selects which subsystems a {@link Robot} is built with, so OpModes that only use part of the robot
+   * don't pay for looking up and configuring the rest.
+   * <pre>
+   * robot = new Robot.Builder(hardwareMap).drive().build();
+   * </pre>
+   */
+  public static class Builder {
+    private final HardwareMap hardwareMap;
+    private final EnumSet<Subsystem> subsystems = EnumSet.noneOf(Subsystem.class);
+
+    public Builder(HardwareMap hardwareMap) {
+      this.hardwareMap = hardwareMap;
+    }
+
+    public Builder drive() {
+      subsystems.add(Subsystem.DRIVE);
+      return this;
+    }
+
+    public Builder shooter() {
+      subsystems.add(Subsystem.SHOOTER);
+      return this;
+    }
+
+    public Builder intake() {
+      subsystems.add(Subsystem.INTAKE);
+      return this;
+    }
+
+    public Builder indexer() {
+      subsystems.add(Subsystem.INDEXER);
+      return this;
+    }
+
+    public Builder lift() {
+      subsystems.add(Subsystem.LIFT);
+      return this;
+    }
+
+    public Builder light() {
+      subsystems.add(Subsystem.LIGHT);
+      return this;
+    }
+
+    public Builder imu() {
+      subsystems.add(Subsystem.IMU);
+      return this;
+    }
+
+    public Builder localizer() {
+      subsystems.add(Subsystem.LOCALIZER);
+      return this;
+    }
+
+    public Robot build() {
+      return new Robot(hardwareMap, subsystems);
+    }
+  }
+
+  /**
+   * Looks up the odometry device on {@link #LOCALIZER}, so swapping it is a change to the robot
+   * configuration only.
+   * @return the device, null if there is none
+   */
+  private static Localizer findLocalizer(HardwareMap hardwareMap) {
+    GoBildaPinpointDriver pinpoint = hardwareMap.tryGet(GoBildaPinpointDriver.class, LOCALIZER.getDeviceName());
+    if (pinpoint != null) {
+      return new PinpointLocalizer(pinpoint);
+    }
+    SparkFunOTOS otos = hardwareMap.tryGet(SparkFunOTOS.class, LOCALIZER.getDeviceName());
+    if (otos != null) {
+      return new OtosLocalizer(otos);
+    }
+    return null;
+  }
+
+  /**
+   * Stops background threads (the IMU, localizer and battery samplers). Every OpMode that builds a Robot
+   * calls this from its stop(), or at the end of runOpMode(), otherwise the samplers keep reading the hubs
+   * after STOP.
+   */
+  public void stop() {
+    if (imu != null) {
+      imu.stop();
+    }
+    if (localization != null) {
+      localization.stop();
+    }
+    if (battery != null) {
+      battery.stop();
+    }
+  }
+
+  /**
+   * @param subsystem the subsystem to check
+   * @return true if the robot was built with the subsystem
+   */
+  public boolean has(Subsystem subsystem) {
+    return initTimes.containsKey(subsystem);
+  }
+
+  /**
+   * @param subsystem the subsystem to check
+   * @return how long the subsystem took to initialize in milliseconds, or 0 if it was not selected
+   */
+  public double getInitTime(Subsystem subsystem) {
+    Double time = initTimes.get(subsystem);
+    return time != null ? time : 0;
+  }
+
+  /**
+   * Adds a line with the initialization time of every selected subsystem.
+   * @param telemetry the telemetry to add to
+   */
+  public void telemetryInitTimes(Telemetry telemetry) {
+    StringBuilder line = new StringBuilder("Init (ms):");
+    double total = 0;
+    for (Map.Entry<Subsystem, Double> entry : initTimes.entrySet()) {
+      line.append(String.format(" %s %.1f |", entry.getKey(), entry.getValue()));
+      total += entry.getValue();
+    }
+    line.append(String.format(" Total %.1f", total));
+    telemetry.addLine(line.toString());
+  }
+
+  /**
+   * Applies tuning values that are cached rather than read every loop (shooter PIDF on the hubs and sample
+   * interval on the OctoQuad, drive feedforward, heading hold, lift gains and pose correction noise).
+   * Call this after {@link Tuning#poll()} reports a change, nothing is written if the values are the same.
+   */
+  public void applyTuning() {
+    if (shooter != null) {
+      applyShooterTuning();
+    }
+    if (frontLeft != null) {
+      applyDriveTuning();
+    }
+    if (imu != null) {
+      applyHeadingTuning();
+    }
+    if (lift != null) {
+      applyLiftTuning();
+    }
+    if (poseFusion != null) {
+      applyPoseTuning();
+    }
+  }
+
+  private void applyPoseTuning() {
+    poseFusion.filter.setNoise(Tuning.POSE_ODOMETRY_DRIFT.get(), Math.toRadians(Tuning.POSE_HEADING_DRIFT.get()),
+        Tuning.POSE_VISION_NOISE.get(), Math.toRadians(Tuning.POSE_VISION_HEADING_NOISE.get()));
+    poseFusion.filter.setGates(Tuning.POSE_MIN_DECISION_MARGIN.get(), Tuning.POSE_GATE.get());
+  }
+
+  private void applyLiftTuning() {
+    lift.controller.setGains(Tuning.LIFT_P.get(), Tuning.LIFT_V.get(), Tuning.LIFT_G.get(), Tuning.LIFT_SYNC.get());
+    lift.controller.setLimits(Tuning.LIFT_MAX_VELOCITY.get(), Tuning.LIFT_MAX_ACCELERATION.get());
+  }
+
+  private void applyHeadingTuning() {
+    headingController.setGains(Tuning.HEADING_P.get(), Tuning.HEADING_I.get(), Tuning.HEADING_D.get(),
+        Tuning.HEADING_MAX_POWER.get());
+  }
+
+  private void applyDriveTuning() {
+    driveFeedforward[0] = new Feedforward(Tuning.DRIVE_FRONT_LEFT_KS.get(), Tuning.DRIVE_FRONT_LEFT_KV.get(),
+        Tuning.DRIVE_FRONT_LEFT_KA.get());
+    driveFeedforward[1] = new Feedforward(Tuning.DRIVE_FRONT_RIGHT_KS.get(), Tuning.DRIVE_FRONT_RIGHT_KV.get(),
+        Tuning.DRIVE_FRONT_RIGHT_KA.get());
+    driveFeedforward[2] = new Feedforward(Tuning.DRIVE_REAR_LEFT_KS.get(), Tuning.DRIVE_REAR_LEFT_KV.get(),
+        Tuning.DRIVE_REAR_LEFT_KA.get());
+    driveFeedforward[3] = new Feedforward(Tuning.DRIVE_REAR_RIGHT_KS.get(), Tuning.DRIVE_REAR_RIGHT_KV.get(),
+        Tuning.DRIVE_REAR_RIGHT_KA.get());
+  }
+
+  /** How far the battery has to move before the shooter PIDF is rewritten, in volts */
+  public static final double SHOOTER_VOLTAGE_STEP = 0.1;
+  /** The battery voltage the shooter PIDF on the hubs was scaled for */
+  private double shooterVoltage = Feedforward.NOMINAL_VOLTAGE;
+
+  /**
+   * Rescales the shooter PIDF for the battery voltage once it has moved {@link #SHOOTER_VOLTAGE_STEP}
+   * since the last time, so the hubs are only written a few times a match. The drive compensates in
+   * {@link #drive(double, double, double)} by itself. Call this once per loop.
+   */
+  public void compensateVoltage() {
+    if (shooter != null && Math.abs(battery.getVoltage() - shooterVoltage) >= SHOOTER_VOLTAGE_STEP) {
+      shooterVoltage = battery.getVoltage();
+      applyShooterTuning();
+    }
+  }
+
+  /**
+   * Throttles the lift and the drive's acceleration if the motors together draw more than the current
+   * budget (see {@link PowerManager}). Call this once per loop after {@link ReadScheduler#update()}, before
+   * setting the lift power and driving.
+   */
+  public void managePower() {
+    power.update(battery != null ? battery.getVoltage() : Feedforward.NOMINAL_VOLTAGE);
+    if (lift != null) {
+      lift.setPowerScale(power.budget.getLiftScale());
+    }
+  }
+
+  /**
+   * @param voltage the battery voltage
+   * @return the voltage to compensate for, {@link Feedforward#NOMINAL_VOLTAGE} when compensation is turned
+   * off in the tuning file
+   */
+  private double compensationVoltage(double voltage) {
+    return Tuning.VOLTAGE_COMPENSATION.get() != 0 ? voltage : Feedforward.NOMINAL_VOLTAGE;
+  }
+
+  // The tuning file has the gains for a 12 V battery, the hub's output is scaled up as the battery sags
+  private void applyShooterTuning() {
+    double scale = Feedforward.voltageScale(compensationVoltage(shooterVoltage));
+    leftShooter.setVelocityPIDF(Tuning.SHOOTER_LEFT_P.get() * scale, Tuning.SHOOTER_LEFT_I.get() * scale,
+        Tuning.SHOOTER_LEFT_D.get() * scale, Tuning.SHOOTER_LEFT_F.get() * scale);
+    rightShooter.setVelocityPIDF(Tuning.SHOOTER_RIGHT_P.get() * scale, Tuning.SHOOTER_RIGHT_I.get() * scale,
+        Tuning.SHOOTER_RIGHT_D.get() * scale, Tuning.SHOOTER_RIGHT_F.get() * scale);
+    if (shooterEncoders != null) {
+      shooterEncoders.setSampleInterval((int) Tuning.SHOOTER_SAMPLE_INTERVAL.get());
+    }
   }
 
   public static final int DRIVE_MAX_RPM = 300;
+  /** Wheel speed for a full (1.0) drive command, in ticks/second */
+  public static final double DRIVE_MAX_VELOCITY = DRIVE_MAX_RPM * DRIVE_PPR / 60;
+
+  /** Feedforward per wheel, in the order front left, front right, rear left, rear right */
+  private final Feedforward[] driveFeedforward = new Feedforward[4];
+  private final double[] lastWheelVelocity = new double[4];
+  private long lastDriveTime = 0;
+
+  /** Mixes drive commands into wheel speeds, set its mode to change how saturated commands are handled */
+  public final MecanumKinematics kinematics = new MecanumKinematics();
+  /** Holds the heading for {@link #driveHoldingHeading(double, double, double)}, give it a target to aim */
+  public final HeadingController headingController = new HeadingController();
 
   public void drive(double x, double y, double rotate) {
-    double frontLeftPower = y + x + rotate;
-    double frontRightPower = y - x - rotate;
-    double rearLeftPower = y - x + rotate;
-    double rearRightPower = y + x - rotate;
+    double[] wheels = kinematics.calculate(x, y, rotate);
+
+    long now = System.nanoTime();
+    double dt = (now - lastDriveTime) / 1e9;
+    // Acceleration is only meaningful between consecutive loops, not after a pause
+    boolean continuous = lastDriveTime != 0 && dt > 0 && dt < 0.1;
+    lastDriveTime = now;
+    double voltage = compensationVoltage(battery.getVoltage());
+
+    setWheel(frontLeft, MecanumKinematics.FRONT_LEFT, wheels[MecanumKinematics.FRONT_LEFT], dt, continuous,
+        voltage);
+    setWheel(frontRight, MecanumKinematics.FRONT_RIGHT, wheels[MecanumKinematics.FRONT_RIGHT], dt, continuous,
+        voltage);
+    setWheel(rearLeft, MecanumKinematics.REAR_LEFT, wheels[MecanumKinematics.REAR_LEFT], dt, continuous,
+        voltage);
+    setWheel(rearRight, MecanumKinematics.REAR_RIGHT, wheels[MecanumKinematics.REAR_RIGHT], dt, continuous,
+        voltage);
+  }
 
-    frontLeft.setRPM(Range.clip(frontLeftPower, -1, 1) * Robot.DRIVE_MAX_RPM);
-    frontRight.setRPM(Range.clip(frontRightPower, -1, 1) * Robot.DRIVE_MAX_RPM);
-    rearLeft.setRPM(Range.clip(rearLeftPower, -1, 1) * Robot.DRIVE_MAX_RPM);
-    rearRight.setRPM(Range.clip(rearRightPower, -1, 1) * Robot.DRIVE_MAX_RPM);
+  /**
+   * Drives like {@link #drive(double, double, double)}, but while {@code rotate} is near zero the
+   * {@link #headingController} holds the heading (or turns to its target). Needs the IMU.
+   * @param x strafe, positive is right
+   * @param y forward
+   * @param rotate the driver's rotate input, positive is clockwise
+   */
+  public void driveHoldingHeading(double x, double y, double rotate) {
+    drive(x, y, headingController.calculate(imu.getHeading(), imu.getAngularVelocity(), rotate,
+        System.nanoTime() / 1e9));
+  }
+
+  /**
+   * Drives one wheel at a fraction of {@link #DRIVE_MAX_VELOCITY} using its feedforward, with the power
+   * scaled for the battery voltage. While {@link #power} throttles the drive, speeding up is slowed down.
+   */
+  private void setWheel(Motor motor, int wheel, double command, double dt, boolean continuous, double voltage) {
+    double velocity = command * DRIVE_MAX_VELOCITY;
+    double scale = power.budget.getDriveScale();
+    if (scale < 1 && Math.abs(velocity) > Math.abs(lastWheelVelocity[wheel])) {
+      velocity = lastWheelVelocity[wheel] + (velocity - lastWheelVelocity[wheel]) * scale;
+    }
+    double acceleration = continuous ? (velocity - lastWheelVelocity[wheel]) / dt : 0;
+    lastWheelVelocity[wheel] = velocity;
+    motor.setPower(driveFeedforward[wheel].calculatePower(velocity, acceleration, voltage));
   }
 
   /**
@@ -227,7 +598,8 @@ public class Robot {
    * into robot-relative coordinates by rotating the vector by -gyro (i.e. it applies a rotation
    * that compensates for the robot's current heading). The transformed robot-relative commands
    * are then passed to {@link #drive(double, double, double)} which computes individual wheel
-   * powers and sets motor RPMs (clipped and scaled by {@code DRIVE_MAX_RPM}).</p>
+   * speeds (desaturated by {@link #kinematics} and scaled by {@code DRIVE_MAX_VELOCITY}) and drives
+   * them through each wheel's feedforward.</p>
    *
    * <p>Coordinate/convention notes:
    * <ul>
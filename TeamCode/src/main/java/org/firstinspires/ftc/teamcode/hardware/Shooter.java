@@ -3,19 +3,76 @@ package org.firstinspires.ftc.teamcode.hardware;
 import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.DcMotorSimple;
 import com.qualcomm.robotcore.hardware.CRServo;
+import com.qualcomm.robotcore.util.RobotLog;
+import java.io.File;
+import java.io.IOException;
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+import org.firstinspires.ftc.teamcode.core.EncoderVelocity;
+import org.firstinspires.ftc.teamcode.core.ShooterCurveFitter;
+import org.firstinspires.ftc.teamcode.core.ShooterSync;
+import org.firstinspires.ftc.teamcode.core.ShotDetector;
+import org.firstinspires.ftc.teamcode.core.ShotLog;
 
 public class Shooter {
   private final Motor left;
   private final Motor right;
+  private final BatteryMonitor battery;
+  /** Where the speeds come from when not from the hub, wheel 0 left and 1 right */
+  private EncoderVelocity encoders;
 
-  public Shooter(Motor leftShooter, Motor rightShooter) {
+  /** Where {@link #exportShots(String)} appends the shots */
+  public static final File SHOT_LOG_FILE = new File(AppUtil.FIRST_FOLDER, "shot_log.csv");
+
+  /** Every shot {@link #update()} detected, export it from the OpMode's stop() */
+  public final ShotLog shots = new ShotLog();
+  private final ShotDetector shotDetector = new ShotDetector(shots, Motor.TOLERANCE);
+  /** Keeps the wheels together while following {@link #setRPM(double)}, with the left/right difference */
+  public final ShooterSync sync = new ShooterSync();
+  /** How far the sync correction has to move before the targets are rewritten, in RPM */
+  public static final double SYNC_DEADBAND = 20;
+  private double writtenCorrection = 0;
+  private final long createdAt = System.nanoTime();
+  private double targetRPM = 0;
+  private double aimRange = Double.NaN;
+  private double aimBearing = Double.NaN;
+
+  /**
+   * @param leftShooter the left motor
+   * @param rightShooter the right motor
+   * @param battery the battery voltage logged with every shot, null if unknown
+   */
+  public Shooter(Motor leftShooter, Motor rightShooter, BatteryMonitor battery) {
     this.left = leftShooter;
     this.right = rightShooter;
+    this.battery = battery;
+  }
+
+  /**
+   * Takes the wheel speeds from encoders read elsewhere (the OctoQuad, by the {@link ReadScheduler}) instead
+   * of the hub, for the readiness checks, the sync and shot detection. Until they have been read once (an
+   * OpMode that doesn't update the scheduler) the hub is read like before.
+   * @param encoders wheel 0 is the left wheel and 1 the right, null for the hub
+   */
+  public void setVelocitySource(EncoderVelocity encoders) {
+    this.encoders = encoders;
+  }
+
+  private boolean useEncoders() {
+    return encoders != null && encoders.getReads() > 0;
+  }
+
+  private double getLeftRPM() {
+    return useEncoders() ? encoders.getRPM(0) : left.getRPM();
+  }
+
+  private double getRightRPM() {
+    return useEncoders() ? encoders.getRPM(1) : right.getRPM();
   }
 
   // Motor-like helpers (delegate to both motors)
 
   public void setPower(double power) {
+    targetRPM = 0;
     left.setPower(power);
     right.setPower(power);
   }
@@ -52,24 +109,39 @@ public class Shooter {
   }
 
   public void setVelocity(double angularRate) {
+    targetRPM = 0;
     left.setVelocity(angularRate);
     right.setVelocity(angularRate);
   }
 
   public double getVelocity() {
+    if (useEncoders()) {
+      return (encoders.getTicksPerSecond(0) + encoders.getTicksPerSecond(1)) / 2.0;
+    }
     return (left.getVelocity() + right.getVelocity()) / 2.0;
   }
 
+  /**
+   * Sets both wheels to a speed, corrected by {@link #sync} from the last {@link #update()}.
+   * @param rpm the target speed
+   */
   public void setRPM(double rpm) {
-    left.setRPM(rpm);
-    right.setRPM(rpm);
+    targetRPM = rpm;
+    writeTargets();
+  }
+
+  private void writeTargets() {
+    left.setRPM(sync.getLeftTarget(targetRPM));
+    right.setRPM(sync.getRightTarget(targetRPM));
+    writtenCorrection = sync.getCorrection();
   }
 
   public double getRPM() {
-    return (left.getRPM() + right.getRPM()) / 2.0;
+    return (getLeftRPM() + getRightRPM()) / 2.0;
   }
 
   public void setSpeed(double speed) {
+    targetRPM = 0;
     left.setSpeed(speed);
     right.setSpeed(speed);
   }
@@ -87,24 +159,118 @@ public class Shooter {
     return (left.getCurrentPosition() + right.getCurrentPosition()) / 2;
   }
 
+  /**
+   * Sets the velocity PIDF of both motors, but only talks to the hub if the coefficients actually changed.
+   * @return true if the coefficients were sent to either motor
+   */
+  public boolean setPIDF(double p, double i, double d, double f) {
+    boolean changed = left.setVelocityPIDF(p, i, d, f);
+    return right.setVelocityPIDF(p, i, d, f) || changed;
+  }
+
+  /**
+   * @param targetVelocity the target velocity in ticks/second
+   * @return true if the mean velocity is on target and the wheels match, see {@link ShooterSync#isReady}
+   */
   public boolean atSpeed(double targetVelocity) {
-    return left.atSpeed(targetVelocity) && right.atSpeed(targetVelocity);
+    double leftVelocity = useEncoders() ? encoders.getTicksPerSecond(0) : left.getVelocity();
+    double rightVelocity = useEncoders() ? encoders.getTicksPerSecond(1) : right.getVelocity();
+    return ShooterSync.isReady(targetVelocity, leftVelocity, rightVelocity, Motor.TOLERANCE,
+        Tuning.SHOOTER_SYNC_TOLERANCE.get());
   }
 
+  /**
+   * @param targetRPM the target speed
+   * @return true if the mean speed is on target and the wheels match, see {@link ShooterSync#isReady}
+   */
   public boolean atSpeedRPM(double targetRPM) {
-    return left.atSpeedRPM(targetRPM) && right.atSpeedRPM(targetRPM);
+    return ShooterSync.isReady(targetRPM, getLeftRPM(), getRightRPM(), Motor.TOLERANCE,
+        Tuning.SHOOTER_SYNC_TOLERANCE.get());
+  }
+
+  /**
+   * Sets where the shooter is aiming, logged with the next shot.
+   * @param range the range to the GOAL in inches (NaN if unknown)
+   * @param bearing the bearing to the GOAL in degrees (NaN if unknown)
+   */
+  public void setAim(double range, double bearing) {
+    aimRange = range;
+    aimBearing = bearing;
+  }
+
+  /**
+   * Looks for shots in the current speed (see {@link ShotDetector}) and adds them to {@link #shots}, and
+   * updates the left/right {@link #sync}, rewriting the targets when its correction has moved.
+   * Call it once per loop after {@link #setRPM(double)}, it reads both encoders (or uses the velocity
+   * source, see {@link #setVelocitySource(EncoderVelocity)}). Only speeds set with
+   * setRPM() are followed, the other setters count as the shooter being off.
+   * Shot times are in seconds since the shooter was created, each shot is logged with the battery voltage.
+   * @return the current speed in RPM, so the loop doesn't have to read it again
+   */
+  public double update() {
+    double leftRPM = getLeftRPM();
+    double rightRPM = getRightRPM();
+    double rpm = (leftRPM + rightRPM) / 2.0;
+    sync.update(targetRPM, leftRPM, rightRPM, Tuning.SHOOTER_SYNC_GAIN.get());
+    if (targetRPM > 0 && Math.abs(sync.getCorrection() - writtenCorrection) >= SYNC_DEADBAND) {
+      writeTargets();
+    }
+    shotDetector.update(rpm, targetRPM, aimRange, aimBearing, battery != null ? battery.getVoltage() : Double.NaN,
+        (System.nanoTime() - createdAt) / 1e9);
+    return rpm;
+  }
+
+  /**
+   * @return true while a shot is going through (the speed dropped and hasn't recovered yet)
+   */
+  public boolean isShooting() {
+    return shotDetector.isShooting();
+  }
+
+  /**
+   * Appends {@link #shots} to {@link #SHOT_LOG_FILE}, see {@link ShotLog#export(File, String)}.
+   * @param label the OpMode name
+   * @return true if the shots were written
+   */
+  public boolean exportShots(String label) {
+    try {
+      return shots.export(SHOT_LOG_FILE, label);
+    } catch (IOException e) {
+      RobotLog.ee("Shooter", e, "Unable to write %s", SHOT_LOG_FILE);
+      return false;
+    }
+  }
+
+  /** Calibration offset (in RPM) added to every {@link #calculateRPM(double)} result */
+  private double rpmOffset = 0;
+
+  public void setRPMOffset(double rpmOffset) {
+    this.rpmOffset = rpmOffset;
+  }
+
+  public double getRPMOffset() {
+    return rpmOffset;
   }
 
   /**
    * Calculates the required RPM for the shooter to hit a target at the given distance.
+   * Uses the curve fitted by the Shooter Speed Calibrator (see {@link ShooterCurveFitter}) if there is one
+   * in the tuning file, otherwise the built-in curve.
    * @param distance The distance to the target in inches.
    * @return The calculated RPM.
-   * @apiNote See the desmos graph here: https://www.desmos.com/calculator/xu4hd5q78y
+   * @apiNote See the desmos graph of the built-in curve here: https://www.desmos.com/calculator/xu4hd5q78y
    */
   public double calculateRPM(double distance) {
+    double minRange = Tuning.SHOOTER_CURVE_MIN_RANGE.get();
+    double maxRange = Tuning.SHOOTER_CURVE_MAX_RANGE.get();
+    if (maxRange > minRange) {
+      return ShooterCurveFitter.evaluate(Math.max(minRange, Math.min(maxRange, distance)),
+          Tuning.SHOOTER_CURVE_C0.get(), Tuning.SHOOTER_CURVE_C1.get(), Tuning.SHOOTER_CURVE_C2.get(),
+          Tuning.SHOOTER_CURVE_C3.get()) + rpmOffset;
+    }
     return 0.0000038436 * Math.pow(distance, 5) + -0.00148844 * Math.pow(distance, 4) +
         0.220217 * Math.pow(distance, 3) + -15.32687 * Math.pow(distance, 2) +
-        495.37699 * distance + -3472.17911;
+        495.37699 * distance + -3472.17911 + rpmOffset;
   }
 
 }
\ No newline at end of file
@@ -0,0 +1,396 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.robotcore.util.RobotLog;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+import org.firstinspires.ftc.teamcode.core.TuningDefaults;
+
+/**
+ * Tuning constants that can be changed on the robot without redeploying.
+ *
+ * <p>Values are read from {@link #FILE} ({@code key=value} per line). If the file doesn't exist it is
+ * created with the defaults below, so there is always something to edit. The defaults of the values the
+ * simulations use too live in {@link TuningDefaults}. A background thread watches the file and parses it
+ * whenever it changes; the new values only take effect when the OpMode calls {@link #poll()} between
+ * loops, so a value never changes halfway through a loop. Reading a value is a plain array lookup and
+ * reloading copies into the same array, so nothing is allocated on the loop thread.</p>
+ *
+ * <pre>
+ * // in loop()
+ * if (Tuning.poll()) {
+ *   robot.applyTuning(); // pushes PIDF to the hubs only if it changed
+ * }
+ * </pre>
+ */
+public class Tuning {
+  public static final File FILE = new File(AppUtil.FIRST_FOLDER, "tuning.properties");
+  /** How often the watcher checks whether the file changed, in milliseconds */
+  private static final long WATCH_INTERVAL_MS = 500;
+  /** What {@link Properties#load(InputStream)} reads the file as */
+  private static final Charset CHARSET = Charset.forName("ISO-8859-1");
+
+  private static final List<Value> VALUES = new ArrayList<>();
+
+  // Shooter velocity PIDF per motor (see TeamDocs/PIDF_Shooter_Tuning_Guide.md), ShooterAutoTuner writes these.
+  // Files from before the gains were per motor have shooter.p/i/d/f, those are used for both sides
+  public static final Value SHOOTER_LEFT_P = define("shooter.left.p", "shooter.p", 45.0);
+  public static final Value SHOOTER_LEFT_I = define("shooter.left.i", "shooter.i", 8.0);
+  public static final Value SHOOTER_LEFT_D = define("shooter.left.d", "shooter.d", 3.0);
+  public static final Value SHOOTER_LEFT_F = define("shooter.left.f", "shooter.f", 23.0);
+  public static final Value SHOOTER_RIGHT_P = define("shooter.right.p", "shooter.p", 45.0);
+  public static final Value SHOOTER_RIGHT_I = define("shooter.right.i", "shooter.i", 8.0);
+  public static final Value SHOOTER_RIGHT_D = define("shooter.right.d", "shooter.d", 3.0);
+  public static final Value SHOOTER_RIGHT_F = define("shooter.right.f", "shooter.f", 23.0);
+
+  // Shooter RPM for range (see ShooterCurveFitter), the Shooter Speed Calibrator writes these. Until a curve
+  // has been fitted (maxRange not above minRange) Shooter.calculateRPM() uses its built-in curve
+  public static final Value SHOOTER_CURVE_C0 = define("shooter.curve.c0", 0);
+  public static final Value SHOOTER_CURVE_C1 = define("shooter.curve.c1", 0);
+  public static final Value SHOOTER_CURVE_C2 = define("shooter.curve.c2", 0);
+  public static final Value SHOOTER_CURVE_C3 = define("shooter.curve.c3", 0);
+  /** The curve is held flat outside the ranges it was fitted on, in inches */
+  public static final Value SHOOTER_CURVE_MIN_RANGE = define("shooter.curve.minRange", 0);
+  public static final Value SHOOTER_CURVE_MAX_RANGE = define("shooter.curve.maxRange", 0);
+
+  // Left/right shooter synchronization (see ShooterSync)
+  /** How much of the left/right difference is fed back into each target, 0 for none */
+  public static final Value SHOOTER_SYNC_GAIN = define(TuningDefaults.SHOOTER_SYNC_GAIN);
+  /** How far apart the wheels may be to be at speed, as a fraction of the target */
+  public static final Value SHOOTER_SYNC_TOLERANCE = define(TuningDefaults.SHOOTER_SYNC_TOLERANCE);
+  /**
+   * How long the OctoQuad counts each shooter speed sample, in milliseconds, when there is one (see
+   * EncoderVelocity): longer is finer but older
+   */
+  public static final Value SHOOTER_SAMPLE_INTERVAL = define(TuningDefaults.SHOOTER_SAMPLE_INTERVAL);
+
+  // Drive feedforward per wheel (see Feedforward), DriveCharacterization writes these. kV defaults to
+  // 12 V at the theoretical 300 RPM (1918.74 ticks/s), which matches driving by power
+  public static final double DEFAULT_DRIVE_KV = 12.0 / 1918.74;
+  public static final Value DRIVE_FRONT_LEFT_KS = define("drive.frontLeft.kS", 0);
+  public static final Value DRIVE_FRONT_LEFT_KV = define("drive.frontLeft.kV", DEFAULT_DRIVE_KV);
+  public static final Value DRIVE_FRONT_LEFT_KA = define("drive.frontLeft.kA", 0);
+  public static final Value DRIVE_FRONT_RIGHT_KS = define("drive.frontRight.kS", 0);
+  public static final Value DRIVE_FRONT_RIGHT_KV = define("drive.frontRight.kV", DEFAULT_DRIVE_KV);
+  public static final Value DRIVE_FRONT_RIGHT_KA = define("drive.frontRight.kA", 0);
+  public static final Value DRIVE_REAR_LEFT_KS = define("drive.rearLeft.kS", 0);
+  public static final Value DRIVE_REAR_LEFT_KV = define("drive.rearLeft.kV", DEFAULT_DRIVE_KV);
+  public static final Value DRIVE_REAR_LEFT_KA = define("drive.rearLeft.kA", 0);
+  public static final Value DRIVE_REAR_RIGHT_KS = define("drive.rearRight.kS", 0);
+  public static final Value DRIVE_REAR_RIGHT_KV = define("drive.rearRight.kV", DEFAULT_DRIVE_KV);
+  public static final Value DRIVE_REAR_RIGHT_KA = define("drive.rearRight.kA", 0);
+
+  // Lift position control (see LiftController), positions in ticks from the bottom
+  /** Power per tick a side is off the profile */
+  public static final Value LIFT_P = define(TuningDefaults.LIFT_P);
+  /** Power per tick/second of profile speed */
+  public static final Value LIFT_V = define(TuningDefaults.LIFT_V);
+  /** Power that holds the lift up */
+  public static final Value LIFT_G = define(TuningDefaults.LIFT_G);
+  /** Power per tick of left/right difference (the equalizer) */
+  public static final Value LIFT_SYNC = define(TuningDefaults.LIFT_SYNC);
+  /** Profile cruise speed in ticks/second, keep it below what a binding side can still do */
+  public static final Value LIFT_MAX_VELOCITY = define(TuningDefaults.LIFT_MAX_VELOCITY);
+  public static final Value LIFT_MAX_ACCELERATION = define(TuningDefaults.LIFT_MAX_ACCELERATION);
+  public static final Value LIFT_DOWN = define("lift.preset.down", 0);
+  public static final Value LIFT_PARTIAL = define("lift.preset.partial", 1500);
+  public static final Value LIFT_FULL = define("lift.preset.full", 3000);
+
+  // Indexer timings in milliseconds
+  /** How long it takes to move between positions */
+  public static final Value INDEXER_MOVE_TIME = define(TuningDefaults.INDEXER_MOVE_TIME);
+  /** How long it takes the ball to drop into the intake once the indexer is in position */
+  public static final Value INDEXER_DROP_TIME = define(TuningDefaults.INDEXER_DROP_TIME);
+  /** How long it takes the ball to be shot once it has dropped */
+  public static final Value INDEXER_SHOOT_TIME = define(TuningDefaults.INDEXER_SHOOT_TIME);
+
+  /** Time each loop may spend reading sensors that aren't due every loop, see ReadScheduler */
+  public static final Value IO_BUDGET = define("io.budgetMs", 8);
+
+  /** 1 to scale the shooter PIDF and drive feedforward for the battery voltage (see BatteryMonitor), 0 not to */
+  public static final Value VOLTAGE_COMPENSATION = define("voltage.compensate", 1);
+
+  // Current budget (see PowerManager)
+  /** Total motor current allowed before the lift and drive are throttled, in amps */
+  public static final Value POWER_MAX_AMPS = define("power.maxAmps", 30);
+  /** Battery voltage below which the current budget shrinks */
+  public static final Value POWER_MIN_VOLTAGE = define("power.minVoltage", 10.5);
+
+  // Aim gains: rotation power per degree of GOAL bearing
+  public static final Value AUTO_AIM_GAIN = define("aim.autoGain", -1.0 / 60);
+  public static final Value AUTO_AIM_MAX_POWER = define("aim.autoMaxPower", 0.15);
+
+  // Driver input shaping (see DriveInput)
+  /** Stick travel ignored around the center */
+  public static final Value INPUT_DEADBAND = define("input.deadband", 0.05);
+  /** Translation curve, 0 is linear and 1 is cubic */
+  public static final Value INPUT_EXPO = define("input.expo", 0);
+  /** Rotation curve, 0 is linear and 1 is cubic */
+  public static final Value INPUT_TURN_EXPO = define("input.turnExpo", 0);
+  /** How fast the translation command may grow, per second (0 is unlimited), stopping is never limited */
+  public static final Value INPUT_SLEW_RATE = define("input.slewRate", 6);
+  /** Speed with neither trigger pressed */
+  public static final Value INPUT_NORMAL_SPEED = define("input.normalSpeed", 2.0 / 3);
+  /** Speed with the left trigger fully pressed, the right trigger goes up to full speed */
+  public static final Value INPUT_SLOW_SPEED = define("input.slowSpeed", 1.0 / 3);
+
+  // Heading hold (see HeadingController), checked against the drivetrain simulation by the Heading Hold Test
+  /** Rotate power per radian of heading error */
+  public static final Value HEADING_P = define(TuningDefaults.HEADING_P);
+  /** Rotate power per radian-second of heading error */
+  public static final Value HEADING_I = define(TuningDefaults.HEADING_I);
+  /** Rotate power per radian/second of yaw rate */
+  public static final Value HEADING_D = define(TuningDefaults.HEADING_D);
+  public static final Value HEADING_MAX_POWER = define(TuningDefaults.HEADING_MAX_POWER);
+
+  // AprilTag pose correction (see PoseFusion), checked against a simulated match by the Localizer Test
+  /** Odometry position error expected after driving 100 inches, in inches */
+  public static final Value POSE_ODOMETRY_DRIFT = define(TuningDefaults.POSE_ODOMETRY_DRIFT);
+  /** Odometry heading error expected after turning a full circle, in degrees */
+  public static final Value POSE_HEADING_DRIFT = define(TuningDefaults.POSE_HEADING_DRIFT);
+  /** Position noise of a tag pose up to 48 inches away, in inches */
+  public static final Value POSE_VISION_NOISE = define(TuningDefaults.POSE_VISION_NOISE);
+  /** Heading noise of a tag pose, in degrees */
+  public static final Value POSE_VISION_HEADING_NOISE = define(TuningDefaults.POSE_VISION_HEADING_NOISE);
+  /** Detections with a lower decision margin are ignored */
+  public static final Value POSE_MIN_DECISION_MARGIN = define(TuningDefaults.POSE_MIN_DECISION_MARGIN);
+  /** Tag poses further than this many standard deviations from the estimate are ignored */
+  public static final Value POSE_GATE = define(TuningDefaults.POSE_GATE);
+
+  /** The values in effect, only written by {@link #poll()} */
+  private static final double[] live = new double[VALUES.size()];
+  /** The most recently parsed values, waiting for {@link #poll()} */
+  private static final double[] pending = new double[VALUES.size()];
+  private static volatile int pendingVersion = 0;
+  private static int liveVersion = 0;
+  private static Thread watcher;
+
+  static {
+    for (Value value : VALUES) {
+      live[value.index] = value.defaultValue;
+      pending[value.index] = value.defaultValue;
+    }
+  }
+
+  private static Value define(String key, double defaultValue) {
+    return define(key, null, defaultValue);
+  }
+
+  private static Value define(TuningDefaults.Entry entry) {
+    return define(entry.key, null, entry.value);
+  }
+
+  /**
+   * @param oldKey what the value used to be called, read when the file doesn't have {@code key}
+   */
+  private static Value define(String key, String oldKey, double defaultValue) {
+    Value value = new Value(key, oldKey, defaultValue, VALUES.size());
+    VALUES.add(value);
+    return value;
+  }
+
+  /** A single tuning constant */
+  public static final class Value {
+    public final String key;
+    /** The key's former name, or null */
+    public final String oldKey;
+    public final double defaultValue;
+    private final int index;
+
+    private Value(String key, String oldKey, double defaultValue, int index) {
+      this.key = key;
+      this.oldKey = oldKey;
+      this.defaultValue = defaultValue;
+      this.index = index;
+    }
+
+    public double get() {
+      return live[index];
+    }
+
+    public int getInt() {
+      return (int) Math.round(live[index]);
+    }
+  }
+
+  /**
+   * Loads the file (creating it with defaults if needed) and starts watching it for changes.
+   * Safe to call from every OpMode's init, the watcher is only started once.
+   */
+  public static synchronized void start() {
+    if (watcher != null) {
+      return;
+    }
+    if (!FILE.exists()) {
+      writeDefaults();
+    }
+    reload();
+    poll();
+    watcher = new Thread(Tuning::watch, "Tuning watcher");
+    watcher.setDaemon(true);
+    watcher.start();
+  }
+
+  /**
+   * Applies the most recently loaded values. Call this between loops.
+   * @return true if any value changed
+   */
+  public static boolean poll() {
+    if (pendingVersion == liveVersion) {
+      return false;
+    }
+    boolean changed = false;
+    synchronized (pending) {
+      for (int i = 0; i < live.length; i++) {
+        if (live[i] != pending[i]) {
+          live[i] = pending[i];
+          changed = true;
+        }
+      }
+      liveVersion = pendingVersion;
+    }
+    return changed;
+  }
+
+  private static void watch() {
+    long lastModified = FILE.lastModified();
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        Thread.sleep(WATCH_INTERVAL_MS);
+      } catch (InterruptedException e) {
+        return;
+      }
+      long modified = FILE.lastModified();
+      if (modified != lastModified) {
+        lastModified = modified;
+        reload();
+      }
+    }
+  }
+
+  /**
+   * Parses the file into {@link #pending}. A missing key falls back to its old name, if it had one, and
+   * keys that are missing or unparseable keep their default.
+   */
+  private static void reload() {
+    Properties properties = new Properties();
+    try (InputStream in = new FileInputStream(FILE)) {
+      properties.load(in);
+    } catch (IOException e) {
+      RobotLog.ee("Tuning", e, "Unable to read %s", FILE);
+      return;
+    }
+    synchronized (pending) {
+      for (Value value : VALUES) {
+        String text = properties.getProperty(value.key);
+        if (text == null && value.oldKey != null) {
+          text = properties.getProperty(value.oldKey);
+        }
+        double parsed = value.defaultValue;
+        if (text != null) {
+          try {
+            parsed = Double.parseDouble(text.trim());
+          } catch (NumberFormatException e) {
+            RobotLog.w("Tuning: %s=%s is not a number, using %s", value.key, text, value.defaultValue);
+          }
+        }
+        pending[value.index] = parsed;
+      }
+      pendingVersion++;
+    }
+  }
+
+  /**
+   * Writes new values into the file. The line of each changed key is replaced in place and keys that
+   * aren't in the file yet are added at the end, every other line (comments included) stays as it was.
+   * A value continued over several lines with a trailing backslash isn't recognized. The file is
+   * written next to the old one and then renamed over it, so the watcher never reads half a file, and
+   * picks the change up like any manual edit: the values take effect on the next {@link #poll()}.
+   * @param values the values to change
+   * @param newValues the new value for each entry of {@code values}
+   */
+  public static synchronized void save(Value[] values, double[] newValues) {
+    if (values.length != newValues.length) {
+      throw new IllegalArgumentException("Every value needs exactly one new value");
+    }
+    List<String> lines = new ArrayList<>();
+    if (FILE.exists()) {
+      try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(FILE), CHARSET))) {
+        for (String line = in.readLine(); line != null; line = in.readLine()) {
+          lines.add(line);
+        }
+      } catch (IOException e) {
+        RobotLog.ee("Tuning", e, "Unable to read %s", FILE);
+        return;
+      }
+    }
+    boolean[] written = new boolean[values.length];
+    for (int line = 0; line < lines.size(); line++) {
+      String key = keyOf(lines.get(line));
+      for (int i = 0; i < values.length; i++) {
+        if (values[i].key.equals(key)) {
+          lines.set(line, values[i].key + "=" + newValues[i]);
+          written[i] = true;
+        }
+      }
+    }
+    for (int i = 0; i < values.length; i++) {
+      if (!written[i]) {
+        lines.add(values[i].key + "=" + newValues[i]);
+      }
+    }
+    File temporary = new File(FILE.getPath() + ".tmp");
+    try (Writer out = new OutputStreamWriter(new FileOutputStream(temporary), CHARSET)) {
+      for (String line : lines) {
+        out.write(line);
+        out.write('\n');
+      }
+    } catch (IOException e) {
+      RobotLog.ee("Tuning", e, "Unable to write %s", temporary);
+      return;
+    }
+    if (!temporary.renameTo(FILE)) {
+      RobotLog.e("Tuning: unable to replace %s with %s", FILE, temporary);
+    }
+  }
+
+  /**
+   * @param line a line of the file
+   * @return the key the line sets, or null for a comment or a blank line
+   */
+  private static String keyOf(String line) {
+    String trimmed = line.trim();
+    if (trimmed.isEmpty() || trimmed.charAt(0) == '#' || trimmed.charAt(0) == '!') {
+      return null;
+    }
+    int end = 0;
+    while (end < trimmed.length() && "=: \t".indexOf(trimmed.charAt(end)) < 0) {
+      end++;
+    }
+    return trimmed.substring(0, end);
+  }
+
+  private static void writeDefaults() {
+    Properties properties = new Properties();
+    for (Value value : VALUES) {
+      properties.setProperty(value.key, Double.toString(value.defaultValue));
+    }
+    try (OutputStream out = new FileOutputStream(FILE)) {
+      properties.store(out, "Tuning constants, changes are picked up while an OpMode is running");
+    } catch (IOException e) {
+      RobotLog.ee("Tuning", e, "Unable to write %s", FILE);
+    }
+  }
+}
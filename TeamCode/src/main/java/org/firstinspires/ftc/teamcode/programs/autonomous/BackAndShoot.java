@@ -9,7 +9,9 @@ import com.qualcomm.robotcore.util.ElapsedTime;
 
 import com.qualcomm.robotcore.util.Range;
 import org.firstinspires.ftc.teamcode.hardware.Camera;
+import org.firstinspires.ftc.teamcode.hardware.GamepadEvents;
 import org.firstinspires.ftc.teamcode.hardware.Robot;
+import org.firstinspires.ftc.teamcode.hardware.Tuning;
 
 @Autonomous(name = "Back and Shoot", group = "A", preselectTeleOp = "Decode Pattern TeleOp")
 public class BackAndShoot extends OpMode {
@@ -27,6 +29,7 @@ public class BackAndShoot extends OpMode {
     telemetry.addData("Status", "Initializing");
     telemetry.update();
     this.robot = new Robot(hardwareMap);
+    this.driver = new GamepadEvents(gamepad1);
     this.camera = new Camera(hardwareMap);
     this.robot.indexer.forcePreload();
     try {
@@ -45,17 +48,12 @@ public class BackAndShoot extends OpMode {
   public void init_loop() {
     // Allow quick base RPM tuning via dpad during INIT
     telemetry.addData("Base RPM", baseRPM);
-    if (gamepad1.dpad_up && !upPressed) {
+    driver.update(getRuntime());
+    if (driver.wasPressed(GamepadEvents.DPAD_UP)) {
       baseRPM += 100;
-      upPressed = true;
-    } else if (!gamepad1.dpad_up) {
-      upPressed = false;
     }
-    if (gamepad1.dpad_down && !downPressed) {
+    if (driver.wasPressed(GamepadEvents.DPAD_DOWN)) {
       baseRPM -= 100;
-      downPressed = true;
-    } else if (!gamepad1.dpad_down) {
-      downPressed = false;
     }
     if (gamepad1.x) {
       goLeft = true;
@@ -82,8 +80,7 @@ public class BackAndShoot extends OpMode {
   double range = 0;
   double bearing = 0;
   int baseRPM = 2500;
-  boolean upPressed = false;
-  boolean downPressed = false;
+  GamepadEvents driver;
   double bearingTolerance = 1;
 
   /*
@@ -91,6 +88,11 @@ public class BackAndShoot extends OpMode {
    */
   @Override
   public void loop() {
+    robot.reads.update();
+    if (Tuning.poll()) {
+      robot.applyTuning();
+    }
+    robot.managePower();
     if (timer.milliseconds() > 29000) {
       // Back away from wall
       if (goLeft) {
@@ -118,7 +120,8 @@ public class BackAndShoot extends OpMode {
     if (range < 55) {
       robot.drive(0, -0.25, 0);
     } else {
-      double turn = Range.clip(bearing / -60, -0.15, 0.15);
+      double turn = Range.clip(bearing * Tuning.AUTO_AIM_GAIN.get(), -Tuning.AUTO_AIM_MAX_POWER.get(),
+          Tuning.AUTO_AIM_MAX_POWER.get());
       boolean bearingReady = Math.abs(bearing) <= bearingTolerance;
       robot.drive(0, 0, turn);
       int shooterRpm;
@@ -151,6 +154,7 @@ public class BackAndShoot extends OpMode {
    */
   @Override
   public void stop() {
+    robot.stop();
   }
 
 }
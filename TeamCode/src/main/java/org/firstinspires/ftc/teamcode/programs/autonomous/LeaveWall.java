@@ -20,8 +20,9 @@ public class LeaveWall extends OpMode {
   public void init() {
     telemetry.addData("Status", "Initializing");
     telemetry.update();
-    this.robot = new Robot(hardwareMap);
+    this.robot = new Robot.Builder(hardwareMap).drive().build();
     telemetry.addData("Status", "Initialized");
+    robot.telemetryInitTimes(telemetry);
     telemetry.update();
   }
 
@@ -59,6 +60,7 @@ public class LeaveWall extends OpMode {
    */
   @Override
   public void stop() {
+    robot.stop();
   }
 
 }
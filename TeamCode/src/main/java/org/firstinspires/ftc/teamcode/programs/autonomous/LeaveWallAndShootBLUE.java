@@ -6,6 +6,7 @@ import com.qualcomm.robotcore.eventloop.opmode.Disabled;
 import com.qualcomm.robotcore.util.ElapsedTime;
 import com.qualcomm.robotcore.util.Range;
 import org.firstinspires.ftc.teamcode.hardware.Camera;
+import org.firstinspires.ftc.teamcode.hardware.GamepadEvents;
 import org.firstinspires.ftc.teamcode.hardware.Robot;
 
 @Autonomous(name = "Leave Wall and Shoot BLUE", group = "A", preselectTeleOp = "Decode Camera TeleOp")
@@ -19,8 +20,7 @@ public class LeaveWallAndShootBLUE extends OpMode {
   private int shooterRpm = 0;
   private double tagRange = 85;
   private double tagX = 0;
-  private boolean upPressed = false;
-  private boolean downPressed = false;
+  private GamepadEvents driver;
   private double xTolerance = 5;
 
   /*
@@ -31,6 +31,7 @@ public class LeaveWallAndShootBLUE extends OpMode {
     telemetry.addData("Status", "Initializing");
     telemetry.update();
     this.robot = new Robot(hardwareMap);
+    this.driver = new GamepadEvents(gamepad1);
     this.camera = new Camera(hardwareMap);
     this.robot.indexer.forcePreload();
     try {
@@ -60,17 +61,12 @@ public class LeaveWallAndShootBLUE extends OpMode {
     }
     // Base RPM tuning during INIT via dpad
     telemetry.addData("Base RPM", baseRPM);
-    if (gamepad1.dpad_up && !upPressed) {
+    driver.update(getRuntime());
+    if (driver.wasPressed(GamepadEvents.DPAD_UP)) {
       baseRPM += 100;
-      upPressed = true;
-    } else if (!gamepad1.dpad_up) {
-      upPressed = false;
     }
-    if (gamepad1.dpad_down && !downPressed) {
+    if (driver.wasPressed(GamepadEvents.DPAD_DOWN)) {
       baseRPM -= 100;
-      downPressed = true;
-    } else if (!gamepad1.dpad_down) {
-      downPressed = false;
     }
     telemetries();
   }
@@ -95,6 +91,8 @@ public class LeaveWallAndShootBLUE extends OpMode {
 
   @Override
   public void loop() {
+    robot.reads.update();
+    robot.managePower();
     telemetries();
     if (timer.milliseconds() < 4000) {
       // Drive forward for the first ~2.5 seconds (no backing up)
@@ -173,6 +171,7 @@ public class LeaveWallAndShootBLUE extends OpMode {
    */
   @Override
   public void stop() {
+    robot.stop();
   }
 
 }
\ No newline at end of file
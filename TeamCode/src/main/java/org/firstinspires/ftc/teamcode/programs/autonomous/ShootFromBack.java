@@ -4,9 +4,17 @@ import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
 import com.qualcomm.robotcore.util.ElapsedTime;
 import com.qualcomm.robotcore.util.Range;
+import java.util.List;
 import org.firstinspires.ftc.teamcode.hardware.Camera;
+import org.firstinspires.ftc.teamcode.hardware.GamepadEvents;
 import org.firstinspires.ftc.teamcode.hardware.Robot;
+import org.firstinspires.ftc.teamcode.hardware.Tuning;
 import org.firstinspires.ftc.teamcode.hardware.Indexer;
+import org.firstinspires.ftc.teamcode.core.IndexerSequencer;
+import org.firstinspires.ftc.teamcode.core.PoseFilter;
+import org.firstinspires.ftc.teamcode.core.RobotPose;
+import org.firstinspires.ftc.teamcode.hardware.MotifEstimator;
+import org.firstinspires.ftc.teamcode.hardware.PersistentState;
 
 @Autonomous(name = "Shoot From Back", group = "A", preselectTeleOp = "Decode Pattern TeleOp")
 public class ShootFromBack extends OpMode {
@@ -18,13 +26,16 @@ public class ShootFromBack extends OpMode {
   private int shooterRpm = 0;
   private double tagRange = 85;
   private double tagBearing = 0;
-  private boolean upPressed = false;
-  private boolean downPressed = false;
+  private GamepadEvents driver;
   private double bearingTolerance = 1;
   boolean blueTeam = false;
   boolean redTeam = false;
   Camera.OBELISK_MOTIF obeliskMotif = Camera.OBELISK_MOTIF.PURPLE_PURPLE_GREEN;
-  int patternIndex = 0;
+  /** Moves the indexer to the next ball of the motif while the last one is still being shot */
+  private final IndexerSequencer sequencer = new IndexerSequencer(true, Indexer.TIMING);
+  private final MotifEstimator motifEstimator = new MotifEstimator();
+  /** Carries the motif and indexer contents over to teleop */
+  private final PersistentState state = PersistentState.getInstance();
 
   /*
    * Code to run ONCE when the driver hits INIT
@@ -34,8 +45,13 @@ public class ShootFromBack extends OpMode {
     telemetry.addData("Status", "Initializing");
     telemetry.update();
     this.robot = new Robot(hardwareMap);
+    this.driver = new GamepadEvents(gamepad1);
     this.camera = new Camera(hardwareMap);
     this.robot.indexer.forcePreload();
+    this.robot.shooter.setRPMOffset(state.getShooterRPMOffset());
+    // A new match, nothing from the last one may reach teleop
+    state.clearMatch();
+    state.save();
     try {
       this.camera.initAprilTag();
     } catch (Camera.CameraNotAttachedException e) {
@@ -51,30 +67,38 @@ public class ShootFromBack extends OpMode {
    */
   @Override
   public void init_loop() {
-    try {
-      Camera.AprilTag tag = camera.getAprilTag(Camera.AprilTagPosition.OBELISK);
-      obeliskMotif = tag.obeliskMotif;
-      blackboard.put(Camera.OBELISK_STORAGE_KEY, obeliskMotif.id);
-    } catch (Camera.CameraNotAttachedException e) {
-      telemetry.addData("Camera", "Not attached");
-    } catch (Camera.CameraNotStreamingException e) {
-      telemetry.addData("Camera", "Not streaming");
-    } catch (Camera.TagNotFoundException e) {
-      telemetry.addData("Obelisk Tag", "Not found");
+    if (!motifEstimator.isLocked()) {
+      try {
+        if (motifEstimator.update(camera.getAprilTags())) {
+          // Motif is locked, stop spending CPU on detection for the rest of INIT
+          camera.setDetectionEnabled(false);
+        }
+        if (motifEstimator.getMotif() != null) {
+          if (motifEstimator.getMotif() != state.getMotif()) {
+            state.setMotif(motifEstimator.getMotif());
+            state.save();
+          }
+          obeliskMotif = motifEstimator.getMotif();
+        } else {
+          telemetry.addData("Obelisk Tag", "Not found");
+        }
+      } catch (Camera.CameraNotAttachedException e) {
+        telemetry.addData("Camera", "Not attached");
+      } catch (Camera.CameraNotStreamingException e) {
+        telemetry.addData("Camera", "Not streaming");
+      }
     }
+    telemetry.addData("Motif Confidence", "%.0f%% (%s)", motifEstimator.getConfidence() * 100,
+        motifEstimator.isLocked() ? "Locked in " + motifEstimator.getFramesToLock() + " frames"
+            : motifEstimator.getFramesObserved() + " frames");
     // Base RPM tuning during INIT via dpad
     telemetry.addData("Base RPM", baseRPM);
-    if (gamepad1.dpad_up && !upPressed) {
+    driver.update(getRuntime());
+    if (driver.wasPressed(GamepadEvents.DPAD_UP)) {
       baseRPM += 100;
-      upPressed = true;
-    } else if (!gamepad1.dpad_up) {
-      upPressed = false;
     }
-    if (gamepad1.dpad_down && !downPressed) {
+    if (driver.wasPressed(GamepadEvents.DPAD_DOWN)) {
       baseRPM -= 100;
-      downPressed = true;
-    } else if (!gamepad1.dpad_down) {
-      downPressed = false;
     }
     if (gamepad1.b) {
       redTeam = true;
@@ -93,6 +117,15 @@ public class ShootFromBack extends OpMode {
   @Override
   public void start() {
     timer.reset();
+    sequencer.start(obeliskMotif.getPattern().length);
+    // Field-centric heading 0 is the way the robot was placed for autonomous
+    robot.imu.setHeading(0);
+    try {
+      // Detection may have been switched off once the motif locked during INIT
+      camera.setDetectionEnabled(true);
+    } catch (Camera.CameraNotAttachedException e) {
+      telemetry.speak("Camera not attached.");
+    }
   }
 
   /*
@@ -103,6 +136,13 @@ public class ShootFromBack extends OpMode {
 
   @Override
   public void loop() {
+    robot.reads.update();
+    if (Tuning.poll()) {
+      robot.applyTuning();
+    }
+    robot.compensateVoltage();
+    robot.managePower();
+    updatePose();
     telemetries();
     if (timer.milliseconds() < 250) {
       robot.drive(0, 0.33, 0);
@@ -133,7 +173,8 @@ public class ShootFromBack extends OpMode {
       tagBearing = tag.ftcPose.bearing;
       tagRange = tag.ftcPose.range;
       telemetry.addData("Bearing", tagBearing);
-      turn = Range.clip(tagBearing / -60, -0.15, 0.15);
+      turn = Range.clip(tagBearing * Tuning.AUTO_AIM_GAIN.get(), -Tuning.AUTO_AIM_MAX_POWER.get(),
+          Tuning.AUTO_AIM_MAX_POWER.get());
     } catch (Camera.CameraNotAttachedException e) {
       telemetry.addData("Camera", "Not attached");
     } catch (Camera.CameraNotStreamingException e) {
@@ -162,21 +203,33 @@ public class ShootFromBack extends OpMode {
     shooterRpm = (int) robot.shooter.calculateRPM(tagRange);
     robot.shooter.setRPM(shooterRpm);
     boolean xReady = Math.abs(tagBearing) <= bearingTolerance;
-    robot.intake.setPowerAll(1);
-    if (robot.shooter.atSpeedRPM(shooterRpm) && xReady && patternIndex < obeliskMotif.getPattern().length) {
-      if (!robot.indexer.isShooting() || patternIndex == 0) {
-        robot.indexer.setPosition(obeliskMotif.getPattern()[patternIndex], true);
-        patternIndex++;
-      }
-    } else if (patternIndex >= obeliskMotif.getPattern().length && !robot.indexer.isShooting()) {
-      // All done shooting
-      //robot.indexer.setPosition(Indexer.Position.RESET);
+    robot.shooter.setAim(tagRange, tagBearing);
+    robot.shooter.update();
+    boolean ready = robot.shooter.atSpeedRPM(shooterRpm) && xReady;
+    Indexer.BallColor[] pattern = obeliskMotif.getPattern();
+    boolean feed = sequencer.update(getRuntime(), ready, robot.shooter.shots.getTotal(),
+        ball -> !robot.indexer.isBlocked() && robot.indexer.setPosition(pattern[ball], true));
+    robot.intake.setPowerAll(feed ? 1 : 0);
+  }
+
+  /**
+   * Moves the field pose on by the odometry and any GOAL tags, so stop() can hand it to teleop.
+   */
+  private void updatePose() {
+    if (robot.poseFusion == null) {
+      return;
+    }
+    List<Camera.AprilTag> tags = null;
+    try {
+      tags = camera.getAprilTags();
+    } catch (Camera.CameraNotStreamingException | Camera.CameraNotAttachedException e) {
+      // The odometry carries on alone
     }
+    robot.poseFusion.update(tags);
   }
 
   void telemetries() {
     telemetry.addData("Obelisk Motif", obeliskMotif.toString());
-    telemetry.addData("Pattern Index", patternIndex);
     telemetry.addData("Balls in Indexer", "Left: %s | Top: %s | Right: %s",
         robot.indexer.getBallColor(Indexer.Position.LEFT), robot.indexer.getBallColor(Indexer.Position.TOP),
         robot.indexer.getBallColor(Indexer.Position.RIGHT));
@@ -185,7 +238,9 @@ public class ShootFromBack extends OpMode {
     telemetry.addData("Target Shooter RPM", shooterRpm);
     telemetry.addData("Tag Range", tagRange);
     telemetry.addLine(String.format("Shooter RPM: (%6.1f)", robot.shooter.getRPM()));
+    telemetry.addLine(robot.battery.summary());
     telemetry.addData("At Speed", robot.shooter.atSpeedRPM(shooterRpm));
+    telemetry.addData("Sequence", sequencer);
     telemetry.addData("Indexer Position", robot.indexer.getCurrentPosition());
     telemetry.addData("Intake Power", robot.intake.getPowers()[0]);
   }
@@ -195,6 +250,17 @@ public class ShootFromBack extends OpMode {
    */
   @Override
   public void stop() {
+    state.setIndexerContents(robot.indexer);
+    state.setImuHeading(robot.imu.getHeading());
+    if (robot.poseFusion != null) {
+      // Only once a GOAL tag has placed it on the field, the odometry alone doesn't know where it started
+      RobotPose pose = robot.poseFusion.update(null);
+      if (robot.poseFusion.filter.getPositionStdDev() < PoseFilter.UNKNOWN_POSITION) {
+        state.setPose(pose.x, pose.y, pose.heading);
+      }
+    }
+    state.save();
+    robot.stop();
   }
 
 }
\ No newline at end of file
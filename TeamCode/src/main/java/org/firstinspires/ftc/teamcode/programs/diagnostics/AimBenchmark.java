@@ -0,0 +1,122 @@
+package org.firstinspires.ftc.teamcode.programs.diagnostics;
+
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+import com.qualcomm.robotcore.util.RobotLog;
+import java.util.List;
+import org.firstinspires.ftc.teamcode.core.GoalGeometry;
+import org.firstinspires.ftc.teamcode.hardware.Camera;
+import org.firstinspires.ftc.teamcode.hardware.GamepadEvents;
+import org.firstinspires.ftc.vision.apriltag.AprilTagDetection;
+
+/**
+ * Aim Benchmark OpMode
+ *
+ * Compares the camera with and without the pose solve (see Camera.setAimMode): point it at a GOAL tag
+ * and switch between the modes. For each mode it shows how many frames with a tag come through a second
+ * and how long after the frame was taken the detections reach the OpMode (processing plus up to one
+ * loop). The pose solve's own time per tag is shown as the SDK measures it. The bearing from the tag's
+ * pixel center is shown next to the one from the pose, they should agree. The results are written to
+ * the robot log on STOP as well, to be copied off the robot.
+ *
+ * GAMEPAD CONTROLS:
+ * - A Button: switch between solving poses and aim mode
+ * - B Button: clear the measurements
+ */
+@TeleOp(name = "Aim Benchmark", group = "Diagnostics")
+public class AimBenchmark extends OpMode {
+  private static final String[] NAMES = { "With Poses", "Aim Mode" };
+  private Camera camera;
+  private GamepadEvents buttons;
+  // Per mode, 0 solving poses and 1 aim mode: frames with a tag, their total delay and time measured
+  private final int[] frames = new int[2];
+  private final double[] delayMillis = new double[2];
+  private final double[] seconds = new double[2];
+  private double lastTime = 0;
+
+  @Override
+  public void init() {
+    camera = new Camera(hardwareMap);
+    try {
+      camera.initAprilTag();
+    } catch (Camera.CameraNotAttachedException e) {
+      camera = null;
+      telemetry.addLine("Camera is not attached");
+      return;
+    }
+    buttons = new GamepadEvents(gamepad1);
+    buttons.onPress(GamepadEvents.A, () -> {
+      try {
+        camera.setAimMode(!camera.isAimMode());
+      } catch (Camera.CameraNotAttachedException e) {
+        // Reported by the loop
+      }
+    });
+    buttons.onPress(GamepadEvents.B, () -> {
+      for (int mode = 0; mode < 2; mode++) {
+        frames[mode] = 0;
+        delayMillis[mode] = 0;
+        seconds[mode] = 0;
+      }
+    });
+  }
+
+  @Override
+  public void start() {
+    lastTime = getRuntime();
+  }
+
+  @Override
+  public void loop() {
+    if (camera == null) {
+      telemetry.addLine("Camera is not attached");
+      return;
+    }
+    buttons.update(getRuntime());
+    int mode = camera.isAimMode() ? 1 : 0;
+    double now = getRuntime();
+    seconds[mode] += now - lastTime;
+    lastTime = now;
+
+    try {
+      List<AprilTagDetection> fresh = camera.getFreshDetections();
+      if (fresh != null && !fresh.isEmpty()) {
+        frames[mode]++;
+        delayMillis[mode] += (System.nanoTime() - fresh.get(0).frameAcquisitionNanoTime) / 1e6;
+        AprilTagDetection tag = fresh.get(0);
+        telemetry.addData("Pixel Bearing", "%.1f° (tag %d)", GoalGeometry.bearingFromPixel(tag.center.x,
+            Camera.FX, Camera.CX), tag.id);
+        telemetry.addData("Pose Bearing", tag.ftcPose == null ? "no pose" : String.format("%.1f°",
+            tag.ftcPose.bearing));
+      }
+    } catch (Camera.CameraNotStreamingException e) {
+      telemetry.addLine("Camera is not streaming");
+    } catch (Camera.CameraNotAttachedException e) {
+      telemetry.addLine("Camera is not attached");
+    }
+
+    telemetry.addData("Mode", camera.isAimMode() ? "aim (no pose solve)" : "solving poses");
+    telemetry.addData("Camera FPS", "%.1f", camera.visionPortal.getFps());
+    telemetry.addData("Pose Solve", "%d ms per tag", camera.getPoseSolveTime());
+    for (int i = 0; i < 2; i++) {
+      telemetry.addData(NAMES[i], result(i));
+    }
+  }
+
+  @Override
+  public void stop() {
+    if (camera == null) {
+      return;
+    }
+    for (int mode = 0; mode < 2; mode++) {
+      RobotLog.ii("AimBenchmark", "%s: %s", NAMES[mode], result(mode));
+    }
+    RobotLog.ii("AimBenchmark", "Pose solve: %d ms per tag", camera.getPoseSolveTime());
+  }
+
+  private String result(int mode) {
+    return frames[mode] == 0 ? "no frames with a tag yet"
+        : String.format("%.1f frames/s, %.1f ms after the frame", frames[mode] / seconds[mode],
+            delayMillis[mode] / frames[mode]);
+  }
+}
@@ -0,0 +1,172 @@
+package org.firstinspires.ftc.teamcode.programs.diagnostics;
+
+import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+import com.qualcomm.robotcore.util.ElapsedTime;
+import com.qualcomm.robotcore.util.RobotLog;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+import org.firstinspires.ftc.teamcode.core.Feedforward;
+import org.firstinspires.ftc.teamcode.core.FeedforwardFitter;
+import org.firstinspires.ftc.teamcode.hardware.Motor;
+import org.firstinspires.ftc.teamcode.hardware.Robot;
+import org.firstinspires.ftc.teamcode.hardware.Tuning;
+
+/**
+ * Drive Characterization OpMode
+ *
+ * Measures kS, kV and kA (see Feedforward) for each drive wheel by running voltage ramps, the same way
+ * FRC's SysId does:
+ * - Quasistatic: voltage rises slowly (RAMP_RATE), so acceleration is ~0 and the data gives kS and kV
+ * - Dynamic: a voltage step (DYNAMIC_VOLTAGE), the acceleration gives kA
+ * Each is run forwards and backwards, so the robot ends up roughly where it started. Press A before each
+ * test once the robot has room to drive (about 2 m).
+ *
+ * Every sample is written to FILE so the fit can be checked on a laptop with FeedforwardFitter, and the
+ * same fit runs live on the robot. At the end press A to save the constants to the tuning file, Robot.drive()
+ * uses them from then on.
+ */
+@Autonomous(name = "Drive Characterization", group = "Diagnostics")
+public class DriveCharacterization extends LinearOpMode {
+  public static final File FILE = new File(AppUtil.FIRST_FOLDER, "drive_characterization.csv");
+
+  /** Quasistatic ramp rate, in volts per second */
+  public static final double RAMP_RATE = 1.0;
+  /** Quasistatic ramps stop at this voltage */
+  public static final double QUASISTATIC_MAX_VOLTAGE = 5.0;
+  /** Dynamic step voltage */
+  public static final double DYNAMIC_VOLTAGE = 6.0;
+  /** How long the dynamic step is held, in seconds */
+  public static final double DYNAMIC_TIME = 1.5;
+
+  private static final String[] TESTS = { "quasistatic-forward", "quasistatic-reverse", "dynamic-forward",
+      "dynamic-reverse" };
+  private static final String[] WHEELS = { "frontLeft", "frontRight", "rearLeft", "rearRight" };
+
+  private Motor[] motors;
+  private final FeedforwardFitter[] fitters = new FeedforwardFitter[4];
+
+  @Override
+  public void runOpMode() {
+    Robot robot = new Robot.Builder(hardwareMap).drive().build();
+    motors = new Motor[] { robot.frontLeft, robot.frontRight, robot.rearLeft, robot.rearRight };
+    for (int wheel = 0; wheel < 4; wheel++) {
+      motors[wheel].setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+      motors[wheel].setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+      fitters[wheel] = new FeedforwardFitter();
+    }
+    telemetry.addLine("=== Drive Characterization ===");
+    telemetry.addLine("The robot drives forwards and backwards about 2 m, make room");
+    telemetry.addData("Recording to", FILE);
+    telemetry.update();
+    waitForStart();
+
+    try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE))) {
+      writer.write("test,wheel,time,voltage,velocity\n");
+      for (int test = 0; test < TESTS.length && opModeIsActive(); test++) {
+        while (opModeIsActive() && !gamepad1.a) {
+          telemetry.addData("Next", TESTS[test]);
+          telemetry.addLine("Press A to run it");
+          telemetryFit();
+          telemetry.update();
+          sleep(20);
+        }
+        runTest(test, writer);
+      }
+    } catch (IOException e) {
+      RobotLog.ee("DriveCharacterization", e, "Unable to write %s", FILE);
+    }
+    stopMotors();
+
+    boolean saved = false;
+    while (opModeIsActive()) {
+      if (gamepad1.a && !saved) {
+        save();
+        saved = true;
+      }
+      telemetryFit();
+      telemetry.addLine(saved ? "Saved to " + Tuning.FILE : "A: save to the tuning file");
+      telemetry.update();
+      sleep(50);
+    }
+    robot.stop();
+  }
+
+  private void runTest(int test, BufferedWriter writer) throws IOException {
+    boolean quasistatic = test < 2;
+    double direction = test % 2 == 0 ? 1 : -1;
+    for (FeedforwardFitter fitter : fitters) {
+      fitter.startRun();
+    }
+    ElapsedTime timer = new ElapsedTime();
+    while (opModeIsActive()) {
+      double time = timer.seconds();
+      double volts = quasistatic ? RAMP_RATE * time : DYNAMIC_VOLTAGE;
+      if ((quasistatic && volts > QUASISTATIC_MAX_VOLTAGE) || (!quasistatic && time > DYNAMIC_TIME)) {
+        break;
+      }
+      volts *= direction;
+      double battery = getBatteryVoltage();
+      double power = volts / battery;
+      for (int wheel = 0; wheel < 4; wheel++) {
+        motors[wheel].setPower(power);
+      }
+      for (int wheel = 0; wheel < 4; wheel++) {
+        double velocity = motors[wheel].getVelocity();
+        fitters[wheel].addSample(time, volts, velocity);
+        writer.write(String.format("%s,%s,%.4f,%.4f,%.2f\n", TESTS[test], WHEELS[wheel], time, volts, velocity));
+      }
+      telemetry.addData("Running", TESTS[test]);
+      telemetry.addData("Voltage", "%.2f V (battery %.2f V)", volts, battery);
+      telemetry.update();
+    }
+    stopMotors();
+    sleep(1000); // Let the robot come to rest
+  }
+
+  private void stopMotors() {
+    for (Motor motor : motors) {
+      motor.setPower(0);
+    }
+  }
+
+  private void telemetryFit() {
+    for (int wheel = 0; wheel < 4; wheel++) {
+      Feedforward feedforward = fitters[wheel].fit();
+      telemetry.addData(WHEELS[wheel], feedforward == null ? "Not enough data"
+          : String.format("%s, r^2 %.3f", feedforward, fitters[wheel].getRSquared()));
+    }
+  }
+
+  private void save() {
+    Tuning.Value[][] keys = {
+        { Tuning.DRIVE_FRONT_LEFT_KS, Tuning.DRIVE_FRONT_LEFT_KV, Tuning.DRIVE_FRONT_LEFT_KA },
+        { Tuning.DRIVE_FRONT_RIGHT_KS, Tuning.DRIVE_FRONT_RIGHT_KV, Tuning.DRIVE_FRONT_RIGHT_KA },
+        { Tuning.DRIVE_REAR_LEFT_KS, Tuning.DRIVE_REAR_LEFT_KV, Tuning.DRIVE_REAR_LEFT_KA },
+        { Tuning.DRIVE_REAR_RIGHT_KS, Tuning.DRIVE_REAR_RIGHT_KV, Tuning.DRIVE_REAR_RIGHT_KA }
+    };
+    for (int wheel = 0; wheel < 4; wheel++) {
+      Feedforward feedforward = fitters[wheel].fit();
+      if (feedforward != null) {
+        Tuning.save(keys[wheel], new double[] { feedforward.kS, feedforward.kV, feedforward.kA });
+      }
+    }
+  }
+
+  // Computes the current battery voltage
+  private double getBatteryVoltage() {
+    double result = Double.POSITIVE_INFINITY;
+    for (VoltageSensor sensor : hardwareMap.voltageSensor) {
+      double voltage = sensor.getVoltage();
+      if (voltage > 0) {
+        result = Math.min(result, voltage);
+      }
+    }
+    return result == Double.POSITIVE_INFINITY ? Feedforward.NOMINAL_VOLTAGE : result;
+  }
+}
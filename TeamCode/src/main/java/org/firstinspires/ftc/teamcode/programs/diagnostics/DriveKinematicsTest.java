@@ -0,0 +1,78 @@
+package org.firstinspires.ftc.teamcode.programs.diagnostics;
+
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+import org.firstinspires.ftc.teamcode.core.MecanumKinematics;
+import org.firstinspires.ftc.teamcode.core.simulation.DriveKinematicsSimulation;
+import org.firstinspires.ftc.teamcode.hardware.GamepadEvents;
+import org.firstinspires.ftc.teamcode.hardware.Robot;
+
+/**
+ * Drive Kinematics Test OpMode
+ *
+ * Shows how each desaturation mode (see MecanumKinematics) tracks a full-stick strafe while turning,
+ * first in simulation during INIT, then for real while driving.
+ *
+ * GAMEPAD CONTROLS:
+ * - Left stick: strafe / forward (full speed, no scaling)
+ * - Right stick X: rotate
+ * - X Button: next desaturation mode
+ * - Y Button: reset the saturation statistics
+ */
+@TeleOp(name = "Drive Kinematics Test", group = "Diagnostics")
+public class DriveKinematicsTest extends OpMode {
+  private Robot robot;
+  private final String[] simulation =
+      new String[MecanumKinematics.Mode.values().length * DriveKinematicsSimulation.TURNS.length];
+  private GamepadEvents buttons;
+
+  @Override
+  public void init() {
+    robot = new Robot.Builder(hardwareMap).drive().build();
+    buttons = new GamepadEvents(gamepad1);
+    int line = 0;
+    for (MecanumKinematics.Mode mode : MecanumKinematics.Mode.values()) {
+      for (double turn : DriveKinematicsSimulation.TURNS) {
+        simulation[line++] = String.format("%s turn %.2f: %s", mode, turn,
+            DriveKinematicsSimulation.measure(mode, turn));
+      }
+    }
+  }
+
+  @Override
+  public void init_loop() {
+    telemetry.addLine("=== Simulated full-stick strafe while turning ===");
+    for (String line : simulation) {
+      telemetry.addLine(line);
+    }
+  }
+
+  @Override
+  public void loop() {
+    buttons.update(getRuntime());
+    if (buttons.wasPressed(GamepadEvents.X)) {
+      MecanumKinematics.Mode[] modes = MecanumKinematics.Mode.values();
+      robot.kinematics.setMode(modes[(robot.kinematics.getMode().ordinal() + 1) % modes.length]);
+      robot.kinematics.resetStatistics();
+    }
+    if (gamepad1.y) {
+      robot.kinematics.resetStatistics();
+    }
+
+    robot.drive(gamepad1.left_stick_x, -gamepad1.left_stick_y, gamepad1.right_stick_x);
+
+    telemetry.addData("Mode", robot.kinematics.getMode());
+    telemetry.addData("Peak Wheel", "%.2f %s", robot.kinematics.getPeak(),
+        robot.kinematics.isSaturated() ? "(SATURATED)" : "");
+    telemetry.addData("Scale", "%.2f", robot.kinematics.getScale());
+    telemetry.addData("Saturated Loops", "%.0f%%", robot.kinematics.getSaturatedFraction() * 100);
+    telemetry.addLine(String.format("FL (%6.1f) (%6.1f) FR", robot.frontLeft.getRPM(), robot.frontRight.getRPM()));
+    telemetry.addLine(String.format("RL (%6.1f) (%6.1f) RR", robot.rearLeft.getRPM(), robot.rearRight.getRPM()));
+  }
+
+  @Override
+  public void stop() {
+    robot.drive(0, 0, 0);
+    robot.stop();
+  }
+}
@@ -4,7 +4,7 @@ import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.hardware.DcMotorEx;
 import org.firstinspires.ftc.robotcore.external.Telemetry;
-import org.firstinspires.ftc.teamcode.hardware.DeviceNames;
+import org.firstinspires.ftc.teamcode.hardware.Robot;
 
 @Autonomous(name = "Drivetrain Diagnostics", group = "Diagnostics")
 public class DrivetrainDiagnostics extends LinearOpMode {
@@ -31,10 +31,11 @@ public class DrivetrainDiagnostics extends LinearOpMode {
     Telemetry.Item rearLeftItem = telemetry.addData("Rear Left", "Waiting...");
     Telemetry.Item rearRightItem = telemetry.addData("Rear Right", "Waiting...");
     telemetry.update();
-    frontLeft = hardwareMap.get(DcMotorEx.class, DeviceNames.CH_MOTOR_2.getDeviceName());
-    frontRight = hardwareMap.get(DcMotorEx.class, DeviceNames.CH_MOTOR_3.getDeviceName());
-    rearLeft = hardwareMap.get(DcMotorEx.class, DeviceNames.CH_MOTOR_0.getDeviceName());
-    rearRight = hardwareMap.get(DcMotorEx.class, DeviceNames.CH_MOTOR_1.getDeviceName());
+    Robot robot = new Robot.Builder(hardwareMap).drive().build();
+    frontLeft = robot.frontLeft.asDcMotorEx();
+    frontRight = robot.frontRight.asDcMotorEx();
+    rearLeft = robot.rearLeft.asDcMotorEx();
+    rearRight = robot.rearRight.asDcMotorEx();
     statusItem.setValue("Initialized -  Raise Robot Off The Ground, Then Hit Start");
     telemetry.update();
     waitForStart();
@@ -49,6 +50,7 @@ public class DrivetrainDiagnostics extends LinearOpMode {
     while (opModeIsActive()) {
       sleep(100);
     }
+    robot.stop();
   }
 
   public void resetMotors() {
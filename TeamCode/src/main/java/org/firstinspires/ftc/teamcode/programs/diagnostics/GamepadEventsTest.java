@@ -0,0 +1,63 @@
+package org.firstinspires.ftc.teamcode.programs.diagnostics;
+
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+import org.firstinspires.ftc.teamcode.hardware.GamepadEvents;
+
+/**
+ * Gamepad Events Test OpMode
+ *
+ * Checks the gamepad event layer (see GamepadEvents) by hand: gamepad 1 can be used to try presses,
+ * long presses, chords and the trigger threshold. The scripted sequences are ButtonEventsTest in
+ * TeamCore. No hardware besides the gamepad is needed.
+ *
+ * GAMEPAD CONTROLS:
+ * - A: counts presses, releases and long presses
+ * - LB + RB: chord, counts presses and long presses (uses up LB and RB, so their own events don't fire)
+ * - LB / RB on their own: count releases
+ * - Right trigger: counts presses past the threshold
+ * - Back: reset the counters
+ */
+@TeleOp(name = "Gamepad Events Test", group = "Diagnostics")
+public class GamepadEventsTest extends OpMode {
+  private static final int CHORD = GamepadEvents.LEFT_BUMPER | GamepadEvents.RIGHT_BUMPER;
+
+  private GamepadEvents buttons;
+  private final int[] counts = new int[8];
+  private String lastEvent = "None";
+
+  @Override
+  public void init() {
+    buttons = new GamepadEvents(gamepad1);
+    buttons.onPress(GamepadEvents.A, () -> event(0, "A pressed"));
+    buttons.onRelease(GamepadEvents.A, () -> event(1, "A released"));
+    buttons.onLongPress(GamepadEvents.A, () -> event(2, "A long press"));
+    buttons.onPress(CHORD, () -> event(3, "LB + RB pressed"));
+    buttons.onLongPress(CHORD, () -> event(4, "LB + RB long press"));
+    buttons.onRelease(GamepadEvents.LEFT_BUMPER, () -> event(5, "LB released"));
+    buttons.onRelease(GamepadEvents.RIGHT_BUMPER, () -> event(6, "RB released"));
+    buttons.onPress(GamepadEvents.RIGHT_TRIGGER, () -> event(7, "Right trigger pressed"));
+    buttons.onPress(GamepadEvents.BACK, () -> {
+      for (int i = 0; i < counts.length; i++) {
+        counts[i] = 0;
+      }
+      lastEvent = "Counters reset";
+    });
+  }
+
+  private void event(int counter, String name) {
+    counts[counter]++;
+    lastEvent = name;
+  }
+
+  @Override
+  public void loop() {
+    buttons.update(getRuntime());
+    telemetry.addData("Buttons", "%17s", Integer.toBinaryString(buttons.getButtons()));
+    telemetry.addData("Last Event", lastEvent);
+    telemetry.addData("A", "pressed %d, released %d, long %d", counts[0], counts[1], counts[2]);
+    telemetry.addData("LB + RB", "pressed %d, long %d", counts[3], counts[4]);
+    telemetry.addData("Released alone", "LB %d, RB %d", counts[5], counts[6]);
+    telemetry.addData("Right Trigger", "%.2f, pressed %d", gamepad1.right_trigger, counts[7]);
+  }
+}
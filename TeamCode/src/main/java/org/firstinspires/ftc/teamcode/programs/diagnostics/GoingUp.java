@@ -2,50 +2,99 @@ package org.firstinspires.ftc.teamcode.programs.diagnostics;
 
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
-import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.DcMotorSimple;
 
+import org.firstinspires.ftc.teamcode.core.simulation.LiftResponse;
 import org.firstinspires.ftc.teamcode.hardware.Lift; // Using hardware Lift implementation
 import org.firstinspires.ftc.teamcode.hardware.Motor;
-import org.firstinspires.ftc.teamcode.hardware.DeviceNames;
+import org.firstinspires.ftc.teamcode.hardware.Robot;
+import org.firstinspires.ftc.teamcode.hardware.Tuning;
 
+/**
+ * Drives the lift by hand or to its preset heights, showing how far apart the sides get. During INIT the
+ * lift gains (Tuning.LIFT_P etc., see LiftController) are run on a simulated lift with one binding side
+ * (see LiftResponse), next to driving both sides with one power.
+ *
+ * GAMEPAD CONTROLS:
+ * - Right stick Y: lift power, cancels a move to a preset
+ * - DPad Up / Right / Down: move to full / partial / down
+ */
 @TeleOp(name = "Going Up", group = "Diagnostics")
 public class GoingUp extends OpMode {
 
+  private Robot robot;
   private Lift lift;
   private Motor leftLift;
   private Motor rightLift;
+  private String samePower;
+  private String simulation;
   private static final double DEADZONE = 0.05;
 
   @Override
   public void init() {
-    // Instantiate motors from Expansion Hub ports 2 & 3 (style matches Robot.java)
-    leftLift = new Motor(hardwareMap.get(DcMotorEx.class, DeviceNames.EH_MOTOR_2.getDeviceName())); // 28 PPR typical
-    rightLift = new Motor(hardwareMap.get(DcMotorEx.class, DeviceNames.EH_MOTOR_3.getDeviceName()));
+    // Only the lift is needed, so don't spend INIT time on the rest of the robot
+    robot = new Robot.Builder(hardwareMap).lift().build();
+    leftLift = robot.leftLift;
+    rightLift = robot.rightLift;
 
     // Reverse one motor if mechanically mirrored so positive power raises lift
     rightLift.setDirection(DcMotorSimple.Direction.REVERSE);
 
-    lift = new Lift(leftLift, rightLift);
-    lift.setZeroPowerBehavior(com.qualcomm.robotcore.hardware.DcMotor.ZeroPowerBehavior.BRAKE);
+    lift = robot.lift; // Already set to BRAKE by Robot
+    robot.telemetryInitTimes(telemetry);
+    simulate();
 
     telemetry.addLine("GoingUp initialized (Lift on CH_MOTOR_2 & CH_MOTOR_3)");
   }
 
+  @Override
+  public void init_loop() {
+    if (Tuning.poll()) {
+      robot.applyTuning();
+      simulate();
+    }
+    telemetry.addData("Same Power (simulated)", samePower);
+    telemetry.addData("Lift Control (simulated)", simulation);
+  }
+
+  private void simulate() {
+    samePower = LiftResponse.samePower(Tuning.LIFT_G.get()).toString();
+    simulation = LiftResponse.measure(Tuning.LIFT_P.get(), Tuning.LIFT_V.get(), Tuning.LIFT_G.get(),
+        Tuning.LIFT_SYNC.get(), Tuning.LIFT_MAX_VELOCITY.get(), Tuning.LIFT_MAX_ACCELERATION.get()).toString();
+  }
+
   @Override
   public void loop() {
+    if (Tuning.poll()) {
+      robot.applyTuning();
+    }
+    if (gamepad1.dpad_up) {
+      lift.moveTo(Lift.Preset.FULL);
+    } else if (gamepad1.dpad_right) {
+      lift.moveTo(Lift.Preset.PARTIAL);
+    } else if (gamepad1.dpad_down) {
+      lift.moveTo(Lift.Preset.DOWN);
+    }
+
     double stick = -gamepad1.right_stick_y; // Invert so up on stick gives positive power.
     if (Math.abs(stick) < DEADZONE)
       stick = 0.0;
 
     // Send power to lift (clip to valid range if Lift does not already).
     double power = Math.max(-1.0, Math.min(1.0, stick));
-    lift.setPower(power);
+    if (stick != 0 || !lift.controller.isActive()) {
+      lift.setPower(power);
+    } else {
+      lift.update();
+    }
 
     telemetry.addData("Stick", stick);
     telemetry.addData("Power", power);
     telemetry.addData("Avg RPM", lift.getRPM());
     telemetry.addData("Avg Pos", lift.getCurrentPosition());
+    telemetry.addData("L/R Pos", "%d / %d", leftLift.getCurrentPosition(), rightLift.getCurrentPosition());
+    telemetry.addData("Lift", lift.controller);
+    telemetry.addData("At Height", lift.isAtHeight());
     telemetry.update();
   }
 
@@ -54,5 +103,6 @@ public class GoingUp extends OpMode {
     if (lift != null) {
       lift.setPower(0);
     }
+    robot.stop();
   }
 }
@@ -0,0 +1,103 @@
+package org.firstinspires.ftc.teamcode.programs.diagnostics;
+
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+import com.qualcomm.robotcore.util.ElapsedTime;
+import org.firstinspires.ftc.teamcode.core.HeadingController;
+import org.firstinspires.ftc.teamcode.core.simulation.HeadingResponse;
+import org.firstinspires.ftc.teamcode.hardware.GamepadEvents;
+import org.firstinspires.ftc.teamcode.hardware.Robot;
+import org.firstinspires.ftc.teamcode.hardware.Tuning;
+
+/**
+ * Heading Hold Test OpMode
+ *
+ * Checks the heading hold gains (Tuning.HEADING_P etc., see HeadingController). During INIT the current
+ * gains are run on the simulated drivetrain (see HeadingResponse); while running, the same aim turn can
+ * be done on the real robot and its settling time compared. Edit the tuning file and the simulation and
+ * the robot both pick the new gains up.
+ *
+ * GAMEPAD CONTROLS:
+ * - Left stick: strafe / forward, let go of the right stick and strafe to see the heading held
+ * - Right stick X: rotate
+ * - B Button: aim turn, the target jumps HeadingResponse.AIM_STEP to the left
+ * - X Button: aim turn to the right
+ * - Y Button: back to holding
+ */
+@TeleOp(name = "Heading Hold Test", group = "Diagnostics")
+public class HeadingHoldTest extends OpMode {
+  private Robot robot;
+  private String simulation;
+  private final ElapsedTime stepTimer = new ElapsedTime();
+  private boolean stepping = false;
+  private double settlingTime = Double.NaN;
+  private GamepadEvents buttons;
+
+  @Override
+  public void init() {
+    robot = new Robot.Builder(hardwareMap).drive().imu().build();
+    buttons = new GamepadEvents(gamepad1);
+    simulate();
+  }
+
+  @Override
+  public void init_loop() {
+    if (Tuning.poll()) {
+      robot.applyTuning();
+      simulate();
+    }
+    telemetry.addData("Gains", "P %.2f I %.2f D %.2f max %.2f", Tuning.HEADING_P.get(), Tuning.HEADING_I.get(),
+        Tuning.HEADING_D.get(), Tuning.HEADING_MAX_POWER.get());
+    telemetry.addData("Simulated", simulation);
+  }
+
+  private void simulate() {
+    simulation = HeadingResponse.measure(Tuning.HEADING_P.get(), Tuning.HEADING_I.get(), Tuning.HEADING_D.get(),
+        Tuning.HEADING_MAX_POWER.get()).toString();
+  }
+
+  @Override
+  public void loop() {
+    if (Tuning.poll()) {
+      robot.applyTuning();
+      simulate();
+    }
+    buttons.update(getRuntime());
+    if (buttons.wasPressed(GamepadEvents.B) || buttons.wasPressed(GamepadEvents.X)) {
+      double step = buttons.wasPressed(GamepadEvents.B) ? HeadingResponse.AIM_STEP : -HeadingResponse.AIM_STEP;
+      robot.headingController.setTarget(robot.imu.getHeading() + step);
+      stepTimer.reset();
+      stepping = true;
+      settlingTime = Double.NaN;
+    }
+    if (gamepad1.y) {
+      robot.headingController.clearTarget();
+      stepping = false;
+    }
+
+    robot.driveHoldingHeading(gamepad1.left_stick_x, -gamepad1.left_stick_y, gamepad1.right_stick_x);
+
+    // Settled once it stays within tolerance, leaving the band again restarts the measurement
+    if (stepping) {
+      if (!robot.headingController.isSettled()) {
+        settlingTime = Double.NaN;
+      } else if (Double.isNaN(settlingTime)) {
+        settlingTime = stepTimer.seconds();
+      }
+    }
+
+    telemetry.addData("Simulated", simulation);
+    telemetry.addData("Measured Settling", "%.2f s", settlingTime);
+    telemetry.addData("Mode", robot.headingController.getMode());
+    telemetry.addData("Heading", "%.1f°", Math.toDegrees(robot.imu.getHeading()));
+    telemetry.addData("Error", "%.2f° (tolerance %.1f°)", Math.toDegrees(robot.headingController.getError()),
+        Math.toDegrees(HeadingController.TOLERANCE));
+    telemetry.addData("Yaw Rate", "%.1f°/s", Math.toDegrees(robot.imu.getAngularVelocity()));
+  }
+
+  @Override
+  public void stop() {
+    robot.drive(0, 0, 0);
+    robot.stop();
+  }
+}
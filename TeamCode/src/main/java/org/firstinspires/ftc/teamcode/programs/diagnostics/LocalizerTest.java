@@ -0,0 +1,118 @@
+package org.firstinspires.ftc.teamcode.programs.diagnostics;
+
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+import java.util.List;
+import org.firstinspires.ftc.teamcode.core.RobotPose;
+import org.firstinspires.ftc.teamcode.core.simulation.PoseSampling;
+import org.firstinspires.ftc.teamcode.core.simulation.TagCorrection;
+import org.firstinspires.ftc.teamcode.hardware.Camera;
+import org.firstinspires.ftc.teamcode.hardware.GamepadEvents;
+import org.firstinspires.ftc.teamcode.hardware.Localization;
+import org.firstinspires.ftc.teamcode.hardware.Robot;
+import org.firstinspires.ftc.teamcode.hardware.Tuning;
+
+/**
+ * Localizer Test OpMode
+ *
+ * Checks the odometry device (Pinpoint or OTOS, whichever the robot configuration has on Robot.LOCALIZER):
+ * drive around and see the pose, its velocity, how old it is and how fast the sampler runs. With the
+ * camera attached the pose corrected with the GOAL tags (see PoseFusion) is shown too. During INIT the
+ * position error from the pose's age is simulated (see PoseSampling), and the pose correction gains
+ * (Tuning.POSE_ODOMETRY_DRIFT etc.) are run on a simulated match (see TagCorrection).
+ *
+ * GAMEPAD CONTROLS:
+ * - Left stick: strafe / forward
+ * - Right stick X: rotate
+ * - A Button: reset the pose to (0, 0) facing 0, both the odometry and the corrected one
+ */
+@TeleOp(name = "Localizer Test", group = "Diagnostics")
+public class LocalizerTest extends OpMode {
+  private Robot robot;
+  private Camera camera;
+  private GamepadEvents buttons;
+  private String simulation;
+
+  @Override
+  public void init() {
+    robot = new Robot.Builder(hardwareMap).drive().localizer().build();
+    buttons = new GamepadEvents(gamepad1);
+    buttons.onPress(GamepadEvents.A, () -> {
+      robot.localization.setPose(0, 0, 0);
+      robot.poseFusion.setPose(0, 0, 0);
+    });
+    camera = new Camera(hardwareMap);
+    try {
+      camera.initAprilTag();
+    } catch (Camera.CameraNotAttachedException e) {
+      camera = null;
+    }
+    robot.telemetryInitTimes(telemetry);
+    if (robot.localization == null) {
+      telemetry.addLine("No Pinpoint or OTOS configured as " + Robot.LOCALIZER.getDeviceName());
+    } else {
+      telemetry.addData("Localizer", robot.localization.getName());
+    }
+    if (camera == null) {
+      telemetry.addLine("Camera is not attached, the pose won't be corrected");
+    }
+    telemetry.addData("Sampled (simulated)", PoseSampling.measure(Localization.SAMPLE_PERIOD_MS / 1000.0));
+    simulate();
+  }
+
+  @Override
+  public void init_loop() {
+    if (Tuning.poll()) {
+      robot.applyTuning();
+      simulate();
+    }
+    telemetry.addData("Tag Correction (simulated)", simulation);
+  }
+
+  private void simulate() {
+    simulation = TagCorrection.measure(Tuning.POSE_ODOMETRY_DRIFT.get(),
+        Math.toRadians(Tuning.POSE_HEADING_DRIFT.get()), Tuning.POSE_VISION_NOISE.get(),
+        Math.toRadians(Tuning.POSE_VISION_HEADING_NOISE.get()), Tuning.POSE_MIN_DECISION_MARGIN.get(),
+        Tuning.POSE_GATE.get()).toString();
+  }
+
+  @Override
+  public void loop() {
+    if (Tuning.poll()) {
+      robot.applyTuning();
+    }
+    robot.drive(gamepad1.left_stick_x, -gamepad1.left_stick_y, gamepad1.right_stick_x);
+    if (robot.localization == null) {
+      telemetry.addLine("No Pinpoint or OTOS configured as " + Robot.LOCALIZER.getDeviceName());
+      return;
+    }
+    buttons.update(getRuntime());
+
+    RobotPose pose = robot.localization.getPose();
+    telemetry.addLine(robot.localization.summary());
+    telemetry.addData("Position", "x %.1f in, y %.1f in", pose.x, pose.y);
+    telemetry.addData("Heading", "%.1f°", Math.toDegrees(pose.heading));
+    telemetry.addData("Velocity", "x %.1f in/s, y %.1f in/s, %.0f°/s", pose.xVelocity, pose.yVelocity,
+        Math.toDegrees(pose.angularVelocity));
+    telemetry.addData("Predicted", robot.localization.getPredictedPose());
+
+    List<Camera.AprilTag> tags = null;
+    if (camera != null) {
+      try {
+        tags = camera.getAprilTags();
+      } catch (Camera.CameraNotStreamingException | Camera.CameraNotAttachedException e) {
+        // Still starting up, the odometry carries on alone
+      }
+    }
+    long start = System.nanoTime();
+    robot.poseFusion.update(tags);
+    telemetry.addData("Corrected", robot.poseFusion.summary());
+    telemetry.addData("Correction Time", "%.0f us", (System.nanoTime() - start) / 1e3);
+  }
+
+  @Override
+  public void stop() {
+    robot.drive(0, 0, 0);
+    robot.stop();
+  }
+}
@@ -58,7 +58,7 @@ public class PIDFTuningTest extends LinearOpMode {
   @Override
   public void runOpMode() {
     // Initialize robot hardware
-    robot = new Robot(hardwareMap);
+    robot = new Robot.Builder(hardwareMap).drive().build();
 
     // Set motors to run using encoders for velocity control
     robot.frontLeft.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
@@ -119,6 +119,7 @@ public class PIDFTuningTest extends LinearOpMode {
     robot.frontRight.setPower(0);
     robot.rearLeft.setPower(0);
     robot.rearRight.setPower(0);
+    robot.stop();
   }
 
   private void handleGamepadInput() {
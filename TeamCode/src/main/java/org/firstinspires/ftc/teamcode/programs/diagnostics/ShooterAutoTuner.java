@@ -0,0 +1,176 @@
+package org.firstinspires.ftc.teamcode.programs.diagnostics;
+
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.util.ElapsedTime;
+
+import org.firstinspires.ftc.teamcode.core.FlywheelModel;
+import org.firstinspires.ftc.teamcode.core.PIDFGains;
+import org.firstinspires.ftc.teamcode.core.RelayAutoTuner;
+import org.firstinspires.ftc.teamcode.core.simulation.FlywheelResponse;
+import org.firstinspires.ftc.teamcode.core.simulation.SimulatedFlywheel;
+import org.firstinspires.ftc.teamcode.hardware.GamepadEvents;
+import org.firstinspires.ftc.teamcode.hardware.Motor;
+import org.firstinspires.ftc.teamcode.hardware.Robot;
+import org.firstinspires.ftc.teamcode.hardware.Tuning;
+
+/**
+ * Shooter Auto Tuner OpMode
+ *
+ * Replaces the read-telemetry / edit / redeploy cycle of ShooterPIDFTuningTest. Each shooter motor is
+ * run on its own through a step and relay experiment (see RelayAutoTuner), a first-order-plus-dead-time
+ * model is identified, and velocity PIDF coefficients are computed from it. The before (current tuning
+ * file) and after coefficients are compared on the identified model: spin-up time, overshoot and
+ * recovery after a shot.
+ *
+ * HOW TO USE:
+ * 1. Make sure nothing is in the shooter, both wheels will spin up to ~3000 RPM and oscillate around it
+ * 2. Press X during INIT to switch to simulation (no hardware needed, two mismatched flywheels)
+ * 3. Press PLAY, the left motor is tuned first, then the right (about 5 seconds each)
+ * 4. Review the results, press A to write them to the tuning file (Tuning.FILE)
+ *    Running OpModes pick the new values up within a second. Simulated results are never saved, they
+ *    belong to the stand-in flywheels rather than the robot's
+ */
+@TeleOp(name = "Shooter Auto Tuner", group = "Diagnostics")
+public class ShooterAutoTuner extends LinearOpMode {
+  /** 3000 RPM at 28 ticks per revolution */
+  private static final double TARGET_VELOCITY = 1400;
+  /** How often the experiment is updated, the same as a normal OpMode loop */
+  private static final double LOOP_TIME = 0.02;
+  /** The flywheels used in simulation, deliberately different so they get different gains */
+  private static final FlywheelModel SIMULATED_LEFT = new FlywheelModel(2800, 0.35, 0.03);
+  private static final FlywheelModel SIMULATED_RIGHT = new FlywheelModel(2600, 0.45, 0.04);
+  /** Encoder noise in simulation, in ticks/second */
+  private static final double SIMULATED_NOISE = 5;
+
+  private boolean simulate = false;
+
+  @Override
+  public void runOpMode() {
+    Robot robot = null;
+    GamepadEvents buttons = new GamepadEvents(gamepad1);
+    while (opModeInInit()) {
+      buttons.update(getRuntime());
+      if (buttons.wasPressed(GamepadEvents.X)) {
+        simulate = !simulate;
+      }
+      telemetry.addLine("=== Shooter Auto Tuner ===");
+      telemetry.addData("Mode", simulate ? "SIMULATION" : "ROBOT (shooter will spin!)");
+      telemetry.addLine("X: toggle simulation, PLAY: start");
+      telemetry.update();
+    }
+    if (!simulate) {
+      robot = new Robot.Builder(hardwareMap).shooter().build();
+    }
+
+    Tuning.Value[][] keys = {
+        { Tuning.SHOOTER_LEFT_P, Tuning.SHOOTER_LEFT_I, Tuning.SHOOTER_LEFT_D, Tuning.SHOOTER_LEFT_F },
+        { Tuning.SHOOTER_RIGHT_P, Tuning.SHOOTER_RIGHT_I, Tuning.SHOOTER_RIGHT_D, Tuning.SHOOTER_RIGHT_F }
+    };
+    String[] names = { "Left", "Right" };
+    FlywheelModel[] models = new FlywheelModel[2];
+    PIDFGains[] tuned = new PIDFGains[2];
+    String[] results = new String[2];
+
+    for (int side = 0; side < 2 && opModeIsActive(); side++) {
+      RelayAutoTuner tuner;
+      if (simulate) {
+        FlywheelModel truth = side == 0 ? SIMULATED_LEFT : SIMULATED_RIGHT;
+        tuner = tuneSimulated(new SimulatedFlywheel(truth, 0.001, SIMULATED_NOISE, side), names[side]);
+      } else {
+        tuner = tuneMotor(side == 0 ? robot.leftShooter : robot.rightShooter, names[side]);
+      }
+      if (tuner.getState() != RelayAutoTuner.State.DONE) {
+        results[side] = tuner.getFailure() != null ? "FAILED: " + tuner.getFailure() : "Stopped";
+        continue;
+      }
+      models[side] = tuner.getModel();
+      tuned[side] = models[side].computePIDF();
+      PIDFGains before = new PIDFGains(keys[side][0].get(), keys[side][1].get(),
+          keys[side][2].get(), keys[side][3].get());
+      results[side] = String.format("Model: %s\nPIDF: %.1f / %.1f / %.1f / %.2f (was %.1f / %.1f / %.1f / %.2f)"
+          + "\nBefore: %s\nAfter:  %s",
+          models[side], tuned[side].p, tuned[side].i, tuned[side].d, tuned[side].f,
+          before.p, before.i, before.d, before.f,
+          FlywheelResponse.measure(models[side], before, TARGET_VELOCITY),
+          FlywheelResponse.measure(models[side], tuned[side], TARGET_VELOCITY));
+      if (simulate) {
+        FlywheelModel truth = side == 0 ? SIMULATED_LEFT : SIMULATED_RIGHT;
+        results[side] += String.format("\nTrue model: %s\nOn true model: %s", truth,
+            FlywheelResponse.measure(truth, tuned[side], TARGET_VELOCITY));
+      }
+    }
+
+    boolean saved = false;
+    while (opModeIsActive()) {
+      // Gains for the simulated flywheels must never reach the robot's tuning file
+      if (gamepad1.a && !saved && !simulate) {
+        for (int side = 0; side < 2; side++) {
+          if (tuned[side] != null) {
+            Tuning.save(keys[side], new double[] { tuned[side].p, tuned[side].i, tuned[side].d, tuned[side].f });
+          }
+        }
+        saved = true;
+      }
+      if (robot != null && Tuning.poll()) {
+        robot.applyTuning();
+      }
+      for (int side = 0; side < 2; side++) {
+        telemetry.addLine(String.format("==== %s ====", names[side]));
+        telemetry.addLine(results[side] != null ? results[side] : "Not run");
+      }
+      telemetry.addLine();
+      if (simulate) {
+        telemetry.addLine("Simulation - not saved");
+      } else {
+        telemetry.addLine(saved ? "Saved to " + Tuning.FILE : "A: save to the tuning file");
+      }
+      telemetry.update();
+      sleep(50);
+    }
+    if (robot != null) {
+      robot.stop();
+    }
+  }
+
+  /**
+   * Runs the experiment on a real motor, with the hub's velocity controller switched off.
+   */
+  private RelayAutoTuner tuneMotor(Motor motor, String name) {
+    RelayAutoTuner tuner = new RelayAutoTuner();
+    ElapsedTime timer = new ElapsedTime();
+    motor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+    while (opModeIsActive() && !tuner.isFinished()) {
+      motor.setPower(tuner.update(timer.seconds(), motor.getVelocity()));
+      telemetryProgress(tuner, name, motor.getVelocity());
+      sleep((long) (LOOP_TIME * 1000));
+    }
+    motor.setPower(0);
+    motor.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+    return tuner;
+  }
+
+  /**
+   * Runs the experiment on a simulated flywheel, as fast as the simulation goes.
+   */
+  private RelayAutoTuner tuneSimulated(SimulatedFlywheel flywheel, String name) {
+    RelayAutoTuner tuner = new RelayAutoTuner();
+    double velocity = 0;
+    while (opModeIsActive() && !tuner.isFinished()) {
+      velocity = flywheel.run(tuner.update(flywheel.getTime(), velocity), LOOP_TIME);
+    }
+    telemetryProgress(tuner, name, velocity);
+    return tuner;
+  }
+
+  private void telemetryProgress(RelayAutoTuner tuner, String name, double velocity) {
+    telemetry.addData("Tuning", name);
+    telemetry.addData("Phase", tuner.getState());
+    telemetry.addData("Velocity", "%.0f ticks/s", velocity);
+    telemetry.addData("Relay Setpoint", "%.0f ticks/s", tuner.getSetpoint());
+    telemetry.addData("Relay Cycles", "%d / %d", tuner.getCycles(),
+        RelayAutoTuner.WARMUP_CYCLES + RelayAutoTuner.MEASURED_CYCLES);
+    telemetry.update();
+  }
+}
@@ -6,7 +6,15 @@ import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.PIDFCoefficients;
 import com.qualcomm.robotcore.util.ElapsedTime;
 
+import org.firstinspires.ftc.teamcode.core.simulation.FlywheelResponse;
+import org.firstinspires.ftc.teamcode.core.simulation.IndexerPipeline;
+import org.firstinspires.ftc.teamcode.core.simulation.MismatchedShooter;
+import org.firstinspires.ftc.teamcode.core.simulation.ShotDetection;
+import org.firstinspires.ftc.teamcode.core.simulation.VelocitySampling;
+import org.firstinspires.ftc.teamcode.hardware.GamepadEvents;
+import org.firstinspires.ftc.teamcode.hardware.Indexer;
 import org.firstinspires.ftc.teamcode.hardware.Robot;
+import org.firstinspires.ftc.teamcode.hardware.Tuning;
 
 /**
  * Shooter PIDF Tuning Test OpMode
@@ -18,12 +26,12 @@ import org.firstinspires.ftc.teamcode.hardware.Robot;
  * - Maintain consistent speed shot-to-shot
  * 
  * HOW TO USE:
- * 1. Start with recommended PIDF values in Robot.java (shooter section)
+ * 1. Start with the shooter.left.* and shooter.right.* p/i/d/f values in the tuning file (see Tuning.FILE)
  * 2. Run this OpMode
  * 3. Use gamepad controls to test spin-up and load response
  * 4. Watch telemetry for speed consistency and recovery
- * 5. Adjust PIDF values in Robot.java based on observations
- * 6. Re-run until performance meets targets
+ * 5. Edit the tuning file on the robot based on observations, changes apply within a second
+ * 6. Repeat until performance meets targets
  * 
  * GAMEPAD CONTROLS:
  * - A Button: Start/Stop shooter at 3000 RPM
@@ -78,7 +86,7 @@ public class ShooterPIDFTuningTest extends LinearOpMode {
   @Override
   public void runOpMode() {
     // Initialize robot hardware
-    robot = new Robot(hardwareMap);
+    robot = new Robot.Builder(hardwareMap).shooter().intake().build();
 
     // Set shooter motors to run using encoders
     robot.leftShooter.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
@@ -86,20 +94,12 @@ public class ShooterPIDFTuningTest extends LinearOpMode {
 
     robot.leftShooter.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
     robot.rightShooter.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-
-    PIDFCoefficients shooterPIDF = new PIDFCoefficients(
-        35.0, // P - High for quick load response (corrected scale)
-        6.0, // I - Strong for consistent performance (corrected scale)
-        2.0, // D - Moderate to prevent overshoot (corrected scale)
-        23.0 // F - Feedforward for 3000 RPM baseline (32767/1400, corrected scale)
-    );
-    robot.leftShooter.setPIDFCoefficients(shooterPIDF);
-    robot.rightShooter.setPIDFCoefficients(shooterPIDF);
+    // PIDF comes from the tuning file, Robot has already applied it
 
     // Display current PIDF coefficients
     telemetry.addLine("=== Shooter PIDF Tuning Test ===");
     telemetry.addLine();
-    telemetry.addLine("Current Shooter PIDF Coefficients:");
+    telemetry.addLine("Current Shooter PIDF Coefficients (scaled for the battery):");
 
     PIDFCoefficients leftPIDF = robot.leftShooter.getPIDFCoefficients();
     telemetry.addData("P", "%.6f", leftPIDF.p);
@@ -111,11 +111,29 @@ public class ShooterPIDFTuningTest extends LinearOpMode {
     telemetry.addLine();
     telemetry.addLine("Target: 3000 RPM for consistency");
     telemetry.addLine("See OpMode comments for controls");
+    telemetry.addData("Shot Detection (simulated)", ShotDetection.run(FlywheelResponse.SHOT_LOSS));
+    telemetry.addData("One at a Time (simulated)", IndexerPipeline.run(false, Indexer.TIMING));
+    telemetry.addData("Pipelined (simulated)", IndexerPipeline.run(true, Indexer.TIMING));
+    telemetry.addData("Weak Right Motor (simulated)", MismatchedShooter.run(0));
+    telemetry.addData("With Sync (simulated)", MismatchedShooter.run(Tuning.SHOOTER_SYNC_GAIN.get()));
+    telemetry.addData("Hub Speeds (simulated)", VelocitySampling.measure(0));
+    telemetry.addData("OctoQuad Speeds (simulated)",
+        VelocitySampling.measure((int) Tuning.SHOOTER_SAMPLE_INTERVAL.get()));
     telemetry.update();
 
     waitForStart();
+    buttons = new GamepadEvents(gamepad1);
 
     while (opModeIsActive()) {
+      // Reads the shooter speeds once per loop, from the OctoQuad if there is one
+      robot.reads.update();
+      // Pick up edits to the tuning file
+      if (Tuning.poll()) {
+        robot.applyTuning();
+      }
+      // Applies the current budget from the currents just read
+      robot.managePower();
+
       // Handle gamepad input
       handleGamepadInput();
 
@@ -125,6 +143,8 @@ public class ShooterPIDFTuningTest extends LinearOpMode {
       } else {
         robot.shooter.setPower(0);
       }
+      // Shots are also detected automatically, the same way as in a match
+      robot.shooter.update();
 
       // Handle real ball feed test
       handleBallFeedTest();
@@ -141,10 +161,11 @@ public class ShooterPIDFTuningTest extends LinearOpMode {
     // Stop shooter and intake when OpMode ends
     robot.shooter.setPower(0);
     robot.intake.stopAll();
+    robot.shooter.exportShots("ShooterPIDFTuningTest");
+    robot.stop();
   }
 
-  boolean upPressed = false;
-  boolean downPressed = false;
+  private GamepadEvents buttons;
 
   private void handleGamepadInput() {
     // Toggle shooter on/off
@@ -173,17 +194,11 @@ public class ShooterPIDFTuningTest extends LinearOpMode {
     }
 
     // Adjust target RPM
-    if (gamepad1.dpad_up && !upPressed) {
-      upPressed = true;
+    buttons.update(getRuntime());
+    if (buttons.wasPressed(GamepadEvents.DPAD_UP)) {
       targetRPM = Math.min(4000, targetRPM + 100);
-      sleep(200); // Debounce
-    } else if (gamepad1.dpad_down && !downPressed) {
-      downPressed = true;
+    } else if (buttons.wasPressed(GamepadEvents.DPAD_DOWN)) {
       targetRPM = Math.max(1000, targetRPM - 100);
-      sleep(200); // Debounce
-    } else {
-      upPressed = false;
-      downPressed = false;
     }
 
     // Real ball feed test - runs intake to feed balls
@@ -199,24 +214,16 @@ public class ShooterPIDFTuningTest extends LinearOpMode {
     }
 
     if (gamepad1.start) {
-      PIDFCoefficients shooterPIDF = new PIDFCoefficients(
-          45.0, // P - High for quick load response (corrected scale)
-          8.0, // I - Strong for consistent performance (corrected scale)
-          3.0, // D - Moderate to prevent overshoot (corrected scale)
-          23.0 // F - Feedforward for 3000 RPM baseline (32767/1400, corrected scale)
-      );
-      robot.leftShooter.setPIDFCoefficients(shooterPIDF);
-      robot.rightShooter.setPIDFCoefficients(shooterPIDF);
+      // Back to the values from the tuning file
+      robot.applyTuning();
     }
     if (gamepad1.back) {
-      PIDFCoefficients shooterPIDF = new PIDFCoefficients(
+      robot.shooter.setPIDF(
           28.0, // P - High for quick load response (corrected scale)
           4.0, // I - Strong for consistent performance (corrected scale)
           1.5, // D - Moderate to prevent overshoot (corrected scale)
           23.0 // F - Feedforward for 3000 RPM baseline (32767/1400, corrected scale)
       );
-      robot.leftShooter.setPIDFCoefficients(shooterPIDF);
-      robot.rightShooter.setPIDFCoefficients(shooterPIDF);
     }
   }
 
@@ -362,6 +369,12 @@ public class ShooterPIDFTuningTest extends LinearOpMode {
     telemetry.addData("Right Motor", "%.0f RPM", rightRPM);
     telemetry.addData("L/R Difference", "%.0f RPM %s", rpmDifference,
         rpmDifference > 50 ? "⚠ HIGH" : "✓");
+    telemetry.addData("Sync", robot.shooter.sync);
+    if (robot.shooterEncoders != null) {
+      telemetry.addData("OctoQuad", "%.0f / %.0f RPM (%s)", robot.shooterEncoders.getRPM(0),
+          robot.shooterEncoders.getRPM(1), robot.shooterEncoders);
+    }
+    telemetry.addLine(robot.battery.summary());
     telemetry.addLine();
 
     // Display performance metrics
@@ -404,6 +417,7 @@ public class ShooterPIDFTuningTest extends LinearOpMode {
     } else {
       telemetry.addLine("  Recovery: Press Left Bumper to test");
     }
+    telemetry.addData("  Detected Shots", robot.shooter.shots);
     telemetry.addLine();
 
     // Display current PIDF values
@@ -3,13 +3,34 @@ package org.firstinspires.ftc.teamcode.programs.diagnostics;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.util.Range;
+import com.qualcomm.robotcore.util.RobotLog;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Locale;
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
 import org.firstinspires.ftc.teamcode.hardware.Camera;
+import org.firstinspires.ftc.teamcode.hardware.GamepadEvents;
 import org.firstinspires.ftc.teamcode.hardware.Indexer;
 import org.firstinspires.ftc.teamcode.hardware.Robot;
+import org.firstinspires.ftc.teamcode.core.ShooterCurveFitter;
+import org.firstinspires.ftc.teamcode.hardware.Tuning;
 import org.firstinspires.ftc.teamcode.hardware.Camera.CameraNotAttachedException;
 
+/**
+ * Shooter Speed Calibrator OpMode
+ *
+ * Finds the RPM that scores from each range. Dial in the RPM and distance, shoot, and mark every shot as a
+ * hit or a miss: the shot is recorded with the range to the GOAL tag to {@link #FILE}, which keeps growing
+ * across sessions. Pressing Right Bumper fits a curve through the hits (see ShooterCurveFitter) and saves it
+ * to the tuning file, where Shooter.calculateRPM() picks it up in teleop and autonomous.
+ */
 @TeleOp(name = "Shooter Speed Calibrator", group = "Diagnostics")
 public class ShooterSpeedCalibrator extends LinearOpMode {
+  public static final File FILE = new File(AppUtil.FIRST_FOLDER, "shooter_calibration.csv");
 
   public Robot robot;
   public Camera camera;
@@ -17,6 +38,11 @@ public class ShooterSpeedCalibrator extends LinearOpMode {
   public int RPM = 1500;
   public int distance = 50;
 
+  private final ShooterCurveFitter fitter = new ShooterCurveFitter();
+  /** Range to the GOAL tag when it was last seen, NaN until then */
+  private double lastRange = Double.NaN;
+  private String saved = "Not yet";
+
   @Override
   public void runOpMode() {
     telemetry.addData("Status", "Initializing...");
@@ -27,62 +53,55 @@ public class ShooterSpeedCalibrator extends LinearOpMode {
     } catch (CameraNotAttachedException e) {
       telemetry.speak("Camera not attached.");
     }
+    loadShots();
+    fitter.fit();
     telemetry.update();
     telemetry.addData("Status", "Initialized!");
+    telemetry.addData("Recorded Shots", "%d hits, %d misses", fitter.getHits(), fitter.getMisses());
     telemetry.update();
     waitForStart(); //IMPORTANT
+    GamepadEvents buttons = new GamepadEvents(gamepad1);
     telemetry.update();
-    boolean upPressed = false;
-    boolean downPressed = false;
-    boolean leftPressed = false;
-    boolean rightPressed = false;
-    boolean aPressed = false;
-    boolean bPressed = false;
     boolean active = false;
     boolean alignActive = true;
     boolean aligning = false;
     boolean loading = false;
     while (opModeIsActive()) {
+      robot.reads.update();
+      robot.managePower();
       telemetry.addData("Status", "Running");
       telemetry.addData("Camera Status", camera.visionPortal.getCameraState().toString());
-      if (gamepad1.dpad_up && !upPressed) {
+      buttons.update(getRuntime());
+      if (buttons.wasPressed(GamepadEvents.DPAD_UP)) {
         RPM += 50;
-        upPressed = true;
-      } else if (!gamepad1.dpad_up) {
-        upPressed = false;
       }
-      if (gamepad1.dpad_down && !downPressed) {
+      if (buttons.wasPressed(GamepadEvents.DPAD_DOWN)) {
         RPM -= 50;
-        downPressed = true;
-      } else if (!gamepad1.dpad_down) {
-        downPressed = false;
       }
-      if (gamepad1.dpad_left && !leftPressed) {
+      if (buttons.wasPressed(GamepadEvents.DPAD_LEFT)) {
         distance -= 5;
-        leftPressed = true;
-      } else if (!gamepad1.dpad_left) {
-        leftPressed = false;
       }
-      if (gamepad1.dpad_right && !rightPressed) {
+      if (buttons.wasPressed(GamepadEvents.DPAD_RIGHT)) {
         distance += 5;
-        rightPressed = true;
-      } else if (!gamepad1.dpad_right) {
-        rightPressed = false;
       }
-      if (gamepad1.a && !aPressed) {
+      if (buttons.wasPressed(GamepadEvents.A)) {
         active = !active;
-        aPressed = true;
-      } else if (!gamepad1.a) {
-        aPressed = false;
       }
-      if (gamepad1.b && !bPressed) {
+      if (buttons.wasPressed(GamepadEvents.B)) {
         alignActive = !alignActive;
-        bPressed = true;
-      } else if (!gamepad1.b) {
-        bPressed = false;
+      }
+      if (buttons.wasPressed(GamepadEvents.X)) {
+        recordShot(true);
+      }
+      if (buttons.wasPressed(GamepadEvents.Y)) {
+        recordShot(false);
+      }
+      if (buttons.wasPressed(GamepadEvents.RIGHT_BUMPER)) {
+        saveCurve();
       }
       telemetry.addData("Target RPM", RPM);
       telemetry.addData("Target Distance", distance);
+      telemetryCalibration();
 
       double xSpeed = gamepad1.left_stick_x * 0.5;
 
@@ -124,6 +143,7 @@ public class ShooterSpeedCalibrator extends LinearOpMode {
       if (alignActive) {
         try {
           Camera.AprilTag tag = camera.getAprilTag(Camera.AprilTagPosition.GOAL);
+          lastRange = tag.ftcPose.range;
           if (Math.abs(distance - tag.ftcPose.range) > 1 || Math.abs(tag.ftcPose.x) > 5) {
             aligning = true;
             telemetry.addData("Status", "Aligning...");
@@ -164,8 +184,85 @@ public class ShooterSpeedCalibrator extends LinearOpMode {
       telemetry.addLine("D-Pad Left/Right: Decrease/Increase Target Distance by 5 inches");
       telemetry.addLine("A: Toggle Shooter On/Off");
       telemetry.addLine("B: Toggle Auto-Align On/Off");
+      telemetry.addLine("X / Y: Last shot was a hit / miss");
+      telemetry.addLine("Right Bumper: Fit the hits and save the curve");
       camera.telemetryAprilTag(telemetry);
       telemetry.update();
     }
+    robot.stop();
+  }
+
+  /**
+   * Feeds the shots recorded in earlier sessions to the fitter.
+   */
+  private void loadShots() {
+    if (!FILE.exists()) {
+      return;
+    }
+    try (BufferedReader reader = new BufferedReader(new FileReader(FILE))) {
+      String line = reader.readLine(); // header
+      while ((line = reader.readLine()) != null) {
+        String[] fields = line.split(",");
+        if (fields.length < 3) {
+          continue;
+        }
+        fitter.addShot(Double.parseDouble(fields[0]), Double.parseDouble(fields[1]),
+            Boolean.parseBoolean(fields[2].trim()));
+      }
+    } catch (IOException | NumberFormatException e) {
+      RobotLog.ee("ShooterSpeedCalibrator", e, "Unable to read %s", FILE);
+    }
+  }
+
+  /**
+   * Records the last shot at the current RPM and the range the GOAL tag was last seen at.
+   * @param hit true if it went in
+   */
+  private void recordShot(boolean hit) {
+    if (Double.isNaN(lastRange)) {
+      telemetry.speak("No tag yet");
+      return;
+    }
+    fitter.addShot(lastRange, RPM, hit);
+    boolean header = !FILE.exists();
+    try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE, true))) {
+      if (header) {
+        writer.write("range,rpm,hit\n");
+      }
+      writer.write(String.format(Locale.US, "%.1f,%d,%b\n", lastRange, RPM, hit));
+    } catch (IOException e) {
+      RobotLog.ee("ShooterSpeedCalibrator", e, "Unable to write %s", FILE);
+    }
+  }
+
+  /**
+   * Fits the hits and writes the curve to the tuning file.
+   */
+  private void saveCurve() {
+    long start = System.nanoTime();
+    int degree = fitter.fit();
+    double fitTime = (System.nanoTime() - start) / 1e6;
+    if (degree == 0) {
+      saved = "Not enough hits at different ranges";
+      return;
+    }
+    Tuning.save(new Tuning.Value[] { Tuning.SHOOTER_CURVE_MIN_RANGE, Tuning.SHOOTER_CURVE_MAX_RANGE,
+        Tuning.SHOOTER_CURVE_C0, Tuning.SHOOTER_CURVE_C1, Tuning.SHOOTER_CURVE_C2, Tuning.SHOOTER_CURVE_C3 },
+        new double[] { fitter.getMinRange(), fitter.getMaxRange(), fitter.getCoefficient(0),
+            fitter.getCoefficient(1), fitter.getCoefficient(2), fitter.getCoefficient(3) });
+    saved = String.format("Degree %d from %d hits, fitted in %.1f ms", degree, fitter.getHits(), fitTime);
+  }
+
+  private void telemetryCalibration() {
+    telemetry.addData("Recorded Shots", "%d hits, %d misses", fitter.getHits(), fitter.getMisses());
+    if (fitter.getDegree() > 0) {
+      telemetry.addData("Fitted Curve", "degree %d, rmse %.0f RPM, %.0f-%.0f in", fitter.getDegree(),
+          fitter.getRMSE(), fitter.getMinRange(), fitter.getMaxRange());
+    }
+    if (!Double.isNaN(lastRange)) {
+      telemetry.addData("RPM for Last Range", "%.0f (fitted %.0f) at %.1f in", robot.shooter.calculateRPM(lastRange),
+          fitter.getDegree() > 0 ? fitter.calculateRPM(lastRange) : Double.NaN, lastRange);
+    }
+    telemetry.addData("Saved Curve", saved);
   }
 }
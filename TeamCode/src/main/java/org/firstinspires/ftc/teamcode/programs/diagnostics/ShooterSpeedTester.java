@@ -6,6 +6,7 @@ import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.util.Range;
 import org.firstinspires.ftc.robotcore.external.Telemetry;
 import org.firstinspires.ftc.teamcode.hardware.Camera;
+import org.firstinspires.ftc.teamcode.hardware.GamepadEvents;
 import org.firstinspires.ftc.teamcode.hardware.Robot;
 import org.firstinspires.ftc.teamcode.hardware.Camera.CameraNotAttachedException;
 
@@ -31,21 +32,17 @@ public class ShooterSpeedTester extends LinearOpMode {
     telemetry.addData("Status", "Initialized!");
     telemetry.update();
     waitForStart(); //IMPORTANT
+    GamepadEvents buttons = new GamepadEvents(gamepad1);
     telemetry.update();
-    boolean upPressed = false;
-    boolean downPressed = false;
     while (opModeIsActive()) { //IMPORTANT
-      if (gamepad1.dpad_up && !upPressed) {
+      robot.reads.update();
+      robot.managePower();
+      buttons.update(getRuntime());
+      if (buttons.wasPressed(GamepadEvents.DPAD_UP)) {
         RPM += 100;
-        upPressed = true;
-      } else if (!gamepad1.dpad_up) {
-        upPressed = false;
       }
-      if (gamepad1.dpad_down && !downPressed) {
+      if (buttons.wasPressed(GamepadEvents.DPAD_DOWN)) {
         RPM -= 100;
-        downPressed = true;
-      } else if (!gamepad1.dpad_down) {
-        downPressed = false;
       }
 
       robot.intake.setPowerAll(gamepad1.right_trigger - gamepad1.left_trigger);
@@ -90,5 +87,6 @@ public class ShooterSpeedTester extends LinearOpMode {
       }
       telemetry.update();
     }
+    robot.stop();
   }
 }
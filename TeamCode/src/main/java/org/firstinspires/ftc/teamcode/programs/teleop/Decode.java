@@ -5,12 +5,14 @@ import com.qualcomm.robotcore.eventloop.opmode.OpMode;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.DcMotorEx;
+import org.firstinspires.ftc.teamcode.hardware.DriveInput;
 import org.firstinspires.ftc.teamcode.hardware.Robot;
 
 @TeleOp(name = "Decode Teleop", group = "A")
 @Disabled
 public class Decode extends OpMode {
   public Robot robot;
+  private final DriveInput driveInput = new DriveInput();
 
   // 
   /*
@@ -20,7 +22,7 @@ public class Decode extends OpMode {
   public void init() {
     telemetry.addData("Status", "Initializing");
     telemetry.update();
-    this.robot = new Robot(hardwareMap);
+    this.robot = new Robot.Builder(hardwareMap).drive().shooter().build();
     telemetry.addData("Status", "Initialized");
     telemetry.update();
   }
@@ -44,6 +46,9 @@ public class Decode extends OpMode {
    */
   @Override
   public void loop() {
+    // Motor currents, so the drive is throttled before the shooter's voltage sags
+    robot.reads.update();
+    robot.managePower();
     // Drive control
     driveLoop();
     // Shooter control
@@ -53,20 +58,13 @@ public class Decode extends OpMode {
   }
 
   public void driveLoop() {
-    double x = gamepad1.left_stick_x / 3;
-    x *= 2;
-    x += gamepad1.right_trigger * (gamepad1.left_stick_x / 3);
-    x -= gamepad1.left_trigger * (gamepad1.left_stick_x / 3);
-    double y = -gamepad1.left_stick_y / 3;
-    y *= 2;
-    y += gamepad1.right_trigger * (-gamepad1.left_stick_y / 3);
-    y -= gamepad1.left_trigger * (-gamepad1.left_stick_y / 3);
-    double z = gamepad1.right_stick_x / 3;
-    z *= 2;
-    z += gamepad1.right_trigger * (gamepad1.right_stick_x / 3);
-    z -= gamepad1.left_trigger * (gamepad1.right_stick_x / 3);
+    driveInput.update(gamepad1, true);
+    double x = driveInput.getX();
+    double y = driveInput.getY();
+    double z = driveInput.getRotate();
 
     robot.drive(x, y, z);
+    driveInput.latency.commanded();
   }
 
   private final int SHOOTER_MAX_RPM = 3000;
@@ -85,6 +83,7 @@ public class Decode extends OpMode {
    */
   @Override
   public void stop() {
+    robot.stop();
   }
 
 }
@@ -9,24 +9,47 @@ import com.qualcomm.robotcore.hardware.Gamepad;
 import com.qualcomm.robotcore.util.ElapsedTime;
 import com.qualcomm.robotcore.util.Range;
 import org.firstinspires.ftc.teamcode.hardware.Camera;
+import org.firstinspires.ftc.teamcode.hardware.DriveInput;
+import org.firstinspires.ftc.teamcode.hardware.GamepadEvents;
+import org.firstinspires.ftc.teamcode.hardware.HubStats;
 import org.firstinspires.ftc.teamcode.hardware.Robot;
+import org.firstinspires.ftc.teamcode.hardware.Tuning;
 import org.firstinspires.ftc.teamcode.hardware.Camera.AprilTagPosition;
 import org.firstinspires.ftc.teamcode.hardware.Camera.CameraNotAttachedException;
 import org.firstinspires.ftc.teamcode.hardware.Indexer;
+import org.firstinspires.ftc.teamcode.hardware.Lift;
+import org.firstinspires.ftc.teamcode.core.MecanumKinematics;
+import org.firstinspires.ftc.teamcode.hardware.MotifEstimator;
+import org.firstinspires.ftc.teamcode.hardware.PersistentState;
 
 @TeleOp(name = "Decode Pattern TeleOp", group = "A")
 public class DecodePattern extends OpMode {
   /** Aggregate access to drivetrain and mechanisms. */
   public Robot robot;
+  private final DriveInput driveInput = new DriveInput();
   /** Camera/vision wrapper for AprilTag via VisionPortal. */
   public Camera camera;
 
+  /** How old the stored autonomous state may be before we stop trusting it (10 minutes) */
+  private static final long STATE_MAX_AGE_MS = 10 * 60 * 1000;
+  /** Step and limit of the operator's shooter RPM offset */
+  private static final double RPM_OFFSET_STEP = 50;
+  private static final double MAX_RPM_OFFSET = 500;
+  /** Carries the motif, indexer contents and pose over from autonomous, and the RPM offset between matches */
+  private final PersistentState state = PersistentState.getInstance();
+
   /** The Motif Pattern for the match (set by the autonomous program) */
   private Camera.OBELISK_MOTIF obeliskMotif = Camera.OBELISK_MOTIF.PURPLE_PURPLE_GREEN;
+  /** Used to read the motif ourselves when autonomous didn't save one */
+  private final MotifEstimator motifEstimator = new MotifEstimator();
+  /** Whether the motif still needs to be read from the OBELISK during INIT */
+  private boolean estimatingMotif = false;
+  private boolean fieldCentric = false;
+  private long aimedFrameTime = 0;
 
   /**
    * Init:
-   * configure hardware --> configure camera --> load obelisk motif from blackboard
+   * configure hardware --> configure camera --> load obelisk motif and indexer contents from autonomous
    */
   @Override
   public void init() {
@@ -36,6 +59,7 @@ public class DecodePattern extends OpMode {
 
     // Instantiate our robot hardware abstraction and camera wrapper.
     this.robot = new Robot(hardwareMap);
+    registerButtons();
     this.camera = new Camera(hardwareMap);
     try {
       // Prepare AprilTag pipeline. If the webcam isn't present, we'll catch and warn below.
@@ -43,12 +67,23 @@ public class DecodePattern extends OpMode {
     } catch (CameraNotAttachedException e) {
       telemetry.speak("WARNING: Camera not attached!");
     }
-    if (blackboard.containsKey(Camera.OBELISK_STORAGE_KEY)) {
-      obeliskMotif = Camera.OBELISK_MOTIF.fromId((int) blackboard.get(Camera.OBELISK_STORAGE_KEY));
+    robot.shooter.setRPMOffset(state.getShooterRPMOffset());
+    if (state.getMotif() != null && state.getAgeMillis() < STATE_MAX_AGE_MS) {
+      obeliskMotif = state.getMotif();
+      state.restoreIndexerContents(robot.indexer);
     } else {
-      telemetry.speak("Obelisk pattern not found in blackboard!");
+      telemetry.speak("Obelisk pattern not saved by autonomous!");
+      estimatingMotif = true;
+    }
+    if (state.getAgeMillis() < STATE_MAX_AGE_MS) {
+      // Keep autonomous's idea of "forward" for field-centric driving
+      robot.imu.setHeading(state.getImuHeading());
+      if (robot.poseFusion != null && state.isPoseKnown()) {
+        robot.poseFusion.setPose(state.getPoseX(), state.getPoseY(), state.getPoseHeading());
+      }
     }
     telemetry.addData("Status", "Initialized");
+    robot.telemetryInitTimes(telemetry);
     telemetry.update();
   }
 
@@ -60,14 +95,39 @@ public class DecodePattern extends OpMode {
   public void init_loop() {
     telemetry.addData("Status", "Initialized");
 
+    if (estimatingMotif) {
+      try {
+        if (motifEstimator.update(camera.getAprilTags())) {
+          estimatingMotif = false;
+          // Motif is locked, stop spending CPU on detection for the rest of INIT
+          camera.setDetectionEnabled(false);
+        }
+        if (motifEstimator.getMotif() != null) {
+          obeliskMotif = motifEstimator.getMotif();
+        }
+      } catch (Camera.CameraNotAttachedException e) {
+        estimatingMotif = false;
+      } catch (Camera.CameraNotStreamingException e) {
+        telemetry.addData("Camera", "Not streaming");
+      }
+    }
+
     if (gamepad2.left_bumper) {
       this.obeliskMotif = Camera.OBELISK_MOTIF.GREEN_PURPLE_PURPLE;
+      estimatingMotif = false;
     } else if (gamepad2.right_bumper) {
       this.obeliskMotif = Camera.OBELISK_MOTIF.PURPLE_PURPLE_GREEN;
+      estimatingMotif = false;
     } else if (gamepad2.back) {
       this.obeliskMotif = Camera.OBELISK_MOTIF.PURPLE_GREEN_PURPLE;
+      estimatingMotif = false;
     }
     telemetry.addData("Obelisk Motif", obeliskMotif);
+    if (motifEstimator.getFramesObserved() > 0) {
+      telemetry.addData("Motif Confidence", "%.0f%% (%s)", motifEstimator.getConfidence() * 100,
+          motifEstimator.isLocked() ? "Locked in " + motifEstimator.getFramesToLock() + " frames"
+              : motifEstimator.getFramesObserved() + " frames");
+    }
 
     camera.telemetryAprilTag(telemetry);
     telemetry.update();
@@ -80,6 +140,8 @@ public class DecodePattern extends OpMode {
   @Override
   public void start() {
     try {
+      // Detection may have been switched off once the motif locked during INIT
+      camera.setDetectionEnabled(true);
       //Pause the camera to save resources during active driving.
       camera.pause();
       //camera.visionPortal.stopLiveView(); - Enable to save a few resources
@@ -89,7 +151,6 @@ public class DecodePattern extends OpMode {
   }
 
   int classifiedArtifacts = 0;
-  private int baseRPM = 2500;
 
   /**
    * Main control loop (called repeatedly during PLAY):
@@ -99,76 +160,89 @@ public class DecodePattern extends OpMode {
    */
   @Override
   public void loop() {
+    HubStats.nextLoop();
+    robot.reads.update();
+    if (Tuning.poll()) {
+      robot.applyTuning();
+    }
+    robot.compensateVoltage();
+    robot.managePower();
     operatorLoop();
     cameraLoop();
     driverLoop();
     telemetries();
   }
 
-  private boolean aPressed = false;
-  private boolean bPressed = false;
-  private boolean yPressed = false;
-  private boolean dpadLeftPressed = false;
-  private boolean dpadRightPressed = false;
+  private GamepadEvents operator;
+  private GamepadEvents driver;
+
+  /**
+   * Registers the button handlers, called once from init():
+   * - Operator 'A' to increment classified artifacts
+   * - Operator 'B' to decrement classified artifacts
+   * - Operator 'Y' to reset classified artifacts to 0
+   * - Operator DPad Left/Right to adjust the shooter RPM offset (saved for the next OpModes)
+   * - Hold operator DPad Up/'X'/DPad Down to move the lift to full/partial/down
+   * - Driver Back to toggle field-centric driving, hold Start to reset the heading
+   */
+  private void registerButtons() {
+    operator = new GamepadEvents(gamepad2);
+    operator.onPress(GamepadEvents.A, () -> setClassifiedArtifacts(classifiedArtifacts + 1));
+    operator.onPress(GamepadEvents.B, () -> setClassifiedArtifacts(classifiedArtifacts - 1));
+    operator.onPress(GamepadEvents.Y, () -> setClassifiedArtifacts(0));
+    operator.onPress(GamepadEvents.DPAD_LEFT, () -> adjustRPMOffset(-RPM_OFFSET_STEP));
+    operator.onPress(GamepadEvents.DPAD_RIGHT, () -> adjustRPMOffset(RPM_OFFSET_STEP));
+    // Held so the lift doesn't move from a stray press
+    operator.onLongPress(GamepadEvents.DPAD_UP, () -> robot.lift.moveTo(Lift.Preset.FULL));
+    operator.onLongPress(GamepadEvents.X, () -> robot.lift.moveTo(Lift.Preset.PARTIAL));
+    operator.onLongPress(GamepadEvents.DPAD_DOWN, () -> robot.lift.moveTo(Lift.Preset.DOWN));
+
+    driver = new GamepadEvents(gamepad1);
+    driver.onPress(GamepadEvents.BACK, () -> fieldCentric = !fieldCentric);
+    // Held so a stray press mid-match can't throw "forward" off
+    driver.onLongPress(GamepadEvents.START, () -> {
+      robot.imu.setHeading(0);
+      robot.headingController.reset();
+    });
+  }
+
+  /**
+   * Moves the offset added to the range-based shooter RPM, and saves it so the next autonomous and
+   * teleop shoot with it too.
+   * @param change RPM to add
+   */
+  private void adjustRPMOffset(double change) {
+    double offset = Range.clip(robot.shooter.getRPMOffset() + change, -MAX_RPM_OFFSET, MAX_RPM_OFFSET);
+    robot.shooter.setRPMOffset(offset);
+    state.setShooterRPMOffset(offset);
+    state.save();
+  }
+
+
+  private void setClassifiedArtifacts(int count) {
+    classifiedArtifacts = Math.max(0, Math.min(9, count));
+    telemetry.speak(String.valueOf(classifiedArtifacts));
+  }
 
   /**
    * Operator control loop:
-   * - 'A' to increment classified artifacts
-   * - 'B' to decrement classified artifacts
-   * - 'Y' to reset classified artifacts to 0
-   * - DPad Left/Right to adjust base shooter RPM
-   * - Right Stick Y to control lift power
+   * - Dispatches the operator's button handlers (see registerButtons())
+   * - Rumbles the driver's gamepad while 'A' is held
+   * - Right Stick Y (with Back held) to control lift power, which cancels a move to a preset height
+   * - Otherwise keeps a move to a preset height going
    */
   public void operatorLoop() {
-    if (gamepad2.a && !aPressed) {
-      classifiedArtifacts = Math.max(0, Math.min(9, classifiedArtifacts + 1));
-      aPressed = true;
-      telemetry.speak(String.valueOf(classifiedArtifacts));
-    }
-    if (!gamepad2.a) {
-      aPressed = false;
-    }
+    operator.update(getRuntime());
     if (gamepad2.a) {
       gamepad1.rumble(1, 1, Gamepad.RUMBLE_DURATION_CONTINUOUS);
     } else {
       gamepad1.stopRumble();
     }
 
-    if (gamepad2.b && !bPressed) {
-      classifiedArtifacts = Math.max(0, Math.min(9, classifiedArtifacts - 1));
-      bPressed = true;
-      telemetry.speak(String.valueOf(classifiedArtifacts));
-    }
-    if (!gamepad2.b) {
-      bPressed = false;
-    }
-    if (gamepad2.y && !yPressed) {
-      classifiedArtifacts = 0;
-      yPressed = true;
-      telemetry.speak(String.valueOf(classifiedArtifacts));
-    }
-    if (!gamepad2.y) {
-      yPressed = false;
-    }
-
-    if (gamepad2.dpad_left && !dpadLeftPressed) {
-      baseRPM = Math.max(2000, baseRPM - 50);
-      dpadLeftPressed = true;
-    }
-    if (!gamepad2.dpad_left) {
-      dpadLeftPressed = false;
-    }
-
-    if (gamepad2.dpad_right && !dpadRightPressed) {
-      baseRPM = Math.min(4000, baseRPM + 50);
-      dpadRightPressed = true;
-    }
-    if (!gamepad2.dpad_right) {
-      dpadRightPressed = false;
-    }
-
     if (Math.abs(gamepad2.right_stick_y) > 0.2 && gamepad2.back) {
       robot.lift.setPower(-gamepad2.right_stick_y);
+    } else if (robot.lift.controller.isActive()) {
+      robot.lift.update();
     } else {
       robot.lift.setPower(0);
     }
@@ -179,6 +253,8 @@ public class DecodePattern extends OpMode {
   private boolean tagFound = false;
   private double targetBearing = 0;
   private double tagRange = 85;
+  /** When the camera captured the frame the GOAL tag was last seen in */
+  private long tagFrameTime = 0;
 
   /**
    * Camera control loop:
@@ -195,6 +271,7 @@ public class DecodePattern extends OpMode {
           Camera.AprilTag tag = camera.getAprilTag(Camera.AprilTagPosition.GOAL);
           targetBearing = tag.targetPose.bearing;
           tagRange = tag.ftcPose.range;
+          tagFrameTime = tag.frameAcquisitionNanoTime;
           tagFound = true;
           cameraActive = true;
         } catch (Camera.CameraNotStreamingException e) {
@@ -246,6 +323,7 @@ public class DecodePattern extends OpMode {
     double y = 0;
     double r = 0;
     if (gamepad1.left_bumper) {
+      driveInput.reset();
       robot.statusLed.setGreen(true);
       robot.frontLeft.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
       robot.frontRight.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
@@ -267,18 +345,21 @@ public class DecodePattern extends OpMode {
       robot.frontRight.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.FLOAT);
       robot.rearLeft.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.FLOAT);
       robot.rearRight.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.FLOAT);
-      x = gamepad1.left_stick_x / 3;
-      x *= 2;
-      x += !gamepad1.right_bumper ? gamepad1.right_trigger * (gamepad1.left_stick_x / 3) : 0;
-      x -= !gamepad1.right_bumper ? gamepad1.left_trigger * (gamepad1.left_stick_x / 3) : 0;
-      y = -gamepad1.left_stick_y / 3;
-      y *= 2;
-      y += !gamepad1.right_bumper ? gamepad1.right_trigger * (-gamepad1.left_stick_y / 3) : 0;
-      y -= !gamepad1.right_bumper ? gamepad1.left_trigger * (-gamepad1.left_stick_y / 3) : 0;
-      r = gamepad1.right_stick_x / 3;
-      r *= 2;
-      r += !gamepad1.right_bumper ? gamepad1.right_trigger * (gamepad1.right_stick_x / 3) : 0;
-      r -= !gamepad1.right_bumper ? gamepad1.left_trigger * (gamepad1.right_stick_x / 3) : 0;
+      driveInput.update(gamepad1, !gamepad1.right_bumper);
+      x = driveInput.getX();
+      y = driveInput.getY();
+      r = driveInput.getRotate();
+    }
+
+    //-----------------------------------------Field-Centric-----------------------------------------
+    // Back toggles field-centric driving, holding Start declares "the robot is facing away from me now"
+    driver.update(getRuntime());
+    if (fieldCentric) {
+      // Only the sticks are field relative, the align assist below stays relative to the robot
+      double heading = robot.imu.getHeading();
+      double fieldX = x;
+      x = fieldX * Math.cos(heading) + y * Math.sin(heading);
+      y = -fieldX * Math.sin(heading) + y * Math.cos(heading);
     }
 
     bearingReady = false;
@@ -286,9 +367,16 @@ public class DecodePattern extends OpMode {
     shooterReady = false;
     if (gamepad1.right_bumper) {
       //-----------------------------------------Align-Assist-----------------------------------------
-      // Align-assist: while RB is held, read the GOAL AprilTag and adjust rotation (z)
-      // to center the tag. Also provide driver rumble until within tolerance.
-      r += (targetBearing / -30) * (tagFound ? 0.5 : 0.2);
+      // Align-assist: while RB is held, read the GOAL AprilTag and have the heading controller turn
+      // to face it. Each camera frame gives one new target, reusing a bearing against a heading that
+      // has since changed would make the target chase the robot.
+      if (tagFound) {
+        robot.shooter.setAim(tagRange, targetBearing);
+      }
+      if (tagFound && tagFrameTime != aimedFrameTime) {
+        robot.headingController.setTarget(robot.imu.getHeading() + Math.toRadians(targetBearing));
+        aimedFrameTime = tagFrameTime;
+      }
       y += tagRange < 50 ? -0.4 : 0;
       if (tagRange > 50) {
         rangeReady = true;
@@ -325,7 +413,16 @@ public class DecodePattern extends OpMode {
       shooterRpm = 0;
     }
     robot.shooter.setRPM(shooterRpm);
-    robot.drive(x, y, r);
+    robot.shooter.update();
+    // While aligning, keep the full aim correction and give up translation speed instead
+    robot.kinematics.setMode(gamepad1.right_bumper ? MecanumKinematics.Mode.ROTATION_PRIORITY
+        : MecanumKinematics.Mode.NORMALIZE);
+    if (!gamepad1.right_bumper) {
+      robot.headingController.clearTarget();
+    }
+    // With the right stick centered the heading is held, against strafe drift or facing the GOAL
+    robot.driveHoldingHeading(x, y, r);
+    driveInput.latency.commanded();
 
     //-----------------------------------------Intake-----------------------------------------
     if (gamepad1.right_bumper) {
@@ -381,7 +478,12 @@ public class DecodePattern extends OpMode {
         robot.indexer.getBallColor(Indexer.Position.RIGHT));
     telemetry.addData("Shooting Ready", "Aligned: %s | In Range: %s | At Speed: %s",
         bearingReady ? "Yes" : "No", rangeReady ? "Yes" : "No", shooterReady ? "Yes" : "No");
-    telemetry.addData("Base Shooter RPM", baseRPM);
+    telemetry.addData("Shooter RPM Offset", "%+.0f", robot.shooter.getRPMOffset());
+    telemetry.addData("Shots", robot.shooter.shots);
+    telemetry.addData("Shooter Sync", robot.shooter.sync);
+    telemetry.addData("Lift", robot.lift.controller);
+    telemetry.addLine(robot.battery.summary());
+    telemetry.addLine(robot.power.summary());
     telemetry.addLine(String.format("Shooter RPM: %6.1f", robot.shooter.getRPM()));
     telemetry.addData("Tag Found", tagFound);
     telemetry.addLine(String.format("Tag Bearing: (%6.1fº) Tag Range: (%6.1f)", targetBearing, tagRange));
@@ -390,6 +492,15 @@ public class DecodePattern extends OpMode {
     // Drivetrain RPMs (per-wheel), shooter speed, and vision-derived alignment/shooting info
     telemetry.addLine(String.format("FL (%6.1f) (%6.1f) FR", robot.frontLeft.getRPM(), robot.frontRight.getRPM()));
     telemetry.addLine(String.format("RL (%6.1f) (%6.1f) RR", robot.rearLeft.getRPM(), robot.rearRight.getRPM()));
+    telemetry.addData("Drive", "%s centric, heading %.0f°", fieldCentric ? "Field" : "Robot",
+        Math.toDegrees(robot.imu.getHeading()));
+    telemetry.addData("Heading Hold", "%s, error %.1f°", robot.headingController.getMode(),
+        Math.toDegrees(robot.headingController.getError()));
+    telemetry.addData("Input Latency", driveInput.latency);
+    telemetry.addLine(HubStats.summary());
+    telemetry.addLine(robot.reads.summary());
+    telemetry.addData("Drive Saturation", "%.2f (%.0f%% of loops)", robot.kinematics.getPeak(),
+        robot.kinematics.getSaturatedFraction() * 100);
     // Camera helper will add its own telemetry (detections, pose, etc.).
     camera.telemetryAprilTag(telemetry);
   }
@@ -403,6 +514,8 @@ public class DecodePattern extends OpMode {
     robot.drive(0, 0, 0);
     robot.shooter.setRPM(0);
     //robot.intake.setPowerAll(0);
+    robot.stop();
+    robot.shooter.exportShots("DecodePattern");
   }
 
 }
@@ -8,7 +8,10 @@ import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.Gamepad;
 import com.qualcomm.robotcore.util.Range;
 import org.firstinspires.ftc.teamcode.hardware.Camera;
+import org.firstinspires.ftc.teamcode.hardware.DriveInput;
+import org.firstinspires.ftc.teamcode.hardware.GamepadEvents;
 import org.firstinspires.ftc.teamcode.hardware.Robot;
+import org.firstinspires.ftc.teamcode.hardware.Tuning;
 import org.firstinspires.ftc.teamcode.hardware.Camera.AprilTagPosition;
 import org.firstinspires.ftc.teamcode.hardware.Camera.CameraNotAttachedException;
 
@@ -20,7 +23,7 @@ import org.firstinspires.ftc.teamcode.hardware.Camera.CameraNotAttachedException
  * - Uses a {@link Robot} abstraction for drivetrain and mechanisms, and a {@link Camera} wrapper
  *   for AprilTag detection via the FTC VisionPortal.
  * - Driver (gamepad1): normal mecanum drive on sticks; hold Right Bumper to enable tag-aligned "assist"
- *   that slowly rotates the robot to center the goal AprilTag (x-axis only) and rumbles until aligned.
+ *   that slowly rotates the robot to face the goal AprilTag and rumbles until aligned.
  * - Operator (gamepad2): manual intake with LT (reverse) by default; hold Right Bumper to enter
  *   auto-shoot mode which estimates shooter RPM from tag range and auto-feeds when at speed and aligned.
  *   While not ready to shoot, the operator's gamepad rumbles for feedback.
@@ -29,15 +32,17 @@ import org.firstinspires.ftc.teamcode.hardware.Camera.CameraNotAttachedException
  * Notes and assumptions
  * - This OpMode attempts to fetch the GOAL tag. If the camera isn't attached or streaming, we
  *   speak/telemetry warnings and try to resume streaming where appropriate to keep driving safe.
- * - Units: {@code tag.ftcPose.range} is in inches (FTC SDK). {@code tag.ftcPose.x} is also in inches
- *   left/right from the camera centerline, but this code treats {@code xTolerance} as "pixels".
- *   Consider calibrating to inches or computing a pixel offset from the detection center to avoid mismatch.
+ * - Aiming only needs the bearing to the tag, which comes straight from the tag's center in the image
+ *   (see {@link Camera#getGoalBearing()}), in degrees. While only the driver is aiming the camera is in
+ *   aim mode and skips the pose solve; the operator's auto-shoot needs {@code tag.ftcPose.range}
+ *   (inches), so the poses are solved while it is held.
  * - Shooter RPM math is a placeholder (see TODO). Expect to replace with a calibrated mapping from range
  *   to velocity based on your launcher and game element aerodynamics.
  */
 public class DecodeVisual extends OpMode {
   /** Aggregate access to drivetrain and mechanisms. */
   public Robot robot;
+  private final DriveInput driveInput = new DriveInput();
   /** Camera/vision wrapper for AprilTag via VisionPortal. */
   public Camera camera;
 
@@ -53,6 +58,7 @@ public class DecodeVisual extends OpMode {
     // - Robot uses the hardwareMap to find motors/servos/sensors.
     // - Camera sets up the VisionPortal and AprilTag processors.
     this.robot = new Robot(hardwareMap);
+    this.operator = new GamepadEvents(gamepad2);
     this.camera = new Camera(hardwareMap);
     try {
       // Prepare AprilTag pipeline. If the webcam isn't present, we'll catch and warn below.
@@ -96,6 +102,8 @@ public class DecodeVisual extends OpMode {
    */
   @Override
   public void loop() {
+    robot.reads.update();
+    robot.managePower();
     cameraLoop();
     // Driver control
     driverLoop();
@@ -106,7 +114,7 @@ public class DecodeVisual extends OpMode {
 
   private boolean cameraActive = false;
   private boolean tagFound = false;
-  private double tagX = 0;
+  private double tagBearing = 0;
   private double tagRange = 85;
 
   public void cameraLoop() {
@@ -114,17 +122,20 @@ public class DecodeVisual extends OpMode {
     if (gamepad1.right_bumper || gamepad2.right_bumper) {
       try {
         try {
-          Camera.AprilTag tag = camera.getAprilTag(Camera.AprilTagPosition.GOAL);
-          tagX = tag.ftcPose.x;
-          tagRange = tag.ftcPose.range;
+          // Only the operator's auto-shoot needs the range, aiming alone can skip the pose solve
+          camera.setAimMode(!gamepad2.right_bumper);
+          if (!camera.isAimMode()) {
+            tagRange = camera.getAprilTag(Camera.AprilTagPosition.GOAL).ftcPose.range;
+          }
+          tagBearing = camera.getGoalBearing();
           tagFound = true;
           cameraActive = true;
         } catch (Camera.CameraNotStreamingException e) {
           // If the camera is paused or briefly unavailable, try to resume streaming.
           camera.resume();
         } catch (Camera.TagNotFoundException e) {
-          // For now, keep the tag coordinate that was last seen.
-          //tagX = 0;
+          // For now, keep the tag bearing that was last seen.
+          //tagBearing = 0;
           tagFound = false;
         }
       } catch (Camera.CameraNotAttachedException e) {
@@ -136,7 +147,7 @@ public class DecodeVisual extends OpMode {
         camera.pause();
         cameraActive = false;
         tagFound = false;
-        tagX = 0;
+        tagBearing = 0;
         tagRange = 85;
       } catch (Camera.CameraNotAttachedException e) {
         telemetry.speak("WARNING: Camera not attached!");
@@ -144,9 +155,7 @@ public class DecodeVisual extends OpMode {
     }
   }
 
-  // Target alignment tolerance on the X-axis when aiming at the goal tag.
-  // NOTE: ftcPose.x is in inches (left/right). This tolerance is labeled as "Pixels" but isn't in pixels.
-  // Consider converting to inches or computing a pixel offset from detection center.
+  // Target alignment tolerance on the bearing to the goal tag, in degrees.
   /**
    * Driver controls (gamepad1)
    * Inputs:
@@ -154,12 +163,12 @@ public class DecodeVisual extends OpMode {
    * - left_stick_y: forward/back (y)
    * - right_stick_x: rotate (z)
    * - right_trigger / left_trigger: modify speed proportionally (fine grain control)
-   * - right_bumper: enable AprilTag align-assist (rotational centering on x-axis)
+   * - right_bumper: enable AprilTag align-assist (rotational centering on the tag's bearing)
    * Behavior:
-   * - When align-assist is active, we read tag X offset and add a clipped proportional rotation
-   *   term to drive z until within xTolerance. Gamepad rumbles while outside tolerance.
+   * - When align-assist is active, we read the tag bearing and add a clipped proportional rotation
+   *   term to drive z until within bearingTolerance. Gamepad rumbles while outside tolerance.
    */
-  double xTolerance = 5;
+  double bearingTolerance = 3;
   double rangeTolerance = 5;
   double targetRange = 85;
 
@@ -167,12 +176,12 @@ public class DecodeVisual extends OpMode {
 
   public void driverLoop() {
     // Build field-centric-ish inputs (x=strafe, y=forward, z=rotate) with trigger-based scaling.
-    // The math below starts with 1/3 scaling, doubles to ~2/3 base speed, then adds/subtracts
-    // additional portions based on RT/LT to allow the driver to fine-tune speed on the fly.
+    // DriveInput runs at ~2/3 base speed, RT/LT speed up or slow down to fine-tune speed on the fly.
     double x = 0;
     double y = 0;
     double r = 0;
     if (gamepad1.left_bumper) {
+      driveInput.reset();
       robot.frontLeft.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
       robot.frontRight.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
       robot.rearLeft.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
@@ -182,31 +191,24 @@ public class DecodeVisual extends OpMode {
       robot.frontRight.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.FLOAT);
       robot.rearLeft.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.FLOAT);
       robot.rearRight.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.FLOAT);
-      x = gamepad1.left_stick_x / 3;
-      x *= 2;
-      x += gamepad1.right_trigger * (gamepad1.left_stick_x / 3);
-      x -= gamepad1.left_trigger * (gamepad1.left_stick_x / 3);
-      y = -gamepad1.left_stick_y / 3;
-      y *= 2;
-      y += gamepad1.right_trigger * (-gamepad1.left_stick_y / 3);
-      y -= gamepad1.left_trigger * (-gamepad1.left_stick_y / 3);
-      r = gamepad1.right_stick_x / 3;
-      r *= 2;
-      r += gamepad1.right_trigger * (gamepad1.right_stick_x / 3);
-      r -= gamepad1.left_trigger * (gamepad1.right_stick_x / 3);
+      driveInput.update(gamepad1, true);
+      x = driveInput.getX();
+      y = driveInput.getY();
+      r = driveInput.getRotate();
     }
 
     if (gamepad1.right_bumper) {
       boolean rumble = true;
       // Align-assist: while RB is held, read the GOAL AprilTag and adjust rotation (z)
       // to center the tag. Also provide driver rumble until within tolerance.
-      r += (tagX / 30) * (tagFound ? 0.66 : 0.33);
+      // Gain/clip: proportional correction from the tag bearing (Tuning.AUTO_AIM_GAIN), clipped to avoid
+      // overshoot, at half strength toward the last bearing seen when the tag is out of view.
+      r += Range.clip(tagBearing * Tuning.AUTO_AIM_GAIN.get(), -Tuning.AUTO_AIM_MAX_POWER.get(),
+          Tuning.AUTO_AIM_MAX_POWER.get()) * (tagFound ? 1 : 0.5);
       y += tagRange < 50 ? -0.4 : 0;
-      if (Math.abs(tagX) > xTolerance || tagRange < 50) {
+      if (Math.abs(tagBearing) > bearingTolerance || tagRange < 50) {
         // Outside tolerance: keep rotating toward center and rumble as feedback.
         xReady = false;
-        // Gain/clip: proportional correction from tag X offset, clipped to avoid overshoot.
-        // NOTE: tagX currently in inches; tune gain accordingly if you convert units.
       } else {
         // Centered enough: stop rumble and mark alignment ready for operator auto-feed.
         gamepad1.stopRumble();
@@ -227,6 +229,7 @@ public class DecodeVisual extends OpMode {
     }
     // Drive the robot with final x/y/z inputs.
     robot.drive(x, y, r);
+    driveInput.latency.commanded();
   }
 
   /**
@@ -243,21 +246,15 @@ public class DecodeVisual extends OpMode {
    */
 
   private int baseRPM = 2500;
-  boolean upPressed = false;
-  boolean downPressed = false;
+  GamepadEvents operator;
 
   public void operatorLoop() {
-    if (gamepad2.dpad_up && !upPressed) {
+    operator.update(getRuntime());
+    if (operator.wasPressed(GamepadEvents.DPAD_UP)) {
       baseRPM += 100;
-      upPressed = true;
-    } else if (!gamepad2.dpad_up) {
-      upPressed = false;
     }
-    if (gamepad2.dpad_down && !downPressed) {
+    if (operator.wasPressed(GamepadEvents.DPAD_DOWN)) {
       baseRPM -= 100;
-      downPressed = true;
-    } else if (!gamepad2.dpad_down) {
-      downPressed = false;
     }
     // Default intake: pull game pieces in with LT (negative power indicates direction in this setup).
     double intakePower = gamepad2.right_trigger - gamepad2.left_trigger;
@@ -317,7 +314,8 @@ public class DecodeVisual extends OpMode {
     telemetry.addData("Target Shooter RPM", baseRPM);
     telemetry.addLine(String.format("Shooter RPM: %6.1f", robot.shooter.getRPM()));
     telemetry.addData("Tag Found", tagFound);
-    telemetry.addLine(String.format("Tag X: (%6.1f) Tag Range: (%6.1f)", tagX, tagRange));
+    telemetry.addLine(String.format("Tag Bearing: (%6.1f) Tag Range: (%6.1f)%s", tagBearing, tagRange,
+        camera.isAimMode() ? " (aim mode, range not updated)" : ""));
     //telemetry.addLine(String.format("Intake Power: (%6.1f)", robot.intake.getPowers()));
     telemetry.addLine(String.format("Indexer Position: (%s)", robot.indexer.getCurrentPosition()));
     // Camera helper will add its own telemetry (detections, pose, etc.).
@@ -333,6 +331,7 @@ public class DecodeVisual extends OpMode {
     robot.drive(0, 0, 0);
     robot.shooter.setRPM(0);
     //robot.intake.setPowerAll(0);
+    robot.stop();
   }
 
 }
@@ -5,11 +5,14 @@ import com.qualcomm.robotcore.eventloop.opmode.OpMode;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.DcMotorEx;
+import org.firstinspires.ftc.teamcode.hardware.DriveInput;
+import org.firstinspires.ftc.teamcode.hardware.HubStats;
 import org.firstinspires.ftc.teamcode.hardware.Robot;
 
 @TeleOp(name = "Just Drive", group = "C")
 public class JustDrive extends OpMode {
   public Robot robot;
+  private final DriveInput driveInput = new DriveInput();
 
   // 
   /*
@@ -19,8 +22,9 @@ public class JustDrive extends OpMode {
   public void init() {
     telemetry.addData("Status", "Initializing");
     telemetry.update();
-    this.robot = new Robot(hardwareMap);
+    this.robot = new Robot.Builder(hardwareMap).drive().build();
     telemetry.addData("Status", "Initialized");
+    robot.telemetryInitTimes(telemetry);
     telemetry.update();
   }
 
@@ -43,20 +47,22 @@ public class JustDrive extends OpMode {
    */
   @Override
   public void loop() {
-    double x = gamepad1.left_stick_x / 3;
-    x *= 2;
-    x += gamepad1.right_trigger * (gamepad1.left_stick_x / 3);
-    x -= gamepad1.left_trigger * (gamepad1.left_stick_x / 3);
-    double y = -gamepad1.left_stick_y / 3;
-    y *= 2;
-    y += gamepad1.right_trigger * (-gamepad1.left_stick_y / 3);
-    y -= gamepad1.left_trigger * (-gamepad1.left_stick_y / 3);
-    double z = gamepad1.right_stick_x / 3;
-    z *= 2;
-    z += gamepad1.right_trigger * (gamepad1.right_stick_x / 3);
-    z -= gamepad1.left_trigger * (gamepad1.right_stick_x / 3);
+    HubStats.nextLoop();
+    robot.reads.update();
+    robot.managePower();
+    driveInput.update(gamepad1, true);
+    double x = driveInput.getX();
+    double y = driveInput.getY();
+    double z = driveInput.getRotate();
 
     robot.drive(x, y, z);
+    driveInput.latency.commanded();
+
+    telemetry.addData("Speed", "%.0f%%", driveInput.getSpeed() * 100);
+    telemetry.addData("Input Latency", driveInput.latency);
+    telemetry.addLine(HubStats.summary());
+    telemetry.addLine(robot.reads.summary());
+    telemetry.addLine(robot.battery.summary());
   }
 
   /*
@@ -64,6 +70,7 @@ public class JustDrive extends OpMode {
    */
   @Override
   public void stop() {
+    robot.stop();
   }
 
 }
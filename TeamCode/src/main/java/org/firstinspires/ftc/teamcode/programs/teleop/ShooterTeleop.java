@@ -40,7 +40,7 @@ public class ShooterTeleop extends OpMode {
   public void init() {
     telemetry.addData("Status", "Initializing");
     telemetry.update();
-    this.robot = new Robot(hardwareMap);
+    this.robot = new Robot.Builder(hardwareMap).shooter().build();
     // Tell the driver that initialization is complete.
     telemetry.addData("Left Shooter Ticks Per Rotation",
         robot.leftShooter.asDcMotorEx().getMotorType().getTicksPerRev());
@@ -103,6 +103,7 @@ public class ShooterTeleop extends OpMode {
    */
   @Override
   public void stop() {
+    robot.stop();
   }
 
 }
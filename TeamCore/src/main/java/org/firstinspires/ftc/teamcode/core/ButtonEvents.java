@@ -0,0 +1,181 @@
+package org.firstinspires.ftc.teamcode.core;
+
+import java.util.Arrays;
+
+/**
+ * Button presses, releases, long presses and chords from the buttons that are down each loop, so OpModes
+ * don't each keep their own {@code aPressed} booleans. {@code GamepadEvents} reads them off a gamepad.
+ *
+ * <p>Every button is one bit of an int ({@link #A}, {@link #B}...), and once per loop
+ * {@link #update(int, double)} gets the buttons that are down. The edges fall out of bit operations
+ * against the previous loop. Events can be polled ({@link #wasPressed(int)}) or handled by handlers
+ * registered once in init ({@link #onPress(int, Runnable)}); dispatching allocates nothing.</p>
+ *
+ * <p>A mask with several buttons is a chord: it is pressed when the last of its buttons goes down while
+ * the others are held. Completing a chord uses up its buttons, so releasing them or holding them doesn't
+ * also fire the single-button release and long press handlers. (The first button's press can't be
+ * told apart from the start of a chord, so give chord buttons their single action on release.)</p>
+ */
+public class ButtonEvents {
+  public static final int A = 1;
+  public static final int B = 1 << 1;
+  public static final int X = 1 << 2;
+  public static final int Y = 1 << 3;
+  public static final int DPAD_UP = 1 << 4;
+  public static final int DPAD_DOWN = 1 << 5;
+  public static final int DPAD_LEFT = 1 << 6;
+  public static final int DPAD_RIGHT = 1 << 7;
+  public static final int LEFT_BUMPER = 1 << 8;
+  public static final int RIGHT_BUMPER = 1 << 9;
+  public static final int LEFT_TRIGGER = 1 << 10;
+  public static final int RIGHT_TRIGGER = 1 << 11;
+  public static final int BACK = 1 << 12;
+  public static final int START = 1 << 13;
+  public static final int GUIDE = 1 << 14;
+  public static final int LEFT_STICK_BUTTON = 1 << 15;
+  public static final int RIGHT_STICK_BUTTON = 1 << 16;
+
+  /** How long a button has to be held for a long press, in seconds */
+  public static final double LONG_PRESS_TIME = 0.6;
+
+  private static final int PRESS = 0;
+  private static final int RELEASE = 1;
+  private static final int LONG_PRESS = 2;
+
+  private int current = 0;
+  private int previous = 0;
+  /** Buttons used up by a completed chord, until they are released */
+  private int consumed = 0;
+
+  // Registered handlers, grown only while registering
+  private int handlerCount = 0;
+  private int[] masks = new int[8];
+  private int[] kinds = new int[8];
+  private Runnable[] handlers = new Runnable[8];
+  private double[] downSince = new double[8];
+  private boolean[] fired = new boolean[8];
+
+  /**
+   * Dispatches this loop's events. Call it once at the start of every loop.
+   * @param buttons the buttons that are down, see {@link #A} etc.
+   * @param time the current time in seconds
+   */
+  public void update(int buttons, double time) {
+    previous = current;
+    current = buttons;
+    // Chords completing this loop use up their buttons, before any handler looks at them
+    for (int i = 0; i < handlerCount; i++) {
+      if (Integer.bitCount(masks[i]) > 1 && completed(masks[i])) {
+        consumed |= masks[i];
+      }
+    }
+    for (int i = 0; i < handlerCount; i++) {
+      int mask = masks[i];
+      boolean single = Integer.bitCount(mask) == 1;
+      if (completed(mask)) {
+        downSince[i] = time;
+        fired[i] = false;
+      }
+      switch (kinds[i]) {
+        case PRESS:
+          if (completed(mask)) {
+            handlers[i].run();
+          }
+          break;
+        case RELEASE:
+          if (wasReleased(mask) && !(single && (consumed & mask) != 0)) {
+            handlers[i].run();
+          }
+          break;
+        case LONG_PRESS:
+          if (isDown(mask) && !fired[i] && time - downSince[i] >= LONG_PRESS_TIME
+              && !(single && (consumed & mask) != 0)) {
+            fired[i] = true;
+            handlers[i].run();
+          }
+          break;
+      }
+    }
+    consumed &= current;
+  }
+
+  private boolean completed(int mask) {
+    return (current & mask) == mask && (previous & mask) != mask;
+  }
+
+  /**
+   * @param mask a button or chord
+   * @return true if all of its buttons are down
+   */
+  public boolean isDown(int mask) {
+    return (current & mask) == mask;
+  }
+
+  /**
+   * @param mask a button or chord
+   * @return true if it went down this loop (the last of its buttons was pressed)
+   */
+  public boolean wasPressed(int mask) {
+    return completed(mask);
+  }
+
+  /**
+   * @param mask a button or chord
+   * @return true if it was down last loop and isn't anymore
+   */
+  public boolean wasReleased(int mask) {
+    return (previous & mask) == mask && (current & mask) != mask;
+  }
+
+  /**
+   * @return every button that is down, see {@link #A} etc.
+   */
+  public int getButtons() {
+    return current;
+  }
+
+  /**
+   * Runs a handler when a button or chord goes down.
+   * @param mask a button or chord, e.g. {@code A} or {@code BACK | START}
+   * @param handler what to do, called from {@link #update(int, double)}
+   */
+  public void onPress(int mask, Runnable handler) {
+    register(mask, PRESS, handler);
+  }
+
+  /**
+   * Runs a handler when a button or chord is let go. Single buttons that were part of a completed chord
+   * don't fire.
+   */
+  public void onRelease(int mask, Runnable handler) {
+    register(mask, RELEASE, handler);
+  }
+
+  /**
+   * Runs a handler once when a button or chord has been held for {@link #LONG_PRESS_TIME}. Single
+   * buttons that were part of a completed chord don't fire.
+   */
+  public void onLongPress(int mask, Runnable handler) {
+    register(mask, LONG_PRESS, handler);
+  }
+
+  private void register(int mask, int kind, Runnable handler) {
+    if (mask == 0) {
+      throw new IllegalArgumentException("A handler needs at least one button");
+    }
+    if (handlerCount == masks.length) {
+      int size = masks.length * 2;
+      masks = Arrays.copyOf(masks, size);
+      kinds = Arrays.copyOf(kinds, size);
+      handlers = Arrays.copyOf(handlers, size);
+      downSince = Arrays.copyOf(downSince, size);
+      fired = Arrays.copyOf(fired, size);
+    }
+    masks[handlerCount] = mask;
+    kinds[handlerCount] = kind;
+    handlers[handlerCount] = handler;
+    // Buttons already held when the handler is registered don't count as a press
+    fired[handlerCount] = true;
+    handlerCount++;
+  }
+}
@@ -0,0 +1,159 @@
+package org.firstinspires.ftc.teamcode.core;
+
+/**
+ * Shares a current budget between the motors so the battery doesn't sag under the shooter.
+ *
+ * <p>The shooter, drive and lift can all be commanded to full power at once, and together they draw
+ * enough to drag the battery down: the shooter slows and servos reset. The shooter always gets what it
+ * draws. What is left goes to the drive, and the lift gets the rest. When the total is over the budget
+ * the lift is throttled first, then the drive's acceleration.</p>
+ *
+ * <p>The currents are measured with the throttle already applied, so the unthrottled demand is
+ * estimated by dividing by the scale (current roughly follows power). A scale drops at once when the
+ * budget is exceeded and comes back at {@link #RECOVERY_RATE}, so a throttled consumer doesn't jump
+ * straight back over the budget. Below the minimum voltage the budget shrinks, to nothing but the
+ * shooter {@link #VOLTAGE_MARGIN} below it.</p>
+ */
+public class CurrentBudget {
+  /** The consumers, highest priority first */
+  public enum Consumer {
+    SHOOTER, DRIVE, LIFT
+  }
+
+  /** How fast a scale recovers once there is room again, per second */
+  public static final double RECOVERY_RATE = 2.0;
+  /** How far below the minimum voltage the budget is down to the shooter alone, in volts */
+  public static final double VOLTAGE_MARGIN = 1.5;
+  /** Smallest scale used to estimate demand, so a fully throttled consumer still counts */
+  private static final double MIN_DEMAND_SCALE = 0.1;
+
+  private final double[] amps = new double[Consumer.values().length];
+  private double budget = 0;
+  private double driveScale = 1;
+  private double liftScale = 1;
+  private boolean throttling = false;
+  private int throttleEvents = 0;
+  private double throttledTime = 0;
+  private double totalTime = 0;
+
+  /**
+   * @param consumer the consumer
+   * @param amps the current it draws now, in amps
+   */
+  public void setCurrent(Consumer consumer, double amps) {
+    this.amps[consumer.ordinal()] = amps;
+  }
+
+  /**
+   * Recomputes the scales from the latest currents. Call it once per loop.
+   * @param maxAmps the total current allowed, in amps
+   * @param voltage the battery voltage
+   * @param minVoltage the battery voltage below which the budget shrinks
+   * @param dt time since the last update, in seconds
+   * @return true if anything is being throttled
+   */
+  public boolean update(double maxAmps, double voltage, double minVoltage, double dt) {
+    budget = maxAmps;
+    if (voltage < minVoltage) {
+      budget *= Math.max(0, 1 - (minVoltage - voltage) / VOLTAGE_MARGIN);
+    }
+    double available = Math.max(0, budget - amps[Consumer.SHOOTER.ordinal()]);
+    double driveDemand = amps[Consumer.DRIVE.ordinal()] / Math.max(driveScale, MIN_DEMAND_SCALE);
+    double liftDemand = amps[Consumer.LIFT.ordinal()] / Math.max(liftScale, MIN_DEMAND_SCALE);
+
+    driveScale = approach(driveScale, share(available, driveDemand), dt);
+    liftScale = approach(liftScale, share(available - driveDemand, liftDemand), dt);
+
+    boolean throttled = driveScale < 1 || liftScale < 1;
+    if (throttled && !throttling) {
+      throttleEvents++;
+    }
+    throttling = throttled;
+    totalTime += dt;
+    if (throttled) {
+      throttledTime += dt;
+    }
+    return throttled;
+  }
+
+  /** The fraction of its demand a consumer can have from what is available */
+  private static double share(double available, double demand) {
+    if (demand <= 0) {
+      return 1;
+    }
+    return Math.max(0, Math.min(1, available / demand));
+  }
+
+  /** Drops to the target at once, recovers to it at {@link #RECOVERY_RATE} */
+  private static double approach(double scale, double target, double dt) {
+    return target < scale ? target : Math.min(target, scale + RECOVERY_RATE * dt);
+  }
+
+  /**
+   * @return what the drive's acceleration is scaled by (0 to 1)
+   */
+  public double getDriveScale() {
+    return driveScale;
+  }
+
+  /**
+   * @return what the lift power is scaled by (0 to 1)
+   */
+  public double getLiftScale() {
+    return liftScale;
+  }
+
+  /**
+   * @param consumer the consumer
+   * @return the current it drew at the last reading, in amps
+   */
+  public double getCurrent(Consumer consumer) {
+    return amps[consumer.ordinal()];
+  }
+
+  /**
+   * @return the total current at the last readings, in amps
+   */
+  public double getTotal() {
+    double total = 0;
+    for (double current : amps) {
+      total += current;
+    }
+    return total;
+  }
+
+  /**
+   * @return the budget the last update used, after the voltage, in amps
+   */
+  public double getBudget() {
+    return budget;
+  }
+
+  /**
+   * @return true if the last update throttled anything
+   */
+  public boolean isThrottling() {
+    return throttling;
+  }
+
+  /**
+   * @return how many times throttling started
+   */
+  public int getThrottleEvents() {
+    return throttleEvents;
+  }
+
+  /**
+   * @return the fraction of the time something was throttled (0 to 1)
+   */
+  public double getThrottledFraction() {
+    return totalTime > 0 ? throttledTime / totalTime : 0;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Amps S %.1f D %.1f L %.1f = %.1f/%.0f | drive x%.2f lift x%.2f | %d throttles (%.0f%%)",
+        amps[Consumer.SHOOTER.ordinal()], amps[Consumer.DRIVE.ordinal()], amps[Consumer.LIFT.ordinal()], getTotal(),
+        budget, driveScale, liftScale, throttleEvents, getThrottledFraction() * 100);
+  }
+}
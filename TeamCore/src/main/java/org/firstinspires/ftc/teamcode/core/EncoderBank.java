@@ -0,0 +1,26 @@
+package org.firstinspires.ftc.teamcode.core;
+
+/**
+ * A board that counts several encoders itself and hands all of them over in one transaction, like the
+ * OctoQuad. Only what {@link EncoderVelocity} needs, so it can run against a fake without the SDK.
+ */
+public interface EncoderBank {
+  /**
+   * @return the number of channels
+   */
+  int getChannelCount();
+
+  /**
+   * Sets how long a channel counts for each velocity sample.
+   * @param channel the channel
+   * @param milliseconds the sample interval
+   */
+  void setVelocitySampleInterval(int channel, int milliseconds);
+
+  /**
+   * Reads every channel in one transaction.
+   * @param positions filled with each channel's count
+   * @param velocities filled with the counts in each channel's last complete sample interval
+   */
+  void readAll(int[] positions, int[] velocities);
+}
@@ -0,0 +1,151 @@
+package org.firstinspires.ftc.teamcode.core;
+
+/**
+ * Wheel speeds from an {@link EncoderBank}, read for all the wheels at once.
+ *
+ * <p>The speed is an average over the sample interval: a longer interval means finer steps (one count is
+ * {@code 60 / (ticksPerRotation * interval)} RPM) but a reading that is older. The bank's own velocity is
+ * the counts in its last complete interval, which can have ended up to an interval before the read, so
+ * right after a shot it still shows the speed from before. Instead the speed is measured from the
+ * positions, back to the newest earlier read at least an interval old, so the window always ends at the
+ * read. The bank's velocity is only used until the reads span an interval.</p>
+ *
+ * <p>{@link #read()} is the one transaction per loop, the getters answer from it.</p>
+ */
+public class EncoderVelocity {
+  /** Reads kept to measure over, enough for an 80 ms interval at 3 ms loops */
+  private static final int HISTORY = 32;
+
+  private final EncoderBank bank;
+  private final int[] channels;
+  private final double ticksPerRotation;
+  private final int[] positions;
+  private final int[] velocities;
+  private final double[] ticksPerSecond;
+  // The wheels' positions and the time of the last HISTORY reads, read number % HISTORY
+  private final int[][] history;
+  private final long[] readTimes = new long[HISTORY];
+  private int sampleInterval = 0;
+  private int reads = 0;
+
+  /**
+   * @param bank the board the encoders are on
+   * @param ticksPerRotation encoder ticks per wheel rotation
+   * @param sampleInterval how long each velocity sample counts for, in milliseconds
+   * @param channels the bank channel of each wheel, in the order the getters take
+   */
+  public EncoderVelocity(EncoderBank bank, double ticksPerRotation, int sampleInterval, int... channels) {
+    this.bank = bank;
+    this.channels = channels.clone();
+    this.ticksPerRotation = ticksPerRotation;
+    this.positions = new int[bank.getChannelCount()];
+    this.velocities = new int[bank.getChannelCount()];
+    this.ticksPerSecond = new double[channels.length];
+    this.history = new int[HISTORY][channels.length];
+    setSampleInterval(sampleInterval);
+  }
+
+  /**
+   * Sets the sample interval of every wheel, but only talks to the bank if it actually changed.
+   * @param milliseconds how long each velocity sample counts for
+   * @return true if the interval was sent to the bank
+   */
+  public boolean setSampleInterval(int milliseconds) {
+    if (milliseconds == sampleInterval) {
+      return false;
+    }
+    sampleInterval = milliseconds;
+    for (int channel : channels) {
+      bank.setVelocitySampleInterval(channel, milliseconds);
+    }
+    return true;
+  }
+
+  public int getSampleInterval() {
+    return sampleInterval;
+  }
+
+  /**
+   * Reads every wheel in one transaction. Call it once per loop before the getters.
+   */
+  public void read() {
+    long start = System.nanoTime();
+    bank.readAll(positions, velocities);
+    // The positions were latched some time during the transaction, the middle is the best guess
+    update(start + (System.nanoTime() - start) / 2);
+  }
+
+  /**
+   * Reads every wheel in one transaction, as of the given time rather than now (for simulations).
+   * @param nanoTime when the read happens, on the {@link System#nanoTime()} clock
+   */
+  public void read(long nanoTime) {
+    bank.readAll(positions, velocities);
+    update(nanoTime);
+  }
+
+  private void update(long nanoTime) {
+    int slot = reads % HISTORY;
+    readTimes[slot] = nanoTime;
+    for (int i = 0; i < channels.length; i++) {
+      history[slot][i] = positions[channels[i]];
+    }
+    int from = -1;
+    for (int back = 1; back <= Math.min(reads, HISTORY - 1); back++) {
+      int earlier = (slot - back + HISTORY) % HISTORY;
+      if (nanoTime - readTimes[earlier] >= sampleInterval * 1000000L) {
+        from = earlier;
+        break;
+      }
+    }
+    for (int i = 0; i < channels.length; i++) {
+      ticksPerSecond[i] = from >= 0
+          ? (history[slot][i] - history[from][i]) * 1e9 / (nanoTime - readTimes[from])
+          : velocities[channels[i]] * 1000.0 / sampleInterval;
+    }
+    reads++;
+  }
+
+  /**
+   * @param wheel the wheel, in the order the channels were given
+   * @return its speed at the last {@link #read()}, in ticks/second
+   */
+  public double getTicksPerSecond(int wheel) {
+    return ticksPerSecond[wheel];
+  }
+
+  /**
+   * @param wheel the wheel, in the order the channels were given
+   * @return its speed at the last {@link #read()}, in RPM
+   */
+  public double getRPM(int wheel) {
+    return ticksPerSecond[wheel] * 60 / ticksPerRotation;
+  }
+
+  /**
+   * @param wheel the wheel, in the order the channels were given
+   * @return its count at the last {@link #read()}
+   */
+  public int getPosition(int wheel) {
+    return positions[channels[wheel]];
+  }
+
+  /**
+   * @return the smallest speed step the interval can show, in RPM
+   */
+  public double getResolution() {
+    return 60 / ticksPerRotation * 1000.0 / sampleInterval;
+  }
+
+  /**
+   * @return how many reads have been made
+   */
+  public int getReads() {
+    return reads;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d ms samples, %.0f RPM steps, %d reads", sampleInterval, getResolution(), reads);
+  }
+}
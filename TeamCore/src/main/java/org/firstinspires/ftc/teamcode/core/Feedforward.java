@@ -0,0 +1,84 @@
+package org.firstinspires.ftc.teamcode.core;
+
+/**
+ * Motor feedforward model: the voltage needed to hold a velocity and acceleration.
+ * <pre>
+ *   volts = kS * sign(velocity) + kV * velocity + kA * acceleration
+ * </pre>
+ * kS overcomes static friction, kV is the back-EMF per unit of speed and kA the extra voltage to
+ * accelerate. Velocities are in ticks/second, measure the constants with the Drive Characterization
+ * OpMode (see TeamDocs/Drive_Characterization.md).
+ *
+ * <p>Plain Java on purpose, so {@link FeedforwardFitter} can use it on a desktop.</p>
+ */
+public class Feedforward {
+  /** The voltage the constants are converted to power against */
+  public static final double NOMINAL_VOLTAGE = 12.0;
+  /** Lowest battery voltage compensated for, below it the hubs are about to brown out anyway */
+  public static final double MIN_VOLTAGE = 9.0;
+
+  public final double kS;
+  public final double kV;
+  public final double kA;
+
+  public Feedforward(double kS, double kV, double kA) {
+    this.kS = kS;
+    this.kV = kV;
+    this.kA = kA;
+  }
+
+  /**
+   * @param velocity the target velocity in ticks/second
+   * @param acceleration the target acceleration in ticks/second^2
+   * @return the voltage to apply
+   */
+  public double calculate(double velocity, double acceleration) {
+    return kS * Math.signum(velocity) + kV * velocity + kA * acceleration;
+  }
+
+  /**
+   * @param velocity the target velocity in ticks/second
+   * @param acceleration the target acceleration in ticks/second^2
+   * @return the motor power (-1 to 1) for that voltage at {@link #NOMINAL_VOLTAGE}
+   */
+  public double calculatePower(double velocity, double acceleration) {
+    return calculatePower(velocity, acceleration, NOMINAL_VOLTAGE);
+  }
+
+  /**
+   * @param velocity the target velocity in ticks/second
+   * @param acceleration the target acceleration in ticks/second^2
+   * @param batteryVoltage the battery voltage right now
+   * @return the motor power (-1 to 1) that gives the needed voltage from that battery
+   */
+  public double calculatePower(double velocity, double acceleration, double batteryVoltage) {
+    return Math.max(-1, Math.min(1, calculate(velocity, acceleration) * voltageScale(batteryVoltage)
+        / NOMINAL_VOLTAGE));
+  }
+
+  /**
+   * How much more power a battery at {@code batteryVoltage} needs than one at {@link #NOMINAL_VOLTAGE}
+   * for the same motor voltage, e.g. to scale a velocity F that was tuned at 12 V.
+   * @param batteryVoltage the battery voltage, values below {@link #MIN_VOLTAGE} count as it
+   * @return the factor to multiply power by (1 at {@link #NOMINAL_VOLTAGE}, 1 for an unknown voltage)
+   */
+  public static double voltageScale(double batteryVoltage) {
+    if (!(batteryVoltage > 0)) {
+      return 1;
+    }
+    return NOMINAL_VOLTAGE / Math.max(MIN_VOLTAGE, batteryVoltage);
+  }
+
+  /**
+   * @param volts the voltage available (above kS)
+   * @return the steady velocity that voltage holds, in ticks/second
+   */
+  public double maxVelocity(double volts) {
+    return kV > 0 ? Math.max(0, volts - kS) / kV : 0;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("kS %.4f V, kV %.6f V/(tick/s), kA %.7f V/(tick/s^2)", kS, kV, kA);
+  }
+}
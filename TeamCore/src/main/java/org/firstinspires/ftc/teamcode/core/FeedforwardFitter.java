@@ -0,0 +1,202 @@
+package org.firstinspires.ftc.teamcode.core;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Fits {@link Feedforward} constants to voltage ramp data by least squares.
+ *
+ * <p>Samples are streamed in one run (one ramp) at a time. Acceleration is the central difference of
+ * the neighbouring velocities, so a sample is only used once the next one arrives, and runs are never
+ * differenced across. Only the normal-equation sums are kept, so fitting on the robot costs nothing
+ * per sample and the fit can be read at any point.</p>
+ *
+ * <p>Only uses plain Java, so the same fit can be rerun on a laptop from the CSV the Drive
+ * Characterization OpMode records:</p>
+ * <pre>
+ *   ./gradlew :TeamCore:jar
+ *   java -cp TeamCore/build/libs/TeamCore.jar \
+ *       org.firstinspires.ftc.teamcode.core.FeedforwardFitter drive_characterization.csv
+ * </pre>
+ */
+public class FeedforwardFitter {
+  /** Samples slower than this (ticks/second) are dropped, the wheel is still breaking away */
+  public static final double MIN_VELOCITY = 10;
+
+  // Normal equations for [sign(v), v, a] -> volts
+  private final double[][] xtx = new double[3][3];
+  private final double[] xty = new double[3];
+  private double yy = 0;
+  private double ySum = 0;
+  private int count = 0;
+
+  // The previous two samples of the current run
+  private int runSamples = 0;
+  private double time0, volts0, velocity0;
+  private double time1, volts1, velocity1;
+
+  /**
+   * Starts a new ramp, the next sample won't be differenced against the previous run.
+   */
+  public void startRun() {
+    runSamples = 0;
+  }
+
+  /**
+   * Adds a sample of the current run.
+   * @param time the sample time in seconds
+   * @param volts the voltage applied
+   * @param velocity the measured velocity in ticks/second
+   */
+  public void addSample(double time, double volts, double velocity) {
+    if (runSamples >= 2 && time > time0) {
+      // The middle sample now has a neighbour on both sides
+      double acceleration = (velocity - velocity0) / (time - time0);
+      accumulate(volts1, velocity1, acceleration);
+    }
+    time0 = time1;
+    volts0 = volts1;
+    velocity0 = velocity1;
+    time1 = time;
+    volts1 = volts;
+    velocity1 = velocity;
+    runSamples++;
+  }
+
+  private void accumulate(double volts, double velocity, double acceleration) {
+    if (Math.abs(velocity) < MIN_VELOCITY) {
+      return;
+    }
+    double[] x = { Math.signum(velocity), velocity, acceleration };
+    for (int row = 0; row < 3; row++) {
+      for (int column = 0; column < 3; column++) {
+        xtx[row][column] += x[row] * x[column];
+      }
+      xty[row] += x[row] * volts;
+    }
+    yy += volts * volts;
+    ySum += volts;
+    count++;
+  }
+
+  /**
+   * @return the number of samples used by the fit
+   */
+  public int getSampleCount() {
+    return count;
+  }
+
+  /**
+   * @return the least-squares constants, or null if there isn't enough data yet
+   */
+  public Feedforward fit() {
+    double[] k = solve();
+    return k == null ? null : new Feedforward(k[0], k[1], k[2]);
+  }
+
+  /**
+   * @return how much of the voltage variation the fit explains (1 is perfect), NaN without a fit
+   */
+  public double getRSquared() {
+    double[] k = solve();
+    if (k == null) {
+      return Double.NaN;
+    }
+    // Residual sum of squares from the normal equations: y'y - 2k'X'y + k'X'Xk
+    double residual = yy;
+    for (int row = 0; row < 3; row++) {
+      residual -= 2 * k[row] * xty[row];
+      for (int column = 0; column < 3; column++) {
+        residual += k[row] * xtx[row][column] * k[column];
+      }
+    }
+    double total = yy - ySum * ySum / count;
+    return total > 0 ? 1 - residual / total : Double.NaN;
+  }
+
+  /**
+   * Solves the 3x3 normal equations with Gaussian elimination and partial pivoting.
+   */
+  private double[] solve() {
+    if (count < 3) {
+      return null;
+    }
+    double[][] m = new double[3][4];
+    for (int row = 0; row < 3; row++) {
+      System.arraycopy(xtx[row], 0, m[row], 0, 3);
+      m[row][3] = xty[row];
+    }
+    for (int pivot = 0; pivot < 3; pivot++) {
+      int best = pivot;
+      for (int row = pivot + 1; row < 3; row++) {
+        if (Math.abs(m[row][pivot]) > Math.abs(m[best][pivot])) {
+          best = row;
+        }
+      }
+      if (Math.abs(m[best][pivot]) < 1e-12) {
+        return null; // Not enough variety in the data, e.g. only one constant speed
+      }
+      double[] swap = m[pivot];
+      m[pivot] = m[best];
+      m[best] = swap;
+      for (int row = 0; row < 3; row++) {
+        if (row != pivot) {
+          double factor = m[row][pivot] / m[pivot][pivot];
+          for (int column = pivot; column < 4; column++) {
+            m[row][column] -= factor * m[pivot][column];
+          }
+        }
+      }
+    }
+    return new double[] { m[0][3] / m[0][0], m[1][3] / m[1][1], m[2][3] / m[2][2] };
+  }
+
+  /**
+   * Refits a recorded characterization CSV ({@code test,wheel,time,voltage,velocity}) and prints the
+   * constants per wheel, in the format of the tuning file.
+   * @param args the CSV file
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      System.err.println("Usage: FeedforwardFitter <drive_characterization.csv>");
+      System.exit(1);
+    }
+    Map<String, FeedforwardFitter> fitters = new LinkedHashMap<>();
+    Map<String, String> lastTest = new LinkedHashMap<>();
+    try (BufferedReader reader = new BufferedReader(new FileReader(args[0]))) {
+      String line = reader.readLine(); // header
+      while ((line = reader.readLine()) != null) {
+        String[] fields = line.split(",");
+        if (fields.length < 5) {
+          continue;
+        }
+        String test = fields[0];
+        String wheel = fields[1];
+        FeedforwardFitter fitter = fitters.get(wheel);
+        if (fitter == null) {
+          fitter = new FeedforwardFitter();
+          fitters.put(wheel, fitter);
+        }
+        if (!test.equals(lastTest.get(wheel))) {
+          fitter.startRun();
+          lastTest.put(wheel, test);
+        }
+        fitter.addSample(Double.parseDouble(fields[2]), Double.parseDouble(fields[3]), Double.parseDouble(fields[4]));
+      }
+    }
+    for (Map.Entry<String, FeedforwardFitter> entry : fitters.entrySet()) {
+      FeedforwardFitter fitter = entry.getValue();
+      Feedforward feedforward = fitter.fit();
+      System.out.printf("# %s: %d samples, r^2 %.4f%n", entry.getKey(), fitter.getSampleCount(),
+          fitter.getRSquared());
+      if (feedforward != null) {
+        System.out.printf("drive.%s.kS=%s%n", entry.getKey(), feedforward.kS);
+        System.out.printf("drive.%s.kV=%s%n", entry.getKey(), feedforward.kV);
+        System.out.printf("drive.%s.kA=%s%n", entry.getKey(), feedforward.kA);
+      }
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package org.firstinspires.ftc.teamcode.core;
+
+/**
+ * First-order-plus-dead-time model of a flywheel driven by motor power:
+ * <pre>
+ *   timeConstant * dv/dt = gain * power(t - deadTime) - v
+ * </pre>
+ * where {@code v} is the velocity in ticks/second and {@code power} is -1 to 1.
+ *
+ * <p>{@link #fromRelay} identifies the model from a relay experiment (see {@link RelayAutoTuner}) and
+ * {@link #computePIDF()} turns it into coefficients for the hub's velocity controller.</p>
+ */
+public class FlywheelModel {
+  /** The hub's velocity PIDF works on a 32767 = full power scale (see PIDF_Shooter_Quick_Reference.md) */
+  public static final double HUB_POWER_SCALE = 32767;
+
+  /** Steady-state velocity per unit of power, in ticks/second */
+  public final double gain;
+  /** Time to reach 63% of a step once it starts responding, in seconds */
+  public final double timeConstant;
+  /** Delay before the velocity starts responding to a power change, in seconds */
+  public final double deadTime;
+
+  public FlywheelModel(double gain, double timeConstant, double deadTime) {
+    this.gain = gain;
+    this.timeConstant = timeConstant;
+    this.deadTime = deadTime;
+  }
+
+  /**
+   * Identifies the model from a relay experiment.
+   *
+   * <p>A relay of amplitude {@code d} around a constant bias makes the flywheel oscillate at its
+   * ultimate period {@code Pu}, with an amplitude {@code a} from which the ultimate gain
+   * {@code Ku = 4d / (pi * a)} follows. For a first-order-plus-dead-time plant with known static
+   * gain {@code K}, the magnitude condition {@code K * Ku = sqrt(1 + (w * T)^2)} gives the time
+   * constant and the phase condition {@code atan(w * T) + w * L = pi} gives the dead time, with
+   * {@code w = 2 * pi / Pu}. Relay hysteresis {@code h} (needed so encoder noise doesn't chatter
+   * the relay) adds {@code asin(h / a)} of phase lead, and the true amplitude seen by the plant is
+   * {@code sqrt(a^2 - h^2)}.</p>
+   *
+   * <p>The dead time found here includes the OpMode loop's own latency, which the hub's controller
+   * doesn't have, so the gains computed from it err on the safe side.</p>
+   *
+   * @param gain the static gain measured with a power step, in ticks/second per unit power
+   * @param relayAmplitude the relay's power swing either side of the bias
+   * @param oscillationAmplitude half the peak-to-peak velocity swing, in ticks/second
+   * @param period the oscillation period, in seconds
+   * @param hysteresis the relay's switching band either side of the setpoint, in ticks/second
+   * @return the identified model
+   */
+  public static FlywheelModel fromRelay(double gain, double relayAmplitude, double oscillationAmplitude,
+      double period, double hysteresis) {
+    double effectiveAmplitude = Math.sqrt(Math.max(oscillationAmplitude * oscillationAmplitude
+        - hysteresis * hysteresis, 1e-9));
+    double ultimateGain = 4 * relayAmplitude / (Math.PI * effectiveAmplitude);
+    double frequency = 2 * Math.PI / period;
+    double phase = Math.PI - Math.asin(Math.min(hysteresis / oscillationAmplitude, 1));
+    double ratio = gain * ultimateGain;
+    if (ratio <= 1) {
+      // Oscillation this large is only possible with (almost) pure dead time
+      return new FlywheelModel(gain, 0, phase / frequency);
+    }
+    double timeConstant = Math.sqrt(ratio * ratio - 1) / frequency;
+    double deadTime = Math.max(0, (phase - Math.atan(frequency * timeConstant)) / frequency);
+    return new FlywheelModel(gain, timeConstant, deadTime);
+  }
+
+  /**
+   * Computes velocity PIDF coefficients using SIMC rules (Skogestad), aiming for the fastest spin-up
+   * and recovery that the dead time allows without overshoot.
+   *
+   * <p>F cancels the static gain so the setpoint alone commands the right power. P and I come from
+   * the SIMC PI rule with the closed-loop time constant set to the dead time, but no faster than a
+   * quarter of the open-loop time constant: the 28 PPR encoder makes the measured velocity noisy, and
+   * a faster target would turn that noise into motor chatter. D is left at zero:
+   * for a first-order plant it only amplifies encoder noise. The coefficients are on the hub's
+   * 32767 scale with I per second.</p>
+   *
+   * @return the coefficients
+   */
+  public PIDFGains computePIDF() {
+    double scaledGain = gain / HUB_POWER_SCALE; // ticks/second per hub power unit
+    double closedLoopTime = Math.max(deadTime, timeConstant / 4);
+    double p = timeConstant / (scaledGain * (closedLoopTime + deadTime));
+    double integralTime = Math.min(timeConstant, 4 * (closedLoopTime + deadTime));
+    double i = integralTime > 0 ? p / integralTime : 0;
+    double f = 1 / scaledGain;
+    return new PIDFGains(p, i, 0, f);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("K %.0f ticks/s, T %.3f s, L %.3f s", gain, timeConstant, deadTime);
+  }
+}
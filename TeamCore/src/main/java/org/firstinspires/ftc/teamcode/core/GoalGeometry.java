@@ -0,0 +1,66 @@
+package org.firstinspires.ftc.teamcode.core;
+
+/**
+ * Where to aim at the GOAL from the camera's view of its AprilTag.
+ *
+ * <p>The tag sits {@link #BACKBOARD_OFFSET} in front of the backboard, to the side of the opening. From
+ * the tag's range, bearing and yaw the triangle camera - tag - backboard gives the range and bearing of
+ * the backboard (law of cosines), and the target is halfway between the tag and the backboard.</p>
+ */
+public class GoalGeometry {
+  /** Distance from the tag to the backboard, in inches */
+  public static final double BACKBOARD_OFFSET = 18;
+
+  /** A range (inches) and bearing (degrees, positive to the left) from the camera */
+  public static class Pose {
+    public final double range;
+    public final double bearing;
+
+    public Pose(double range, double bearing) {
+      this.range = range;
+      this.bearing = bearing;
+    }
+  }
+
+  private GoalGeometry() {
+  }
+
+  /**
+   * The bearing to a point in the image, e.g. the tag's center, without solving the tag's pose. For the
+   * tag's center it is the same as the bearing from the pose, since that is the same point projected.
+   * @param x the column of the point, in pixels
+   * @param fx the lens' focal length, in pixels
+   * @param cx the column of the lens' principal point, in pixels
+   * @return the bearing in degrees, positive to the left
+   */
+  public static double bearingFromPixel(double x, double fx, double cx) {
+    return Math.toDegrees(Math.atan2(cx - x, fx));
+  }
+
+  /**
+   * @param range the range to the tag in inches
+   * @param bearing the bearing to the tag in degrees
+   * @param yaw the yaw of the tag in degrees
+   * @return the range and bearing of the backboard
+   */
+  public static Pose backboard(double range, double bearing, double yaw) {
+    double A = 180 - yaw - 90;
+    double B = 180 - A - bearing;
+    double C = 90 + B;
+    double L = Math.sqrt(Math.pow(range, 2) + Math.pow(BACKBOARD_OFFSET, 2)
+        - 2 * range * BACKBOARD_OFFSET * Math.cos(Math.toRadians(C)));
+    double D = bearing - Math.toDegrees(Math.acos((Math.pow(L, 2) + Math.pow(range, 2)
+        - Math.pow(BACKBOARD_OFFSET, 2)) / (2 * L * range)));
+    return new Pose(L, bearing - D);
+  }
+
+  /**
+   * @param range the range to the tag in inches
+   * @param bearing the bearing to the tag in degrees
+   * @param backboard the pose from {@link #backboard(double, double, double)}
+   * @return the range and bearing to aim at, halfway between the tag and the backboard
+   */
+  public static Pose target(double range, double bearing, Pose backboard) {
+    return new Pose((backboard.range + range) / 2, (backboard.bearing + bearing) / 2);
+  }
+}
@@ -0,0 +1,173 @@
+package org.firstinspires.ftc.teamcode.core;
+
+/**
+ * Holds the robot's heading while the driver isn't turning, and turns to a target heading (the GOAL)
+ * while aiming.
+ *
+ * <p>Strafing on mecanum wheels makes the robot slowly yaw (uneven weight and roller slip), and the
+ * driver has to keep correcting it with the right stick. Instead, whenever the rotate input is inside
+ * the deadband this controller takes over: once the robot has stopped turning it captures the heading
+ * and a PID on the measured heading holds it. Moving the right stick always wins over the
+ * controller.</p>
+ *
+ * <p>The derivative works on the IMU's yaw rate rather than the differentiated error, so it isn't noisy
+ * and doesn't kick when the target changes. The integral only builds up while the output isn't
+ * saturated.</p>
+ *
+ * <p>Headings follow {@code Imu}: radians, counter-clockwise positive. The output follows
+ * {@code Robot.drive()}, where positive rotate turns clockwise.</p>
+ */
+public class HeadingController {
+  /** Rotate inputs smaller than this count as "not turning" */
+  public static final double INPUT_DEADBAND = 0.05;
+  /** The heading is captured once the robot turns slower than this, in radians/second */
+  public static final double CAPTURE_RATE = Math.toRadians(20);
+  /** Within this of the target counts as settled, in radians */
+  public static final double TOLERANCE = Math.toRadians(1);
+  /** Loops further apart than this (seconds) are treated as a restart, nothing is integrated */
+  private static final double MAX_DT = 0.1;
+
+  public enum Mode {
+    /** The driver is turning, the controller is idle */
+    MANUAL,
+    /** Waiting for the robot to stop turning before capturing the heading */
+    CAPTURING,
+    /** Holding the captured heading */
+    HOLD,
+    /** Turning to and holding the heading given by {@link #setTarget(double)} */
+    TARGET
+  }
+
+  private double kP = 0;
+  private double kI = 0;
+  private double kD = 0;
+  private double maxPower = 1;
+
+  private Mode mode = Mode.CAPTURING;
+  private double holdHeading = 0;
+  private double target = Double.NaN;
+  private double error = 0;
+  private double integral = 0;
+  private double lastTime = Double.NaN;
+
+  /**
+   * @param p rotate power per radian of error
+   * @param i rotate power per radian-second of error
+   * @param d rotate power per radian/second of yaw rate
+   * @param maxPower the largest rotate power the controller may command
+   */
+  public void setGains(double p, double i, double d, double maxPower) {
+    this.kP = p;
+    this.kI = i;
+    this.kD = d;
+    this.maxPower = maxPower;
+  }
+
+  /**
+   * Turns to and holds a heading, e.g. the heading that faces the GOAL. The driver can still turn
+   * with the right stick, the controller picks the target back up when the stick is released.
+   * @param heading the target heading in radians
+   */
+  public void setTarget(double heading) {
+    target = heading;
+  }
+
+  /**
+   * Stops tracking the target. The controller then holds whatever heading the robot settles at.
+   */
+  public void clearTarget() {
+    if (!Double.isNaN(target)) {
+      target = Double.NaN;
+      mode = Mode.CAPTURING;
+    }
+  }
+
+  /**
+   * Calculates the rotate command.
+   * @param heading the measured heading in radians
+   * @param angularVelocity the measured yaw rate in radians/second
+   * @param rotate the driver's rotate input
+   * @param time the current time in seconds (any origin)
+   * @return the rotate command for {@code Robot.drive()}
+   */
+  public double calculate(double heading, double angularVelocity, double rotate, double time) {
+    double dt = time - lastTime;
+    boolean continuous = dt > 0 && dt < MAX_DT;
+    lastTime = time;
+
+    if (Math.abs(rotate) > INPUT_DEADBAND) {
+      mode = Mode.MANUAL;
+      integral = 0;
+      error = 0;
+      return rotate;
+    }
+    double setpoint;
+    if (!Double.isNaN(target)) {
+      mode = Mode.TARGET;
+      setpoint = target;
+    } else {
+      if (mode != Mode.HOLD) {
+        // Let the robot coast to a stop first, or the hold would pull it back to where the stick was released
+        if (Math.abs(angularVelocity) > CAPTURE_RATE) {
+          mode = Mode.CAPTURING;
+          error = 0;
+          return 0;
+        }
+        mode = Mode.HOLD;
+        holdHeading = heading;
+        integral = 0;
+      }
+      setpoint = holdHeading;
+    }
+
+    error = normalizeRadians(setpoint - heading);
+    double counterClockwise = kP * error + kI * integral - kD * angularVelocity;
+    // Only integrate while the output isn't saturated, a big turn would otherwise wind it up and overshoot
+    if (continuous && Math.abs(counterClockwise) < maxPower) {
+      integral += error * dt;
+    }
+    return -Math.max(-maxPower, Math.min(maxPower, counterClockwise));
+  }
+
+  public Mode getMode() {
+    return mode;
+  }
+
+  /**
+   * @return the heading error of the last calculation in radians (0 while not controlling)
+   */
+  public double getError() {
+    return error;
+  }
+
+  /**
+   * @return true if the controller is holding or tracking a heading and is within {@link #TOLERANCE}
+   */
+  public boolean isSettled() {
+    return (mode == Mode.HOLD || mode == Mode.TARGET) && Math.abs(error) <= TOLERANCE;
+  }
+
+  /**
+   * Forgets the held heading and the integral, e.g. after the heading was reset.
+   */
+  public void reset() {
+    mode = Mode.CAPTURING;
+    integral = 0;
+    error = 0;
+    lastTime = Double.NaN;
+  }
+
+  /**
+   * @param angle an angle in radians
+   * @return the same angle in -pi to pi
+   */
+  private static double normalizeRadians(double angle) {
+    angle %= 2 * Math.PI;
+    if (angle > Math.PI) {
+      angle -= 2 * Math.PI;
+    } else if (angle < -Math.PI) {
+      angle += 2 * Math.PI;
+    }
+    return angle;
+  }
+}
@@ -0,0 +1,163 @@
+package org.firstinspires.ftc.teamcode.core;
+
+/**
+ * Feeds a sequence of balls (a motif) from the {@code Indexer} through the intake into the shooter,
+ * overlapping the steps wherever the mechanism allows.
+ *
+ * <p>Each ball goes through: the indexer servo moves, the ball drops into the intake (together
+ * {@link Timing#getMoveDropTime()}), the intake carries it into the shooter, and the shooter recovers.
+ * Shooting one ball at a time waits for all of that before moving the indexer again. Once a ball has
+ * dropped its slot is empty, so the sequencer moves the indexer to the next ball while the previous one
+ * is still on its way and the shooter recovers. The intake is what keeps the shots apart: it only runs
+ * while the shooter is ready, so a ball that arrives early waits in the intake.</p>
+ *
+ * <p>Every step is driven by when it happened (the time the ball was staged, and the shot the
+ * {@link ShotDetector} saw), not by one timer that restarts with each indexer move. A shot the detector
+ * missed counts as fired after {@link Timing#getShootTime()}, so a missed detection only costs time.</p>
+ *
+ * <pre>
+ * IndexerSequencer sequencer = new IndexerSequencer(true, Indexer.TIMING);
+ * sequencer.start(pattern.length);
+ * // in loop()
+ * boolean feed = sequencer.update(getRuntime(), ready, robot.shooter.shots.getTotal(),
+ *     ball -> !robot.indexer.isBlocked() &amp;&amp; robot.indexer.setPosition(pattern[ball], true));
+ * robot.intake.setPowerAll(feed ? 1 : 0);
+ * </pre>
+ */
+public class IndexerSequencer {
+  /** At most this many balls past the indexer that haven't been shot yet, so the intake never jams */
+  public static final int MAX_IN_FLIGHT = 2;
+
+  /** Moves the indexer to a ball, returning false if it can't right now (e.g. {@code Indexer.isBlocked()}) */
+  public interface Stager {
+    /**
+     * @param ball the index of the ball in the sequence
+     * @return true if the indexer took the position
+     */
+    boolean stage(int ball);
+  }
+
+  /** How long the indexer takes, e.g. from the tuning file */
+  public interface Timing {
+    /**
+     * @return time from moving the indexer until the ball has dropped into the intake, in seconds
+     */
+    double getMoveDropTime();
+
+    /**
+     * @return time from the drop until the shot, used when the shot wasn't detected, in seconds
+     */
+    double getShootTime();
+  }
+
+  private final boolean pipelined;
+  private final Timing timing;
+
+  private int count = 0;
+  private int staged = 0;
+  private int fired = 0;
+  private int shotsSeen = -1;
+  private final double[] stagedAt = new double[MAX_IN_FLIGHT + 1];
+  private double lastFiredAt = Double.NaN;
+
+  /**
+   * @param pipelined true to overlap the indexer moves with the shots, false to shoot one ball at a
+   * time like before (for comparison)
+   * @param timing how long the indexer takes
+   */
+  public IndexerSequencer(boolean pipelined, Timing timing) {
+    this.pipelined = pipelined;
+    this.timing = timing;
+  }
+
+  /**
+   * Starts a new sequence.
+   * @param count how many balls to shoot
+   */
+  public void start(int count) {
+    this.count = count;
+    staged = 0;
+    fired = 0;
+    shotsSeen = -1;
+    lastFiredAt = Double.NaN;
+  }
+
+  /**
+   * Advances the sequence. Call it once per loop.
+   * @param time the current time in seconds
+   * @param ready true if the shooter is at speed and aimed
+   * @param shots the number of shots detected so far, e.g. {@code robot.shooter.shots.getTotal()}
+   * @param stager moves the indexer to the next ball
+   * @return true if the intake should run
+   */
+  public boolean update(double time, boolean ready, int shots, Stager stager) {
+    double moveDrop = timing.getMoveDropTime();
+    double shootTime = timing.getShootTime();
+
+    // Fired: the detector saw a shot, or the oldest ball has had its full time
+    if (shotsSeen < 0) {
+      shotsSeen = shots;
+    }
+    if (fired < staged) {
+      double sinceStaged = time - stagedAt[fired % stagedAt.length];
+      if ((shots > shotsSeen && sinceStaged >= moveDrop) || sinceStaged >= moveDrop + shootTime) {
+        fired++;
+        lastFiredAt = time;
+      }
+    }
+    shotsSeen = shots;
+
+    if (staged < count && canStage(time, ready, moveDrop, shootTime) && stager.stage(staged)) {
+      stagedAt[staged % stagedAt.length] = time;
+      staged++;
+    }
+    // One at a time the intake always ran, pipelined it holds balls back until the shooter is ready
+    return !pipelined || ready;
+  }
+
+  private boolean canStage(double time, boolean ready, double moveDrop, double shootTime) {
+    if (staged == 0) {
+      return ready;
+    }
+    double sinceLast = time - stagedAt[(staged - 1) % stagedAt.length];
+    if (!pipelined) {
+      return ready && sinceLast >= moveDrop + shootTime;
+    }
+    // The last ball has dropped, so its slot is empty, and the intake has room
+    return sinceLast >= moveDrop && staged - fired < MAX_IN_FLIGHT;
+  }
+
+  /**
+   * @return true once every ball has been shot
+   */
+  public boolean isDone() {
+    return count > 0 && fired >= count;
+  }
+
+  /**
+   * @return the number of balls the indexer has been moved to
+   */
+  public int getStaged() {
+    return staged;
+  }
+
+  /**
+   * @return the number of balls shot
+   */
+  public int getFired() {
+    return fired;
+  }
+
+  /**
+   * @return when the last ball was shot, in seconds (NaN if none was)
+   */
+  public double getLastFiredAt() {
+    return lastFiredAt;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s, staged %d fired %d of %d", pipelined ? "Pipelined" : "One at a time", staged, fired,
+        count);
+  }
+}
@@ -0,0 +1,164 @@
+package org.firstinspires.ftc.teamcode.core;
+
+/**
+ * Moves the two-sided lift to a height with both sides level.
+ *
+ * <p>The target follows a {@link TrapezoidProfile} so the lift doesn't jerk, and each side follows
+ * it on its own encoder:</p>
+ * <pre>
+ *   difference = left - right
+ *   leftPower = kG + kV * profileVelocity + kP * (profilePosition - left) - kSync * difference
+ *   rightPower = kG + kV * profileVelocity + kP * (profilePosition - right) + kSync * difference
+ * </pre>
+ * <p>kG holds the lift against gravity and kV is the feedforward for the profile's speed. The cross
+ * coupled kSync term is the equalizer: when one side binds and falls behind, the other side is held
+ * back instead of racking the lift. Positions are in encoder ticks, both sides counting up as the lift
+ * rises.</p>
+ */
+public class LiftController {
+  /** Within this of the goal counts as at height, in ticks */
+  public static final double TOLERANCE = 25;
+
+  private final TrapezoidProfile profile = new TrapezoidProfile(1, 1);
+  private double kP = 0;
+  private double kV = 0;
+  private double kG = 0;
+  private double kSync = 0;
+  private boolean active = false;
+  private double leftPower = 0;
+  private double rightPower = 0;
+  private double difference = 0;
+  private double maxDifference = 0;
+  private double moveTime = 0;
+  private boolean arrived = false;
+
+  /**
+   * @param p power per tick of error, on each side
+   * @param v power per tick/second of profile speed
+   * @param g power that holds the lift up
+   * @param sync power per tick of left/right difference
+   */
+  public void setGains(double p, double v, double g, double sync) {
+    this.kP = p;
+    this.kV = v;
+    this.kG = g;
+    this.kSync = sync;
+  }
+
+  /**
+   * @param maxVelocity the profile's cruise speed, in ticks/second
+   * @param maxAcceleration the profile's acceleration, in ticks/second^2
+   */
+  public void setLimits(double maxVelocity, double maxAcceleration) {
+    profile.setLimits(maxVelocity, maxAcceleration);
+  }
+
+  /**
+   * Starts moving to a height. If the lift is already moving the profile carries on from where it is.
+   * @param goal the height in ticks
+   * @param left the left side's position now
+   * @param right the right side's position now
+   */
+  public void moveTo(double goal, double left, double right) {
+    if (!active) {
+      profile.reset((left + right) / 2);
+      active = true;
+    }
+    profile.setGoal(goal);
+    maxDifference = 0;
+    moveTime = 0;
+    arrived = false;
+  }
+
+  /**
+   * Lets go of the lift, e.g. when the operator drives it by hand.
+   */
+  public void stop() {
+    active = false;
+    leftPower = 0;
+    rightPower = 0;
+  }
+
+  /**
+   * Advances the profile and computes both powers. Call it once per loop while active.
+   * @param left the left side's position
+   * @param right the right side's position
+   * @param dt time since the last update, in seconds
+   */
+  public void update(double left, double right, double dt) {
+    difference = left - right;
+    if (!active) {
+      return;
+    }
+    profile.update(dt);
+    double base = kG + kV * profile.getVelocity();
+    double reference = profile.getPosition();
+    leftPower = clamp(base + kP * (reference - left) - kSync * difference);
+    rightPower = clamp(base + kP * (reference - right) + kSync * difference);
+    maxDifference = Math.max(maxDifference, Math.abs(difference));
+    if (!arrived) {
+      arrived = isAtGoal(left, right);
+      if (!arrived) {
+        moveTime += dt;
+      }
+    }
+  }
+
+  private static double clamp(double power) {
+    return Math.max(-1, Math.min(1, power));
+  }
+
+  public boolean isActive() {
+    return active;
+  }
+
+  /**
+   * @param left the left side's position
+   * @param right the right side's position
+   * @return true once the profile has finished and both sides are within {@link #TOLERANCE} of the goal
+   */
+  public boolean isAtGoal(double left, double right) {
+    return active && profile.isFinished() && Math.abs(left - profile.getGoal()) <= TOLERANCE
+        && Math.abs(right - profile.getGoal()) <= TOLERANCE;
+  }
+
+  public double getLeftPower() {
+    return leftPower;
+  }
+
+  public double getRightPower() {
+    return rightPower;
+  }
+
+  public double getGoal() {
+    return profile.getGoal();
+  }
+
+  /**
+   * @return the left minus the right position at the last update, in ticks
+   */
+  public double getDifference() {
+    return difference;
+  }
+
+  /**
+   * @return the largest left/right difference since the last {@link #moveTo}, in ticks
+   */
+  public double getMaxDifference() {
+    return maxDifference;
+  }
+
+  /**
+   * @return how long the last move took until both sides were first at the goal, or has taken so far, in
+   * seconds
+   */
+  public double getMoveTime() {
+    return moveTime;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("goal %.0f, L/R %+.0f (max %.0f) ticks, move %.2f s", profile.getGoal(), difference,
+        maxDifference, moveTime);
+  }
+}
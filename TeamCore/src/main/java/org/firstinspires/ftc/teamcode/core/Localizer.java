@@ -0,0 +1,30 @@
+package org.firstinspires.ftc.teamcode.core;
+
+/**
+ * An odometry device that tracks the robot's field pose itself (the goBILDA Pinpoint, the SparkFun OTOS)
+ * or a simulated one.
+ *
+ * <p>The robot reads it on a background thread, so {@link #update()} and {@link #setPose} are only ever
+ * called from that one thread and may block on the bus; {@link #update()} should be a single bulk
+ * transaction. Units are those of {@link RobotPose}.</p>
+ */
+public interface Localizer {
+  /**
+   * Reads the device.
+   * @return the pose and velocity now, stamped with when it was read
+   */
+  RobotPose update();
+
+  /**
+   * Tells the device where the robot is, e.g. the start position.
+   * @param x field x in inches
+   * @param y field y in inches
+   * @param heading heading in radians, counter-clockwise positive
+   */
+  void setPose(double x, double y, double heading);
+
+  /**
+   * @return what the device is, for telemetry
+   */
+  String getName();
+}
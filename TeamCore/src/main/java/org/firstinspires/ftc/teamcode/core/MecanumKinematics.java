@@ -0,0 +1,169 @@
+package org.firstinspires.ftc.teamcode.core;
+
+/**
+ * Turns a chassis command (strafe, forward, rotate) into mecanum wheel speeds, and keeps them
+ * achievable without distorting the command.
+ *
+ * <p>Clipping each wheel on its own (the old behaviour, {@link Mode#CLIP}) changes the ratio between
+ * the wheels whenever one of them saturates, so a combined strafe and turn drives off in the wrong
+ * direction. {@link Mode#NORMALIZE} scales every wheel down by the largest one instead, so the robot
+ * moves in the commanded direction at the fastest speed the wheels allow. {@link Mode#ROTATION_PRIORITY}
+ * keeps the full rotation and only scales the translation, useful while aiming.</p>
+ *
+ * <p>Every call records how saturated the command was, so OpModes can show it each loop. Results are
+ * written into a reused array, nothing is allocated per loop.</p>
+ */
+public class MecanumKinematics {
+  public static final int FRONT_LEFT = 0;
+  public static final int FRONT_RIGHT = 1;
+  public static final int REAR_LEFT = 2;
+  public static final int REAR_RIGHT = 3;
+
+  public enum Mode {
+    /** Clip each wheel to -1..1 independently (distorts direction when saturated) */
+    CLIP,
+    /** Scale all wheels by the largest magnitude, keeps the direction and the turn/translate ratio */
+    NORMALIZE,
+    /** Keep the rotation, scale only the translation down until every wheel fits */
+    ROTATION_PRIORITY
+  }
+
+  private Mode mode = Mode.NORMALIZE;
+  private final double[] wheels = new double[4];
+  private final double[] translation = new double[4];
+  private final double[] rotation = new double[4];
+
+  private double peak = 0;
+  private double scale = 1;
+  private long loops = 0;
+  private long saturatedLoops = 0;
+
+  public void setMode(Mode mode) {
+    this.mode = mode;
+  }
+
+  public Mode getMode() {
+    return mode;
+  }
+
+  /**
+   * Calculates the wheel speeds for a robot-relative command.
+   * @param x strafe, positive is right
+   * @param y forward, positive is forward
+   * @param rotate rotation, positive follows {@code Robot.drive()}
+   * @return the wheel speeds (-1 to 1), indexed by {@link #FRONT_LEFT} etc. The array is reused.
+   */
+  public double[] calculate(double x, double y, double rotate) {
+    translation[FRONT_LEFT] = y + x;
+    translation[FRONT_RIGHT] = y - x;
+    translation[REAR_LEFT] = y - x;
+    translation[REAR_RIGHT] = y + x;
+    rotation[FRONT_LEFT] = rotate;
+    rotation[FRONT_RIGHT] = -rotate;
+    rotation[REAR_LEFT] = rotate;
+    rotation[REAR_RIGHT] = -rotate;
+
+    peak = 0;
+    for (int i = 0; i < 4; i++) {
+      wheels[i] = translation[i] + rotation[i];
+      peak = Math.max(peak, Math.abs(wheels[i]));
+    }
+    loops++;
+    if (peak > 1) {
+      saturatedLoops++;
+    }
+
+    scale = 1;
+    switch (mode) {
+      case CLIP:
+        for (int i = 0; i < 4; i++) {
+          wheels[i] = Math.max(-1, Math.min(1, wheels[i]));
+        }
+        break;
+      case NORMALIZE:
+        if (peak > 1) {
+          scale = 1 / peak;
+          for (int i = 0; i < 4; i++) {
+            wheels[i] *= scale;
+          }
+        }
+        break;
+      case ROTATION_PRIORITY:
+        if (peak > 1) {
+          prioritizeRotation(rotate);
+        }
+        break;
+    }
+    return wheels;
+  }
+
+  /**
+   * Finds the largest translation scale (0 to 1) that keeps every wheel within -1..1 on top of the
+   * full rotation. If the rotation alone is more than a wheel can do it is clipped and the
+   * translation dropped.
+   */
+  private void prioritizeRotation(double rotate) {
+    double clipped = Math.max(-1, Math.min(1, rotate));
+    rotation[FRONT_LEFT] = clipped;
+    rotation[FRONT_RIGHT] = -clipped;
+    rotation[REAR_LEFT] = clipped;
+    rotation[REAR_RIGHT] = -clipped;
+    scale = 1;
+    for (int i = 0; i < 4; i++) {
+      double r = rotation[i];
+      double t = translation[i];
+      if (t > 0) {
+        scale = Math.min(scale, (1 - r) / t);
+      } else if (t < 0) {
+        scale = Math.min(scale, (1 + r) / -t);
+      }
+    }
+    scale = Math.max(0, scale);
+    for (int i = 0; i < 4; i++) {
+      wheels[i] = Math.max(-1, Math.min(1, rotation[i] + translation[i] * scale));
+    }
+  }
+
+  /**
+   * @return the largest wheel magnitude the last command asked for before desaturation (above 1 means
+   * it couldn't be driven as asked)
+   */
+  public double getPeak() {
+    return peak;
+  }
+
+  public boolean isSaturated() {
+    return peak > 1;
+  }
+
+  /**
+   * @return how much the last command was scaled down (1 if not at all, the translation scale in
+   * {@link Mode#ROTATION_PRIORITY}, and 1 in {@link Mode#CLIP} which doesn't scale)
+   */
+  public double getScale() {
+    return scale;
+  }
+
+  /**
+   * @return the fraction of commands since the last {@link #resetStatistics()} that were saturated
+   */
+  public double getSaturatedFraction() {
+    return loops == 0 ? 0 : (double) saturatedLoops / loops;
+  }
+
+  public void resetStatistics() {
+    loops = 0;
+    saturatedLoops = 0;
+  }
+
+  /**
+   * Forward kinematics: the chassis motion a set of wheel speeds produces, assuming no slip.
+   * @param wheels the wheel speeds indexed by {@link #FRONT_LEFT} etc.
+   * @param result filled with {x, y, rotate}
+   */
+  public static void toChassis(double[] wheels, double[] result) {
+    result[0] = (wheels[FRONT_LEFT] - wheels[FRONT_RIGHT] - wheels[REAR_LEFT] + wheels[REAR_RIGHT]) / 4;
+    result[1] = (wheels[FRONT_LEFT] + wheels[FRONT_RIGHT] + wheels[REAR_LEFT] + wheels[REAR_RIGHT]) / 4;
+    result[2] = (wheels[FRONT_LEFT] - wheels[FRONT_RIGHT] + wheels[REAR_LEFT] - wheels[REAR_RIGHT]) / 4;
+  }
+}
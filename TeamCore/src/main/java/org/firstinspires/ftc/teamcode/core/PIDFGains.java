@@ -0,0 +1,35 @@
+package org.firstinspires.ftc.teamcode.core;
+
+/**
+ * Velocity PIDF gains on the hub's scale, the plain Java counterpart of the SDK's
+ * {@code PIDFCoefficients} so the tuning and simulation code doesn't need the SDK.
+ */
+public class PIDFGains {
+  public final double p;
+  public final double i;
+  public final double d;
+  public final double f;
+
+  public PIDFGains(double p, double i, double d, double f) {
+    this.p = p;
+    this.i = i;
+    this.d = d;
+    this.f = f;
+  }
+
+  /**
+   * The hub's controller outputs power, a fraction of the battery voltage, so on a sagging battery every
+   * term has to be larger to put the same voltage on the motor as when the gains were tuned.
+   * @param batteryVoltage the battery voltage
+   * @return the gains scaled by {@link Feedforward#voltageScale(double)}
+   */
+  public PIDFGains compensate(double batteryVoltage) {
+    double scale = Feedforward.voltageScale(batteryVoltage);
+    return new PIDFGains(p * scale, i * scale, d * scale, f * scale);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("P %.3f I %.3f D %.3f F %.3f", p, i, d, f);
+  }
+}
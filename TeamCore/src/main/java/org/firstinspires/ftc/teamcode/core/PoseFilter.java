@@ -0,0 +1,378 @@
+package org.firstinspires.ftc.teamcode.core;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the field pose from drifting by correcting the odometry with AprilTag poses: an extended Kalman
+ * filter over x, y and heading.
+ *
+ * <p>Each loop {@link #addOdometry} moves the estimate by how far the odometry moved since the last loop
+ * and grows its uncertainty with the distance driven and the angle turned. A tag pose from the camera
+ * ({@link #addVision}) is pulled in weighted by the two uncertainties. The camera frame is taken well
+ * before the detection arrives, so the filter keeps the last {@code history} loops: the tag is applied at
+ * the loop nearest to when its frame was taken and the odometry since then is replayed on top.</p>
+ *
+ * <p>Tags are rejected when their decision margin is low (a poor detection) or when they are too far from
+ * the estimate for the uncertainties, measured as a Mahalanobis distance. If the tags keep disagreeing
+ * the odometry has most likely slipped (a collision), so after {@link #RELOCALIZE_AFTER} rejections in a
+ * row the next tag is taken as it is.</p>
+ *
+ * <p>Everything lives in preallocated arrays, an update doesn't allocate. Units are those of
+ * {@link RobotPose}. Call it from one thread.</p>
+ */
+public class PoseFilter {
+  /** What happened to a tag pose */
+  public enum Result {
+    ACCEPTED, LOW_MARGIN, OUTLIER, TOO_OLD
+  }
+
+  /** Consecutive outliers after which the tags are trusted over the odometry */
+  public static final int RELOCALIZE_AFTER = 10;
+  /** The tag noise is for tags up to this far away and grows in proportion beyond it, in inches */
+  public static final double REFERENCE_RANGE = 48;
+  /** The uncertainty of a pose nobody knows, a field's width and any heading */
+  public static final double UNKNOWN_POSITION = 144;
+  public static final double UNKNOWN_HEADING = Math.PI;
+
+  private final int capacity;
+  // The history, a ring of loops: when, the odometry pose then, and the estimate and its covariance
+  private final long[] times;
+  private final double[] odometry;
+  private final double[] states;
+  private final double[] covariances;
+  private int oldest = 0;
+  private int count = 0;
+  // The estimate before the first odometry arrives
+  private final double[] initialState = new double[3];
+  private final double[] initialCovariance = new double[9];
+  // Scratch space for an update
+  private final double[] state = new double[3];
+  private final double[] covariance = new double[9];
+  private final double[] innovation = new double[3];
+  private final double[] inverse = new double[9];
+  private final double[] gain = new double[9];
+  private final double[] product = new double[9];
+
+  private double odometryVariance = 0;
+  private double headingVariance = 0;
+  private double visionNoise = 2;
+  private double visionHeadingNoise = Math.toRadians(3);
+  private double minDecisionMargin = 0;
+  private double gate = Double.POSITIVE_INFINITY;
+  private int outliers = 0;
+  private final int[] results = new int[Result.values().length];
+  private double xVelocity = 0;
+  private double yVelocity = 0;
+  private double angularVelocity = 0;
+
+  /**
+   * Starts with the pose unknown, see {@link #reset}.
+   * @param history how many loops a tag can be late by and still be used
+   */
+  public PoseFilter(int history) {
+    capacity = history;
+    times = new long[history];
+    odometry = new double[history * 3];
+    states = new double[history * 3];
+    covariances = new double[history * 9];
+    reset(0, 0, 0, UNKNOWN_POSITION, UNKNOWN_HEADING);
+  }
+
+  /**
+   * @param odometryDrift the odometry's expected position error after driving 100 inches, in inches
+   * @param headingDrift its expected heading error after turning a full circle, in radians
+   * @param visionNoise the position noise of a tag pose, in inches
+   * @param visionHeadingNoise the heading noise of a tag pose, in radians
+   */
+  public void setNoise(double odometryDrift, double headingDrift, double visionNoise, double visionHeadingNoise) {
+    // The errors of each step add up as a random walk, so the variance grows with the distance
+    this.odometryVariance = odometryDrift * odometryDrift / 100;
+    this.headingVariance = headingDrift * headingDrift / (2 * Math.PI);
+    this.visionNoise = visionNoise;
+    this.visionHeadingNoise = visionHeadingNoise;
+  }
+
+  /**
+   * @param minDecisionMargin tags detected with less margin than this are ignored
+   * @param gate tags further than this many standard deviations from the estimate are outliers
+   */
+  public void setGates(double minDecisionMargin, double gate) {
+    this.minDecisionMargin = minDecisionMargin;
+    this.gate = gate;
+  }
+
+  /**
+   * Declares where the robot is, e.g. the start position, and forgets the history.
+   * @param x field x in inches
+   * @param y field y in inches
+   * @param heading heading in radians
+   * @param positionStdDev how sure that is, in inches ({@link #UNKNOWN_POSITION} to wait for a tag)
+   * @param headingStdDev how sure the heading is, in radians
+   */
+  public void reset(double x, double y, double heading, double positionStdDev, double headingStdDev) {
+    initialState[0] = x;
+    initialState[1] = y;
+    initialState[2] = heading;
+    Arrays.fill(initialCovariance, 0);
+    initialCovariance[0] = positionStdDev * positionStdDev;
+    initialCovariance[4] = positionStdDev * positionStdDev;
+    initialCovariance[8] = headingStdDev * headingStdDev;
+    count = 0;
+    outliers = 0;
+  }
+
+  /**
+   * Moves the estimate on by the odometry, call it every loop. A pose that isn't newer than the last one
+   * is ignored, so the latest sample can be passed in whether it changed or not.
+   * @param pose the odometry's pose, in its own frame
+   */
+  public void addOdometry(RobotPose pose) {
+    if (count == 0) {
+      System.arraycopy(initialState, 0, state, 0, 3);
+      System.arraycopy(initialCovariance, 0, covariance, 0, 9);
+    } else {
+      int newest = slot(count - 1);
+      if (pose.timestamp <= times[newest]) {
+        return;
+      }
+      load(newest);
+      predict(newest, pose.x, pose.y, pose.heading);
+    }
+    xVelocity = pose.xVelocity;
+    yVelocity = pose.yVelocity;
+    angularVelocity = pose.angularVelocity;
+    if (count < capacity) {
+      count++;
+    } else {
+      oldest = (oldest + 1) % capacity;
+    }
+    int newest = slot(count - 1);
+    times[newest] = pose.timestamp;
+    odometry[newest * 3] = pose.x;
+    odometry[newest * 3 + 1] = pose.y;
+    odometry[newest * 3 + 2] = pose.heading;
+    store(newest);
+  }
+
+  /**
+   * Corrects the estimate with a pose worked out from an AprilTag.
+   * @param x the robot's field x in inches
+   * @param y the robot's field y in inches
+   * @param heading the robot's heading in radians
+   * @param range how far away the tag was, in inches
+   * @param decisionMargin the detection's decision margin
+   * @param timestamp when the camera frame was taken, {@link System#nanoTime()} based
+   * @return whether it was used, and if not why
+   */
+  public Result addVision(double x, double y, double heading, double range, double decisionMargin,
+      long timestamp) {
+    if (decisionMargin < minDecisionMargin) {
+      return count(Result.LOW_MARGIN);
+    }
+    int index = find(timestamp);
+    if (index < 0) {
+      return count(Result.TOO_OLD);
+    }
+    load(slot(index));
+    double positionNoise = visionNoise * Math.max(1, range / REFERENCE_RANGE);
+    double positionVariance = positionNoise * positionNoise;
+    double visionHeadingVariance = visionHeadingNoise * visionHeadingNoise;
+    innovation[0] = x - state[0];
+    innovation[1] = y - state[1];
+    innovation[2] = normalize(heading - state[2]);
+    invertInnovationCovariance(positionVariance, visionHeadingVariance);
+    double distance = 0;
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 3; j++) {
+        distance += innovation[i] * inverse[i * 3 + j] * innovation[j];
+      }
+    }
+    if (distance > gate * gate) {
+      if (++outliers < RELOCALIZE_AFTER) {
+        return count(Result.OUTLIER);
+      }
+      // The tags have disagreed for a while, so it is the estimate that is wrong: start it over
+      Arrays.fill(covariance, 0);
+      covariance[0] = UNKNOWN_POSITION * UNKNOWN_POSITION;
+      covariance[4] = UNKNOWN_POSITION * UNKNOWN_POSITION;
+      covariance[8] = UNKNOWN_HEADING * UNKNOWN_HEADING;
+      invertInnovationCovariance(positionVariance, visionHeadingVariance);
+    }
+    outliers = 0;
+
+    // K = P S^-1, x += K v, P -= K P
+    multiply(covariance, inverse, gain);
+    for (int i = 0; i < 3; i++) {
+      state[i] += gain[i * 3] * innovation[0] + gain[i * 3 + 1] * innovation[1] + gain[i * 3 + 2] * innovation[2];
+    }
+    multiply(gain, covariance, product);
+    for (int i = 0; i < 9; i++) {
+      covariance[i] -= product[i];
+    }
+    symmetrize(covariance);
+    store(slot(index));
+
+    // Replay the odometry since the frame on top of the corrected estimate
+    for (int i = index + 1; i < count; i++) {
+      int current = slot(i);
+      predict(slot(i - 1), odometry[current * 3], odometry[current * 3 + 1], odometry[current * 3 + 2]);
+      store(current);
+    }
+    return count(Result.ACCEPTED);
+  }
+
+  /**
+   * @return the estimate as of the latest odometry, with the odometry's velocities turned into the field
+   */
+  public RobotPose getPose() {
+    if (count == 0) {
+      return new RobotPose(initialState[0], initialState[1], initialState[2], 0, 0, 0, 0);
+    }
+    int newest = slot(count - 1);
+    double offset = states[newest * 3 + 2] - odometry[newest * 3 + 2];
+    double cos = Math.cos(offset);
+    double sin = Math.sin(offset);
+    return new RobotPose(states[newest * 3], states[newest * 3 + 1], states[newest * 3 + 2],
+        xVelocity * cos - yVelocity * sin, xVelocity * sin + yVelocity * cos, angularVelocity, times[newest]);
+  }
+
+  /**
+   * @return the position's standard deviation, in inches
+   */
+  public double getPositionStdDev() {
+    double[] p = count == 0 ? initialCovariance : covariances;
+    int base = count == 0 ? 0 : slot(count - 1) * 9;
+    return Math.sqrt((p[base] + p[base + 4]) / 2);
+  }
+
+  /**
+   * @return the heading's standard deviation, in radians
+   */
+  public double getHeadingStdDev() {
+    double[] p = count == 0 ? initialCovariance : covariances;
+    int base = count == 0 ? 0 : slot(count - 1) * 9;
+    return Math.sqrt(p[base + 8]);
+  }
+
+  /**
+   * @param result an outcome
+   * @return how many tag poses had it since the filter was made
+   */
+  public int getCount(Result result) {
+    return results[result.ordinal()];
+  }
+
+  private Result count(Result result) {
+    results[result.ordinal()]++;
+    return result;
+  }
+
+  /**
+   * Moves {@link #state} and {@link #covariance} by the odometry from history slot {@code from} to the
+   * given pose.
+   */
+  private void predict(int from, double x, double y, double heading) {
+    double dx = x - odometry[from * 3];
+    double dy = y - odometry[from * 3 + 1];
+    double turn = heading - odometry[from * 3 + 2];
+    // The odometry's frame is turned from the field by the difference in headings
+    double offset = state[2] - odometry[from * 3 + 2];
+    double cos = Math.cos(offset);
+    double sin = Math.sin(offset);
+    state[0] += dx * cos - dy * sin;
+    state[1] += dx * sin + dy * cos;
+    state[2] += turn;
+
+    // P = F P F^T + Q, F being the identity plus how the step turns with the heading
+    double a = -dx * sin - dy * cos;
+    double b = dx * cos - dy * sin;
+    double[] p = covariance;
+    double p00 = p[0] + 2 * a * p[2] + a * a * p[8];
+    double p01 = p[1] + a * p[5] + b * p[2] + a * b * p[8];
+    double p02 = p[2] + a * p[8];
+    double p11 = p[4] + 2 * b * p[5] + b * b * p[8];
+    double p12 = p[5] + b * p[8];
+    double distance = Math.hypot(dx, dy);
+    p[0] = p00 + odometryVariance * distance;
+    p[1] = p01;
+    p[2] = p02;
+    p[3] = p01;
+    p[4] = p11 + odometryVariance * distance;
+    p[5] = p12;
+    p[6] = p02;
+    p[7] = p12;
+    p[8] += headingVariance * Math.abs(turn);
+  }
+
+  /** Puts (P + R)^-1 in {@link #inverse} */
+  private void invertInnovationCovariance(double positionVariance, double headingVariance) {
+    System.arraycopy(covariance, 0, product, 0, 9);
+    product[0] += positionVariance;
+    product[4] += positionVariance;
+    product[8] += headingVariance;
+    double[] m = product;
+    double c00 = m[4] * m[8] - m[5] * m[7];
+    double c01 = m[5] * m[6] - m[3] * m[8];
+    double c02 = m[3] * m[7] - m[4] * m[6];
+    double determinant = m[0] * c00 + m[1] * c01 + m[2] * c02;
+    inverse[0] = c00 / determinant;
+    inverse[1] = (m[2] * m[7] - m[1] * m[8]) / determinant;
+    inverse[2] = (m[1] * m[5] - m[2] * m[4]) / determinant;
+    inverse[3] = c01 / determinant;
+    inverse[4] = (m[0] * m[8] - m[2] * m[6]) / determinant;
+    inverse[5] = (m[2] * m[3] - m[0] * m[5]) / determinant;
+    inverse[6] = c02 / determinant;
+    inverse[7] = (m[1] * m[6] - m[0] * m[7]) / determinant;
+    inverse[8] = (m[0] * m[4] - m[1] * m[3]) / determinant;
+  }
+
+  private static void multiply(double[] a, double[] b, double[] out) {
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 3; j++) {
+        out[i * 3 + j] = a[i * 3] * b[j] + a[i * 3 + 1] * b[3 + j] + a[i * 3 + 2] * b[6 + j];
+      }
+    }
+  }
+
+  private static void symmetrize(double[] m) {
+    m[1] = m[3] = (m[1] + m[3]) / 2;
+    m[2] = m[6] = (m[2] + m[6]) / 2;
+    m[5] = m[7] = (m[5] + m[7]) / 2;
+  }
+
+  private static double normalize(double angle) {
+    return Math.atan2(Math.sin(angle), Math.cos(angle));
+  }
+
+  /** The ring position of the {@code index}th loop, 0 being the oldest */
+  private int slot(int index) {
+    return (oldest + index) % capacity;
+  }
+
+  /**
+   * @return the index of the loop nearest to the time, -1 if it is before the history
+   */
+  private int find(long timestamp) {
+    if (count == 0 || timestamp < times[oldest]) {
+      return -1;
+    }
+    for (int i = count - 1; i >= 0; i--) {
+      long time = times[slot(i)];
+      if (time <= timestamp) {
+        boolean nextIsNearer = i + 1 < count && times[slot(i + 1)] - timestamp < timestamp - time;
+        return nextIsNearer ? i + 1 : i;
+      }
+    }
+    return -1;
+  }
+
+  private void load(int slot) {
+    System.arraycopy(states, slot * 3, state, 0, 3);
+    System.arraycopy(covariances, slot * 9, covariance, 0, 9);
+  }
+
+  private void store(int slot) {
+    System.arraycopy(state, 0, states, slot * 3, 3);
+    System.arraycopy(covariance, 0, covariances, slot * 9, 9);
+  }
+}
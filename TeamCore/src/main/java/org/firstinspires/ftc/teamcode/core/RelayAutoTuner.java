@@ -0,0 +1,177 @@
+package org.firstinspires.ftc.teamcode.core;
+
+/**
+ * Runs a step and relay experiment on a single flywheel motor and identifies a {@link FlywheelModel}.
+ *
+ * <p>The tuner doesn't touch hardware itself, the caller feeds it the time and measured velocity every
+ * loop and applies the power it returns (in RUN_WITHOUT_ENCODER mode, the hub's own controller must
+ * be out of the way). That way the same code runs against a real motor or a simulated flywheel.</p>
+ * <ol>
+ *   <li>STEP: hold {@link #STEP_POWER} until the velocity settles, which gives the static gain and
+ *   the setpoint for the relay.</li>
+ *   <li>RELAY: switch between {@code STEP_POWER +/- RELAY_AMPLITUDE} whenever the velocity crosses the
+ *   setpoint (with hysteresis). The flywheel settles into a limit cycle whose amplitude and period
+ *   identify the time constant and dead time.</li>
+ * </ol>
+ */
+public class RelayAutoTuner {
+  /** Power held during the step and used as the relay bias, about 3000 RPM on the bare 6000 RPM shooter motors */
+  public static final double STEP_POWER = 0.5;
+  /** Power swing either side of the bias during the relay */
+  public static final double RELAY_AMPLITUDE = 0.15;
+  /** Relay switching band either side of the setpoint, as a fraction of the setpoint */
+  public static final double HYSTERESIS = 0.01;
+  /** Cycles ignored while the oscillation settles */
+  public static final int WARMUP_CYCLES = 2;
+  /** Cycles averaged for the result */
+  public static final int MEASURED_CYCLES = 4;
+  /** Window over which the step velocity has to stop changing, in seconds */
+  private static final double SETTLE_WINDOW = 0.25;
+  /** Largest change over the window that still counts as settled, as a fraction of the velocity */
+  private static final double SETTLE_TOLERANCE = 0.01;
+  private static final double STEP_TIMEOUT = 4;
+  private static final double RELAY_TIMEOUT = 10;
+
+  public enum State {
+    STEP, RELAY, DONE, FAILED
+  }
+
+  private State state = State.STEP;
+  private String failure = null;
+  private double startTime = Double.NaN;
+  private double stateStartTime = 0;
+
+  // Step
+  private double windowStartTime = 0;
+  private double windowStartVelocity = 0;
+  private double gain = 0;
+  private double setpoint = 0;
+
+  // Relay
+  private boolean high = true;
+  private double lastRiseTime = Double.NaN;
+  private double cycleMax = -Double.MAX_VALUE;
+  private double cycleMin = Double.MAX_VALUE;
+  private int cycles = 0;
+  private double amplitudeSum = 0;
+  private double periodSum = 0;
+
+  private FlywheelModel model = null;
+
+  /**
+   * Advances the experiment.
+   * @param time the current time in seconds (any origin)
+   * @param velocity the measured velocity in ticks/second
+   * @return the power to apply to the motor
+   */
+  public double update(double time, double velocity) {
+    if (Double.isNaN(startTime)) {
+      startTime = time;
+      stateStartTime = time;
+      windowStartTime = time;
+      windowStartVelocity = velocity;
+    }
+    switch (state) {
+      case STEP:
+        return step(time, velocity);
+      case RELAY:
+        return relay(time, velocity);
+      default:
+        return 0;
+    }
+  }
+
+  private double step(double time, double velocity) {
+    if (time - windowStartTime >= SETTLE_WINDOW) {
+      boolean settled = velocity > 0
+          && Math.abs(velocity - windowStartVelocity) <= SETTLE_TOLERANCE * velocity;
+      windowStartTime = time;
+      windowStartVelocity = velocity;
+      if (settled || time - stateStartTime >= STEP_TIMEOUT) {
+        if (velocity <= 0) {
+          fail("The motor didn't spin, check the wiring and direction");
+          return 0;
+        }
+        gain = velocity / STEP_POWER;
+        setpoint = velocity;
+        state = State.RELAY;
+        stateStartTime = time;
+      }
+    }
+    return STEP_POWER;
+  }
+
+  private double relay(double time, double velocity) {
+    if (time - stateStartTime >= RELAY_TIMEOUT) {
+      fail("The flywheel never settled into an oscillation");
+      return 0;
+    }
+    cycleMax = Math.max(cycleMax, velocity);
+    cycleMin = Math.min(cycleMin, velocity);
+    double band = HYSTERESIS * setpoint;
+    if (high && velocity > setpoint + band) {
+      high = false;
+    } else if (!high && velocity < setpoint - band) {
+      high = true;
+      // A rising switch closes a full cycle
+      if (!Double.isNaN(lastRiseTime)) {
+        cycles++;
+        if (cycles > WARMUP_CYCLES) {
+          amplitudeSum += (cycleMax - cycleMin) / 2;
+          periodSum += time - lastRiseTime;
+        }
+        if (cycles == WARMUP_CYCLES + MEASURED_CYCLES) {
+          model = FlywheelModel.fromRelay(gain, RELAY_AMPLITUDE, amplitudeSum / MEASURED_CYCLES,
+              periodSum / MEASURED_CYCLES, band);
+          state = State.DONE;
+          return 0;
+        }
+      }
+      lastRiseTime = time;
+      cycleMax = velocity;
+      cycleMin = velocity;
+    }
+    return STEP_POWER + (high ? RELAY_AMPLITUDE : -RELAY_AMPLITUDE);
+  }
+
+  private void fail(String reason) {
+    failure = reason;
+    state = State.FAILED;
+  }
+
+  public State getState() {
+    return state;
+  }
+
+  public boolean isFinished() {
+    return state == State.DONE || state == State.FAILED;
+  }
+
+  /**
+   * @return why the experiment failed, or null
+   */
+  public String getFailure() {
+    return failure;
+  }
+
+  /**
+   * @return the identified model, or null until the experiment is DONE
+   */
+  public FlywheelModel getModel() {
+    return model;
+  }
+
+  /**
+   * @return the settled step velocity the relay runs around (0 until the step has settled)
+   */
+  public double getSetpoint() {
+    return setpoint;
+  }
+
+  /**
+   * @return the number of completed relay cycles
+   */
+  public int getCycles() {
+    return cycles;
+  }
+}
@@ -0,0 +1,57 @@
+package org.firstinspires.ftc.teamcode.core;
+
+/**
+ * Where the robot was on the field and how it was moving at one moment, never changed once made, so it
+ * can be handed from a sampler thread to the loop without a lock.
+ *
+ * <p>Positions are in inches and headings in radians, counter-clockwise positive. At heading 0 the robot
+ * faces +y and +x is to its right, the same as {@code SimulatedDrivetrain}, whatever the device's own axes
+ * are. Velocities are in the field frame, like the positions.</p>
+ */
+public final class RobotPose {
+  public final double x;
+  public final double y;
+  public final double heading;
+  /** Field velocity in inches/second */
+  public final double xVelocity;
+  public final double yVelocity;
+  /** Turn rate in radians/second, counter-clockwise positive */
+  public final double angularVelocity;
+  /** When the pose was read, {@link System#nanoTime()} based */
+  public final long timestamp;
+
+  public RobotPose(double x, double y, double heading, double xVelocity, double yVelocity, double angularVelocity,
+      long timestamp) {
+    this.x = x;
+    this.y = y;
+    this.heading = heading;
+    this.xVelocity = xVelocity;
+    this.yVelocity = yVelocity;
+    this.angularVelocity = angularVelocity;
+    this.timestamp = timestamp;
+  }
+
+  /**
+   * Moves the pose on at its velocities, e.g. to where the robot is now rather than when it was read.
+   * @param time the {@link System#nanoTime()} to predict to
+   * @return the predicted pose
+   */
+  public RobotPose predict(long time) {
+    double dt = (time - timestamp) / 1e9;
+    return new RobotPose(x + xVelocity * dt, y + yVelocity * dt, heading + angularVelocity * dt, xVelocity,
+        yVelocity, angularVelocity, time);
+  }
+
+  /**
+   * @param other another pose
+   * @return the straight-line distance between the two, in inches
+   */
+  public double distanceTo(RobotPose other) {
+    return Math.hypot(x - other.x, y - other.y);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("(%.1f, %.1f) in, %.1f deg", x, y, Math.toDegrees(heading));
+  }
+}
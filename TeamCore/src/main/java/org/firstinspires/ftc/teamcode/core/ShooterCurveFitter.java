@@ -0,0 +1,239 @@
+package org.firstinspires.ftc.teamcode.core;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * Fits the shooter's RPM-for-range curve ({@code Shooter.calculateRPM()}) to calibration shots by
+ * least squares, replacing the hand fit in Desmos.
+ *
+ * <p>Each shot is a range to the GOAL, the RPM it was shot at and whether it went in. Only hits are
+ * fitted, misses are counted so the calibration file shows how the session went. The curve is a
+ * polynomial of up to {@link #MAX_DEGREE} in the range, centered on {@link #CENTER} and scaled by
+ * {@link #SCALE} so the sums stay well conditioned. Only the power sums of the normal equations are
+ * kept, so adding a shot is a handful of multiplications and fitting solves a 4x4 system, however many
+ * shots there are.</p>
+ *
+ * <p>Only uses plain Java, so the same fit can be rerun on a laptop from the CSV the Shooter Speed
+ * Calibrator OpMode records:</p>
+ * <pre>
+ *   ./gradlew :TeamCore:jar
+ *   java -cp TeamCore/build/libs/TeamCore.jar \
+ *       org.firstinspires.ftc.teamcode.core.ShooterCurveFitter shooter_calibration.csv
+ * </pre>
+ */
+public class ShooterCurveFitter {
+  public static final int MAX_DEGREE = 3;
+  /** Range the curve is centered on, in inches */
+  public static final double CENTER = 60;
+  /** Range the curve is scaled by, in inches */
+  public static final double SCALE = 30;
+
+  // Power sums of the normalized range, x^0 .. x^(2 * MAX_DEGREE), and of rpm * x^0 .. x^MAX_DEGREE
+  private final double[] xSums = new double[2 * MAX_DEGREE + 1];
+  private final double[] xySums = new double[MAX_DEGREE + 1];
+  private double yy = 0;
+  private int hits = 0;
+  private int misses = 0;
+  private double minRange = Double.POSITIVE_INFINITY;
+  private double maxRange = Double.NEGATIVE_INFINITY;
+
+  // The last fit
+  private final double[] coefficients = new double[MAX_DEGREE + 1];
+  private int degree = 0;
+  private double rmse = Double.NaN;
+
+  /**
+   * Adds a calibration shot.
+   * @param range the range to the GOAL in inches
+   * @param rpm the RPM the shot was made at
+   * @param hit true if it went in
+   */
+  public void addShot(double range, double rpm, boolean hit) {
+    if (!hit) {
+      misses++;
+      return;
+    }
+    double x = (range - CENTER) / SCALE;
+    double power = 1;
+    for (int i = 0; i < xSums.length; i++) {
+      xSums[i] += power;
+      if (i < xySums.length) {
+        xySums[i] += power * rpm;
+      }
+      power *= x;
+    }
+    yy += rpm * rpm;
+    hits++;
+    minRange = Math.min(minRange, range);
+    maxRange = Math.max(maxRange, range);
+  }
+
+  public int getHits() {
+    return hits;
+  }
+
+  public int getMisses() {
+    return misses;
+  }
+
+  /**
+   * @return the shortest range of the hits, the curve isn't trusted below it
+   */
+  public double getMinRange() {
+    return minRange;
+  }
+
+  /**
+   * @return the longest range of the hits, the curve isn't trusted above it
+   */
+  public double getMaxRange() {
+    return maxRange;
+  }
+
+  /**
+   * Fits the highest degree polynomial (up to {@link #MAX_DEGREE}) the hits support: at least two more
+   * hits than coefficients, and enough different ranges for the normal equations to be solvable.
+   * @return the degree fitted, 0 if there aren't enough hits yet
+   */
+  public int fit() {
+    degree = 0;
+    rmse = Double.NaN;
+    for (int d = Math.min(MAX_DEGREE, hits - 3); d >= 1; d--) {
+      if (solve(d)) {
+        degree = d;
+        break;
+      }
+    }
+    if (degree > 0) {
+      // Residual sum of squares from the normal equations: y'y - 2c'X'y + c'X'Xc
+      double residual = yy;
+      for (int row = 0; row <= degree; row++) {
+        residual -= 2 * coefficients[row] * xySums[row];
+        for (int column = 0; column <= degree; column++) {
+          residual += coefficients[row] * xSums[row + column] * coefficients[column];
+        }
+      }
+      rmse = Math.sqrt(Math.max(0, residual) / hits);
+    }
+    return degree;
+  }
+
+  /**
+   * Solves the normal equations of a degree {@code d} polynomial with Gaussian elimination and partial
+   * pivoting, into {@link #coefficients}.
+   */
+  private boolean solve(int d) {
+    int n = d + 1;
+    double[][] m = new double[n][n + 1];
+    for (int row = 0; row < n; row++) {
+      for (int column = 0; column < n; column++) {
+        m[row][column] = xSums[row + column];
+      }
+      m[row][n] = xySums[row];
+    }
+    for (int pivot = 0; pivot < n; pivot++) {
+      int best = pivot;
+      for (int row = pivot + 1; row < n; row++) {
+        if (Math.abs(m[row][pivot]) > Math.abs(m[best][pivot])) {
+          best = row;
+        }
+      }
+      if (Math.abs(m[best][pivot]) < 1e-9 * hits) {
+        return false; // Too few different ranges for this degree
+      }
+      double[] swap = m[pivot];
+      m[pivot] = m[best];
+      m[best] = swap;
+      for (int row = 0; row < n; row++) {
+        if (row != pivot) {
+          double factor = m[row][pivot] / m[pivot][pivot];
+          for (int column = pivot; column <= n; column++) {
+            m[row][column] -= factor * m[pivot][column];
+          }
+        }
+      }
+    }
+    for (int i = 0; i <= MAX_DEGREE; i++) {
+      coefficients[i] = i < n ? m[i][n] / m[i][i] : 0;
+    }
+    return true;
+  }
+
+  /**
+   * @return the degree of the last {@link #fit()}, 0 if there is no fit
+   */
+  public int getDegree() {
+    return degree;
+  }
+
+  /**
+   * @param power the power of the normalized range, 0 to {@link #MAX_DEGREE}
+   * @return the coefficient of the last {@link #fit()}
+   */
+  public double getCoefficient(int power) {
+    return coefficients[power];
+  }
+
+  /**
+   * @return the root mean square difference between the fitted and the shot RPM of the hits, NaN without
+   * a fit
+   */
+  public double getRMSE() {
+    return rmse;
+  }
+
+  /**
+   * @param range the range to the GOAL in inches
+   * @return the RPM of the last {@link #fit()} at that range
+   */
+  public double calculateRPM(double range) {
+    return evaluate(range, coefficients[0], coefficients[1], coefficients[2], coefficients[3]);
+  }
+
+  /**
+   * Evaluates a fitted curve.
+   * @param range the range to the GOAL in inches
+   * @param c0 the coefficients of the normalized range, lowest power first
+   * @return the RPM at that range
+   */
+  public static double evaluate(double range, double c0, double c1, double c2, double c3) {
+    double x = (range - CENTER) / SCALE;
+    return c0 + x * (c1 + x * (c2 + x * c3));
+  }
+
+  /**
+   * Refits a recorded calibration CSV ({@code range,rpm,hit}) and prints the curve in the format of the
+   * tuning file.
+   * @param args the CSV file
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      System.err.println("Usage: ShooterCurveFitter <shooter_calibration.csv>");
+      System.exit(1);
+    }
+    ShooterCurveFitter fitter = new ShooterCurveFitter();
+    try (BufferedReader reader = new BufferedReader(new FileReader(args[0]))) {
+      String line = reader.readLine(); // header
+      while ((line = reader.readLine()) != null) {
+        String[] fields = line.split(",");
+        if (fields.length < 3) {
+          continue;
+        }
+        fitter.addShot(Double.parseDouble(fields[0]), Double.parseDouble(fields[1]),
+            Boolean.parseBoolean(fields[2].trim()));
+      }
+    }
+    int degree = fitter.fit();
+    System.out.printf("# %d hits, %d misses, degree %d, rmse %.1f RPM%n", fitter.getHits(), fitter.getMisses(),
+        degree, fitter.getRMSE());
+    if (degree > 0) {
+      System.out.printf("shooter.curve.minRange=%s%n", fitter.getMinRange());
+      System.out.printf("shooter.curve.maxRange=%s%n", fitter.getMaxRange());
+      for (int i = 0; i <= MAX_DEGREE; i++) {
+        System.out.printf("shooter.curve.c%d=%s%n", i, fitter.getCoefficient(i));
+      }
+    }
+  }
+}
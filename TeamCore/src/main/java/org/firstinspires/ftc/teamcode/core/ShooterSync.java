@@ -0,0 +1,119 @@
+package org.firstinspires.ftc.teamcode.core;
+
+/**
+ * Keeps the two shooter wheels at the same speed, so the ball leaves with even spin.
+ *
+ * <p>Each motor's velocity controller on the hub only sees its own wheel, so a weaker motor spins up
+ * and recovers from a shot later than the other one, and the ball leaves while one wheel is still slow.
+ * Cross-coupling feeds the left/right difference back into both targets:</p>
+ * <pre>
+ *   difference = left - right
+ *   leftTarget = target - gain * difference
+ *   rightTarget = target + gain * difference
+ * </pre>
+ * <p>so the faster wheel waits for the slower one while the slower one is pushed harder. Once both
+ * controllers have settled the difference (and so the correction) goes back to zero. The correction is
+ * limited to {@link #MAX_CORRECTION} of the target so a dead encoder can't run the other wheel away.</p>
+ */
+public class ShooterSync {
+  /** Largest correction either way, as a fraction of the target */
+  public static final double MAX_CORRECTION = 0.2;
+
+  private double correction = 0;
+  private double difference = 0;
+  private double differenceSum = 0;
+  private double maxDifference = 0;
+  private int samples = 0;
+
+  /**
+   * Computes the correction from the latest speeds. Call it once per loop.
+   * @param targetRPM the target speed, 0 when the shooter is off
+   * @param leftRPM the left wheel's speed
+   * @param rightRPM the right wheel's speed
+   * @param gain how much of the difference is fed back to each side, 0 for no coupling
+   */
+  public void update(double targetRPM, double leftRPM, double rightRPM, double gain) {
+    difference = leftRPM - rightRPM;
+    if (targetRPM <= 0) {
+      correction = 0;
+      return;
+    }
+    double limit = MAX_CORRECTION * targetRPM;
+    correction = Math.max(-limit, Math.min(limit, gain * difference));
+    differenceSum += Math.abs(difference);
+    maxDifference = Math.max(maxDifference, Math.abs(difference));
+    samples++;
+  }
+
+  /**
+   * @param targetRPM the target speed
+   * @return the left wheel's target with the correction
+   */
+  public double getLeftTarget(double targetRPM) {
+    return targetRPM > 0 ? targetRPM - correction : targetRPM;
+  }
+
+  /**
+   * @param targetRPM the target speed
+   * @return the right wheel's target with the correction
+   */
+  public double getRightTarget(double targetRPM) {
+    return targetRPM > 0 ? targetRPM + correction : targetRPM;
+  }
+
+  /**
+   * @return how much the left target is lowered and the right raised, in RPM
+   */
+  public double getCorrection() {
+    return correction;
+  }
+
+  /**
+   * @return the left minus the right speed at the last update, in RPM
+   */
+  public double getDifference() {
+    return difference;
+  }
+
+  /**
+   * @return the mean size of the difference while the shooter was on, in RPM
+   */
+  public double getMeanDifference() {
+    return samples > 0 ? differenceSum / samples : 0;
+  }
+
+  /**
+   * @return the largest difference while the shooter was on, in RPM
+   */
+  public double getMaxDifference() {
+    return maxDifference;
+  }
+
+  public void clearStats() {
+    differenceSum = 0;
+    maxDifference = 0;
+    samples = 0;
+  }
+
+  /**
+   * Ready to shoot: the mean speed is on target and the wheels match.
+   * @param targetRPM the target speed
+   * @param leftRPM the left wheel's speed
+   * @param rightRPM the right wheel's speed
+   * @param tolerance how far the mean may be from the target, as a fraction of it
+   * @param differenceTolerance how far apart the wheels may be, as a fraction of the target
+   * @return true if both are within tolerance
+   */
+  public static boolean isReady(double targetRPM, double leftRPM, double rightRPM, double tolerance,
+      double differenceTolerance) {
+    double mean = (leftRPM + rightRPM) / 2;
+    return Math.abs(mean - targetRPM) <= tolerance * targetRPM
+        && Math.abs(leftRPM - rightRPM) <= differenceTolerance * targetRPM;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("L/R %+.0f RPM (mean %.0f, max %.0f), correction %+.0f", difference,
+        getMeanDifference(), maxDifference, correction);
+  }
+}
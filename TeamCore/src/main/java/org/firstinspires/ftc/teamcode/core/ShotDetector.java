@@ -0,0 +1,129 @@
+package org.firstinspires.ftc.teamcode.core;
+
+/**
+ * Finds shots in the shooter's speed: a ball going through knocks the flywheel down well below the
+ * speed it was holding, then the velocity controller brings it back. Each shot found is added to a
+ * {@link ShotLog} with its pre-shot speed, lowest speed and recovery time.
+ *
+ * <p>The detector only arms once the flywheel is within its tolerance of the target, so
+ * spinning up doesn't count. A drop of more than {@link #DROP_FRACTION} below the pre-shot speed
+ * starts a shot, which ends when the speed is back within tolerance of the target, or after
+ * {@link #RECOVERY_TIMEOUT} as an unrecovered shot. A target that moves by more than the tolerance
+ * (a new range, or the shooter turned off) disarms it until the flywheel has caught up again, so that
+ * isn't taken for a shot either.</p>
+ */
+public class ShotDetector {
+  /** How far below the pre-shot speed counts as a shot, as a fraction. Clear of encoder noise, a ball takes ~15% */
+  public static final double DROP_FRACTION = 0.06;
+  /** A shot that hasn't recovered after this long is logged as unrecovered, in seconds */
+  public static final double RECOVERY_TIMEOUT = 1.5;
+  /** How much of each new reading goes into the pre-shot speed, smooths out encoder noise */
+  private static final double PRE_SHOT_SMOOTHING = 0.3;
+
+  private enum State {
+    /** Shooter off or target changed, waiting to reach the target */
+    SETTLING,
+    /** At speed, waiting for a drop */
+    ARMED,
+    /** Speed dropped, waiting for it to come back */
+    SHOT
+  }
+
+  private final ShotLog log;
+  private final double tolerance;
+
+  private State state = State.SETTLING;
+  private double armedTarget = 0;
+  private double preShotRPM = 0;
+  private double shotTime = 0;
+  private double shotPreShotRPM = 0;
+  private double minRPM = 0;
+  private double shotTarget = 0;
+  private double shotRange = Double.NaN;
+  private double shotBearing = Double.NaN;
+  private double shotVoltage = Double.NaN;
+
+  /**
+   * @param log where to add the shots
+   * @param tolerance how close to the target counts as at speed, as a fraction of it, e.g.
+   * {@code Motor.TOLERANCE}
+   */
+  public ShotDetector(ShotLog log, double tolerance) {
+    this.log = log;
+    this.tolerance = tolerance;
+  }
+
+  /**
+   * Feeds one speed reading. Call it once per loop.
+   * @param rpm the measured speed
+   * @param targetRPM the speed the shooter is set to, 0 when it is off
+   * @param range the range to the GOAL in inches when this reading was taken (NaN if unknown)
+   * @param bearing the bearing to the GOAL in degrees (NaN if unknown)
+   * @param voltage the battery voltage (NaN if unknown)
+   * @param time the current time in seconds
+   */
+  public void update(double rpm, double targetRPM, double range, double bearing, double voltage, double time) {
+    if (state == State.SHOT) {
+      minRPM = Math.min(minRPM, rpm);
+      if (targetRPM <= 0 || time - shotTime > RECOVERY_TIMEOUT) {
+        // Turned off or stuck low: still a shot, it just never recovered
+        record(Double.NaN);
+      } else if (rpm >= shotTarget * (1 - tolerance)) {
+        record(time - shotTime);
+      }
+      return;
+    }
+
+    if (targetRPM <= 0 || Math.abs(targetRPM - armedTarget) > tolerance * targetRPM) {
+      state = State.SETTLING;
+      armedTarget = targetRPM;
+    }
+    if (targetRPM <= 0) {
+      return;
+    }
+    switch (state) {
+      case SETTLING:
+        if (Math.abs(rpm - targetRPM) <= tolerance * targetRPM) {
+          state = State.ARMED;
+          preShotRPM = rpm;
+        }
+        break;
+      case ARMED:
+        if (rpm < preShotRPM * (1 - DROP_FRACTION)) {
+          state = State.SHOT;
+          shotTime = time;
+          shotPreShotRPM = preShotRPM;
+          minRPM = rpm;
+          shotTarget = targetRPM;
+          shotRange = range;
+          shotBearing = bearing;
+          shotVoltage = voltage;
+        } else {
+          preShotRPM += (rpm - preShotRPM) * PRE_SHOT_SMOOTHING;
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  private void record(double recoveryTime) {
+    log.add(shotTime, shotPreShotRPM, minRPM, recoveryTime, shotTarget, shotRange, shotBearing, shotVoltage);
+    state = State.SETTLING;
+  }
+
+  /**
+   * @return true while a shot is being measured (the speed dropped and hasn't recovered yet)
+   */
+  public boolean isShooting() {
+    return state == State.SHOT;
+  }
+
+  /**
+   * Forgets any shot in progress, e.g. when the OpMode restarts.
+   */
+  public void reset() {
+    state = State.SETTLING;
+    armedTarget = 0;
+  }
+}
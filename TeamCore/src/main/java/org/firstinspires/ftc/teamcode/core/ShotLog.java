@@ -0,0 +1,227 @@
+package org.firstinspires.ftc.teamcode.core;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * The last {@link #CAPACITY} shots the {@link ShotDetector} found, with summary statistics, so how
+ * each shot went in a match can be looked at afterwards.
+ *
+ * <p>Shots are kept in a ring buffer of primitive arrays, adding one allocates nothing and the oldest
+ * shot is overwritten once it is full. {@link #export(File, String)} appends the shots to a CSV file at the
+ * end of the OpMode, one row per shot.</p>
+ */
+public class ShotLog {
+  public static final int CAPACITY = 64;
+
+  private final double[] times = new double[CAPACITY];
+  private final double[] preShotRPMs = new double[CAPACITY];
+  private final double[] minRPMs = new double[CAPACITY];
+  private final double[] recoveryTimes = new double[CAPACITY];
+  private final double[] targetRPMs = new double[CAPACITY];
+  private final double[] ranges = new double[CAPACITY];
+  private final double[] bearings = new double[CAPACITY];
+  private final double[] voltages = new double[CAPACITY];
+  /** Where the next shot goes */
+  private int next = 0;
+  private int size = 0;
+  /** Shots since the last clear, including overwritten ones */
+  private int total = 0;
+
+  /**
+   * Records a shot, overwriting the oldest once the log is full.
+   * @param time when the speed started to drop, in seconds
+   * @param preShotRPM the speed just before the shot
+   * @param minRPM the lowest speed during the shot
+   * @param recoveryTime time from the drop until back at the target speed, in seconds (NaN if it never was)
+   * @param targetRPM the target speed, e.g. from {@code Shooter.calculateRPM()}
+   * @param range the range to the GOAL in inches (NaN if unknown)
+   * @param bearing the bearing to the GOAL in degrees (NaN if unknown)
+   * @param voltage the battery voltage (NaN if unknown)
+   */
+  public void add(double time, double preShotRPM, double minRPM, double recoveryTime, double targetRPM,
+      double range, double bearing, double voltage) {
+    times[next] = time;
+    preShotRPMs[next] = preShotRPM;
+    minRPMs[next] = minRPM;
+    recoveryTimes[next] = recoveryTime;
+    targetRPMs[next] = targetRPM;
+    ranges[next] = range;
+    bearings[next] = bearing;
+    voltages[next] = voltage;
+    next = (next + 1) % CAPACITY;
+    size = Math.min(size + 1, CAPACITY);
+    total++;
+  }
+
+  public void clear() {
+    next = 0;
+    size = 0;
+    total = 0;
+  }
+
+  /**
+   * @return the number of shots kept, at most {@link #CAPACITY}
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the number of shots since the last {@link #clear()}, including ones no longer kept
+   */
+  public int getTotal() {
+    return total;
+  }
+
+  /** Ring buffer slot of the shot at {@code index}, 0 is the oldest kept */
+  private int slot(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Shot " + index + " of " + size);
+    }
+    return (next - size + index + CAPACITY) % CAPACITY;
+  }
+
+  public double getTime(int index) {
+    return times[slot(index)];
+  }
+
+  public double getPreShotRPM(int index) {
+    return preShotRPMs[slot(index)];
+  }
+
+  public double getMinRPM(int index) {
+    return minRPMs[slot(index)];
+  }
+
+  public double getRecoveryTime(int index) {
+    return recoveryTimes[slot(index)];
+  }
+
+  public double getTargetRPM(int index) {
+    return targetRPMs[slot(index)];
+  }
+
+  public double getRange(int index) {
+    return ranges[slot(index)];
+  }
+
+  public double getBearing(int index) {
+    return bearings[slot(index)];
+  }
+
+  public double getVoltage(int index) {
+    return voltages[slot(index)];
+  }
+
+  /**
+   * @param index the shot, 0 is the oldest kept
+   * @return how far the speed dropped, in RPM
+   */
+  public double getDip(int index) {
+    int slot = slot(index);
+    return preShotRPMs[slot] - minRPMs[slot];
+  }
+
+  /**
+   * @return the average dip of the kept shots, in RPM (0 if there are none)
+   */
+  public double getMeanDip() {
+    double sum = 0;
+    for (int i = 0; i < size; i++) {
+      sum += preShotRPMs[i] - minRPMs[i];
+    }
+    return size == 0 ? 0 : sum / size;
+  }
+
+  /**
+   * @return the largest dip of the kept shots, in RPM
+   */
+  public double getMaxDip() {
+    double max = 0;
+    for (int i = 0; i < size; i++) {
+      max = Math.max(max, preShotRPMs[i] - minRPMs[i]);
+    }
+    return max;
+  }
+
+  /**
+   * @return the average recovery time of the kept shots that recovered, in seconds (NaN if none did)
+   */
+  public double getMeanRecoveryTime() {
+    double sum = 0;
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      if (!Double.isNaN(recoveryTimes[i])) {
+        sum += recoveryTimes[i];
+        count++;
+      }
+    }
+    return count == 0 ? Double.NaN : sum / count;
+  }
+
+  /**
+   * @return the longest recovery time of the kept shots that recovered, in seconds (NaN if none did)
+   */
+  public double getMaxRecoveryTime() {
+    double max = Double.NaN;
+    for (int i = 0; i < size; i++) {
+      if (!Double.isNaN(recoveryTimes[i]) && !(recoveryTimes[i] <= max)) {
+        max = recoveryTimes[i];
+      }
+    }
+    return max;
+  }
+
+  /**
+   * @return the number of kept shots that never got back to the target speed
+   */
+  public int getUnrecovered() {
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      if (Double.isNaN(recoveryTimes[i])) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Appends the kept shots to a CSV file, writing the header first if the file is new. Takes a few
+   * milliseconds, so call it from stop() rather than the loop.
+   * @param file the file to append to
+   * @param label what to put in the first column with the date, e.g. the OpMode name, so several runs can be
+   * told apart
+   * @return true if there were shots to write
+   * @throws IOException if the file can't be written
+   */
+  public boolean export(File file, String label) throws IOException {
+    if (size == 0) {
+      return false;
+    }
+    boolean header = !file.exists();
+    String run = label + " " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US).format(new Date());
+    try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, true))) {
+      if (header) {
+        writer.write("run,time,preShotRPM,minRPM,dip,recoveryTime,targetRPM,range,bearing,voltage\n");
+      }
+      for (int i = 0; i < size; i++) {
+        writer.write(String.format(Locale.US, "%s,%.3f,%.1f,%.1f,%.1f,%.3f,%.1f,%.1f,%.1f,%.2f\n", run,
+            getTime(i), getPreShotRPM(i), getMinRPM(i), getDip(i), getRecoveryTime(i), getTargetRPM(i),
+            getRange(i), getBearing(i), getVoltage(i)));
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d shots, dip %.0f (max %.0f) RPM, recovery %.2f (max %.2f) s, %d unrecovered", total,
+        getMeanDip(), getMaxDip(), getMeanRecoveryTime(), getMaxRecoveryTime(), getUnrecovered());
+  }
+}
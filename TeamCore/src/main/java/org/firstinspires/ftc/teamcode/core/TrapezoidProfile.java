@@ -0,0 +1,91 @@
+package org.firstinspires.ftc.teamcode.core;
+
+/**
+ * A trapezoidal motion profile, generated a step at a time so it can be followed from an OpMode loop
+ * without blocking.
+ *
+ * <p>Each {@link #update(double)} accelerates the reference towards the goal at up to the maximum
+ * acceleration, cruises at the maximum velocity, and starts braking as late as it can while still
+ * stopping on the goal: the velocity is never more than {@code sqrt(2 * maxAcceleration * distance)}.
+ * Because it works from the current reference rather than a precomputed plan, the goal can be changed
+ * while moving and the reference turns around smoothly.</p>
+ */
+public class TrapezoidProfile {
+  private double maxVelocity;
+  private double maxAcceleration;
+  private double goal = 0;
+  private double position = 0;
+  private double velocity = 0;
+
+  /**
+   * @param maxVelocity the cruise velocity, in units/second
+   * @param maxAcceleration the acceleration and braking, in units/second^2
+   */
+  public TrapezoidProfile(double maxVelocity, double maxAcceleration) {
+    setLimits(maxVelocity, maxAcceleration);
+  }
+
+  public void setLimits(double maxVelocity, double maxAcceleration) {
+    this.maxVelocity = maxVelocity;
+    this.maxAcceleration = maxAcceleration;
+  }
+
+  /**
+   * Puts the reference at rest at a position, with the goal there too.
+   * @param position where the mechanism is now
+   */
+  public void reset(double position) {
+    this.position = position;
+    this.goal = position;
+    this.velocity = 0;
+  }
+
+  /**
+   * @param goal where the reference should come to rest, the profile continues from where it is now
+   */
+  public void setGoal(double goal) {
+    this.goal = goal;
+  }
+
+  /**
+   * Advances the reference.
+   * @param dt time since the last update, in seconds
+   */
+  public void update(double dt) {
+    if (dt <= 0) {
+      return;
+    }
+    double remaining = goal - position;
+    if (Math.abs(remaining) <= Math.abs(velocity) * dt && Math.abs(velocity) <= maxAcceleration * dt) {
+      // Close enough to stop on the goal this step
+      position = goal;
+      velocity = 0;
+      return;
+    }
+    double desired = Math.signum(remaining)
+        * Math.min(maxVelocity, Math.sqrt(2 * maxAcceleration * Math.abs(remaining)));
+    double change = Math.max(-maxAcceleration * dt, Math.min(maxAcceleration * dt, desired - velocity));
+    double newVelocity = velocity + change;
+    position += (velocity + newVelocity) / 2 * dt;
+    velocity = newVelocity;
+  }
+
+  public double getPosition() {
+    return position;
+  }
+
+  public double getVelocity() {
+    return velocity;
+  }
+
+  public double getGoal() {
+    return goal;
+  }
+
+  /**
+   * @return true once the reference is at rest on the goal
+   */
+  public boolean isFinished() {
+    return position == goal && velocity == 0;
+  }
+}
@@ -0,0 +1,49 @@
+package org.firstinspires.ftc.teamcode.core;
+
+/**
+ * The keys and defaults of the tuning constants the simulations run with as well as the robot, so the
+ * two can't drift apart. {@code Tuning} defines its values from these and documents them, the
+ * simulations read the same keys from a tuning file pulled off the robot.
+ */
+public final class TuningDefaults {
+  /** A key of the tuning file and the value it has when the file doesn't set it */
+  public static final class Entry {
+    public final String key;
+    public final double value;
+
+    private Entry(String key, double value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  public static final Entry SHOOTER_SYNC_GAIN = new Entry("shooter.syncGain", 0.75);
+  public static final Entry SHOOTER_SYNC_TOLERANCE = new Entry("shooter.syncTolerance", 0.02);
+  public static final Entry SHOOTER_SAMPLE_INTERVAL = new Entry("shooter.sampleInterval", 40);
+
+  public static final Entry LIFT_P = new Entry("lift.p", 0.01);
+  public static final Entry LIFT_V = new Entry("lift.v", 1.0 / 2500);
+  public static final Entry LIFT_G = new Entry("lift.g", 0.1);
+  public static final Entry LIFT_SYNC = new Entry("lift.sync", 0.015);
+  public static final Entry LIFT_MAX_VELOCITY = new Entry("lift.maxVelocity", 1500);
+  public static final Entry LIFT_MAX_ACCELERATION = new Entry("lift.maxAcceleration", 6000);
+
+  public static final Entry INDEXER_MOVE_TIME = new Entry("indexer.moveTime", 1000);
+  public static final Entry INDEXER_DROP_TIME = new Entry("indexer.dropTime", 1500);
+  public static final Entry INDEXER_SHOOT_TIME = new Entry("indexer.shootTime", 2500);
+
+  public static final Entry HEADING_P = new Entry("heading.p", 1.5);
+  public static final Entry HEADING_I = new Entry("heading.i", 0.3);
+  public static final Entry HEADING_D = new Entry("heading.d", 0.15);
+  public static final Entry HEADING_MAX_POWER = new Entry("heading.maxPower", 0.5);
+
+  public static final Entry POSE_ODOMETRY_DRIFT = new Entry("pose.odometryDrift", 3);
+  public static final Entry POSE_HEADING_DRIFT = new Entry("pose.headingDrift", 2);
+  public static final Entry POSE_VISION_NOISE = new Entry("pose.visionNoise", 2);
+  public static final Entry POSE_VISION_HEADING_NOISE = new Entry("pose.visionHeadingNoise", 3);
+  public static final Entry POSE_MIN_DECISION_MARGIN = new Entry("pose.minDecisionMargin", 20);
+  public static final Entry POSE_GATE = new Entry("pose.gate", 3.4);
+
+  private TuningDefaults() {
+  }
+}
@@ -0,0 +1,78 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import org.firstinspires.ftc.teamcode.core.MecanumKinematics;
+
+/**
+ * Compares how well each {@link MecanumKinematics.Mode} follows a drive command, using ideal (no slip)
+ * mecanum forward kinematics.
+ *
+ * <p>A full-stick translation is swept through every direction while turning at a fixed rate, as a
+ * driver does when strafing around the GOAL while aiming. For each command the wheel speeds are turned
+ * back into chassis motion and compared with what was asked for: path speed (achieved translation
+ * speed over commanded), direction error, and how much of the commanded turn rate was kept.</p>
+ */
+public class DriveKinematicsSimulation {
+  /** Direction step of the sweep, in degrees */
+  private static final int STEP = 5;
+  /** The turn commands worth comparing the modes at */
+  public static final double[] TURNS = { 0.25, 0.5, 0.75 };
+
+  /** Average achieved / commanded translation speed */
+  public final double meanSpeedRatio;
+  /** Worst achieved / commanded translation speed */
+  public final double minSpeedRatio;
+  /** Worst angle between achieved and commanded travel direction, in degrees */
+  public final double maxDirectionError;
+  /** Average achieved / commanded turn rate */
+  public final double meanRotationRatio;
+
+  private DriveKinematicsSimulation(double meanSpeedRatio, double minSpeedRatio, double maxDirectionError,
+      double meanRotationRatio) {
+    this.meanSpeedRatio = meanSpeedRatio;
+    this.minSpeedRatio = minSpeedRatio;
+    this.maxDirectionError = maxDirectionError;
+    this.meanRotationRatio = meanRotationRatio;
+  }
+
+  /**
+   * Sweeps a full-stick translation through 360 degrees while turning.
+   * @param mode the desaturation mode to test
+   * @param rotate the turn command held during the sweep (not 0)
+   * @return the tracking statistics
+   */
+  public static DriveKinematicsSimulation measure(MecanumKinematics.Mode mode, double rotate) {
+    if (rotate == 0) {
+      throw new IllegalArgumentException("The turn kept is measured against the turn command, it can't be 0");
+    }
+    MecanumKinematics kinematics = new MecanumKinematics();
+    kinematics.setMode(mode);
+    double[] chassis = new double[3];
+    double speedSum = 0;
+    double minSpeed = Double.MAX_VALUE;
+    double maxError = 0;
+    double rotationSum = 0;
+    int samples = 0;
+    for (int degrees = 0; degrees < 360; degrees += STEP) {
+      double x = Math.cos(Math.toRadians(degrees));
+      double y = Math.sin(Math.toRadians(degrees));
+      MecanumKinematics.toChassis(kinematics.calculate(x, y, rotate), chassis);
+      double speed = Math.hypot(chassis[0], chassis[1]);
+      double error = 0;
+      if (speed > 1e-9) {
+        error = Math.abs(Math.toDegrees(Math.atan2(x * chassis[1] - y * chassis[0], x * chassis[0] + y * chassis[1])));
+      }
+      speedSum += speed;
+      minSpeed = Math.min(minSpeed, speed);
+      maxError = Math.max(maxError, error);
+      rotationSum += chassis[2] / rotate;
+      samples++;
+    }
+    return new DriveKinematicsSimulation(speedSum / samples, minSpeed, maxError, rotationSum / samples);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("speed %.0f%% (min %.0f%%), direction error %.1f deg, turn %.0f%%", meanSpeedRatio * 100,
+        minSpeedRatio * 100, maxDirectionError, meanRotationRatio * 100);
+  }
+}
@@ -0,0 +1,84 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import java.util.Arrays;
+import org.firstinspires.ftc.teamcode.core.EncoderBank;
+
+/**
+ * An {@link EncoderBank} that counts simulated wheels the way the OctoQuad does, for trying out code that
+ * reads it without the board.
+ *
+ * <p>Each channel accumulates the ticks its wheel turns through, and at the end of every sample
+ * interval latches the whole counts in that interval as its velocity, so the reading has the same
+ * steps and age as the real one. {@link #advance(double, double...)} moves the wheels on; the code
+ * under test only sees {@link #readAll(int[], int[])}, which counts its transactions.</p>
+ */
+public class FakeOctoQuad implements EncoderBank {
+  /** The OctoQuad's channel count */
+  public static final int CHANNELS = 8;
+  /** The OctoQuad's default velocity sample interval, in milliseconds */
+  public static final int DEFAULT_INTERVAL = 50;
+
+  private final double[] position = new double[CHANNELS];
+  private final int[] interval = new int[CHANNELS];
+  private final double[] sampleTime = new double[CHANNELS];
+  private final int[] sampleStart = new int[CHANNELS];
+  private final int[] velocity = new int[CHANNELS];
+  private int transactions = 0;
+
+  public FakeOctoQuad() {
+    Arrays.fill(interval, DEFAULT_INTERVAL);
+  }
+
+  @Override
+  public int getChannelCount() {
+    return CHANNELS;
+  }
+
+  @Override
+  public void setVelocitySampleInterval(int channel, int milliseconds) {
+    interval[channel] = milliseconds;
+    sampleTime[channel] = 0;
+    sampleStart[channel] = count(channel);
+    transactions++;
+  }
+
+  @Override
+  public void readAll(int[] positions, int[] velocities) {
+    for (int channel = 0; channel < CHANNELS; channel++) {
+      positions[channel] = count(channel);
+      velocities[channel] = velocity[channel];
+    }
+    transactions++;
+  }
+
+  /**
+   * Moves the wheels on.
+   * @param dt time step in seconds, well under the sample interval
+   * @param ticksPerSecond the speed of the wheel on channel 0, 1...
+   */
+  public void advance(double dt, double... ticksPerSecond) {
+    for (int channel = 0; channel < CHANNELS; channel++) {
+      if (channel < ticksPerSecond.length) {
+        position[channel] += ticksPerSecond[channel] * dt;
+      }
+      sampleTime[channel] += dt;
+      if (sampleTime[channel] >= interval[channel] / 1000.0 - 1e-9) {
+        int now = count(channel);
+        velocity[channel] = now - sampleStart[channel];
+        sampleStart[channel] = now;
+        sampleTime[channel] = 0;
+      }
+    }
+  }
+
+  private int count(int channel) {
+    return (int) Math.floor(position[channel]);
+  }
+
+  /**
+   * @return how many transactions the code under test made
+   */
+  public int getTransactions() {
+    return transactions;
+  }
+}
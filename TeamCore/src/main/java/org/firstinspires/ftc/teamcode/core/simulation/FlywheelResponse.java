@@ -0,0 +1,107 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import org.firstinspires.ftc.teamcode.core.Feedforward;
+import org.firstinspires.ftc.teamcode.core.FlywheelModel;
+import org.firstinspires.ftc.teamcode.core.PIDFGains;
+
+/**
+ * Measures how a set of velocity PIDF coefficients performs on a flywheel, by simulating the hub's
+ * velocity controller (32767 scale, I per second) against a {@link SimulatedFlywheel}.
+ *
+ * <p>The test spins up from rest, holds, then takes a {@link #SHOT_LOSS} hit like a ball going through.
+ * It reports the same numbers ShooterPIDFTuningTest shows on the robot: spin-up time, overshoot and
+ * recovery time, where "at speed" is within {@link #TOLERANCE} of the target.</p>
+ */
+public class FlywheelResponse {
+  /** Fraction of speed a shot takes away */
+  public static final double SHOT_LOSS = 0.15;
+  /** How close to the target counts as at speed, as a fraction of it, the same as {@code Motor.TOLERANCE} */
+  public static final double TOLERANCE = 0.03;
+  /** Simulation step, the hub's controller runs much faster than the OpMode loop */
+  private static final double DT = 0.001;
+  /** When the shot happens, long enough for any reasonable tuning to have settled */
+  private static final double SHOT_TIME = 1.5;
+  private static final double END_TIME = 3;
+
+  /** Time from rest to first reaching the target band, in seconds (NaN if never) */
+  public final double riseTime;
+  /** Highest speed above the target, as a fraction of the target */
+  public final double overshoot;
+  /** Time from the shot until back in the target band, in seconds (NaN if never) */
+  public final double recoveryTime;
+
+  private FlywheelResponse(double riseTime, double overshoot, double recoveryTime) {
+    this.riseTime = riseTime;
+    this.overshoot = overshoot;
+    this.recoveryTime = recoveryTime;
+  }
+
+  /**
+   * Runs the spin-up and shot test.
+   * @param model the flywheel
+   * @param pidf the coefficients to test
+   * @param target the target velocity in ticks/second
+   * @return the measured response
+   */
+  public static FlywheelResponse measure(FlywheelModel model, PIDFGains pidf, double target) {
+    return measure(model, pidf, target, Feedforward.NOMINAL_VOLTAGE);
+  }
+
+  /**
+   * Runs the spin-up and shot test from a battery that isn't at the voltage the model was measured at.
+   * @param model the flywheel
+   * @param pidf the coefficients to test
+   * @param target the target velocity in ticks/second
+   * @param supplyVoltage the battery voltage
+   * @return the measured response
+   */
+  public static FlywheelResponse measure(FlywheelModel model, PIDFGains pidf, double target,
+      double supplyVoltage) {
+    SimulatedFlywheel flywheel = new SimulatedFlywheel(model, DT);
+    flywheel.setSupplyVoltage(supplyVoltage);
+    double band = TOLERANCE * target;
+    double integral = 0;
+    double lastError = target;
+    double riseTime = Double.NaN;
+    double peak = 0;
+    double recoveryTime = Double.NaN;
+    boolean shot = false;
+    while (flywheel.getTime() < END_TIME) {
+      double velocity = flywheel.getTrueVelocity();
+      double time = flywheel.getTime();
+      if (!shot && time >= SHOT_TIME) {
+        flywheel.shoot(SHOT_LOSS);
+        shot = true;
+        continue;
+      }
+      if (Math.abs(velocity - target) <= band) {
+        if (Double.isNaN(riseTime)) {
+          riseTime = time;
+        }
+        if (shot && Double.isNaN(recoveryTime)) {
+          recoveryTime = time - SHOT_TIME;
+        }
+      }
+      if (!shot) {
+        peak = Math.max(peak, velocity);
+      }
+
+      double error = target - velocity;
+      double output = pidf.p * error + pidf.i * integral + pidf.d * (error - lastError) / DT + pidf.f * target;
+      double power = output / FlywheelModel.HUB_POWER_SCALE;
+      // Only integrate while the output isn't saturated (or integrating would pull it back in)
+      if (Math.abs(power) < 1 || Math.signum(error) != Math.signum(power)) {
+        integral += error * DT;
+      }
+      lastError = error;
+      flywheel.step(power);
+    }
+    return new FlywheelResponse(riseTime, Math.max(0, peak - target) / target, recoveryTime);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("rise %.3f s, overshoot %.1f%%, recovery %.3f s", riseTime, overshoot * 100,
+        recoveryTime);
+  }
+}
@@ -0,0 +1,95 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import org.firstinspires.ftc.teamcode.core.HeadingController;
+
+/**
+ * Measures how a {@link HeadingController} tuning performs on a {@link SimulatedDrivetrain}, running
+ * the controller at OpMode loop rate on the sampled IMU readings, the way it runs on the robot.
+ *
+ * <p>Two tests: an aim turn (a {@link #AIM_STEP} target change from rest, as when the GOAL tag is
+ * first seen), which gives the settling time and overshoot, and a full-speed strafe while holding,
+ * which gives the worst heading error the drift causes. The drift without heading hold is reported
+ * for comparison.</p>
+ */
+public class HeadingResponse {
+  /** Target change for the aim test, in radians */
+  public static final double AIM_STEP = Math.toRadians(30);
+  /** The OpMode loop period the controller runs at, in seconds */
+  public static final double LOOP_TIME = 0.02;
+  private static final double DT = 0.001;
+  private static final double AIM_TIME = 2;
+  private static final double STRAFE_TIME = 2;
+
+  /** Time from the target change until the heading stays within {@link HeadingController#TOLERANCE}, in seconds (NaN if never) */
+  public final double settlingTime;
+  /** Largest heading past the target, in degrees */
+  public final double overshoot;
+  /** Largest heading error while strafing with heading hold, in degrees */
+  public final double strafeError;
+  /** Heading change after strafing without heading hold, in degrees */
+  public final double strafeDrift;
+
+  private HeadingResponse(double settlingTime, double overshoot, double strafeError, double strafeDrift) {
+    this.settlingTime = settlingTime;
+    this.overshoot = overshoot;
+    this.strafeError = strafeError;
+    this.strafeDrift = strafeDrift;
+  }
+
+  /**
+   * Runs the aim and strafe tests.
+   * @param p proportional gain, see {@link HeadingController#setGains(double, double, double, double)}
+   * @param i integral gain
+   * @param d derivative gain
+   * @param maxPower the controller's output limit
+   * @return the measured response
+   */
+  public static HeadingResponse measure(double p, double i, double d, double maxPower) {
+    // Aim: holding at 0, the target jumps to AIM_STEP
+    HeadingController controller = new HeadingController();
+    controller.setGains(p, i, d, maxPower);
+    SimulatedDrivetrain drivetrain = new SimulatedDrivetrain(DT);
+    controller.setTarget(AIM_STEP);
+    double settlingTime = 0;
+    double peak = 0;
+    while (drivetrain.getTime() < AIM_TIME) {
+      double rotate = controller.calculate(drivetrain.getMeasuredHeading(), drivetrain.getMeasuredAngularVelocity(),
+          0, drivetrain.getTime());
+      for (double end = drivetrain.getTime() + LOOP_TIME - DT / 2; drivetrain.getTime() < end;) {
+        drivetrain.step(0, 0, rotate);
+        double heading = drivetrain.getHeading();
+        peak = Math.max(peak, heading);
+        if (Math.abs(AIM_STEP - heading) > HeadingController.TOLERANCE) {
+          settlingTime = drivetrain.getTime();
+        }
+      }
+    }
+    if (settlingTime >= AIM_TIME - LOOP_TIME) {
+      settlingTime = Double.NaN;
+    }
+
+    // Strafe: full speed right while holding
+    controller = new HeadingController();
+    controller.setGains(p, i, d, maxPower);
+    drivetrain = new SimulatedDrivetrain(DT);
+    double strafeError = 0;
+    while (drivetrain.getTime() < STRAFE_TIME) {
+      double rotate = controller.calculate(drivetrain.getMeasuredHeading(), drivetrain.getMeasuredAngularVelocity(),
+          0, drivetrain.getTime());
+      drivetrain.run(1, 0, rotate, LOOP_TIME);
+      strafeError = Math.max(strafeError, Math.abs(drivetrain.getHeading()));
+    }
+
+    drivetrain = new SimulatedDrivetrain(DT);
+    drivetrain.run(1, 0, 0, STRAFE_TIME);
+
+    return new HeadingResponse(settlingTime, Math.toDegrees(Math.max(0, peak - AIM_STEP)),
+        Math.toDegrees(strafeError), Math.toDegrees(Math.abs(drivetrain.getHeading())));
+  }
+
+  @Override
+  public String toString() {
+    return String.format("settle %.2f s, overshoot %.1f deg, strafe error %.1f deg (%.1f without hold)",
+        settlingTime, overshoot, strafeError, strafeDrift);
+  }
+}
@@ -0,0 +1,108 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import org.firstinspires.ftc.teamcode.core.Feedforward;
+import org.firstinspires.ftc.teamcode.core.IndexerSequencer;
+import org.firstinspires.ftc.teamcode.core.ShotDetector;
+import org.firstinspires.ftc.teamcode.core.ShotLog;
+
+/**
+ * Measures how long it takes to shoot a motif with the {@link IndexerSequencer}, one ball at a time
+ * versus pipelined, on a {@link SimulatedShooter}.
+ *
+ * <p>Balls drop into the intake the indexer's move and drop time after being staged.
+ * The intake then takes {@link #TRANSIT_TIME} of running to carry a ball to the flywheel, and balls stay
+ * at least {@link #SPACING} apart in it. A ball reaching the flywheel knocks off
+ * {@link FlywheelResponse#SHOT_LOSS} of its speed, and the {@link ShotDetector} reports it to the
+ * sequencer like on the robot.</p>
+ */
+public class IndexerPipeline {
+  public static final int BALLS = 3;
+  /** Time the intake needs to run to carry a dropped ball into the flywheel, in seconds */
+  public static final double TRANSIT_TIME = 1.0;
+  /** Closest two balls can follow each other into the flywheel, in seconds */
+  public static final double SPACING = 0.3;
+  private static final double TARGET_RPM = 3000;
+  private static final double LOOP_TIME = 0.02;
+  private static final double NOISE = 15;
+  private static final double TIMEOUT = 30;
+
+  /** Time from the start (shooter off) until the last ball was shot, in seconds (NaN if it wasn't) */
+  public final double completionTime;
+  /** When each ball reached the flywheel, in seconds */
+  public final double[] shotTimes;
+
+  private IndexerPipeline(double completionTime, double[] shotTimes) {
+    this.completionTime = completionTime;
+    this.shotTimes = shotTimes;
+  }
+
+  /**
+   * Shoots a motif from a standing start.
+   * @param pipelined see {@link IndexerSequencer#IndexerSequencer(boolean, IndexerSequencer.Timing)}
+   * @param timing how long the indexer takes, e.g. {@code Indexer.TIMING}
+   * @return the timing
+   */
+  public static IndexerPipeline run(boolean pipelined, IndexerSequencer.Timing timing) {
+    final double moveDrop = timing.getMoveDropTime();
+    SimulatedShooter shooter = new SimulatedShooter(NOISE, 1);
+    ShotLog log = new ShotLog();
+    ShotDetector detector = new ShotDetector(log, FlywheelResponse.TOLERANCE);
+    IndexerSequencer sequencer = new IndexerSequencer(pipelined, timing);
+    sequencer.start(BALLS);
+
+    final double[] droppedAt = new double[BALLS];
+    final double[] shotTimes = new double[BALLS];
+    double[] transit = new double[BALLS];
+    final double[] now = new double[1];
+    int staged = 0;
+    int shot = 0;
+    boolean feeding = false;
+    double nextLoop = 0;
+    double completionTime = Double.NaN;
+    while (shooter.getTime() < TIMEOUT) {
+      double time = shooter.getTime();
+      now[0] = time;
+      if (time >= nextLoop) {
+        double rpm = shooter.getRPM();
+        detector.update(rpm, TARGET_RPM, 60, 0, Feedforward.NOMINAL_VOLTAGE, time);
+        boolean ready = Math.abs(rpm - TARGET_RPM) <= FlywheelResponse.TOLERANCE * TARGET_RPM;
+        feeding = sequencer.update(time, ready, log.getTotal(), ball -> {
+          droppedAt[ball] = now[0] + moveDrop;
+          return true;
+        });
+        staged = sequencer.getStaged();
+        if (sequencer.isDone()) {
+          completionTime = shotTimes[BALLS - 1];
+          break;
+        }
+        nextLoop += LOOP_TIME;
+      }
+
+      // The oldest ball in the intake moves while it runs, and goes in once it's through and has room
+      if (shot < staged && time >= droppedAt[shot] && feeding) {
+        transit[shot] += SimulatedShooter.DT;
+        boolean room = shot == 0 || time - shotTimes[shot - 1] >= SPACING;
+        if (transit[shot] >= TRANSIT_TIME && room) {
+          shooter.shoot(FlywheelResponse.SHOT_LOSS);
+          shotTimes[shot] = time;
+          shot++;
+        }
+      }
+      // The next ball in line moves up behind it
+      if (shot + 1 < staged && time >= droppedAt[shot + 1] && feeding) {
+        transit[shot + 1] = Math.min(TRANSIT_TIME, transit[shot + 1] + SimulatedShooter.DT);
+      }
+      shooter.step(TARGET_RPM);
+    }
+    return new IndexerPipeline(completionTime, shotTimes);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder shots = new StringBuilder();
+    for (double time : shotTimes) {
+      shots.append(String.format(" %.1f", time));
+    }
+    return String.format("motif in %.1f s (shots at%s s)", completionTime, shots);
+  }
+}
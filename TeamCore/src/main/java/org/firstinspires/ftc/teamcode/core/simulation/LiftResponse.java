@@ -0,0 +1,109 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import org.firstinspires.ftc.teamcode.core.LiftController;
+
+/**
+ * Measures how the lift gets to a height on a {@link SimulatedLift} whose left side binds: how long
+ * until both sides are within {@link LiftController#TOLERANCE} of it, and the worst left/right
+ * difference on the way.
+ *
+ * <p>{@link #samePower(double)} is what driving both motors with one power does: full power until the
+ * average reaches the height, then just enough to hold. {@link #measure} runs a {@link LiftController}
+ * at OpMode loop rate instead, reading both encoders every loop.</p>
+ */
+public class LiftResponse {
+  /** The height moved to, in ticks */
+  public static final double HEIGHT = 3000;
+  private static final double LOOP_TIME = 0.02;
+  private static final double DT = 0.001;
+  private static final double END_TIME = 4;
+
+  /** Time until both sides are at the height, in seconds (NaN if never) */
+  public final double time;
+  /** Largest left/right difference, in ticks */
+  public final double maxDifference;
+  /** Left/right difference at the end, in ticks */
+  public final double finalDifference;
+
+  private LiftResponse(double time, double maxDifference, double finalDifference) {
+    this.time = time;
+    this.maxDifference = maxDifference;
+    this.finalDifference = finalDifference;
+  }
+
+  /** Powers for both sides from the encoders, once per loop */
+  private interface Control {
+    void update(double left, double right, double[] powers);
+  }
+
+  /**
+   * @param hold the power that holds the lift once the average is at the height
+   * @return the move with one power for both sides
+   */
+  public static LiftResponse samePower(final double hold) {
+    return run(new Control() {
+      @Override
+      public void update(double left, double right, double[] powers) {
+        double power = (left + right) / 2 < HEIGHT ? 1 : hold;
+        powers[0] = power;
+        powers[1] = power;
+      }
+    });
+  }
+
+  /**
+   * @param p power per tick of error
+   * @param v power per tick/second of profile speed
+   * @param g power that holds the lift up
+   * @param sync power per tick of left/right difference, 0 for no equalizer
+   * @param maxVelocity the profile's cruise speed, in ticks/second
+   * @param maxAcceleration the profile's acceleration, in ticks/second^2
+   * @return the move with a {@link LiftController}
+   */
+  public static LiftResponse measure(double p, double v, double g, double sync, double maxVelocity,
+      double maxAcceleration) {
+    final LiftController controller = new LiftController();
+    controller.setGains(p, v, g, sync);
+    controller.setLimits(maxVelocity, maxAcceleration);
+    controller.moveTo(HEIGHT, 0, 0);
+    return run(new Control() {
+      @Override
+      public void update(double left, double right, double[] powers) {
+        controller.update(left, right, LOOP_TIME);
+        powers[0] = controller.getLeftPower();
+        powers[1] = controller.getRightPower();
+      }
+    });
+  }
+
+  private static LiftResponse run(Control control) {
+    SimulatedLift lift = new SimulatedLift(DT, SimulatedLift.BINDING_FRICTION, SimulatedLift.FRICTION);
+    double[] powers = new double[2];
+    double time = Double.NaN;
+    double maxDifference = 0;
+    while (lift.getTime() < END_TIME) {
+      double left = lift.getLeftPosition();
+      double right = lift.getRightPosition();
+      maxDifference = Math.max(maxDifference, Math.abs(left - right));
+      boolean there = Math.abs(left - HEIGHT) <= LiftController.TOLERANCE
+          && Math.abs(right - HEIGHT) <= LiftController.TOLERANCE;
+      if (there && Double.isNaN(time)) {
+        time = lift.getTime();
+      } else if (!there) {
+        time = Double.NaN;
+      }
+      control.update(left, right, powers);
+      double end = lift.getTime() + LOOP_TIME;
+      while (lift.getTime() < end - DT / 2) {
+        lift.step(powers[0], powers[1]);
+      }
+    }
+    return new LiftResponse(time, maxDifference, lift.getLeftPosition() - lift.getRightPosition());
+  }
+
+  @Override
+  public String toString() {
+    return String.format("at height after %.2f s, L/R max %.0f ticks (end %+.0f)", time, maxDifference,
+        finalDifference);
+  }
+}
@@ -0,0 +1,92 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import org.firstinspires.ftc.teamcode.core.FlywheelModel;
+import org.firstinspires.ftc.teamcode.core.ShooterSync;
+import org.firstinspires.ftc.teamcode.core.TuningDefaults;
+
+/**
+ * Checks {@link ShooterSync} on a shooter whose right motor is weaker than the left one.
+ *
+ * <p>Both wheels get the coefficients computed for {@link SimulatedShooter#MODEL}, but the right one
+ * has {@link #WEAK_MODEL}: less speed per unit of power and more inertia, like a worn motor. The OpMode
+ * loop reads both wheels with encoder noise, updates the sync and sets both targets. The script spins up
+ * to {@link #TARGET_RPM} and takes a shot. Ready means the same as on the robot: the mean within
+ * {@link FlywheelResponse#TOLERANCE} and the wheels within {@link #DIFFERENCE_TOLERANCE}.</p>
+ */
+public class MismatchedShooter {
+  /** The right motor: 12% weaker and 30% more inertia than {@link SimulatedShooter#MODEL} */
+  public static final FlywheelModel WEAK_MODEL = new FlywheelModel(2460, 0.45, 0.03);
+  /** How far apart the wheels may be to shoot, as a fraction of the target, the same as the robot's default */
+  public static final double DIFFERENCE_TOLERANCE = TuningDefaults.SHOOTER_SYNC_TOLERANCE.value;
+  private static final double TARGET_RPM = 3000;
+  private static final double SHOT_TIME = 2.0;
+  private static final double END_TIME = 3.5;
+  private static final double LOOP_TIME = 0.02;
+  private static final double NOISE = 15;
+
+  public final double gain;
+  /** Mean and largest left/right difference while on, in RPM */
+  public final double meanDifference;
+  public final double maxDifference;
+  /** Time from the start until ready, in seconds (NaN if never) */
+  public final double spinUpTime;
+  /** Time from the shot until ready again, in seconds (NaN if never) */
+  public final double recoveryTime;
+
+  private MismatchedShooter(double gain, double meanDifference, double maxDifference, double spinUpTime,
+      double recoveryTime) {
+    this.gain = gain;
+    this.meanDifference = meanDifference;
+    this.maxDifference = maxDifference;
+    this.spinUpTime = spinUpTime;
+    this.recoveryTime = recoveryTime;
+  }
+
+  /**
+   * Runs the script.
+   * @param gain the sync gain, 0 for the motors on their own
+   * @return the left/right difference and how long it took to be ready
+   */
+  public static MismatchedShooter run(double gain) {
+    SimulatedShooter left = new SimulatedShooter(SimulatedShooter.MODEL, SimulatedShooter.MODEL.computePIDF(),
+        NOISE, 1);
+    SimulatedShooter right = new SimulatedShooter(WEAK_MODEL, SimulatedShooter.MODEL.computePIDF(), NOISE, 2);
+    ShooterSync sync = new ShooterSync();
+    double spinUpTime = Double.NaN;
+    double recoveryTime = Double.NaN;
+    boolean shot = false;
+    double time = 0;
+    while (time < END_TIME) {
+      if (!shot && time >= SHOT_TIME) {
+        left.shoot(FlywheelResponse.SHOT_LOSS);
+        right.shoot(FlywheelResponse.SHOT_LOSS);
+        shot = true;
+      }
+      double leftRPM = left.getRPM();
+      double rightRPM = right.getRPM();
+      if (ShooterSync.isReady(TARGET_RPM, leftRPM, rightRPM, FlywheelResponse.TOLERANCE, DIFFERENCE_TOLERANCE)) {
+        if (Double.isNaN(spinUpTime)) {
+          spinUpTime = time;
+        }
+        if (shot && Double.isNaN(recoveryTime)) {
+          recoveryTime = time - SHOT_TIME;
+        }
+      }
+      sync.update(TARGET_RPM, leftRPM, rightRPM, gain);
+      double end = left.getTime() + LOOP_TIME;
+      while (left.getTime() < end - SimulatedShooter.DT / 2) {
+        left.step(sync.getLeftTarget(TARGET_RPM));
+        right.step(sync.getRightTarget(TARGET_RPM));
+      }
+      time = left.getTime();
+    }
+    return new MismatchedShooter(gain, sync.getMeanDifference(), sync.getMaxDifference(), spinUpTime,
+        recoveryTime);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("gain %.2f: L/R mean %.0f max %.0f RPM, ready after %.2f s, %.2f s after the shot",
+        gain, meanDifference, maxDifference, spinUpTime, recoveryTime);
+  }
+}
@@ -0,0 +1,87 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import org.firstinspires.ftc.teamcode.core.RobotPose;
+
+/**
+ * Measures what the loop gets from a localizer sampled on a background thread: the latest published
+ * pose is up to a sample period old by the time the loop looks at it, and the robot has moved on.
+ *
+ * <p>A {@link SimulatedLocalizer} (exact, so only the age counts) is read every sample period while the
+ * {@link SimulatedDrivetrain} drives a fast script: forward, strafe while turning, back. Every OpMode
+ * loop takes the latest pose, and also that pose moved on to the loop time with its velocity
+ * ({@link RobotPose#predict(long)}), and compares both with where the robot really is.</p>
+ */
+public class PoseSampling {
+  private static final double DT = 0.001;
+  /** Not a multiple of the sample periods, so the loop sees every age like it does on the robot */
+  private static final double LOOP_TIME = 0.021;
+  /** Drive commands (strafe, forward, rotate) and how long each is held, in seconds */
+  private static final double[][] SCRIPT = {
+      { 0, 1, 0, 1.0 }, { 1, 0, 0.5, 1.0 }, { 0, -1, 0, 1.0 }, { -0.7, 0.7, -0.5, 1.0 } };
+
+  /** Sampler period in seconds */
+  public final double samplePeriod;
+  /** Mean and largest position error of the latest pose, in inches */
+  public final double meanError;
+  public final double maxError;
+  /** The same for the latest pose predicted to the loop time */
+  public final double meanPredictedError;
+  public final double maxPredictedError;
+
+  private PoseSampling(double samplePeriod, double meanError, double maxError, double meanPredictedError,
+      double maxPredictedError) {
+    this.samplePeriod = samplePeriod;
+    this.meanError = meanError;
+    this.maxError = maxError;
+    this.meanPredictedError = meanPredictedError;
+    this.maxPredictedError = maxPredictedError;
+  }
+
+  /**
+   * Runs the script.
+   * @param samplePeriod how often the localizer is read, in seconds
+   * @return how far the latest pose was from the truth at each loop
+   */
+  public static PoseSampling measure(double samplePeriod) {
+    SimulatedDrivetrain drivetrain = new SimulatedDrivetrain(DT);
+    SimulatedLocalizer localizer = new SimulatedLocalizer(drivetrain, 0);
+    RobotPose latest = localizer.update();
+    double nextSample = samplePeriod;
+    double nextLoop = LOOP_TIME;
+    double errorSum = 0;
+    double maxError = 0;
+    double predictedSum = 0;
+    double maxPredicted = 0;
+    int loops = 0;
+    for (double[] step : SCRIPT) {
+      double end = drivetrain.getTime() + step[3] - DT / 2;
+      while (drivetrain.getTime() < end) {
+        drivetrain.step(step[0], step[1], step[2]);
+        double time = drivetrain.getTime();
+        if (time >= nextSample - DT / 2) {
+          latest = localizer.update();
+          nextSample += samplePeriod;
+        }
+        if (time >= nextLoop - DT / 2) {
+          RobotPose truth = new RobotPose(drivetrain.getX() * SimulatedLocalizer.INCHES_PER_METER,
+              drivetrain.getY() * SimulatedLocalizer.INCHES_PER_METER, drivetrain.getHeading(), 0, 0, 0, 0);
+          double error = latest.distanceTo(truth);
+          double predicted = latest.predict((long) (time * 1e9)).distanceTo(truth);
+          errorSum += error;
+          maxError = Math.max(maxError, error);
+          predictedSum += predicted;
+          maxPredicted = Math.max(maxPredicted, predicted);
+          loops++;
+          nextLoop += LOOP_TIME;
+        }
+      }
+    }
+    return new PoseSampling(samplePeriod, errorSum / loops, maxError, predictedSum / loops, maxPredicted);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%.0f ms samples: latest off by %.2f in (max %.2f), predicted %.2f in (max %.2f)",
+        samplePeriod * 1000, meanError, maxError, meanPredictedError, maxPredictedError);
+  }
+}
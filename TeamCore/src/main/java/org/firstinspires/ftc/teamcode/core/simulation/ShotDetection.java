@@ -0,0 +1,67 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import org.firstinspires.ftc.teamcode.core.Feedforward;
+import org.firstinspires.ftc.teamcode.core.ShotDetector;
+import org.firstinspires.ftc.teamcode.core.ShotLog;
+
+/**
+ * Checks the {@link ShotDetector} against a simulated flywheel, so changes to it can be checked without
+ * feeding balls.
+ *
+ * <p>The {@link SimulatedShooter} is read every OpMode loop with encoder noise. The script spins up,
+ * fires {@link #SHOTS} shots, changes the target down and back up (which must not count) and fires once
+ * more, then turns the shooter off.</p>
+ */
+public class ShotDetection {
+  /** Shots the script fires */
+  public static final int SHOTS = 4;
+  private static final double[] SHOT_TIMES = { 2.0, 2.8, 3.6, 8.0 };
+  private static final double TARGET_RPM = 3000;
+  private static final double LOWER_RPM = 2500;
+  private static final double LOOP_TIME = 0.02;
+  private static final double NOISE = 15;
+
+  public final ShotLog log;
+  public final boolean passed;
+
+  private ShotDetection(ShotLog log) {
+    this.log = log;
+    boolean passed = log.size() == SHOTS && log.getUnrecovered() == 0;
+    for (int i = 0; passed && i < SHOTS; i++) {
+      passed = Math.abs(log.getTime(i) - SHOT_TIMES[i]) < 2 * LOOP_TIME;
+    }
+    this.passed = passed;
+  }
+
+  /**
+   * Runs the script.
+   * @param shotLoss the fraction of speed each shot takes away, e.g. {@link FlywheelResponse#SHOT_LOSS}
+   * @return the shots the detector found
+   */
+  public static ShotDetection run(double shotLoss) {
+    SimulatedShooter shooter = new SimulatedShooter(NOISE, 1);
+    ShotLog log = new ShotLog();
+    ShotDetector detector = new ShotDetector(log, FlywheelResponse.TOLERANCE);
+    double nextLoop = 0;
+    int nextShot = 0;
+    while (shooter.getTime() < 10) {
+      double time = shooter.getTime();
+      double targetRPM = time < 5 ? TARGET_RPM : time < 6.5 ? LOWER_RPM : time < 9 ? TARGET_RPM : 0;
+      if (nextShot < SHOT_TIMES.length && time >= SHOT_TIMES[nextShot]) {
+        shooter.shoot(shotLoss);
+        nextShot++;
+      }
+      if (time >= nextLoop) {
+        detector.update(shooter.getRPM(), targetRPM, 60, 0, Feedforward.NOMINAL_VOLTAGE, time);
+        nextLoop += LOOP_TIME;
+      }
+      shooter.step(targetRPM);
+    }
+    return new ShotDetection(log);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s %d/%d shots found, %s", passed ? "PASS" : "FAIL", log.size(), SHOTS, log);
+  }
+}
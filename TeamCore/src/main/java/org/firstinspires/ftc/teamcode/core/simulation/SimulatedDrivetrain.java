@@ -0,0 +1,141 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import org.firstinspires.ftc.teamcode.core.MecanumKinematics;
+
+/**
+ * A mecanum drivetrain on the field, driven by the same commands as {@code Robot.drive()}.
+ *
+ * <p>Drive commands go through {@link MecanumKinematics} and back to chassis motion, which then follows
+ * with a first-order lag ({@link #TIME_CONSTANT}). Strafing adds a yaw drift proportional to the strafe
+ * command, which is what the real robot does and what heading hold has to fight. The IMU is modelled
+ * the way {@code Imu} reads it: a sample every {@link #IMU_SAMPLE_PERIOD}, held in between.</p>
+ *
+ * <p>Positions are in meters and headings in radians, counter-clockwise positive, starting at 0.</p>
+ */
+public class SimulatedDrivetrain {
+  /** Top speed for a full forward command, 300 RPM on 104 mm wheels */
+  public static final double MAX_SPEED = 300 / 60.0 * Math.PI * 0.104;
+  /** Turn rate for a full rotate command, the wheels are about 0.33 m from the center */
+  public static final double MAX_YAW_RATE = MAX_SPEED / 0.33;
+  /** How quickly the chassis follows a change of command, in seconds */
+  public static final double TIME_CONSTANT = 0.12;
+  /** Yaw drift for a full strafe command, in radians/second (counter-clockwise) */
+  public static final double STRAFE_DRIFT = 0.15;
+  /** How often the IMU is sampled, in seconds, the same as {@code Imu.SAMPLE_PERIOD_MS} */
+  public static final double IMU_SAMPLE_PERIOD = 0.010;
+
+  private final MecanumKinematics kinematics = new MecanumKinematics();
+  private final double[] chassis = new double[3];
+  private final double dt;
+
+  private double time = 0;
+  private double x = 0;
+  private double y = 0;
+  private double heading = 0;
+  private double strafeVelocity = 0;
+  private double forwardVelocity = 0;
+  private double angularVelocity = 0;
+
+  private double lastSampleTime = Double.NEGATIVE_INFINITY;
+  private double measuredHeading = 0;
+  private double measuredAngularVelocity = 0;
+
+  /**
+   * @param dt the simulation step in seconds, a millisecond or less
+   */
+  public SimulatedDrivetrain(double dt) {
+    this.dt = dt;
+  }
+
+  /**
+   * Advances the simulation by one step, holding the command.
+   * @param strafe strafe command, positive is right
+   * @param forward forward command
+   * @param rotate rotate command, positive is clockwise
+   */
+  public void step(double strafe, double forward, double rotate) {
+    MecanumKinematics.toChassis(kinematics.calculate(strafe, forward, rotate), chassis);
+    double alpha = 1 - Math.exp(-dt / TIME_CONSTANT);
+    strafeVelocity += (chassis[0] * MAX_SPEED - strafeVelocity) * alpha;
+    forwardVelocity += (chassis[1] * MAX_SPEED - forwardVelocity) * alpha;
+    angularVelocity += (-chassis[2] * MAX_YAW_RATE + strafe * STRAFE_DRIFT - angularVelocity) * alpha;
+
+    double cos = Math.cos(heading);
+    double sin = Math.sin(heading);
+    x += (strafeVelocity * cos - forwardVelocity * sin) * dt;
+    y += (strafeVelocity * sin + forwardVelocity * cos) * dt;
+    heading += angularVelocity * dt;
+    time += dt;
+
+    if (time - lastSampleTime >= IMU_SAMPLE_PERIOD) {
+      measuredHeading = heading;
+      measuredAngularVelocity = angularVelocity;
+      lastSampleTime = time;
+    }
+  }
+
+  /**
+   * Advances the simulation, holding the command.
+   * @param duration how long to hold it, in seconds
+   */
+  public void run(double strafe, double forward, double rotate, double duration) {
+    double end = time + duration - dt / 2;
+    while (time < end) {
+      step(strafe, forward, rotate);
+    }
+  }
+
+  public double getTime() {
+    return time;
+  }
+
+  /**
+   * @return the true heading in radians, not wrapped
+   */
+  public double getHeading() {
+    return heading;
+  }
+
+  /**
+   * @return the heading as the IMU last sampled it, in radians
+   */
+  public double getMeasuredHeading() {
+    return measuredHeading;
+  }
+
+  /**
+   * @return the yaw rate as the IMU last sampled it, in radians/second
+   */
+  public double getMeasuredAngularVelocity() {
+    return measuredAngularVelocity;
+  }
+
+  public double getX() {
+    return x;
+  }
+
+  public double getY() {
+    return y;
+  }
+
+  /**
+   * @return the true field x velocity in meters/second
+   */
+  public double getXVelocity() {
+    return strafeVelocity * Math.cos(heading) - forwardVelocity * Math.sin(heading);
+  }
+
+  /**
+   * @return the true field y velocity in meters/second
+   */
+  public double getYVelocity() {
+    return strafeVelocity * Math.sin(heading) + forwardVelocity * Math.cos(heading);
+  }
+
+  /**
+   * @return the true yaw rate in radians/second
+   */
+  public double getAngularVelocity() {
+    return angularVelocity;
+  }
+}
@@ -0,0 +1,130 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import java.util.Random;
+import org.firstinspires.ftc.teamcode.core.Feedforward;
+import org.firstinspires.ftc.teamcode.core.FlywheelModel;
+
+/**
+ * A flywheel that follows a {@link FlywheelModel} exactly, for trying out tuning code without a robot.
+ *
+ * <p>Power goes through a delay line of {@code deadTime / dt} steps, then through an exactly
+ * discretized first-order lag. Measurements can have Gaussian noise added to mimic a low resolution
+ * encoder, and {@link #shoot(double)} knocks the speed down the way a ball going through does.</p>
+ *
+ * <p>The model's gain is at {@link Feedforward#NOMINAL_VOLTAGE}. Power is a fraction of the battery
+ * voltage, so with {@link #setSupplyVoltage(double)} a sagging battery gives proportionally less torque
+ * and speed for the same power.</p>
+ */
+public class SimulatedFlywheel {
+  public final FlywheelModel model;
+  /** Simulation step in seconds */
+  public final double dt;
+
+  private final double decay;
+  private final double[] delayLine;
+  private int delayIndex = 0;
+  private final double noise;
+  private final Random random;
+  private double velocity = 0;
+  private double time = 0;
+  private double supplyVoltage = Feedforward.NOMINAL_VOLTAGE;
+
+  /**
+   * @param model the flywheel to simulate
+   * @param dt the simulation step in seconds
+   * @param noise standard deviation of the measurement noise in ticks/second (0 for none)
+   * @param seed random seed, so runs are repeatable
+   */
+  public SimulatedFlywheel(FlywheelModel model, double dt, double noise, long seed) {
+    this.model = model;
+    this.dt = dt;
+    this.decay = model.timeConstant > 0 ? Math.exp(-dt / model.timeConstant) : 0;
+    this.delayLine = new double[Math.max(0, (int) Math.round(model.deadTime / dt))];
+    this.noise = noise;
+    this.random = new Random(seed);
+  }
+
+  public SimulatedFlywheel(FlywheelModel model, double dt) {
+    this(model, dt, 0, 0);
+  }
+
+  /**
+   * Advances the simulation by one step.
+   * @param power the power applied this step (-1 to 1)
+   * @return the measured velocity after the step
+   */
+  public double step(double power) {
+    power = Math.max(-1, Math.min(1, power));
+    double delayed = power;
+    if (delayLine.length > 0) {
+      delayed = delayLine[delayIndex];
+      delayLine[delayIndex] = power;
+      delayIndex = (delayIndex + 1) % delayLine.length;
+    }
+    double steady = model.gain * delayed * supplyVoltage / Feedforward.NOMINAL_VOLTAGE;
+    velocity = steady + (velocity - steady) * decay;
+    time += dt;
+    return getVelocity();
+  }
+
+  /**
+   * Holds a power for a duration, as happens between two loops of an OpMode.
+   * @param power the power to apply
+   * @param duration how long to apply it, in seconds
+   * @return the measured velocity at the end
+   */
+  public double run(double power, double duration) {
+    int steps = Math.max(1, (int) Math.round(duration / dt));
+    for (int i = 0; i < steps; i++) {
+      step(power);
+    }
+    return getVelocity();
+  }
+
+  /**
+   * @param volts the battery voltage from now on
+   */
+  public void setSupplyVoltage(double volts) {
+    supplyVoltage = volts;
+  }
+
+  /**
+   * @return the measured velocity (true velocity plus noise) in ticks/second
+   */
+  public double getVelocity() {
+    return noise > 0 ? velocity + random.nextGaussian() * noise : velocity;
+  }
+
+  /**
+   * @return the noise-free velocity in ticks/second
+   */
+  public double getTrueVelocity() {
+    return velocity;
+  }
+
+  /**
+   * @return the simulated time in seconds
+   */
+  public double getTime() {
+    return time;
+  }
+
+  /**
+   * Takes away a fraction of the current speed, like a ball being launched.
+   * @param fraction the fraction of speed lost (0.15 is a typical shot)
+   */
+  public void shoot(double fraction) {
+    velocity *= 1 - fraction;
+  }
+
+  /**
+   * Stops the flywheel and clears the delay line.
+   */
+  public void reset() {
+    velocity = 0;
+    time = 0;
+    for (int i = 0; i < delayLine.length; i++) {
+      delayLine[i] = 0;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+/**
+ * A two-sided lift where each side is driven by its own motor and one side can bind, for trying out
+ * lift control without the robot.
+ *
+ * <p>Each side's speed follows a first-order lag towards {@code freeSpeed * (power - gravity -
+ * friction)}, where friction opposes the motion and holds the side still while the power can't
+ * overcome it. The sides aren't tied together, which is the worst case: whatever keeps the lift level
+ * has to come from the control.</p>
+ */
+public class SimulatedLift {
+  /** Speed at full power with no load, in ticks/second */
+  public static final double FREE_SPEED = 2500;
+  /** Time constant of a side's speed, in seconds */
+  public static final double TIME_CONSTANT = 0.08;
+  /** Power it takes to hold a side up */
+  public static final double GRAVITY = 0.1;
+  /** Friction of a side that runs freely, in power */
+  public static final double FRICTION = 0.05;
+  /** Friction of a side that binds, in power */
+  public static final double BINDING_FRICTION = 0.3;
+
+  /** Simulation step in seconds */
+  public final double dt;
+  private final double[] friction;
+  private final double[] position = new double[2];
+  private final double[] velocity = new double[2];
+  private double time = 0;
+
+  /**
+   * @param dt the simulation step in seconds
+   * @param leftFriction the left side's friction in power, e.g. {@link #BINDING_FRICTION}
+   * @param rightFriction the right side's friction in power
+   */
+  public SimulatedLift(double dt, double leftFriction, double rightFriction) {
+    this.dt = dt;
+    this.friction = new double[] { leftFriction, rightFriction };
+  }
+
+  /**
+   * Advances the simulation by one step.
+   * @param leftPower the left motor's power (-1 to 1)
+   * @param rightPower the right motor's power (-1 to 1)
+   */
+  public void step(double leftPower, double rightPower) {
+    stepSide(0, Math.max(-1, Math.min(1, leftPower)));
+    stepSide(1, Math.max(-1, Math.min(1, rightPower)));
+    time += dt;
+  }
+
+  private void stepSide(int side, double power) {
+    double drive = power - GRAVITY;
+    double effective;
+    if (Math.abs(velocity[side]) < 1 && Math.abs(drive) <= friction[side]) {
+      effective = 0;
+    } else {
+      double direction = Math.abs(velocity[side]) >= 1 ? Math.signum(velocity[side]) : Math.signum(drive);
+      effective = drive - friction[side] * direction;
+    }
+    double steady = FREE_SPEED * effective;
+    velocity[side] = steady + (velocity[side] - steady) * Math.exp(-dt / TIME_CONSTANT);
+    position[side] = Math.max(0, position[side] + velocity[side] * dt);
+    if (position[side] == 0 && velocity[side] < 0) {
+      velocity[side] = 0;
+    }
+  }
+
+  public double getLeftPosition() {
+    return position[0];
+  }
+
+  public double getRightPosition() {
+    return position[1];
+  }
+
+  /**
+   * @return the simulated time in seconds
+   */
+  public double getTime() {
+    return time;
+  }
+}
@@ -0,0 +1,104 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import org.firstinspires.ftc.teamcode.core.Localizer;
+import org.firstinspires.ftc.teamcode.core.RobotPose;
+
+/**
+ * A {@link Localizer} that tracks a {@link SimulatedDrivetrain}, for running code that uses the pose
+ * without a Pinpoint or OTOS.
+ *
+ * <p>Like real odometry it dead-reckons: each {@link #update()} adds the distance the drivetrain moved
+ * since the last one, scaled by {@code 1 + scaleError} (pods that read a little long or short), so its
+ * error grows with the distance driven. The heading is exact unless given a drift, and {@link #skid} makes
+ * it lose track the way a collision does. Poses are converted to inches and stamped with the simulated
+ * time.</p>
+ */
+public class SimulatedLocalizer implements Localizer {
+  /** Inches per meter, the drivetrain works in meters */
+  public static final double INCHES_PER_METER = 1 / 0.0254;
+
+  private final SimulatedDrivetrain drivetrain;
+  private final double scaleError;
+  private final double headingDrift;
+  private double lastX;
+  private double lastY;
+  private double lastHeading;
+  private double lastTime;
+  private double x = 0;
+  private double y = 0;
+  private double heading = 0;
+  private int updates = 0;
+
+  /**
+   * @param drivetrain the drivetrain to track, stepped by the caller
+   * @param scaleError how far off the distances are, as a fraction (0 for exact)
+   */
+  public SimulatedLocalizer(SimulatedDrivetrain drivetrain, double scaleError) {
+    this(drivetrain, scaleError, 0);
+  }
+
+  /**
+   * @param drivetrain the drivetrain to track, stepped by the caller
+   * @param scaleError how far off the distances are, as a fraction (0 for exact)
+   * @param headingDrift how fast the heading wanders off, in radians/second
+   */
+  public SimulatedLocalizer(SimulatedDrivetrain drivetrain, double scaleError, double headingDrift) {
+    this.drivetrain = drivetrain;
+    this.scaleError = scaleError;
+    this.headingDrift = headingDrift;
+    setPose(drivetrain.getX() * INCHES_PER_METER, drivetrain.getY() * INCHES_PER_METER, drivetrain.getHeading());
+  }
+
+  @Override
+  public RobotPose update() {
+    double dx = (drivetrain.getX() - lastX) * INCHES_PER_METER * (1 + scaleError);
+    double dy = (drivetrain.getY() - lastY) * INCHES_PER_METER * (1 + scaleError);
+    // The pods measure in the robot frame, so a heading that is off turns the step with it
+    double offset = heading - lastHeading;
+    x += dx * Math.cos(offset) - dy * Math.sin(offset);
+    y += dx * Math.sin(offset) + dy * Math.cos(offset);
+    heading += drivetrain.getHeading() - lastHeading + headingDrift * (drivetrain.getTime() - lastTime);
+    remember();
+    updates++;
+    double scale = INCHES_PER_METER * (1 + scaleError);
+    return new RobotPose(x, y, heading, drivetrain.getXVelocity() * scale, drivetrain.getYVelocity() * scale,
+        drivetrain.getAngularVelocity(), (long) (drivetrain.getTime() * 1e9));
+  }
+
+  @Override
+  public void setPose(double x, double y, double heading) {
+    this.x = x;
+    this.y = y;
+    this.heading = heading;
+    remember();
+  }
+
+  private void remember() {
+    lastX = drivetrain.getX();
+    lastY = drivetrain.getY();
+    lastHeading = drivetrain.getHeading();
+    lastTime = drivetrain.getTime();
+  }
+
+  /**
+   * Moves the tracked position without the robot moving, like pods skidding in a collision.
+   * @param dx field x in inches
+   * @param dy field y in inches
+   */
+  public void skid(double dx, double dy) {
+    x += dx;
+    y += dy;
+  }
+
+  @Override
+  public String getName() {
+    return String.format("Simulated (%+.0f%% scale)", scaleError * 100);
+  }
+
+  /**
+   * @return how many times it was read
+   */
+  public int getUpdates() {
+    return updates;
+  }
+}
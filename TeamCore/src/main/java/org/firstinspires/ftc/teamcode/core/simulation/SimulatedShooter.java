@@ -0,0 +1,77 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import org.firstinspires.ftc.teamcode.core.FlywheelModel;
+import org.firstinspires.ftc.teamcode.core.PIDFGains;
+
+/**
+ * A {@link SimulatedFlywheel} held at a target RPM by a simulation of the hub's velocity PIDF, for trying
+ * out code that runs against the shooter's speed (shot detection, feeding) without a robot.
+ */
+public class SimulatedShooter {
+  /** The same stand-in flywheel ShooterAutoTuner simulates */
+  public static final FlywheelModel MODEL = new FlywheelModel(2800, 0.35, 0.03);
+  public static final double TICKS_PER_ROTATION = 28;
+  /** Simulation step, the hub's controller runs much faster than the OpMode loop */
+  public static final double DT = 0.001;
+
+  public final SimulatedFlywheel flywheel;
+  private final PIDFGains pidf;
+  private double integral = 0;
+  private double lastError = 0;
+
+  /**
+   * @param noise standard deviation of the measurement noise in ticks/second (0 for none)
+   * @param seed random seed, so runs are repeatable
+   */
+  public SimulatedShooter(double noise, long seed) {
+    this(MODEL, MODEL.computePIDF(), noise, seed);
+  }
+
+  /**
+   * @param model the flywheel, e.g. a weaker motor than the one the coefficients were computed for
+   * @param pidf the hub's velocity coefficients
+   * @param noise standard deviation of the measurement noise in ticks/second (0 for none)
+   * @param seed random seed, so runs are repeatable
+   */
+  public SimulatedShooter(FlywheelModel model, PIDFGains pidf, double noise, long seed) {
+    this.flywheel = new SimulatedFlywheel(model, DT, noise, seed);
+    this.pidf = pidf;
+  }
+
+  /**
+   * Advances the simulation by {@link #DT}, see FlywheelResponse for the controller.
+   * @param targetRPM the RPM the shooter is set to, 0 is off
+   */
+  public void step(double targetRPM) {
+    double target = targetRPM * TICKS_PER_ROTATION / 60;
+    double error = target - flywheel.getTrueVelocity();
+    double output = pidf.p * error + pidf.i * integral + pidf.d * (error - lastError) / DT + pidf.f * target;
+    double power = target == 0 ? 0 : output / FlywheelModel.HUB_POWER_SCALE;
+    if (Math.abs(power) < 1 || Math.signum(error) != Math.signum(power)) {
+      integral += error * DT;
+    }
+    lastError = error;
+    flywheel.step(power);
+  }
+
+  /**
+   * @param loss the fraction of speed the ball takes away
+   */
+  public void shoot(double loss) {
+    flywheel.shoot(loss);
+  }
+
+  /**
+   * @return the measured speed, with noise
+   */
+  public double getRPM() {
+    return flywheel.getVelocity() * 60 / TICKS_PER_ROTATION;
+  }
+
+  /**
+   * @return the simulated time in seconds
+   */
+  public double getTime() {
+    return flywheel.getTime();
+  }
+}
@@ -0,0 +1,110 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import org.firstinspires.ftc.teamcode.core.FlywheelModel;
+import org.firstinspires.ftc.teamcode.core.IndexerSequencer;
+import org.firstinspires.ftc.teamcode.core.MecanumKinematics;
+import org.firstinspires.ftc.teamcode.core.TuningDefaults;
+
+/**
+ * Runs every simulation on a laptop and prints what the diagnostics OpModes show at INIT, so a change
+ * to the core code can be checked in seconds without deploying:
+ * <pre>
+ *   ./gradlew :TeamCore:simulate
+ *   ./gradlew :TeamCore:simulate --args="tuning.properties"
+ * </pre>
+ * The tuning file pulled off the robot is optional, without it (or for keys it doesn't have) the
+ * robot's defaults are used ({@link TuningDefaults}). {@code ./gradlew :TeamCore:test} runs the same
+ * simulations with the defaults and checks the results.
+ */
+public class Simulations {
+  /** Flywheel speed the PIDF response is measured at, in ticks/second (3000 RPM) */
+  private static final double FLYWHEEL_TARGET = 1400;
+
+  public static void main(String[] args) throws IOException {
+    final Properties tuning = new Properties();
+    if (args.length > 0) {
+      try (InputStream in = new FileInputStream(args[0])) {
+        tuning.load(in);
+      }
+    }
+
+    System.out.println("Drive kinematics");
+    for (MecanumKinematics.Mode mode : MecanumKinematics.Mode.values()) {
+      for (double turn : DriveKinematicsSimulation.TURNS) {
+        System.out.printf("  %s turn %.2f: %s%n", mode, turn, DriveKinematicsSimulation.measure(mode, turn));
+      }
+    }
+
+    System.out.println("Heading hold");
+    System.out.println("  " + HeadingResponse.measure(get(tuning, TuningDefaults.HEADING_P), get(tuning, TuningDefaults.HEADING_I),
+        get(tuning, TuningDefaults.HEADING_D), get(tuning, TuningDefaults.HEADING_MAX_POWER)));
+
+    FlywheelModel model = SimulatedShooter.MODEL;
+    System.out.println("Flywheel " + model);
+    System.out.println("  computed " + model.computePIDF() + ": "
+        + FlywheelResponse.measure(model, model.computePIDF(), FLYWHEEL_TARGET));
+
+    System.out.println("Battery voltage (as tuned -> compensated)");
+    for (double voltage : new double[] { 13, 12, 11, 10 }) {
+      System.out.println("  " + VoltageCompensation.measure(model, model.computePIDF(), FLYWHEEL_TARGET, voltage));
+    }
+
+    System.out.println("Weak right shooter motor");
+    System.out.println("  on their own: " + MismatchedShooter.run(0));
+    System.out.println("  synchronized: " + MismatchedShooter.run(get(tuning, TuningDefaults.SHOOTER_SYNC_GAIN)));
+
+    System.out.println("Lift (left side binding)");
+    double liftG = get(tuning, TuningDefaults.LIFT_G);
+    System.out.println("  same power: " + LiftResponse.samePower(liftG));
+    double liftP = get(tuning, TuningDefaults.LIFT_P);
+    double liftV = get(tuning, TuningDefaults.LIFT_V);
+    double liftMaxVelocity = get(tuning, TuningDefaults.LIFT_MAX_VELOCITY);
+    double liftMaxAcceleration = get(tuning, TuningDefaults.LIFT_MAX_ACCELERATION);
+    System.out.println("  per side: " + LiftResponse.measure(liftP, liftV, liftG, 0, liftMaxVelocity,
+        liftMaxAcceleration));
+    System.out.println("  equalized: " + LiftResponse.measure(liftP, liftV, liftG, get(tuning, TuningDefaults.LIFT_SYNC),
+        liftMaxVelocity, liftMaxAcceleration));
+
+    System.out.println("Localizer (sampled every 10 ms, read in a 21 ms loop)");
+    System.out.println("  " + PoseSampling.measure(0.010));
+
+    System.out.println("AprilTag correction (30 s match, 3% odometry scale error and a collision)");
+    System.out.println("  " + TagCorrection.measure(get(tuning, TuningDefaults.POSE_ODOMETRY_DRIFT),
+        Math.toRadians(get(tuning, TuningDefaults.POSE_HEADING_DRIFT)), get(tuning, TuningDefaults.POSE_VISION_NOISE),
+        Math.toRadians(get(tuning, TuningDefaults.POSE_VISION_HEADING_NOISE)), get(tuning, TuningDefaults.POSE_MIN_DECISION_MARGIN),
+        get(tuning, TuningDefaults.POSE_GATE)));
+
+    System.out.println("Shooter speed readings");
+    System.out.println("  " + VelocitySampling.measure(0));
+    System.out.println("  " + VelocitySampling.measure((int) get(tuning, TuningDefaults.SHOOTER_SAMPLE_INTERVAL)));
+
+    System.out.println("Shot detection");
+    for (double loss : new double[] { 0.08, FlywheelResponse.SHOT_LOSS, 0.25 }) {
+      System.out.printf("  %.0f%% loss: %s%n", loss * 100, ShotDetection.run(loss));
+    }
+
+    IndexerSequencer.Timing timing = new IndexerSequencer.Timing() {
+      @Override
+      public double getMoveDropTime() {
+        return (get(tuning, TuningDefaults.INDEXER_MOVE_TIME) + get(tuning, TuningDefaults.INDEXER_DROP_TIME)) / 1000;
+      }
+
+      @Override
+      public double getShootTime() {
+        return get(tuning, TuningDefaults.INDEXER_SHOOT_TIME) / 1000;
+      }
+    };
+    System.out.println("Indexer");
+    System.out.println("  one at a time: " + IndexerPipeline.run(false, timing));
+    System.out.println("  pipelined: " + IndexerPipeline.run(true, timing));
+  }
+
+  private static double get(Properties tuning, TuningDefaults.Entry entry) {
+    String value = tuning.getProperty(entry.key);
+    return value == null ? entry.value : Double.parseDouble(value.trim());
+  }
+}
@@ -0,0 +1,208 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+import org.firstinspires.ftc.teamcode.core.PoseFilter;
+import org.firstinspires.ftc.teamcode.core.RobotPose;
+
+/**
+ * Measures how well {@link PoseFilter} keeps the pose on the field over a match: odometry that drifts,
+ * corrected by a camera that sees the goal tag some of the time, late and with the odd bad detection.
+ *
+ * <p>The {@link SimulatedDrivetrain} drives squares with a look around after each, three times over.
+ * The odometry ({@link SimulatedLocalizer}) reads distances 3% long, its heading wanders off and part way
+ * through it skids in a collision. The camera takes a frame every {@link #FRAME_PERIOD} and the detection
+ * arrives {@link #LATENCY} later, when the tag is in its field of view. Detections are noisy and some
+ * are way off, half of those with a low decision margin.</p>
+ *
+ * <p>Every loop the odometry pose goes into two filters, one given the time each frame was taken and
+ * one the time its detection arrived, and both are compared with the truth alongside the odometry on
+ * its own. The time spent in the filter is measured too.</p>
+ */
+public class TagCorrection {
+  private static final double DT = 0.001;
+  private static final double LOOP_TIME = 0.020;
+  /** Time between camera frames and from a frame to its detection, in seconds */
+  public static final double FRAME_PERIOD = 1 / 15.0;
+  public static final double LATENCY = 0.1;
+  /** Where the goal tag is, in inches (the robot starts at the origin facing +y) */
+  private static final double TAG_X = 24;
+  private static final double TAG_Y = 96;
+  /** Half the camera's field of view and the furthest it makes out the tag */
+  private static final double HALF_FOV = Math.toRadians(35);
+  private static final double MAX_RANGE = 144;
+  /** Detection noise at 48 inches, growing with distance past that */
+  private static final double TAG_NOISE = 1.5;
+  private static final double TAG_HEADING_NOISE = Math.toRadians(1.5);
+  /** How often a detection is way off, and by how much */
+  private static final double OUTLIER_CHANCE = 0.06;
+  private static final double OUTLIER_ERROR = 20;
+  private static final double SCALE_ERROR = 0.03;
+  private static final double HEADING_DRIFT = Math.toRadians(0.2);
+  private static final double SKID_TIME = 18;
+  private static final double SKID = 8;
+  /** Loops of history, a second's worth */
+  private static final int HISTORY = 50;
+  /** Drive commands (strafe, forward, rotate) and how long each is held, in seconds */
+  private static final double[][] SCRIPT = {
+      { 0, 0.5, 0, 2 }, { 0.5, 0, 0, 2 }, { 0, -0.5, 0, 2 }, { -0.5, 0, 0, 2 },
+      { 0, 0, 0.3, 1 }, { 0, 0, -0.3, 1 } };
+  private static final int LAPS = 3;
+
+  /** Mean and largest position error of the odometry on its own, in inches */
+  public final double odometryError;
+  public final double maxOdometryError;
+  /** The same for the filter given when each frame was taken */
+  public final double fusedError;
+  public final double maxFusedError;
+  /** The same for the filter given when each detection arrived */
+  public final double lateError;
+  public final double maxLateError;
+  /** Detections, and what the filter given the frame times did with them */
+  public final int detections;
+  public final int accepted;
+  public final int lowMargin;
+  public final int outliers;
+  /** Mean time per filter update (odometry or tag), in microseconds */
+  public final double microsPerUpdate;
+
+  private TagCorrection(double[] errors, int detections, PoseFilter filter, double microsPerUpdate) {
+    this.odometryError = errors[0];
+    this.maxOdometryError = errors[1];
+    this.fusedError = errors[2];
+    this.maxFusedError = errors[3];
+    this.lateError = errors[4];
+    this.maxLateError = errors[5];
+    this.detections = detections;
+    this.accepted = filter.getCount(PoseFilter.Result.ACCEPTED);
+    this.lowMargin = filter.getCount(PoseFilter.Result.LOW_MARGIN);
+    this.outliers = filter.getCount(PoseFilter.Result.OUTLIER);
+    this.microsPerUpdate = microsPerUpdate;
+  }
+
+  /**
+   * Runs the match.
+   * @param odometryDrift see {@link PoseFilter#setNoise}
+   * @param headingDrift see {@link PoseFilter#setNoise}
+   * @param visionNoise see {@link PoseFilter#setNoise}
+   * @param visionHeadingNoise see {@link PoseFilter#setNoise}
+   * @param minDecisionMargin see {@link PoseFilter#setGates}
+   * @param gate see {@link PoseFilter#setGates}
+   * @return the errors and counts
+   */
+  public static TagCorrection measure(double odometryDrift, double headingDrift, double visionNoise,
+      double visionHeadingNoise, double minDecisionMargin, double gate) {
+    SimulatedDrivetrain drivetrain = new SimulatedDrivetrain(DT);
+    SimulatedLocalizer localizer = new SimulatedLocalizer(drivetrain, SCALE_ERROR, HEADING_DRIFT);
+    PoseFilter fused = new PoseFilter(HISTORY);
+    PoseFilter late = new PoseFilter(HISTORY);
+    for (PoseFilter filter : new PoseFilter[] { fused, late }) {
+      filter.setNoise(odometryDrift, headingDrift, visionNoise, visionHeadingNoise);
+      filter.setGates(minDecisionMargin, gate);
+      filter.reset(0, 0, 0, 1, Math.toRadians(1));
+    }
+    Random random = new Random(1);
+    // Detections on their way: arrival time, x, y, heading, range, decision margin, frame time
+    ArrayDeque<double[]> pending = new ArrayDeque<>();
+    double nextLoop = 0;
+    double nextFrame = 0;
+    boolean skidded = false;
+    // Sum and largest error of the odometry, the filter with frame times and the one with arrival times
+    double[] errors = new double[6];
+    int detections = 0;
+    long filterNanos = 0;
+    int updates = 0;
+    int loops = 0;
+    for (int lap = 0; lap < LAPS; lap++) {
+      for (double[] step : SCRIPT) {
+        double end = drivetrain.getTime() + step[3] - DT / 2;
+        while (drivetrain.getTime() < end) {
+          drivetrain.step(step[0], step[1], step[2]);
+          double time = drivetrain.getTime();
+          double x = drivetrain.getX() * SimulatedLocalizer.INCHES_PER_METER;
+          double y = drivetrain.getY() * SimulatedLocalizer.INCHES_PER_METER;
+          double heading = drivetrain.getHeading();
+          if (!skidded && time >= SKID_TIME) {
+            localizer.skid(SKID, 0);
+            skidded = true;
+          }
+          if (time >= nextFrame - DT / 2) {
+            double[] detection = detect(x, y, heading, random);
+            if (detection != null) {
+              detection[0] = time + LATENCY;
+              detection[6] = time;
+              pending.add(detection);
+            }
+            nextFrame += FRAME_PERIOD;
+          }
+          if (time < nextLoop - DT / 2) {
+            continue;
+          }
+          nextLoop += LOOP_TIME;
+
+          RobotPose odometry = localizer.update();
+          long start = System.nanoTime();
+          fused.addOdometry(odometry);
+          filterNanos += System.nanoTime() - start;
+          updates++;
+          late.addOdometry(odometry);
+          while (!pending.isEmpty() && pending.peek()[0] <= time + DT / 2) {
+            double[] tag = pending.poll();
+            detections++;
+            start = System.nanoTime();
+            fused.addVision(tag[1], tag[2], tag[3], tag[4], tag[5], (long) (tag[6] * 1e9));
+            filterNanos += System.nanoTime() - start;
+            updates++;
+            late.addVision(tag[1], tag[2], tag[3], tag[4], tag[5], (long) (time * 1e9));
+          }
+
+          RobotPose[] poses = { odometry, fused.getPose(), late.getPose() };
+          for (int i = 0; i < poses.length; i++) {
+            double error = Math.hypot(poses[i].x - x, poses[i].y - y);
+            errors[i * 2] += error;
+            errors[i * 2 + 1] = Math.max(errors[i * 2 + 1], error);
+          }
+          loops++;
+        }
+      }
+    }
+    for (int i = 0; i < errors.length; i += 2) {
+      errors[i] /= loops;
+    }
+    return new TagCorrection(errors, detections, fused, filterNanos / 1e3 / updates);
+  }
+
+  /**
+   * @return a detection of the goal tag from the true pose, null if it is out of view
+   */
+  private static double[] detect(double x, double y, double heading, Random random) {
+    double range = Math.hypot(TAG_X - x, TAG_Y - y);
+    // Heading 0 faces +y, so the tag's direction is measured from there
+    double bearing = Math.atan2(-(TAG_X - x), TAG_Y - y) - heading;
+    bearing = Math.atan2(Math.sin(bearing), Math.cos(bearing));
+    if (range > MAX_RANGE || Math.abs(bearing) > HALF_FOV) {
+      return null;
+    }
+    double noise = TAG_NOISE * Math.max(1, range / PoseFilter.REFERENCE_RANGE);
+    double dx = random.nextGaussian() * noise;
+    double dy = random.nextGaussian() * noise;
+    double margin = 30 + random.nextDouble() * 50;
+    if (random.nextDouble() < OUTLIER_CHANCE) {
+      dx += random.nextGaussian() * OUTLIER_ERROR;
+      dy += random.nextGaussian() * OUTLIER_ERROR;
+      if (random.nextBoolean()) {
+        margin = 5 + random.nextDouble() * 10;
+      }
+    }
+    return new double[] { 0, x + dx, y + dy, heading + random.nextGaussian() * TAG_HEADING_NOISE, range, margin,
+        0 };
+  }
+
+  @Override
+  public String toString() {
+    return String.format("odometry %.1f in (max %.1f), fused %.1f in (max %.1f), on arrival %.1f in (max %.1f); "
+        + "%d tags, %d used, %d low margin, %d outliers; %.1f us/update", odometryError, maxOdometryError,
+        fusedError, maxFusedError, lateError, maxLateError, detections, accepted, lowMargin, outliers,
+        microsPerUpdate);
+  }
+}
@@ -0,0 +1,141 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import org.firstinspires.ftc.teamcode.core.EncoderVelocity;
+import org.firstinspires.ftc.teamcode.core.ShooterSync;
+
+/**
+ * Compares reading the shooter's speed from the hub with reading it from an OctoQuad
+ * ({@link FakeOctoQuad} through {@link EncoderVelocity}) at a given velocity sample interval.
+ *
+ * <p>Both wheels are {@link SimulatedShooter}s at {@link #TARGET_RPM}. Read from the hub, each wheel's
+ * speed has the same encoder noise as the other simulations and costs one read per wheel. Read from the
+ * OctoQuad it is the whole counts over the last sample interval up to the read, both wheels in one
+ * transaction. Every OpMode loop the readiness check runs on the readings, the same as the robot's (mean
+ * within {@link FlywheelResponse#TOLERANCE}, wheels within {@link MismatchedShooter#DIFFERENCE_TOLERANCE}).
+ * The script spins up, holds and takes a shot, which lands between two reads. A reading that lags behind
+ * says ready while the wheels are still slow, which counts as a false ready; recovery is only counted
+ * once the reading has seen the shot.</p>
+ */
+public class VelocitySampling {
+  private static final double TARGET_RPM = 3000;
+  private static final double SHOT_TIME = 2.0;
+  private static final double END_TIME = 3.0;
+  /** Readings from here until the shot are taken to be steady */
+  private static final double STEADY_TIME = 1.0;
+  private static final double LOOP_TIME = 0.02;
+  private static final double NOISE = 15;
+
+  /** The sample interval in milliseconds, 0 for the hub */
+  public final int interval;
+  /** RMS error of the readings while steady, in RPM */
+  public final double error;
+  /** Time from the start until ready, in seconds (NaN if never) */
+  public final double spinUpTime;
+  /** Time from the shot until ready again, in seconds (NaN if never) */
+  public final double recoveryTime;
+  /** Fraction of the steady loops that weren't ready */
+  public final double dropouts;
+  /** Loops that were ready by the readings but not by the true speeds */
+  public final int falseReady;
+  /** Transactions per loop */
+  public final double readsPerLoop;
+
+  private VelocitySampling(int interval, double error, double spinUpTime, double recoveryTime, double dropouts,
+      int falseReady, double readsPerLoop) {
+    this.interval = interval;
+    this.error = error;
+    this.spinUpTime = spinUpTime;
+    this.recoveryTime = recoveryTime;
+    this.dropouts = dropouts;
+    this.falseReady = falseReady;
+    this.readsPerLoop = readsPerLoop;
+  }
+
+  /**
+   * Runs the script.
+   * @param interval the OctoQuad's velocity sample interval in milliseconds, 0 to read the hub
+   * @return how good the readings were and how long it took to be ready
+   */
+  public static VelocitySampling measure(int interval) {
+    SimulatedShooter left = new SimulatedShooter(NOISE, 1);
+    SimulatedShooter right = new SimulatedShooter(NOISE, 2);
+    FakeOctoQuad octoQuad = new FakeOctoQuad();
+    EncoderVelocity encoders = interval > 0
+        ? new EncoderVelocity(octoQuad, SimulatedShooter.TICKS_PER_ROTATION, interval, 0, 1) : null;
+    double spinUpTime = Double.NaN;
+    double recoveryTime = Double.NaN;
+    boolean shot = false;
+    boolean shotSeen = false;
+    int falseReady = 0;
+    double squaredError = 0;
+    int steadyLoops = 0;
+    int notReady = 0;
+    int loops = 0;
+    int hubReads = 0;
+    int startTransactions = octoQuad.getTransactions();
+    double time = 0;
+    while (time < END_TIME) {
+      double leftRPM;
+      double rightRPM;
+      if (encoders != null) {
+        encoders.read(Math.round(time * 1e9));
+        leftRPM = encoders.getRPM(0);
+        rightRPM = encoders.getRPM(1);
+      } else {
+        leftRPM = left.getRPM();
+        rightRPM = right.getRPM();
+        hubReads += 2;
+      }
+      loops++;
+      boolean ready = ShooterSync.isReady(TARGET_RPM, leftRPM, rightRPM, FlywheelResponse.TOLERANCE,
+          MismatchedShooter.DIFFERENCE_TOLERANCE);
+      double leftTrue = left.flywheel.getTrueVelocity() * 60 / SimulatedShooter.TICKS_PER_ROTATION;
+      double rightTrue = right.flywheel.getTrueVelocity() * 60 / SimulatedShooter.TICKS_PER_ROTATION;
+      if (ready && !ShooterSync.isReady(TARGET_RPM, leftTrue, rightTrue, FlywheelResponse.TOLERANCE,
+          MismatchedShooter.DIFFERENCE_TOLERANCE)) {
+        falseReady++;
+      }
+      if (shot && !ready) {
+        shotSeen = true;
+      }
+      if (ready) {
+        if (Double.isNaN(spinUpTime)) {
+          spinUpTime = time;
+        }
+        if (shotSeen && Double.isNaN(recoveryTime)) {
+          recoveryTime = time - SHOT_TIME;
+        }
+      }
+      if (time >= STEADY_TIME && !shot) {
+        squaredError += (leftRPM - leftTrue) * (leftRPM - leftTrue) + (rightRPM - rightTrue) * (rightRPM - rightTrue);
+        steadyLoops++;
+        if (!ready) {
+          notReady++;
+        }
+      }
+      double end = left.getTime() + LOOP_TIME;
+      while (left.getTime() < end - SimulatedShooter.DT / 2) {
+        // The ball hits while the wheels turn, not at the instant of a read
+        if (!shot && left.getTime() >= SHOT_TIME - SimulatedShooter.DT / 2) {
+          left.shoot(FlywheelResponse.SHOT_LOSS);
+          right.shoot(FlywheelResponse.SHOT_LOSS);
+          shot = true;
+        }
+        left.step(TARGET_RPM);
+        right.step(TARGET_RPM);
+        octoQuad.advance(SimulatedShooter.DT, left.flywheel.getTrueVelocity(), right.flywheel.getTrueVelocity());
+      }
+      time = left.getTime();
+    }
+    int reads = encoders != null ? octoQuad.getTransactions() - startTransactions : hubReads;
+    return new VelocitySampling(interval, Math.sqrt(squaredError / (2 * steadyLoops)), spinUpTime, recoveryTime,
+        (double) notReady / steadyLoops, falseReady, (double) reads / loops);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: error %.0f RPM, not ready %.0f%% of steady loops, ready after %.2f s, %.2f s after "
+        + "the shot, %d false ready, %.0f reads/loop", interval > 0 ? interval + " ms" : "hub", error, dropouts * 100,
+        spinUpTime, recoveryTime, falseReady, readsPerLoop);
+  }
+}
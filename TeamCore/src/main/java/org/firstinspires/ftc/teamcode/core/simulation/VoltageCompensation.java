@@ -0,0 +1,61 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import org.firstinspires.ftc.teamcode.core.Feedforward;
+import org.firstinspires.ftc.teamcode.core.FlywheelModel;
+import org.firstinspires.ftc.teamcode.core.PIDFGains;
+
+/**
+ * Checks that scaling by the battery voltage keeps the shooter and the drive where they were tuned.
+ *
+ * <p>The shooter is a {@link SimulatedFlywheel} whose torque follows the supply voltage, held by the
+ * hub's velocity PIDF with the gains as tuned at {@link Feedforward#NOMINAL_VOLTAGE}, then with them
+ * scaled by {@link PIDFGains#compensate(double)} the way Robot does it. The drive wheel is a motor that
+ * follows its {@link Feedforward} exactly, driven open loop by
+ * {@link Feedforward#calculatePower(double, double)} and then with the battery voltage passed in.</p>
+ */
+public class VoltageCompensation {
+  /** Drive wheel used for the drive check: 0.8 V to break away, 12 V at the theoretical 300 RPM */
+  private static final Feedforward DRIVE = new Feedforward(0.8, 12.0 / 1918.74, 0);
+  /** Drive speed checked, in ticks/second (about 60% of full speed) */
+  private static final double DRIVE_TARGET = 1150;
+
+  public final double voltage;
+  /** The shooter with the gains as tuned */
+  public final FlywheelResponse shooter;
+  /** The shooter with the gains scaled for the voltage */
+  public final FlywheelResponse compensatedShooter;
+  /** How far off the drive speed is, as a fraction of the target */
+  public final double driveError;
+  /** How far off the drive speed is with the voltage passed to the feedforward */
+  public final double compensatedDriveError;
+
+  private VoltageCompensation(double voltage, FlywheelResponse shooter, FlywheelResponse compensatedShooter,
+      double driveError, double compensatedDriveError) {
+    this.voltage = voltage;
+    this.shooter = shooter;
+    this.compensatedShooter = compensatedShooter;
+    this.driveError = driveError;
+    this.compensatedDriveError = compensatedDriveError;
+  }
+
+  /**
+   * @param model the shooter flywheel, measured at {@link Feedforward#NOMINAL_VOLTAGE}
+   * @param pidf the shooter coefficients, tuned at {@link Feedforward#NOMINAL_VOLTAGE}
+   * @param target the shooter speed in ticks/second
+   * @param voltage the battery voltage
+   * @return both responses at that voltage
+   */
+  public static VoltageCompensation measure(FlywheelModel model, PIDFGains pidf, double target, double voltage) {
+    double drive = DRIVE.maxVelocity(DRIVE.calculatePower(DRIVE_TARGET, 0) * voltage);
+    double compensatedDrive = DRIVE.maxVelocity(DRIVE.calculatePower(DRIVE_TARGET, 0, voltage) * voltage);
+    return new VoltageCompensation(voltage, FlywheelResponse.measure(model, pidf, target, voltage),
+        FlywheelResponse.measure(model, pidf.compensate(voltage), target, voltage), drive / DRIVE_TARGET - 1,
+        compensatedDrive / DRIVE_TARGET - 1);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%.1f V shooter %s -> %s | drive %+.1f%% -> %+.1f%%", voltage, shooter,
+        compensatedShooter, driveError * 100, compensatedDriveError * 100);
+  }
+}
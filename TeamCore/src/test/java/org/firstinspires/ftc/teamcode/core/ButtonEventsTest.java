@@ -0,0 +1,114 @@
+package org.firstinspires.ftc.teamcode.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ButtonEventsTest {
+  private static final double LOOP_TIME = 0.02;
+  /** Loops in a long press, with some margin */
+  private static final int LONG = (int) Math.ceil(ButtonEvents.LONG_PRESS_TIME / LOOP_TIME) + 5;
+  private static final int A = ButtonEvents.A;
+  private static final int B = ButtonEvents.B;
+  private static final int CHORD = A | B;
+
+  private final ButtonEvents events = new ButtonEvents();
+  // A pressed, released, long pressed, then the chord pressed and long pressed
+  private final int[] counts = new int[5];
+  private int loop = 0;
+
+  public ButtonEventsTest() {
+    events.onPress(A, () -> counts[0]++);
+    events.onRelease(A, () -> counts[1]++);
+    events.onLongPress(A, () -> counts[2]++);
+    events.onPress(CHORD, () -> counts[3]++);
+    events.onLongPress(CHORD, () -> counts[4]++);
+  }
+
+  private void hold(int buttons, int loops) {
+    for (int i = 0; i < loops; i++) {
+      events.update(buttons, loop++ * LOOP_TIME);
+    }
+  }
+
+  @Test
+  public void tapIsOnePressAndRelease() {
+    hold(A, 3);
+    hold(0, 3);
+    assertArrayEquals(new int[] { 1, 1, 0, 0, 0 }, counts);
+  }
+
+  @Test
+  public void longPressFiresOnce() {
+    hold(A, LONG * 2);
+    hold(0, 2);
+    assertArrayEquals(new int[] { 1, 1, 1, 0, 0 }, counts);
+  }
+
+  @Test
+  public void doubleTapIsTwoPresses() {
+    hold(A, 2);
+    hold(0, 2);
+    hold(A, 2);
+    hold(0, 2);
+    assertArrayEquals(new int[] { 2, 2, 0, 0, 0 }, counts);
+  }
+
+  @Test
+  public void chordUsesUpItsButtons() {
+    hold(A, 3);
+    hold(CHORD, LONG);
+    hold(0, 2);
+    assertArrayEquals(new int[] { 1, 0, 0, 1, 1 }, counts);
+  }
+
+  @Test
+  public void chordPressedInOneLoop() {
+    hold(CHORD, 3);
+    hold(0, 2);
+    assertArrayEquals(new int[] { 1, 0, 0, 1, 0 }, counts);
+  }
+
+  @Test
+  public void buttonWorksAgainAfterChord() {
+    hold(CHORD, 3);
+    hold(0, 2);
+    hold(A, 3);
+    hold(0, 2);
+    assertArrayEquals(new int[] { 2, 1, 0, 1, 0 }, counts);
+  }
+
+  @Test
+  public void heldWhenRegisteredIsNoLongPress() {
+    ButtonEvents late = new ButtonEvents();
+    late.update(B, 0);
+    int[] fired = new int[1];
+    late.onLongPress(B, () -> fired[0]++);
+    for (int i = 1; i <= LONG; i++) {
+      late.update(B, i * LOOP_TIME);
+    }
+    assertEquals(0, fired[0]);
+  }
+
+  @Test
+  public void pollsEdges() {
+    hold(A, 1);
+    assertTrue(events.wasPressed(A));
+    assertTrue(events.isDown(A));
+    hold(CHORD, 1);
+    assertFalse(events.wasPressed(A));
+    assertTrue(events.wasPressed(CHORD));
+    assertEquals(CHORD, events.getButtons());
+    hold(0, 1);
+    assertTrue(events.wasReleased(CHORD));
+    assertTrue(events.wasReleased(A));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void handlerNeedsAButton() {
+    events.onPress(0, () -> { });
+  }
+}
@@ -0,0 +1,118 @@
+package org.firstinspires.ftc.teamcode.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class IndexerSequencerTest {
+  private static final double LOOP_TIME = 0.02;
+  private static final double MOVE_DROP = 1;
+  private static final double SHOOT = 2;
+  private static final IndexerSequencer.Timing TIMING = new IndexerSequencer.Timing() {
+    @Override
+    public double getMoveDropTime() {
+      return MOVE_DROP;
+    }
+
+    @Override
+    public double getShootTime() {
+      return SHOOT;
+    }
+  };
+  private static final IndexerSequencer.Stager ACCEPT = ball -> true;
+
+  private double time = 0;
+
+  /** Runs loops until the given time, returning the last intake command */
+  private boolean runUntil(IndexerSequencer sequencer, double end, boolean ready, int shots,
+      IndexerSequencer.Stager stager) {
+    boolean feed = false;
+    while (time < end - LOOP_TIME / 2) {
+      feed = sequencer.update(time, ready, shots, stager);
+      time += LOOP_TIME;
+    }
+    return feed;
+  }
+
+  @Test
+  public void waitsForTheShooterBeforeTheFirstBall() {
+    IndexerSequencer sequencer = new IndexerSequencer(true, TIMING);
+    sequencer.start(3);
+    assertFalse(runUntil(sequencer, 1, false, 0, ACCEPT));
+    assertEquals(0, sequencer.getStaged());
+    assertTrue(runUntil(sequencer, 1.1, true, 0, ACCEPT));
+    assertEquals(1, sequencer.getStaged());
+  }
+
+  @Test
+  public void pipelinedStagesWhileBallsAreInFlight() {
+    IndexerSequencer sequencer = new IndexerSequencer(true, TIMING);
+    sequencer.start(3);
+    // Nothing is shot, so only MAX_IN_FLIGHT balls may be past the indexer
+    runUntil(sequencer, MOVE_DROP * 1.5, true, 0, ACCEPT);
+    assertEquals(IndexerSequencer.MAX_IN_FLIGHT, sequencer.getStaged());
+    runUntil(sequencer, MOVE_DROP * 2.5, true, 0, ACCEPT);
+    assertEquals(IndexerSequencer.MAX_IN_FLIGHT, sequencer.getStaged());
+    assertEquals(0, sequencer.getFired());
+    // A detected shot makes room for the last ball
+    runUntil(sequencer, MOVE_DROP * 2.5 + LOOP_TIME, true, 1, ACCEPT);
+    assertEquals(1, sequencer.getFired());
+    assertEquals(3, sequencer.getStaged());
+  }
+
+  @Test
+  public void oneAtATimeWaitsForEachShot() {
+    IndexerSequencer sequencer = new IndexerSequencer(false, TIMING);
+    sequencer.start(2);
+    runUntil(sequencer, MOVE_DROP + SHOOT - LOOP_TIME, true, 0, ACCEPT);
+    assertEquals(1, sequencer.getStaged());
+    runUntil(sequencer, MOVE_DROP + SHOOT + LOOP_TIME, true, 0, ACCEPT);
+    assertEquals(2, sequencer.getStaged());
+  }
+
+  @Test
+  public void missedShotCountsAfterTheShootTime() {
+    IndexerSequencer sequencer = new IndexerSequencer(true, TIMING);
+    sequencer.start(1);
+    runUntil(sequencer, MOVE_DROP + SHOOT - LOOP_TIME, true, 0, ACCEPT);
+    assertFalse(sequencer.isDone());
+    runUntil(sequencer, MOVE_DROP + SHOOT + LOOP_TIME, true, 0, ACCEPT);
+    assertTrue(sequencer.isDone());
+    assertEquals(MOVE_DROP + SHOOT, sequencer.getLastFiredAt(), LOOP_TIME);
+  }
+
+  @Test
+  public void shotBeforeTheDropIsNotThisBall() {
+    IndexerSequencer sequencer = new IndexerSequencer(true, TIMING);
+    sequencer.start(1);
+    runUntil(sequencer, MOVE_DROP / 2, true, 0, ACCEPT);
+    // Detected while the ball is still on its way to the intake, e.g. one left over from before
+    runUntil(sequencer, MOVE_DROP / 2 + LOOP_TIME, true, 1, ACCEPT);
+    runUntil(sequencer, MOVE_DROP + LOOP_TIME, true, 1, ACCEPT);
+    assertEquals(0, sequencer.getFired());
+    runUntil(sequencer, MOVE_DROP + 2 * LOOP_TIME, true, 2, ACCEPT);
+    assertEquals(1, sequencer.getFired());
+  }
+
+  @Test
+  public void blockedIndexerIsRetried() {
+    IndexerSequencer sequencer = new IndexerSequencer(true, TIMING);
+    sequencer.start(1);
+    runUntil(sequencer, 0.5, true, 0, ball -> false);
+    assertEquals(0, sequencer.getStaged());
+    runUntil(sequencer, 0.5 + LOOP_TIME, true, 0, ACCEPT);
+    assertEquals(1, sequencer.getStaged());
+  }
+
+  @Test
+  public void shotsBeforeTheStartDontCount() {
+    IndexerSequencer sequencer = new IndexerSequencer(true, TIMING);
+    sequencer.start(1);
+    runUntil(sequencer, MOVE_DROP + LOOP_TIME, true, 5, ACCEPT);
+    assertEquals(0, sequencer.getFired());
+    runUntil(sequencer, MOVE_DROP + 2 * LOOP_TIME, true, 6, ACCEPT);
+    assertTrue(sequencer.isDone());
+  }
+}
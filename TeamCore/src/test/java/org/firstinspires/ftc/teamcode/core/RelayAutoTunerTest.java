@@ -0,0 +1,69 @@
+package org.firstinspires.ftc.teamcode.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.core.simulation.FlywheelResponse;
+import org.firstinspires.ftc.teamcode.core.simulation.SimulatedFlywheel;
+import org.junit.Test;
+
+public class RelayAutoTunerTest {
+  private static final double LOOP_TIME = 0.02;
+  private static final double NOISE = 5;
+  /** About 3000 RPM */
+  private static final double TARGET = 1400;
+  /** The two stand-in motors ShooterAutoTuner simulates, the right one weaker and slower */
+  private static final FlywheelModel[] MODELS = {
+      new FlywheelModel(2800, 0.35, 0.03), new FlywheelModel(2600, 0.45, 0.04) };
+
+  private static RelayAutoTuner tune(SimulatedFlywheel flywheel) {
+    RelayAutoTuner tuner = new RelayAutoTuner();
+    double velocity = 0;
+    while (!tuner.isFinished() && flywheel.getTime() < 30) {
+      velocity = flywheel.run(tuner.update(flywheel.getTime(), velocity), LOOP_TIME);
+    }
+    return tuner;
+  }
+
+  @Test
+  public void identifiesTheFlywheel() {
+    for (int i = 0; i < MODELS.length; i++) {
+      FlywheelModel truth = MODELS[i];
+      RelayAutoTuner tuner = tune(new SimulatedFlywheel(truth, 0.001, NOISE, i));
+      assertEquals(tuner.getFailure(), RelayAutoTuner.State.DONE, tuner.getState());
+      FlywheelModel model = tuner.getModel();
+      assertNotNull(model);
+      assertEquals(model.toString(), truth.gain, model.gain, truth.gain * 0.05);
+      assertEquals(model.toString(), truth.timeConstant, model.timeConstant, truth.timeConstant * 0.25);
+      assertEquals(model.toString(), truth.deadTime, model.deadTime, 0.02);
+    }
+  }
+
+  @Test
+  public void tunedGainsRespondLikeTheTrueOnes() {
+    for (int i = 0; i < MODELS.length; i++) {
+      FlywheelModel truth = MODELS[i];
+      FlywheelModel model = tune(new SimulatedFlywheel(truth, 0.001, NOISE, i)).getModel();
+      FlywheelResponse ideal = FlywheelResponse.measure(truth, truth.computePIDF(), TARGET);
+      FlywheelResponse tuned = FlywheelResponse.measure(truth, model.computePIDF(), TARGET);
+      assertFalse(Double.isNaN(tuned.riseTime));
+      assertFalse(Double.isNaN(tuned.recoveryTime));
+      assertEquals(tuned.toString(), ideal.riseTime, tuned.riseTime, ideal.riseTime * 0.1);
+      assertEquals(tuned.toString(), ideal.recoveryTime, tuned.recoveryTime, ideal.recoveryTime * 0.2);
+      assertTrue(tuned.toString(), tuned.overshoot < 0.1);
+    }
+  }
+
+  @Test
+  public void failsWhenTheMotorDoesNotSpin() {
+    RelayAutoTuner tuner = new RelayAutoTuner();
+    for (double time = 0; time < 5 && !tuner.isFinished(); time += LOOP_TIME) {
+      tuner.update(time, 0);
+    }
+    assertEquals(RelayAutoTuner.State.FAILED, tuner.getState());
+    assertNotNull(tuner.getFailure());
+    assertEquals(0, tuner.update(5, 0), 0);
+  }
+}
@@ -0,0 +1,42 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.core.MecanumKinematics;
+import org.junit.Test;
+
+public class DriveKinematicsSimulationTest {
+  @Test
+  public void clippingBendsTheDirection() {
+    for (double turn : DriveKinematicsSimulation.TURNS) {
+      assertTrue(DriveKinematicsSimulation.measure(MecanumKinematics.Mode.CLIP, turn).maxDirectionError > 1);
+    }
+  }
+
+  @Test
+  public void desaturatingKeepsTheDirection() {
+    for (double turn : DriveKinematicsSimulation.TURNS) {
+      assertEquals(0, DriveKinematicsSimulation.measure(MecanumKinematics.Mode.NORMALIZE, turn).maxDirectionError,
+          0.1);
+      assertEquals(0,
+          DriveKinematicsSimulation.measure(MecanumKinematics.Mode.ROTATION_PRIORITY, turn).maxDirectionError, 0.1);
+    }
+  }
+
+  @Test
+  public void rotationPriorityKeepsTheTurn() {
+    for (double turn : DriveKinematicsSimulation.TURNS) {
+      DriveKinematicsSimulation priority =
+          DriveKinematicsSimulation.measure(MecanumKinematics.Mode.ROTATION_PRIORITY, turn);
+      DriveKinematicsSimulation normalize = DriveKinematicsSimulation.measure(MecanumKinematics.Mode.NORMALIZE, turn);
+      assertEquals(1, priority.meanRotationRatio, 0.01);
+      assertTrue(normalize.meanRotationRatio < priority.meanRotationRatio);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void noTurnIsRejected() {
+    DriveKinematicsSimulation.measure(MecanumKinematics.Mode.NORMALIZE, 0);
+  }
+}
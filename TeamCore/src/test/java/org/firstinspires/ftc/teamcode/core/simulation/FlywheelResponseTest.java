@@ -0,0 +1,22 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.core.FlywheelModel;
+import org.junit.Test;
+
+public class FlywheelResponseTest {
+  private static final double TARGET = 1400;
+
+  @Test
+  public void computedGainsSpinUpAndRecover() {
+    FlywheelModel model = SimulatedShooter.MODEL;
+    FlywheelResponse response = FlywheelResponse.measure(model, model.computePIDF(), TARGET);
+    assertFalse(Double.isNaN(response.riseTime));
+    assertTrue(response.riseTime < 0.5);
+    assertTrue(response.overshoot < 0.1);
+    assertFalse(Double.isNaN(response.recoveryTime));
+    assertTrue(response.recoveryTime < 0.3);
+  }
+}
@@ -0,0 +1,25 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.core.TuningDefaults;
+import org.junit.Test;
+
+public class HeadingResponseTest {
+  private final HeadingResponse response = HeadingResponse.measure(TuningDefaults.HEADING_P.value,
+      TuningDefaults.HEADING_I.value, TuningDefaults.HEADING_D.value, TuningDefaults.HEADING_MAX_POWER.value);
+
+  @Test
+  public void aimTurnSettlesQuickly() {
+    assertFalse(Double.isNaN(response.settlingTime));
+    assertTrue(response.settlingTime < 1);
+    assertTrue(response.overshoot < 3);
+  }
+
+  @Test
+  public void holdKeepsTheHeadingWhileStrafing() {
+    assertTrue(response.strafeError < 2);
+    assertTrue(response.strafeError < response.strafeDrift / 4);
+  }
+}
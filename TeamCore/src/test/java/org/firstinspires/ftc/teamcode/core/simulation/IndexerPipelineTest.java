@@ -0,0 +1,43 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.core.IndexerSequencer;
+import org.firstinspires.ftc.teamcode.core.TuningDefaults;
+import org.junit.Test;
+
+public class IndexerPipelineTest {
+  private static final IndexerSequencer.Timing TIMING = new IndexerSequencer.Timing() {
+    @Override
+    public double getMoveDropTime() {
+      return (TuningDefaults.INDEXER_MOVE_TIME.value + TuningDefaults.INDEXER_DROP_TIME.value) / 1000;
+    }
+
+    @Override
+    public double getShootTime() {
+      return TuningDefaults.INDEXER_SHOOT_TIME.value / 1000;
+    }
+  };
+
+  private final IndexerPipeline oneAtATime = IndexerPipeline.run(false, TIMING);
+  private final IndexerPipeline pipelined = IndexerPipeline.run(true, TIMING);
+
+  @Test
+  public void shootsEveryBall() {
+    for (IndexerPipeline run : new IndexerPipeline[] { oneAtATime, pipelined }) {
+      assertFalse(run.toString(), Double.isNaN(run.completionTime));
+      assertTrue(run.toString(), run.shotTimes[0] > 0);
+      for (int ball = 1; ball < IndexerPipeline.BALLS; ball++) {
+        assertTrue(run.toString(), run.shotTimes[ball] - run.shotTimes[ball - 1] >= IndexerPipeline.SPACING);
+      }
+    }
+  }
+
+  @Test
+  public void pipeliningIsFaster() {
+    assertTrue(pipelined + " vs " + oneAtATime, pipelined.completionTime < oneAtATime.completionTime - 2);
+    // The first ball can't go any sooner, only the ones after it
+    assertTrue(Math.abs(pipelined.shotTimes[0] - oneAtATime.shotTimes[0]) < 0.1);
+  }
+}
@@ -0,0 +1,37 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.core.LiftController;
+import org.firstinspires.ftc.teamcode.core.TuningDefaults;
+import org.junit.Test;
+
+public class LiftResponseTest {
+  private static LiftResponse measure(double sync) {
+    return LiftResponse.measure(TuningDefaults.LIFT_P.value, TuningDefaults.LIFT_V.value, TuningDefaults.LIFT_G.value,
+        sync, TuningDefaults.LIFT_MAX_VELOCITY.value, TuningDefaults.LIFT_MAX_ACCELERATION.value);
+  }
+
+  @Test
+  public void samePowerLeavesTheBindingSideBehind() {
+    LiftResponse response = LiftResponse.samePower(TuningDefaults.LIFT_G.value);
+    assertTrue(Double.isNaN(response.time));
+    assertTrue(Math.abs(response.finalDifference) > 500);
+  }
+
+  @Test
+  public void perSideControlGetsBothSidesThere() {
+    LiftResponse response = measure(0);
+    assertFalse(Double.isNaN(response.time));
+    assertTrue(Math.abs(response.finalDifference) <= 2 * LiftController.TOLERANCE);
+  }
+
+  @Test
+  public void equalizerKeepsTheSidesCloser() {
+    LiftResponse perSide = measure(0);
+    LiftResponse equalized = measure(TuningDefaults.LIFT_SYNC.value);
+    assertFalse(Double.isNaN(equalized.time));
+    assertTrue(equalized.maxDifference < perSide.maxDifference / 2);
+  }
+}
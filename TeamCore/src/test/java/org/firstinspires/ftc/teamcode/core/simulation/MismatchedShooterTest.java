@@ -0,0 +1,26 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.core.TuningDefaults;
+import org.junit.Test;
+
+public class MismatchedShooterTest {
+  private final MismatchedShooter alone = MismatchedShooter.run(0);
+  private final MismatchedShooter synced = MismatchedShooter.run(TuningDefaults.SHOOTER_SYNC_GAIN.value);
+
+  @Test
+  public void syncShrinksTheDifference() {
+    assertTrue(synced.meanDifference < alone.meanDifference);
+    assertTrue(synced.maxDifference < alone.maxDifference);
+  }
+
+  @Test
+  public void syncIsReadySooner() {
+    assertFalse(Double.isNaN(synced.spinUpTime));
+    assertFalse(Double.isNaN(synced.recoveryTime));
+    assertTrue(synced.spinUpTime < alone.spinUpTime);
+    assertTrue(synced.recoveryTime <= alone.recoveryTime);
+  }
+}
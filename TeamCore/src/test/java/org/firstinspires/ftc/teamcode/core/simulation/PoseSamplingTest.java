@@ -0,0 +1,20 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class PoseSamplingTest {
+  @Test
+  public void predictingToTheLoopTimeRemovesTheAge() {
+    PoseSampling sampling = PoseSampling.measure(0.010);
+    assertTrue(sampling.meanError > 0.1);
+    assertTrue(sampling.meanPredictedError < sampling.meanError / 10);
+    assertTrue(sampling.maxPredictedError < sampling.maxError / 10);
+  }
+
+  @Test
+  public void slowerSamplingIsFurtherBehind() {
+    assertTrue(PoseSampling.measure(0.020).meanError > PoseSampling.measure(0.010).meanError);
+  }
+}
@@ -0,0 +1,17 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ShotDetectionTest {
+  @Test
+  public void findsEveryShotAndNoTargetChange() {
+    for (double loss : new double[] { 0.08, FlywheelResponse.SHOT_LOSS, 0.25 }) {
+      ShotDetection detection = ShotDetection.run(loss);
+      assertEquals(ShotDetection.SHOTS, detection.log.size());
+      assertTrue(detection.toString(), detection.passed);
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.core.TuningDefaults;
+import org.junit.Test;
+
+public class TagCorrectionTest {
+  private final TagCorrection result = TagCorrection.measure(TuningDefaults.POSE_ODOMETRY_DRIFT.value,
+      Math.toRadians(TuningDefaults.POSE_HEADING_DRIFT.value), TuningDefaults.POSE_VISION_NOISE.value,
+      Math.toRadians(TuningDefaults.POSE_VISION_HEADING_NOISE.value),
+      TuningDefaults.POSE_MIN_DECISION_MARGIN.value, TuningDefaults.POSE_GATE.value);
+
+  @Test
+  public void tagsKeepTheOdometryOnTheField() {
+    assertTrue(result.fusedError < result.odometryError / 3);
+    assertTrue(result.maxFusedError < result.maxOdometryError);
+  }
+
+  @Test
+  public void applyingTagsWhenTheFrameWasTakenBeatsOnArrival() {
+    assertTrue(result.fusedError < result.lateError);
+  }
+
+  @Test
+  public void badDetectionsAreRejected() {
+    assertTrue(result.lowMargin > 0);
+    assertTrue(result.outliers > 0);
+    assertTrue(result.accepted > result.detections * 0.8);
+  }
+}
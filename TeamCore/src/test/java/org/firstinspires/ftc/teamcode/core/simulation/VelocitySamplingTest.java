@@ -0,0 +1,49 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.core.EncoderVelocity;
+import org.firstinspires.ftc.teamcode.core.TuningDefaults;
+import org.junit.Test;
+
+public class VelocitySamplingTest {
+  private final VelocitySampling hub = VelocitySampling.measure(0);
+  private final VelocitySampling octoQuad =
+      VelocitySampling.measure((int) TuningDefaults.SHOOTER_SAMPLE_INTERVAL.value);
+
+  @Test
+  public void octoQuadIsNoLessTrustworthy() {
+    assertTrue(octoQuad.toString(), octoQuad.falseReady <= hub.falseReady);
+    assertTrue(octoQuad.error < hub.error);
+    assertTrue(octoQuad.dropouts <= hub.dropouts);
+    assertFalse(Double.isNaN(octoQuad.recoveryTime));
+    assertTrue(octoQuad.recoveryTime <= hub.recoveryTime + 0.05);
+  }
+
+  @Test
+  public void octoQuadReadsBothWheelsAtOnce() {
+    assertEquals(2, hub.readsPerLoop, 1e-9);
+    assertEquals(1, octoQuad.readsPerLoop, 0.01);
+  }
+
+  @Test
+  public void speedDropShowsOnTheNextRead() {
+    FakeOctoQuad bank = new FakeOctoQuad();
+    EncoderVelocity encoders = new EncoderVelocity(bank, SimulatedShooter.TICKS_PER_ROTATION, 40, 0);
+    double ticksPerSecond = 1400;
+    for (int loop = 0; loop <= 50; loop++) {
+      if (loop == 50) {
+        // Just after the board latched a sample at the old speed
+        ticksPerSecond = 1000;
+      }
+      encoders.read(loop * 20000000L);
+      for (int step = 0; step < 20; step++) {
+        bank.advance(0.001, ticksPerSecond);
+      }
+    }
+    encoders.read(51 * 20000000L);
+    assertEquals(1200, encoders.getTicksPerSecond(0), 50);
+  }
+}
@@ -0,0 +1,37 @@
+package org.firstinspires.ftc.teamcode.core.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.core.Feedforward;
+import org.firstinspires.ftc.teamcode.core.FlywheelModel;
+import org.junit.Test;
+
+public class VoltageCompensationTest {
+  private static final double TARGET = 1400;
+  private static final double[] VOLTAGES = { 13, 11, 10 };
+
+  private static VoltageCompensation measure(double voltage) {
+    FlywheelModel model = SimulatedShooter.MODEL;
+    return VoltageCompensation.measure(model, model.computePIDF(), TARGET, voltage);
+  }
+
+  @Test
+  public void compensatedDriveHoldsItsSpeed() {
+    for (double voltage : VOLTAGES) {
+      VoltageCompensation result = measure(voltage);
+      assertTrue(Math.abs(result.driveError) > 0.05);
+      assertEquals(0, result.compensatedDriveError, 0.001);
+    }
+  }
+
+  @Test
+  public void compensatedShooterSpinsUpLikeAtNominal() {
+    double nominal = measure(Feedforward.NOMINAL_VOLTAGE).shooter.riseTime;
+    for (double voltage : VOLTAGES) {
+      VoltageCompensation result = measure(voltage);
+      assertTrue(Math.abs(result.compensatedShooter.riseTime - nominal)
+          < Math.abs(result.shooter.riseTime - nominal));
+    }
+  }
+}